@@ -20,6 +20,11 @@ public class EventManagerStub implements EventManager {
   @Override
   public void post(Object object) {}
 
+  @Override
+  public void postAfter(Runnable action) {
+    action.run();
+  }
+
   @Override
   public void register(Object object) {}
 
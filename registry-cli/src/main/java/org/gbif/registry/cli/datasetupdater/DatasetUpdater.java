@@ -14,6 +14,7 @@
 package org.gbif.registry.cli.datasetupdater;
 
 import org.gbif.api.model.registry.Dataset;
+import org.gbif.registry.cli.common.SingleColumnFileReader;
 import org.gbif.registry.cli.common.spring.SpringContextBuilder;
 import org.gbif.registry.cli.common.stubs.DataCiteMetadataBuilderServiceStub;
 import org.gbif.registry.cli.common.stubs.DatasetDoiDataCiteHandlingServiceStub;
@@ -25,26 +26,65 @@ import org.gbif.registry.service.RegistryDatasetServiceImpl;
 import org.gbif.registry.service.WithMyBatis;
 import org.gbif.registry.ws.resources.DatasetResource;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
 
-import org.apache.ibatis.exceptions.PersistenceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * A utility that will update either a single dataset or a list of datasets by reinterpreting their
  * preferred metadata document stored in the registry.
+ *
+ * <p>Lists of datasets are processed by a pool of workers, each dataset in its own transaction. If
+ * a checkpoint file is configured, the keys of the processed datasets are appended to it and they
+ * are skipped when the same list is run again, so an interrupted run can be resumed. Failed
+ * datasets are not checkpointed, so they are retried.
  */
 public class DatasetUpdater {
 
   private static final Logger LOG = LoggerFactory.getLogger(DatasetUpdater.class);
 
+  private static final String USER = "dataset-updater cli";
+
   private ApplicationContext context;
-  private int updateCounter;
+  private final AtomicInteger updateCounter = new AtomicInteger();
+  private final Map<UUID, String> failures = new ConcurrentSkipListMap<>();
   private DatasetResource datasetResource;
+  private TransactionTemplate transactionTemplate;
+  private final int threads;
+  private final Path checkpointFile;
 
   public static DatasetUpdater build(DatasetUpdaterConfiguration cfg) {
     return new DatasetUpdater(cfg);
@@ -56,8 +96,22 @@ public class DatasetUpdater {
         cfg.db.serverName,
         cfg.db.databaseName,
         cfg.db.user);
+    this.threads = Math.max(1, cfg.threads);
+    this.checkpointFile =
+        cfg.checkpointFilePath != null ? Paths.get(cfg.checkpointFilePath) : null;
+    // every worker needs its own connection
+    if (cfg.db.maximumPoolSize < threads) {
+      LOG.info("Increasing the DB pool size to {} to match the number of threads", threads);
+      cfg.db.maximumPoolSize = threads;
+    }
     this.context = prepareContext(cfg);
     this.datasetResource = context.getBean(DatasetResource.class);
+    this.transactionTemplate =
+        new TransactionTemplate(
+            context
+                .getBeanProvider(PlatformTransactionManager.class)
+                .getIfAvailable(
+                    () -> new DataSourceTransactionManager(context.getBean(DataSource.class))));
   }
 
   private AnnotationConfigApplicationContext prepareContext(DatasetUpdaterConfiguration cfg) {
@@ -78,23 +132,69 @@ public class DatasetUpdater {
 
   /**
    * Iterates through list of keys of datasets, updating each one from its preferred metadata
-   * document.
+   * document. The datasets already present in the checkpoint file are skipped.
    *
    * @param keys list of keys of datasets to update
    */
   public void update(List<UUID> keys) {
-    for (UUID key : keys) {
-      update(key);
+    Set<UUID> pending = new LinkedHashSet<>(keys);
+    Set<UUID> processed = readCheckpoint();
+    pending.removeAll(processed);
+    if (!processed.isEmpty()) {
+      LOG.info(
+          "Resuming from checkpoint {}: {} datasets already processed, {} pending",
+          checkpointFile,
+          processed.size(),
+          pending.size());
+    }
+
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads, new ThreadFactoryBuilder().setNameFormat("dataset-updater-%d").build());
+    try (BufferedWriter checkpoint = openCheckpoint()) {
+      try {
+        List<Future<?>> futures = new ArrayList<>(pending.size());
+        for (UUID key : pending) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    if (update(key)) {
+                      writeCheckpoint(checkpoint, key);
+                    }
+                  }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        // the pending datasets are not started
+        executor.shutdownNow();
+        throw e;
+      } finally {
+        // the running workers may still write to the checkpoint, so they have to finish first
+        awaitTermination(executor);
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Dataset updater interrupted, it can be resumed from the checkpoint");
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | IOException e) {
+      LOG.error("Dataset updater aborted, it can be resumed from the checkpoint", e);
+    } finally {
+      executor.shutdownNow();
     }
+
+    report(pending.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
   }
 
   /**
-   * Update dataset from its preferred metadata document. Deleted or locked datasets are not
-   * updated.
+   * Update dataset from its preferred metadata document in its own transaction. Deleted or locked
+   * datasets are not updated.
    *
    * @param key key of dataset to update
+   * @return true if the dataset was processed, i.e. it was updated or it doesn't have to be updated
    */
-  public void update(UUID key) {
+  public boolean update(UUID key) {
     Dataset dataset = datasetResource.get(key);
     if (dataset == null) {
       LOG.error("Dataset [key={}] not existing!", key);
@@ -104,18 +204,94 @@ public class DatasetUpdater {
       LOG.error("Dataset [key={}] has been locked!", key);
     } else {
       try {
-        datasetResource.updateFromPreferredMetadata(key, "dataset-updater cli");
+        transactionTemplate.executeWithoutResult(
+            status -> datasetResource.updateFromPreferredMetadata(key, USER));
         LOG.info("Updated dataset [key={}]!", key);
-        updateCounter++;
-      } catch (PersistenceException e) {
-        LOG.error("Persistence exception occurred trying to update dataset [key={}]: {}", key, e);
+        updateCounter.incrementAndGet();
+      } catch (Exception e) {
+        LOG.error("Exception occurred trying to update dataset [key={}]", key, e);
+        failures.put(key, String.valueOf(e.getMessage()));
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Set<UUID> readCheckpoint() {
+    if (checkpointFile == null || !Files.exists(checkpointFile)) {
+      return Collections.emptySet();
+    }
+    return new HashSet<>(
+        SingleColumnFileReader.readFile(
+            checkpointFile.toString(), SingleColumnFileReader::toUuid));
+  }
+
+  private BufferedWriter openCheckpoint() throws IOException {
+    if (checkpointFile == null) {
+      return null;
+    }
+    return Files.newBufferedWriter(
+        checkpointFile,
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  private static void writeCheckpoint(BufferedWriter checkpoint, UUID key) {
+    if (checkpoint == null) {
+      return;
+    }
+    synchronized (checkpoint) {
+      try {
+        checkpoint.write(key.toString());
+        checkpoint.newLine();
+        // flushed right away so no processed key is lost if the process is killed
+        checkpoint.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
       }
     }
   }
 
+  /** Shuts down the executor and waits until all its tasks have finished. */
+  private static void awaitTermination(ExecutorService executor) {
+    executor.shutdown();
+    boolean interrupted = false;
+    while (!executor.isTerminated()) {
+      try {
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        // keep waiting, the interruption is restored below
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void report(int total, long millis) {
+    LOG.info(
+        "{} out of {} datasets were updated in {} s with {} threads ({} datasets/s)",
+        updateCounter.get(),
+        total,
+        millis / 1000,
+        threads,
+        String.format("%.2f", total * 1000d / Math.max(millis, 1)));
+    if (!failures.isEmpty()) {
+      LOG.error("{} datasets failed:", failures.size());
+      failures.forEach((key, error) -> LOG.error("Dataset [key={}]: {}", key, error));
+    }
+  }
+
   /** @return the number of datasets updated */
   public int getUpdateCounter() {
-    return updateCounter;
+    return updateCounter.get();
+  }
+
+  /** @return the datasets that failed, with their error message */
+  public Map<UUID, String> getFailures() {
+    return Collections.unmodifiableMap(failures);
   }
 
   public DatasetResource getDatasetResource() {
@@ -73,7 +73,6 @@ public class DatasetUpdaterCommand extends BaseCommand {
       List<UUID> keys =
           SingleColumnFileReader.readFile(config.keyFilePath, SingleColumnFileReader::toUuid);
       updater.update(keys);
-      LOG.info("{} out of {} datasets were updated", updater.getUpdateCounter(), keys.size());
     }
   }
 
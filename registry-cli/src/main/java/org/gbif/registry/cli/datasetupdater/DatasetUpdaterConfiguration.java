@@ -34,12 +34,21 @@ public class DatasetUpdaterConfiguration {
   @Parameter(names = "--dataset-key-path")
   public String keyFilePath;
 
+  @Parameter(names = "--threads")
+  public int threads = 4;
+
+  /** File where the processed keys are appended, so an interrupted run can be resumed. */
+  @Parameter(names = "--checkpoint-path")
+  public String checkpointFilePath;
+
   @Override
   public String toString() {
     return new StringJoiner(", ", DatasetUpdaterConfiguration.class.getSimpleName() + "[", "]")
         .add("db=" + db)
         .add("key='" + key + "'")
         .add("keyFilePath='" + keyFilePath + "'")
+        .add("threads=" + threads)
+        .add("checkpointFilePath='" + checkpointFilePath + "'")
         .toString();
   }
 }
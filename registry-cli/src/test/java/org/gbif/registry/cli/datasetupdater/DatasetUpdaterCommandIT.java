@@ -17,12 +17,19 @@ import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.vocabulary.License;
 import org.gbif.registry.database.BaseDBTest;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -30,7 +37,9 @@ import static org.gbif.registry.cli.util.EmbeddedPostgresTestUtils.toDbConfig;
 import static org.gbif.registry.cli.util.RegistryCliUtils.getFileData;
 import static org.gbif.registry.cli.util.RegistryCliUtils.loadConfig;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DatasetUpdaterCommandIT extends BaseDBTest {
 
@@ -76,4 +85,28 @@ public class DatasetUpdaterCommandIT extends BaseDBTest {
     assertNotNull(dataset);
     assertEquals(License.CC_BY_4_0, dataset.getLicense());
   }
+
+  /** Test checks the processed datasets are checkpointed and skipped when the run is resumed. */
+  @Test
+  public void testUpdateResume(@TempDir Path tempDir) throws Exception {
+    Path checkpoint = tempDir.resolve("checkpoint.txt");
+    DatasetUpdaterConfiguration cfg = getConfig("datasetupdater/dataset-updater-list.yaml");
+    cfg.checkpointFilePath = checkpoint.toString();
+
+    DatasetUpdaterCommand command = new DatasetUpdaterCommand(cfg);
+    command.doRun();
+    assertEquals(1, command.getDatasetUpdater().getUpdateCounter());
+    assertTrue(command.getDatasetUpdater().getFailures().isEmpty());
+    List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+    assertEquals(Collections.singletonList(DATASET_KEY.toString()), lines);
+
+    // the dataset is already in the checkpoint so it is not updated again
+    prepareDatabase();
+    command = new DatasetUpdaterCommand(cfg);
+    command.doRun();
+    assertEquals(0, command.getDatasetUpdater().getUpdateCounter());
+    Dataset dataset = command.getDatasetUpdater().getDatasetResource().get(DATASET_KEY);
+    assertNotEquals(License.CC_BY_4_0, dataset.getLicense());
+    assertEquals(lines, Files.readAllLines(checkpoint, StandardCharsets.UTF_8));
+  }
 }
@@ -15,7 +15,6 @@ package org.gbif.registry.doi;
 
 import org.gbif.api.model.common.DOI;
 import org.gbif.api.model.common.GbifUser;
-import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.occurrence.Download;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.DatasetOccurrenceDownloadUsage;
@@ -32,13 +31,16 @@ import org.gbif.registry.domain.ws.DerivedDatasetUsage;
 import org.gbif.registry.persistence.mapper.DatasetOccurrenceDownloadMapper;
 import org.gbif.registry.persistence.mapper.OrganizationMapper;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.annotation.Nullable;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.AbstractIterator;
 
 @Service
 public class DataCiteMetadataBuilderServiceImpl implements DataCiteMetadataBuilderService {
@@ -49,14 +51,18 @@ public class DataCiteMetadataBuilderServiceImpl implements DataCiteMetadataBuild
   private final OrganizationMapper organizationMapper;
   private final DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper;
   private final TitleLookupService titleLookupService;
+  // Max length of the constituents in the download metadata, DataCite rejects bigger documents
+  private final long maxConstituentsLength;
 
   public DataCiteMetadataBuilderServiceImpl(
       OrganizationMapper organizationMapper,
       DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper,
-      TitleLookupService titleLookupService) {
+      TitleLookupService titleLookupService,
+      @Value("${doi.downloadConstituentsMaxLength:500000}") long maxConstituentsLength) {
     this.organizationMapper = organizationMapper;
     this.datasetOccurrenceDownloadMapper = datasetOccurrenceDownloadMapper;
     this.titleLookupService = titleLookupService;
+    this.maxConstituentsLength = maxConstituentsLength;
   }
 
   @Override
@@ -65,21 +71,18 @@ public class DataCiteMetadataBuilderServiceImpl implements DataCiteMetadataBuild
     return DerivedDatasetConverter.convert(derivedDataset, derivedDatasetUsages);
   }
 
+  /**
+   * The usages are streamed from the database, most downloaded datasets first, and only the ones
+   * that fit in the constituents size limit are read and added to the metadata.
+   */
   @Override
   public DataCiteMetadata buildMetadata(Download download, GbifUser user) {
-    List<DatasetOccurrenceDownloadUsage> response = null;
-    List<DatasetOccurrenceDownloadUsage> usages = Lists.newArrayList();
-    PagingRequest pagingRequest = new PagingRequest(0, USAGES_PAGE_SIZE);
-
-    while (response == null || !response.isEmpty()) {
-      response =
-          datasetOccurrenceDownloadMapper.listByDownload(
-              download.getKey(), null, null, null, pagingRequest);
-      usages.addAll(response);
-      pagingRequest.nextPage();
-    }
-
-    return DownloadConverter.convert(download, user, usages, titleLookupService);
+    return DownloadConverter.convert(
+        download,
+        user,
+        new UsagesIterator(download.getKey()),
+        maxConstituentsLength,
+        titleLookupService);
   }
 
   @Override
@@ -105,4 +108,37 @@ public class DataCiteMetadataBuilderServiceImpl implements DataCiteMetadataBuild
     }
     return m;
   }
+
+  /** Iterates over the usages of a download using a keyset cursor. */
+  private class UsagesIterator extends AbstractIterator<DatasetOccurrenceDownloadUsage> {
+
+    private final String downloadKey;
+    private Iterator<DatasetOccurrenceDownloadUsage> page = Collections.emptyIterator();
+    private DatasetOccurrenceDownloadUsage last;
+    private boolean lastPage;
+
+    private UsagesIterator(String downloadKey) {
+      this.downloadKey = downloadKey;
+    }
+
+    @Override
+    protected DatasetOccurrenceDownloadUsage computeNext() {
+      if (!page.hasNext() && !lastPage) {
+        List<DatasetOccurrenceDownloadUsage> usages =
+            datasetOccurrenceDownloadMapper.listByDownloadAfter(
+                downloadKey,
+                last != null ? last.getNumberRecords() : null,
+                last != null ? last.getDatasetKey() : null,
+                USAGES_PAGE_SIZE);
+        lastPage = usages.size() < USAGES_PAGE_SIZE;
+        page = usages.iterator();
+      }
+
+      if (!page.hasNext()) {
+        return endOfData();
+      }
+      last = page.next();
+      return last;
+    }
+  }
 }
@@ -50,6 +50,7 @@ import org.gbif.occurrence.query.HumanPredicateBuilder;
 import org.gbif.occurrence.query.TitleLookupService;
 
 import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.xml.bind.JAXBException;
@@ -71,6 +72,9 @@ import static org.gbif.registry.doi.util.RegistryDoiUtils.getYear;
 
 public final class DownloadConverter {
 
+  // Approximate length of the XML wrapping the DOI of a related identifier
+  private static final int RELATED_IDENTIFIER_XML_LENGTH = 100;
+
   private DownloadConverter() {}
 
   /** Convert a download and its dataset usages into a datacite metadata instance. */
@@ -79,6 +83,22 @@ public final class DownloadConverter {
       GbifUser creator,
       List<DatasetOccurrenceDownloadUsage> usedDatasets,
       TitleLookupService titleLookup) {
+    return convert(download, creator, usedDatasets.iterator(), Long.MAX_VALUE, titleLookup);
+  }
+
+  /**
+   * Convert a download and its dataset usages into a datacite metadata instance. The usages are
+   * consumed one at a time and only while their description lines and related identifiers fit in
+   * maxConstituentsLength characters, the rest are left out and the description points to the
+   * landing page instead. The iterator is not consumed any further once the limit is reached, so
+   * the usages should come sorted by significance.
+   */
+  public static DataCiteMetadata convert(
+      Download download,
+      GbifUser creator,
+      Iterator<DatasetOccurrenceDownloadUsage> usedDatasets,
+      long maxConstituentsLength,
+      TitleLookupService titleLookup) {
     Preconditions.checkNotNull(
         download.getDoi(), "Download DOI required to build valid DOI metadata");
     Preconditions.checkNotNull(
@@ -88,6 +108,7 @@ public final class DownloadConverter {
         download.getRequest(), "Download request required to build valid DOI metadata");
 
     DataCiteMetadata.Builder<Void> builder = DataCiteMetadata.builder();
+    Constituents constituents = convertConstituents(usedDatasets, maxConstituentsLength);
 
     // Required fields
     convertIdentifier(builder, download);
@@ -99,9 +120,9 @@ public final class DownloadConverter {
 
     // Optional and recommended fields
     convertDates(builder, download);
-    convertDescriptions(builder, download, usedDatasets, titleLookup);
+    convertDescriptions(builder, download, constituents.description, titleLookup);
     convertAlternateIdentifiers(builder, download);
-    convertRelatedIdentifiers(builder, usedDatasets);
+    builder.withRelatedIdentifiers(constituents.relatedIdentifiers);
     convertRightsList(builder, download);
     convertSubjects(builder);
     convertFormats(builder);
@@ -134,12 +155,6 @@ public final class DownloadConverter {
             .build());
   }
 
-  private static void convertRelatedIdentifiers(
-      DataCiteMetadata.Builder<Void> builder, List<DatasetOccurrenceDownloadUsage> usedDatasets) {
-    builder.withRelatedIdentifiers(
-        getRelatedIdentifiersDatasetOccurrenceDownloadUsage(usedDatasets));
-  }
-
   private static void convertAlternateIdentifiers(
       DataCiteMetadata.Builder<Void> builder, Download download) {
     builder.withAlternateIdentifiers(
@@ -176,7 +191,7 @@ public final class DownloadConverter {
   private static void convertDescriptions(
       DataCiteMetadata.Builder<Void> builder,
       Download download,
-      List<DatasetOccurrenceDownloadUsage> usedDatasets,
+      String constituentsDescription,
       TitleLookupService titleLookup) {
     builder.withDescriptions(
         Descriptions.builder()
@@ -192,7 +207,7 @@ public final class DownloadConverter {
                         String.format(
                             "The dataset includes %s records from %s constituent datasets:\n",
                             download.getTotalRecords(), download.getNumberDatasets()))
-                    .addContent(getDescriptionDatasetOccurrenceDownloadUsage(usedDatasets))
+                    .addContent(constituentsDescription)
                     .build())
             .build());
   }
@@ -301,45 +316,49 @@ public final class DownloadConverter {
     return DataCiteValidator.toXml(doi, dm);
   }
 
-  private static String getDescriptionDatasetOccurrenceDownloadUsage(
-      List<DatasetOccurrenceDownloadUsage> usedDatasets) {
-    final StringBuilder result = new StringBuilder();
-
-    if (!usedDatasets.isEmpty()) {
-      for (DatasetOccurrenceDownloadUsage du : usedDatasets) {
-        if (!Strings.isNullOrEmpty(du.getDatasetTitle())) {
-          result
-              .append(" ")
-              .append(du.getNumberRecords())
-              .append(" records from ")
-              .append(du.getDatasetTitle())
-              .append(".\n");
-        }
-      }
-      result.append("\n");
-      result.append(LICENSE_INFO);
-    }
+  /**
+   * Builds the description lines and the related identifiers of the constituent datasets in a
+   * single pass, stopping at the first usage that doesn't fit in maxLength characters.
+   */
+  private static Constituents convertConstituents(
+      Iterator<DatasetOccurrenceDownloadUsage> usedDatasets, long maxLength) {
+    final StringBuilder description = new StringBuilder();
+    final RelatedIdentifiers.Builder relatedIdentifiersBuilder = RelatedIdentifiers.builder();
 
-    return result.toString();
-  }
+    if (usedDatasets.hasNext()) {
+      long length = 0;
+      while (usedDatasets.hasNext()) {
+        DatasetOccurrenceDownloadUsage du = usedDatasets.next();
+        String line =
+            Strings.isNullOrEmpty(du.getDatasetTitle())
+                ? ""
+                : " " + du.getNumberRecords() + " records from " + du.getDatasetTitle() + ".\n";
+        String doiName = du.getDatasetDOI() != null ? du.getDatasetDOI().getDoiName() : null;
+
+        length +=
+            line.length() + (doiName != null ? doiName.length() + RELATED_IDENTIFIER_XML_LENGTH : 0);
+        if (length > maxLength) {
+          description.append(
+              " Further constituent datasets are omitted due to the metadata size limit. "
+                  + "Please see the download landing page for the full list of constituents.\n");
+          break;
+        }
 
-  private static RelatedIdentifiers getRelatedIdentifiersDatasetOccurrenceDownloadUsage(
-      List<DatasetOccurrenceDownloadUsage> usedDatasets) {
-    final RelatedIdentifiers.Builder relatedIdentifiersBuilder = RelatedIdentifiers.builder();
-    if (!usedDatasets.isEmpty()) {
-      for (DatasetOccurrenceDownloadUsage du : usedDatasets) {
-        if (du.getDatasetDOI() != null) {
+        description.append(line);
+        if (doiName != null) {
           relatedIdentifiersBuilder.addRelatedIdentifier(
               RelatedIdentifier.builder()
                   .withRelationType(RelationType.REFERENCES)
-                  .withValue(du.getDatasetDOI().getDoiName())
+                  .withValue(doiName)
                   .withRelatedIdentifierType(RelatedIdentifierType.DOI)
                   .build());
         }
       }
+      description.append("\n");
+      description.append(LICENSE_INFO);
     }
 
-    return relatedIdentifiersBuilder.build();
+    return new Constituents(description.toString(), relatedIdentifiersBuilder.build());
   }
 
   /**
@@ -353,4 +372,15 @@ public final class DownloadConverter {
       return "(Query is too complex. Can be viewed on the landing page)";
     }
   }
+
+  /** Description and related identifiers of the constituent datasets of a download. */
+  private static class Constituents {
+    private final String description;
+    private final RelatedIdentifiers relatedIdentifiers;
+
+    private Constituents(String description, RelatedIdentifiers relatedIdentifiers) {
+      this.description = description;
+      this.relatedIdentifiers = relatedIdentifiers;
+    }
+  }
 }
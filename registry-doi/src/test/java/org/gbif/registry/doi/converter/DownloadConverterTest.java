@@ -23,7 +23,10 @@ import org.gbif.occurrence.query.TitleLookupService;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.xmlunit.matchers.CompareMatcher;
@@ -110,4 +113,38 @@ public class DownloadConverterTest {
     assertFalse(truncatedXml.contains("10.15468/siye1z"));
     assertEquals(2352, truncatedXml.length());
   }
+
+  @Test
+  public void testConvertDownloadSizeLimit() throws Exception {
+    // given
+    Download download = prepareDownload();
+    GbifUser user = prepareUser();
+    TitleLookupService tl = mock(TitleLookupService.class);
+    when(tl.getSpeciesName(anyString())).thenReturn("Abies alba Mill.");
+
+    List<DatasetOccurrenceDownloadUsage> usages = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      DatasetOccurrenceDownloadUsage du = prepareDatasetOccurrenceDownloadUsage1();
+      du.setDatasetTitle("title " + i);
+      du.setDatasetDOI(new DOI("10.1234/" + i));
+      du.setNumberRecords(1000 - i);
+      usages.add(du);
+    }
+    Iterator<DatasetOccurrenceDownloadUsage> iterator = usages.iterator();
+
+    // when
+    DataCiteMetadata metadata = DownloadConverter.convert(download, user, iterator, 2_000, tl);
+    String actualXmlMetadata = DataCiteValidator.toXml(download.getDoi(), metadata);
+
+    // then
+    DataCiteValidator.validateMetadata(actualXmlMetadata);
+    // the most significant usages are kept
+    assertTrue(actualXmlMetadata.contains("10.1234/0<"));
+    assertFalse(actualXmlMetadata.contains("10.1234/999<"));
+    assertTrue(actualXmlMetadata.contains("omitted due to the metadata size limit"));
+    int relatedIdentifiers = metadata.getRelatedIdentifiers().getRelatedIdentifier().size();
+    assertTrue(relatedIdentifiers > 0 && relatedIdentifiers < 100);
+    // the rest of the usages are not read
+    assertTrue(iterator.hasNext());
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.domain.collections;
+
+import org.gbif.api.model.collections.Batch;
+
+/** Progress of a GRSciColl {@link Batch} while it's being processed. */
+public class BatchProgress {
+
+  private int key;
+  private Batch.State state;
+  private Integer totalRecords;
+  private int processedRecords;
+  private int failedRecords;
+
+  public int getKey() {
+    return key;
+  }
+
+  public void setKey(int key) {
+    this.key = key;
+  }
+
+  public Batch.State getState() {
+    return state;
+  }
+
+  public void setState(Batch.State state) {
+    this.state = state;
+  }
+
+  /** Number of records of the batch, null until the files are parsed. */
+  public Integer getTotalRecords() {
+    return totalRecords;
+  }
+
+  public void setTotalRecords(Integer totalRecords) {
+    this.totalRecords = totalRecords;
+  }
+
+  public int getProcessedRecords() {
+    return processedRecords;
+  }
+
+  public void setProcessedRecords(int processedRecords) {
+    this.processedRecords = processedRecords;
+  }
+
+  public int getFailedRecords() {
+    return failedRecords;
+  }
+
+  public void setFailedRecords(int failedRecords) {
+    this.failedRecords = failedRecords;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.domain.ws;
+
+import org.gbif.api.model.registry.MachineTag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Machine tag to add to, or delete from, many entities at once. When deleting, the name and value
+ * of the machine tag are optional and all the machine tags of the namespace, or of the namespace
+ * and name, are deleted.
+ */
+public class MachineTagBulkRequest {
+
+  // keeps the statements under the limit of parameters
+  public static final int MAX_KEYS = 10_000;
+
+  private List<UUID> keys = new ArrayList<>();
+  private MachineTag machineTag;
+
+  @NotNull
+  @Size(min = 1, max = MAX_KEYS)
+  public List<UUID> getKeys() {
+    return keys;
+  }
+
+  public void setKeys(List<UUID> keys) {
+    this.keys = keys;
+  }
+
+  @NotNull
+  @Valid
+  public MachineTag getMachineTag() {
+    return machineTag;
+  }
+
+  public void setMachineTag(MachineTag machineTag) {
+    this.machineTag = machineTag;
+  }
+}
@@ -17,6 +17,13 @@ public interface EventManager {
 
   void post(Object object);
 
+  /**
+   * Runs the action holding back the events that the current thread posts during it, and posts
+   * them once the action returns. If the action fails the held events are discarded. Useful to
+   * post the events of a transaction only once it's committed.
+   */
+  void postAfter(Runnable action);
+
   void register(Object object);
 
   void unregister(Object object);
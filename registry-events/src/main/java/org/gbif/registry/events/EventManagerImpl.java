@@ -13,6 +13,9 @@
  */
 package org.gbif.registry.events;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 
 import com.google.common.eventbus.EventBus;
@@ -22,13 +25,39 @@ public class EventManagerImpl implements EventManager {
 
   private EventBus eventBus;
 
+  // events held by the current thread while it runs a postAfter action
+  private final ThreadLocal<List<Object>> heldEvents = new ThreadLocal<>();
+
   public EventManagerImpl(EventBus eventBus) {
     this.eventBus = eventBus;
   }
 
   @Override
   public void post(Object object) {
-    eventBus.post(object);
+    List<Object> held = heldEvents.get();
+    if (held != null) {
+      held.add(object);
+    } else {
+      eventBus.post(object);
+    }
+  }
+
+  @Override
+  public void postAfter(Runnable action) {
+    if (heldEvents.get() != null) {
+      // nested call, the outer one posts the events
+      action.run();
+      return;
+    }
+
+    List<Object> held = new ArrayList<>();
+    heldEvents.set(held);
+    try {
+      action.run();
+    } finally {
+      heldEvents.remove();
+    }
+    held.forEach(eventBus::post);
   }
 
   @Override
@@ -24,6 +24,7 @@ import org.gbif.api.service.registry.DatasetService;
 import org.gbif.api.service.registry.InstallationService;
 import org.gbif.api.service.registry.OrganizationService;
 import org.gbif.registry.domain.ws.DerivedDataset;
+import org.gbif.registry.events.collections.CollectionsMovedEvent;
 import org.gbif.registry.events.collections.CreateCollectionEntityEvent;
 import org.gbif.registry.events.collections.DeleteCollectionEntityEvent;
 import org.gbif.registry.events.collections.SubEntityCollectionEvent;
@@ -247,6 +248,17 @@ public class VarnishPurgeListener {
     purger.ban("grscicoll/search");
   }
 
+  @Subscribe
+  public final void movedCollections(CollectionsMovedEvent event) {
+    // a single ban for all the moved collections to avoid too many ban rules
+    Set<UUID> keys = new UUIDHashSet();
+    event.getOldObjects().forEach(c -> keys.add(c.getKey()));
+    String rootPath = path("grscicoll", "collection");
+    purger.ban(String.format("%s/%s", rootPath, purger.anyKey(keys)));
+    purger.ban(String.format("%s(/search|/suggest)?[^/]*$", rootPath));
+    purger.ban("grscicoll/search");
+  }
+
   @Subscribe
   public final <T extends CollectionEntity, R> void collectionSubEntityChange(
       SubEntityCollectionEvent<T, R> event) {
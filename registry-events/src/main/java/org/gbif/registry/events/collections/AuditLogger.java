@@ -18,6 +18,9 @@ import org.gbif.registry.domain.collections.AuditLog;
 import org.gbif.registry.events.EventManager;
 import org.gbif.registry.persistence.mapper.collections.AuditLogMapper;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -65,6 +68,24 @@ public class AuditLogger {
     auditLogMapper.create(auditLog);
   }
 
+  @Subscribe
+  public void logMovedCollections(CollectionsMovedEvent event) {
+    if (event.getNewObjects().isEmpty()) {
+      return;
+    }
+
+    // one log per collection, all of them created in one statement
+    List<AuditLog> auditLogs = new ArrayList<>();
+    for (int i = 0; i < event.getNewObjects().size(); i++) {
+      AuditLog auditLog = collectionBaseEventToAuditLog(event);
+      auditLog.setCollectionEntityKey(event.getNewObjects().get(i).getKey());
+      auditLog.setPreState(toJson(event.getOldObjects().get(i)));
+      auditLog.setPostState(toJson(event.getNewObjects().get(i)));
+      auditLogs.add(auditLog);
+    }
+    auditLogMapper.createAll(auditLogs);
+  }
+
   @Subscribe
   public <T extends CollectionEntity> void logDeletedEvents(DeleteCollectionEntityEvent<T> event) {
     AuditLog auditLog = collectionBaseEventToAuditLog(event);
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.events.collections;
+
+import org.gbif.api.model.collections.Collection;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This event is fired after the collections of an institution have been moved to another
+ * institution with a single statement. It replaces the update events of each collection.
+ */
+public class CollectionsMovedEvent extends CollectionsBaseEvent<Collection> {
+
+  private final UUID targetInstitutionKey;
+  private final List<Collection> newObjects;
+  private final List<Collection> oldObjects;
+
+  public static CollectionsMovedEvent newInstance(
+      UUID targetInstitutionKey, List<Collection> newObjects, List<Collection> oldObjects) {
+    return new CollectionsMovedEvent(targetInstitutionKey, newObjects, oldObjects);
+  }
+
+  private CollectionsMovedEvent(
+      UUID targetInstitutionKey, List<Collection> newObjects, List<Collection> oldObjects) {
+    super(EventType.UPDATE, Collection.class);
+    this.targetInstitutionKey = targetInstitutionKey;
+    this.newObjects = newObjects;
+    this.oldObjects = oldObjects;
+  }
+
+  public UUID getTargetInstitutionKey() {
+    return targetInstitutionKey;
+  }
+
+  /** The collections after the move, in the same order as {@link #getOldObjects()}. */
+  public List<Collection> getNewObjects() {
+    return newObjects;
+  }
+
+  public List<Collection> getOldObjects() {
+    return oldObjects;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search;
+
+import org.gbif.api.model.collections.Collection;
+import org.gbif.api.model.collections.CollectionEntity;
+import org.gbif.api.model.collections.Institution;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.collections.CollectionsMovedEvent;
+import org.gbif.registry.events.collections.CreateCollectionEntityEvent;
+import org.gbif.registry.events.collections.DeleteCollectionEntityEvent;
+import org.gbif.registry.events.collections.EventType;
+import org.gbif.registry.events.collections.ReplaceEntityEvent;
+import org.gbif.registry.events.collections.UpdateCollectionEntityEvent;
+import org.gbif.registry.search.dataset.service.collections.CollectionsEsIndexer;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Keeps the GRSciColl search index current with the changes of institutions and collections.
+ *
+ * <p>The events are posted inside the transaction that makes the changes, and a merge or a
+ * conversion still moves the collections after posting them. The indexing is therefore deferred
+ * until the transaction commits, so it reads the final state and nothing is indexed for a rolled
+ * back transaction.
+ */
+@SuppressWarnings("UnstableApiUsage")
+@Service
+@ConditionalOnProperty("grscicoll.search.es.enabled")
+public class CollectionsIndexUpdateListener {
+
+  private final CollectionsEsIndexer indexer;
+  private final TransactionTemplate transactionTemplate;
+
+  public CollectionsIndexUpdateListener(
+      CollectionsEsIndexer indexer,
+      EventManager eventManager,
+      PlatformTransactionManager transactionManager) {
+    this.indexer = indexer;
+    // the committed transaction can't be used to read the documents after the commit
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.transactionTemplate.setReadOnly(true);
+    eventManager.register(this);
+  }
+
+  @Subscribe
+  public final <T extends CollectionEntity> void created(CreateCollectionEntityEvent<T> event) {
+    UUID key = event.getNewObject().getKey();
+    afterCommit(() -> index(event.getCollectionEntityClass(), key));
+  }
+
+  @Subscribe
+  public final <T extends CollectionEntity> void updated(UpdateCollectionEntityEvent<T> event) {
+    UUID key = event.getNewObject().getKey();
+    // the collections show the code and name of their institution
+    boolean reindexCollections =
+        event.getCollectionEntityClass().equals(Institution.class)
+            && codeOrNameChanged(
+                (Institution) event.getOldObject(), (Institution) event.getNewObject());
+
+    afterCommit(
+        () -> {
+          index(event.getCollectionEntityClass(), key);
+          if (reindexCollections) {
+            indexer.indexInstitutionCollections(key);
+          }
+        });
+  }
+
+  @Subscribe
+  public final <T extends CollectionEntity> void deleted(DeleteCollectionEntityEvent<T> event) {
+    UUID key = event.getDeletedObject().getKey();
+    afterCommit(() -> indexer.delete(key));
+  }
+
+  @Subscribe
+  public final <T extends CollectionEntity> void replaced(ReplaceEntityEvent<T> event) {
+    UUID targetKey = event.getTargetEntityKey();
+    UUID replacementKey = event.getReplacementKey();
+    afterCommit(
+        () -> {
+          indexer.delete(targetKey);
+          if (replacementKey == null) {
+            return;
+          }
+
+          // the collections moved from the replaced institution are reindexed from the moved event
+          if (event.getEventType() == EventType.CONVERSION_TO_COLLECTION) {
+            indexer.indexCollection(replacementKey);
+          } else {
+            index(event.getCollectionEntityClass(), replacementKey);
+          }
+        });
+  }
+
+  @Subscribe
+  public final void moved(CollectionsMovedEvent event) {
+    UUID institutionKey = event.getTargetInstitutionKey();
+    afterCommit(() -> indexer.indexInstitutionCollections(institutionKey));
+  }
+
+  /**
+   * Runs the indexing once the current transaction commits, or straight away when there is no
+   * transaction.
+   */
+  private void afterCommit(Runnable indexing) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              transactionTemplate.executeWithoutResult(status -> indexing.run());
+            }
+          });
+    } else {
+      indexing.run();
+    }
+  }
+
+  private static boolean codeOrNameChanged(Institution oldInstitution, Institution newInstitution) {
+    return !Objects.equals(oldInstitution.getCode(), newInstitution.getCode())
+        || !Objects.equals(oldInstitution.getName(), newInstitution.getName());
+  }
+
+  private void index(Class<?> entityClass, UUID key) {
+    if (entityClass.equals(Institution.class)) {
+      indexer.indexInstitution(key);
+    } else if (entityClass.equals(Collection.class)) {
+      indexer.indexCollection(key);
+    }
+  }
+}
@@ -70,6 +70,8 @@ public interface IdentityService extends IdentityAccessService {
 
   /**
    * A simple search that supports paging and filter by role and editor rights on a list of entities.
+   * A user whose email or username is exactly the query is ranked first, followed by the other
+   * matches.
    *
    * @return a pageable response of network entities, with accurate counts.
    */
@@ -81,6 +83,19 @@ public interface IdentityService extends IdentityAccessService {
       @Nullable Set<Country> countryRightsOn,
       @Nullable Pageable page);
 
+  /**
+   * Same as {@link #search(String, Set, Set, Set, Set, Pageable)} but the count of the results is
+   * optional. Without the count only the end of records flag is set in the response.
+   */
+  PagingResponse<GbifUser> search(
+      String query,
+      @Nullable Set<UserRole> roles,
+      @Nullable Set<UUID> editorRightsOn,
+      @Nullable Set<String> namespaceRightsOn,
+      @Nullable Set<Country> countryRightsOn,
+      @Nullable Pageable page,
+      boolean count);
+
   /**
    * Create a new user.
    *
@@ -191,11 +191,32 @@ public class IdentityServiceImpl extends BaseIdentityAccessService implements Id
       @Nullable Set<String> namespaceRightsOn,
       @Nullable Set<Country> countryRightsOn,
       @Nullable Pageable pageable) {
-    return pagingResponse(
-        pageable,
-        userMapper.count(query, roles, editorRightsOn, namespaceRightsOn, countryRightsOn),
-        userMapper.search(
-            query, roles, editorRightsOn, namespaceRightsOn, countryRightsOn, pageable));
+    return search(query, roles, editorRightsOn, namespaceRightsOn, countryRightsOn, pageable, true);
+  }
+
+  @Override
+  public PagingResponse<GbifUser> search(
+      @Nullable String query,
+      Set<UserRole> roles,
+      @Nullable Set<UUID> editorRightsOn,
+      @Nullable Set<String> namespaceRightsOn,
+      @Nullable Set<Country> countryRightsOn,
+      @Nullable Pageable pageable,
+      boolean count) {
+    Pageable page = pageable == null ? new PagingRequest() : pageable;
+
+    List<GbifUser> results =
+        userMapper.search(query, roles, editorRightsOn, namespaceRightsOn, countryRightsOn, page);
+    if (count) {
+      return pagingResponse(
+          page,
+          userMapper.count(query, roles, editorRightsOn, namespaceRightsOn, countryRightsOn),
+          results);
+    }
+
+    PagingResponse<GbifUser> response = new PagingResponse<>(page, null, results);
+    response.setEndOfRecords(results.size() < page.getLimit());
+    return response;
   }
 
   /**
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search;
+
+import org.gbif.api.model.collections.Collection;
+import org.gbif.api.model.collections.Institution;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.collections.CollectionsMovedEvent;
+import org.gbif.registry.events.collections.EventType;
+import org.gbif.registry.events.collections.ReplaceEntityEvent;
+import org.gbif.registry.events.collections.UpdateCollectionEntityEvent;
+import org.gbif.registry.search.dataset.service.collections.CollectionsEsIndexer;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/** Tests that {@link CollectionsIndexUpdateListener} indexes the committed changes only. */
+@ExtendWith(MockitoExtension.class)
+public class CollectionsIndexUpdateListenerTest {
+
+  @Mock CollectionsEsIndexer indexer;
+  @Mock EventManager eventManager;
+  @Mock PlatformTransactionManager transactionManager;
+  CollectionsIndexUpdateListener listener;
+
+  @BeforeEach
+  public void setup() {
+    listener = new CollectionsIndexUpdateListener(indexer, eventManager, transactionManager);
+  }
+
+  @AfterEach
+  public void clearTransaction() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  public void indexWithoutTransactionTest() {
+    Collection collection = collection(UUID.randomUUID());
+
+    listener.updated(UpdateCollectionEntityEvent.newInstance(collection, collection));
+
+    verify(indexer).indexCollection(collection.getKey());
+  }
+
+  @Test
+  public void mergeIndexedAfterCommitTest() {
+    UUID replacedKey = UUID.randomUUID();
+    UUID replacementKey = UUID.randomUUID();
+    Collection movedCollection = collection(replacementKey);
+    Collection collectionBeforeMove = collection(replacedKey);
+    collectionBeforeMove.setKey(movedCollection.getKey());
+
+    TransactionSynchronizationManager.initSynchronization();
+    // the merge posts the replace event before moving the collections in a single statement
+    listener.replaced(
+        ReplaceEntityEvent.newInstance(
+            Institution.class, replacedKey, replacementKey, EventType.REPLACE));
+    listener.moved(
+        CollectionsMovedEvent.newInstance(
+            replacementKey,
+            Collections.singletonList(movedCollection),
+            Collections.singletonList(collectionBeforeMove)));
+
+    // nothing is indexed while the merge transaction is open
+    verifyNoInteractions(indexer);
+
+    TransactionSynchronizationUtils.triggerAfterCommit();
+
+    InOrder inOrder = inOrder(indexer);
+    inOrder.verify(indexer).delete(replacedKey);
+    inOrder.verify(indexer).indexInstitution(replacementKey);
+    inOrder.verify(indexer).indexInstitutionCollections(replacementKey);
+  }
+
+  @Test
+  public void conversionIndexedAfterCommitTest() {
+    UUID convertedKey = UUID.randomUUID();
+    UUID newCollectionKey = UUID.randomUUID();
+    UUID newInstitutionKey = UUID.randomUUID();
+    Collection movedCollection = collection(newInstitutionKey);
+    Collection collectionBeforeMove = collection(convertedKey);
+    collectionBeforeMove.setKey(movedCollection.getKey());
+
+    TransactionSynchronizationManager.initSynchronization();
+    listener.replaced(
+        ReplaceEntityEvent.newInstance(
+            Institution.class,
+            convertedKey,
+            newCollectionKey,
+            EventType.CONVERSION_TO_COLLECTION));
+    listener.moved(
+        CollectionsMovedEvent.newInstance(
+            newInstitutionKey,
+            Collections.singletonList(movedCollection),
+            Collections.singletonList(collectionBeforeMove)));
+
+    verifyNoInteractions(indexer);
+
+    TransactionSynchronizationUtils.triggerAfterCommit();
+
+    verify(indexer).delete(convertedKey);
+    verify(indexer).indexCollection(newCollectionKey);
+    verify(indexer).indexInstitutionCollections(newInstitutionKey);
+  }
+
+  @Test
+  public void rolledBackChangesNotIndexedTest() {
+    TransactionSynchronizationManager.initSynchronization();
+    listener.replaced(
+        ReplaceEntityEvent.newInstance(
+            Institution.class, UUID.randomUUID(), UUID.randomUUID(), EventType.REPLACE));
+
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+        TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    verifyNoInteractions(indexer);
+  }
+
+  private static Collection collection(UUID institutionKey) {
+    Collection collection = new Collection();
+    collection.setKey(UUID.randomUUID());
+    collection.setCode("c1");
+    collection.setName("n1");
+    collection.setInstitutionKey(institutionKey);
+    return collection;
+  }
+}
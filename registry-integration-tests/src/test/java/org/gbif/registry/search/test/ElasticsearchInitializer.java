@@ -13,6 +13,8 @@
  */
 package org.gbif.registry.search.test;
 
+import org.gbif.registry.search.dataset.service.DatasetSearchCache;
+
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
@@ -23,9 +25,15 @@ import org.junit.jupiter.api.extension.ExtensionContext;
 public class ElasticsearchInitializer implements BeforeEachCallback {
 
   private final EsManageServer esServer;
+  private final DatasetSearchCache searchCache;
 
   public ElasticsearchInitializer(EsManageServer esServer) {
+    this(esServer, null);
+  }
+
+  public ElasticsearchInitializer(EsManageServer esServer, DatasetSearchCache searchCache) {
     this.esServer = esServer;
+    this.searchCache = searchCache;
   }
 
   @Override
@@ -33,6 +41,10 @@ public class ElasticsearchInitializer implements BeforeEachCallback {
     // Method name must contain search in it
     if (extensionContext.getRequiredTestMethod().getName().toLowerCase().contains("search")) {
       esServer.reCreateIndex();
+      if (searchCache != null) {
+        // the index was recreated outside the indexers
+        searchCache.newGeneration();
+      }
     }
   }
 }
@@ -142,6 +142,18 @@ public class IdentityServiceMock implements IdentityService {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public PagingResponse<GbifUser> search(
+      String query,
+      @Nullable Set<UserRole> roles,
+      @Nullable Set<UUID> editorRightsOn,
+      Set<String> namespaceRightsOn,
+      @Nullable Set<Country> countryRightsOn,
+      @Nullable Pageable page,
+      boolean count) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public UserModelMutationResult create(GbifUser user, String password) {
     throw new UnsupportedOperationException();
@@ -18,12 +18,14 @@ import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.common.search.SearchResponse;
 import org.gbif.api.model.registry.Citation;
+import org.gbif.api.model.registry.Contact;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.model.registry.Installation;
 import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.model.registry.Metadata;
 import org.gbif.api.model.registry.Organization;
+import org.gbif.api.model.registry.Tag;
 import org.gbif.api.model.registry.search.DatasetRequestSearchParams;
 import org.gbif.api.model.registry.search.DatasetSearchParameter;
 import org.gbif.api.model.registry.search.DatasetSearchRequest;
@@ -41,7 +43,11 @@ import org.gbif.api.vocabulary.Language;
 import org.gbif.api.vocabulary.License;
 import org.gbif.api.vocabulary.MaintenanceUpdateFrequency;
 import org.gbif.api.vocabulary.MetadataType;
+import org.gbif.registry.search.dataset.common.SearchLatencyMetrics;
+import org.gbif.registry.search.dataset.common.TotalHitsTracking;
 import org.gbif.registry.search.dataset.indexing.DatasetRealtimeIndexer;
+import org.gbif.registry.search.dataset.service.DatasetSearchCache;
+import org.gbif.registry.search.dataset.service.DatasetSearchServiceEs;
 import org.gbif.registry.search.test.DatasetSearchUpdateUtils;
 import org.gbif.registry.search.test.ElasticsearchInitializer;
 import org.gbif.registry.search.test.EsManageServer;
@@ -57,6 +63,7 @@ import org.gbif.ws.NotFoundException;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 import org.gbif.ws.security.KeyStore;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -74,9 +81,13 @@ import javax.validation.ValidationException;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.ibatis.io.Resources;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.server.LocalServerPort;
@@ -87,8 +98,10 @@ import com.google.common.io.CharStreams;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.gbif.registry.test.Datasets.buildExpectedProcessedProperties;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -107,6 +120,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
     webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class DatasetIT extends NetworkEntityIT<Dataset> {
 
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetIT.class);
+
   private final DatasetSearchService searchService;
   private final OrganizationService organizationResource;
   private final OrganizationService organizationClient;
@@ -115,10 +130,10 @@ class DatasetIT extends NetworkEntityIT<Dataset> {
   private final InstallationService installationResource;
   private final InstallationService installationClient;
   private final DatasetRealtimeIndexer datasetRealtimeIndexer;
+  private final DatasetSearchServiceEs datasetSearchServiceEs;
   private final TestDataFactory testDataFactory;
 
-  @RegisterExtension
-  ElasticsearchInitializer elasticsearchInitializer = new ElasticsearchInitializer(esServer);
+  @RegisterExtension ElasticsearchInitializer elasticsearchInitializer;
 
   @Autowired
   public DatasetIT(
@@ -131,6 +146,8 @@ class DatasetIT extends NetworkEntityIT<Dataset> {
       @Nullable SimplePrincipalProvider principalProvider,
       TestDataFactory testDataFactory,
       EsManageServer esServer,
+      DatasetSearchCache datasetSearchCache,
+      DatasetSearchServiceEs datasetSearchServiceEs,
       KeyStore keyStore,
       @LocalServerPort int localServerPort) {
     super(
@@ -150,6 +167,8 @@ class DatasetIT extends NetworkEntityIT<Dataset> {
     this.installationClient = prepareClient(localServerPort, keyStore, InstallationClient.class);
     this.datasetRealtimeIndexer = datasetRealtimeIndexer;
     this.testDataFactory = testDataFactory;
+    this.datasetSearchServiceEs = datasetSearchServiceEs;
+    this.elasticsearchInitializer = new ElasticsearchInitializer(esServer, datasetSearchCache);
   }
 
   @ParameterizedTest
@@ -382,6 +401,44 @@ class DatasetIT extends NetworkEntityIT<Dataset> {
         "Elasticsearch does not have the expected number of results for query[" + req + "]");
   }
 
+  @Test
+  public void testSearchTotalHitsTracking() {
+    for (int i = 1; i <= 3; i++) {
+      create(newEntity(ServiceType.RESOURCE), ServiceType.RESOURCE, i);
+    }
+    DatasetSearchUpdateUtils.awaitUpdates(datasetRealtimeIndexer, esServer);
+
+    DatasetSearchRequest req = new DatasetSearchRequest();
+    SearchResponse<DatasetSearchResult, DatasetSearchParameter> resp =
+        datasetSearchServiceEs.search(req, TotalHitsTracking.EXACT);
+    assertEquals(Long.valueOf(3), resp.getCount());
+    // the count stops at the cap
+    assertEquals(
+        Long.valueOf(2), datasetSearchServiceEs.search(req, TotalHitsTracking.upTo(2)).getCount());
+
+    // the same request is served from the cache until the index changes, each time with a copy
+    long cacheHits = searchCacheHits();
+    SearchResponse<DatasetSearchResult, DatasetSearchParameter> cachedResp =
+        datasetSearchServiceEs.search(req, TotalHitsTracking.EXACT);
+    assertEquals(cacheHits + 1, searchCacheHits());
+    assertNotSame(resp, cachedResp);
+    assertEquals(resp.getCount(), cachedResp.getCount());
+    cachedResp.getResults().clear();
+    assertEquals(
+        3, datasetSearchServiceEs.search(req, TotalHitsTracking.EXACT).getResults().size());
+
+    create(newEntity(ServiceType.RESOURCE), ServiceType.RESOURCE, 4);
+    DatasetSearchUpdateUtils.awaitUpdates(datasetRealtimeIndexer, esServer);
+    assertEquals(
+        Long.valueOf(4), datasetSearchServiceEs.search(req, TotalHitsTracking.EXACT).getCount());
+  }
+
+  private long searchCacheHits() {
+    return datasetSearchServiceEs.getLatencyMetrics().snapshot().values().stream()
+        .mapToLong(SearchLatencyMetrics.ShapeSnapshot::getCacheHits)
+        .sum();
+  }
+
   @ParameterizedTest
   @EnumSource(ServiceType.class)
   public void testSearchLargeTitles(ServiceType serviceType) {
@@ -907,6 +964,96 @@ class DatasetIT extends NetworkEntityIT<Dataset> {
     assertEquals(License.CC_BY_4_0, dataset.getLicense());
   }
 
+  /**
+   * Updating a dataset from an unchanged metadata document must leave its contacts untouched, and a
+   * modified contact must be updated in place.
+   */
+  @Test
+  public void testUpdateFromPreferredMetadataContactsSync() throws IOException {
+    DatasetService service = (DatasetService) getService(ServiceType.RESOURCE);
+    final UUID key = create(newEntity(ServiceType.RESOURCE), ServiceType.RESOURCE, 1).getKey();
+
+    String eml =
+        CharStreams.toString(
+            new InputStreamReader(
+                FileUtils.classpathStream("metadata/sample.xml"), Charsets.UTF_8));
+    service.insertMetadata(key, new ByteArrayInputStream(eml.getBytes(Charsets.UTF_8)));
+    List<Contact> contacts = service.listContacts(key);
+    List<Identifier> identifiers = service.listIdentifiers(key);
+    List<Tag> tags = service.listTags(key);
+    assertFalse(contacts.isEmpty());
+
+    // unchanged document, the rows keep their keys and timestamps
+    ((DatasetResource) service).updateFromPreferredMetadata(key, "DatasetIT");
+    assertEquals(contacts, service.listContacts(key));
+    assertEquals(identifiers, service.listIdentifiers(key));
+    assertEquals(tags, service.listTags(key));
+
+    // a contact changes, it keeps its key and position
+    service.insertMetadata(
+        key,
+        new ByteArrayInputStream(
+            eml.replace("<surName>Hahn</surName>", "<surName>Hahn-Jones</surName>")
+                .getBytes(Charsets.UTF_8)));
+    List<Contact> updatedContacts = service.listContacts(key);
+    assertEquals(contacts.size(), updatedContacts.size());
+    for (int i = 0; i < contacts.size(); i++) {
+      assertEquals(contacts.get(i).getKey(), updatedContacts.get(i).getKey());
+      assertEquals(
+          "Hahn".equals(contacts.get(i).getLastName())
+              ? "Hahn-Jones"
+              : contacts.get(i).getLastName(),
+          updatedContacts.get(i).getLastName());
+    }
+  }
+
+  /**
+   * Benchmark of the update from the metadata document of a dataset with 500 contacts. Run it with
+   * -Dbenchmarks=true.
+   */
+  @org.junit.jupiter.api.Tag("benchmark")
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  @Test
+  public void updateFromPreferredMetadataBenchmark() throws IOException {
+    DatasetService service = (DatasetService) getService(ServiceType.RESOURCE);
+    final UUID key = create(newEntity(ServiceType.RESOURCE), ServiceType.RESOURCE, 1).getKey();
+
+    StringBuilder parties = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      parties
+          .append("<associatedParty><individualName><surName>Party ")
+          .append(i)
+          .append("</surName></individualName><phone>")
+          .append(1000000 + i)
+          .append("</phone><role>pointOfContact</role></associatedParty>\n");
+    }
+    String eml =
+        CharStreams.toString(
+                new InputStreamReader(
+                    FileUtils.classpathStream("metadata/sample.xml"), Charsets.UTF_8))
+            .replace("<pubDate>", parties + "<pubDate>");
+
+    long start = System.nanoTime();
+    service.insertMetadata(key, new ByteArrayInputStream(eml.getBytes(Charsets.UTF_8)));
+    long insertMillis = (System.nanoTime() - start) / 1_000_000;
+    List<Contact> contacts = service.listContacts(key);
+    assertTrue(contacts.size() >= 500);
+
+    int iterations = 20;
+    start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      ((DatasetResource) service).updateFromPreferredMetadata(key, "DatasetIT");
+    }
+    long updateMillis = (System.nanoTime() - start) / 1_000_000 / iterations;
+    assertEquals(contacts, service.listContacts(key));
+
+    LOG.info(
+        "{} contacts: first insert took {} ms, unchanged update took {} ms on average",
+        contacts.size(),
+        insertMillis,
+        updateMillis);
+  }
+
   /**
    * Test checks behaviour updating Citation with valid and invalid identifier. In the database,
    * there is a min length 1 character constraint on Dataset.citation_identifier.
@@ -1122,6 +1269,19 @@ class DatasetIT extends NetworkEntityIT<Dataset> {
         m2,
         m3,
         "Dataset metadata should not have changed after same metadata document was uploaded");
+
+    // a document that differs in a single byte replaces the stored one
+    byte[] modifiedDocument =
+        (CharStreams.toString(
+                    new InputStreamReader(
+                        FileUtils.classpathStream("metadata/sample.xml"), Charsets.UTF_8))
+                + "\n")
+            .getBytes(Charsets.UTF_8);
+    service.insertMetadata(d1.getKey(), new ByteArrayInputStream(modifiedDocument));
+    List<Metadata> m4 = service.listMetadata(d1.getKey(), MetadataType.EML);
+    assertEquals(1, m4.size());
+    assertNotEquals(
+        m3, m4, "Dataset metadata should have changed after a different document was uploaded");
   }
 
   @ParameterizedTest
@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.it;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.occurrence.Download;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.DatasetOccurrenceDownloadUsage;
+import org.gbif.api.service.registry.OccurrenceDownloadService;
+import org.gbif.registry.database.TestCaseDatabaseInitializer;
+import org.gbif.registry.persistence.mapper.DatasetOccurrenceDownloadMapper;
+import org.gbif.registry.persistence.service.DatasetUsagesCopyLoader;
+import org.gbif.registry.search.test.EsManageServer;
+import org.gbif.registry.test.TestDataFactory;
+import org.gbif.ws.client.filter.SimplePrincipalProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import com.google.common.collect.Iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Tests the {@link DatasetUsagesCopyLoader}. */
+public class DatasetUsagesCopyLoaderIT extends BaseItTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetUsagesCopyLoaderIT.class);
+
+  @RegisterExtension
+  protected TestCaseDatabaseInitializer databaseRule = new TestCaseDatabaseInitializer();
+
+  private final DatasetUsagesCopyLoader copyLoader;
+  private final DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper;
+  private final OccurrenceDownloadService occurrenceDownloadResource;
+  private final TestDataFactory testDataFactory;
+  private final DataSource dataSource;
+
+  @Autowired
+  public DatasetUsagesCopyLoaderIT(
+      DatasetUsagesCopyLoader copyLoader,
+      DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper,
+      @Qualifier("occurrenceDownloadResource") OccurrenceDownloadService occurrenceDownloadResource,
+      TestDataFactory testDataFactory,
+      DataSource dataSource,
+      SimplePrincipalProvider simplePrincipalProvider,
+      EsManageServer esServer) {
+    super(simplePrincipalProvider, esServer);
+    this.copyLoader = copyLoader;
+    this.datasetOccurrenceDownloadMapper = datasetOccurrenceDownloadMapper;
+    this.occurrenceDownloadResource = occurrenceDownloadResource;
+    this.testDataFactory = testDataFactory;
+    this.dataSource = dataSource;
+  }
+
+  @Test
+  public void loadUsagesTest() {
+    Download download = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download);
+
+    Dataset dataset1 = testDataFactory.newPersistedDataset(new DOI("10.21373/dataset1"));
+    Dataset dataset2 = testDataFactory.newPersistedDataset(new DOI("10.21373/dataset2"));
+
+    Map<UUID, Long> usages = new HashMap<>();
+    usages.put(dataset1.getKey(), 10L);
+    usages.put(dataset2.getKey(), 20L);
+    // usages of unknown datasets are ignored as in the VALUES path
+    usages.put(UUID.randomUUID(), 30L);
+    copyLoader.load(download.getKey(), usages);
+
+    List<DatasetOccurrenceDownloadUsage> stored = listUsages(download.getKey());
+    assertEquals(2, stored.size());
+
+    // loading again updates the existing usages
+    usages.put(dataset1.getKey(), 100L);
+    copyLoader.load(download.getKey(), usages);
+
+    stored = listUsages(download.getKey());
+    assertEquals(2, stored.size());
+    assertEquals(
+        100L,
+        stored.stream()
+            .filter(u -> u.getDatasetKey().equals(dataset1.getKey()))
+            .findFirst()
+            .get()
+            .getNumberRecords());
+  }
+
+  /**
+   * Compares the throughput of the COPY path with the batched VALUES statements for different
+   * numbers of usages. Run it with -Dbenchmarks=true.
+   */
+  @Tag("benchmark")
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  @ParameterizedTest
+  @ValueSource(ints = {1_000, 10_000, 100_000})
+  public void loadUsagesThroughputTest(int numberUsages) throws SQLException {
+    Download download = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download);
+    Download download2 = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download2);
+
+    Dataset dataset = testDataFactory.newPersistedDataset(new DOI("10.21373/dataset1"));
+    Map<UUID, Long> usages = seedDatasets(dataset.getKey(), numberUsages);
+
+    long start = System.nanoTime();
+    Iterators.partition(usages.entrySet().iterator(), 5_000)
+        .forEachRemaining(
+            batch -> {
+              Map<UUID, Long> batchMap = new HashMap<>();
+              batch.forEach(e -> batchMap.put(e.getKey(), e.getValue()));
+              datasetOccurrenceDownloadMapper.createOrUpdateUsages(download.getKey(), batchMap);
+            });
+    long valuesMillis = (System.nanoTime() - start) / 1_000_000;
+
+    start = System.nanoTime();
+    copyLoader.load(download2.getKey(), usages);
+    long copyMillis = (System.nanoTime() - start) / 1_000_000;
+
+    LOG.info(
+        "{} usages: VALUES batches {} ms ({} usages/s), COPY {} ms ({} usages/s)",
+        numberUsages,
+        valuesMillis,
+        numberUsages * 1000L / Math.max(valuesMillis, 1),
+        copyMillis,
+        numberUsages * 1000L / Math.max(copyMillis, 1));
+
+    assertEquals(numberUsages, countUsages(download.getKey()));
+    assertEquals(numberUsages, countUsages(download2.getKey()));
+  }
+
+  /** Clones the given dataset to have the number of datasets requested. */
+  private Map<UUID, Long> seedDatasets(UUID datasetKey, int numberDatasets) throws SQLException {
+    Map<UUID, Long> usages = new HashMap<>();
+    try (Connection c = dataSource.getConnection()) {
+      try (PreparedStatement ps =
+          c.prepareStatement(
+              "CREATE TEMPORARY TABLE dataset_seed AS "
+                  + "SELECT d.* FROM dataset d, generate_series(1, ?) WHERE d.key = ?")) {
+        ps.setInt(1, numberDatasets - 1);
+        ps.setObject(2, datasetKey);
+        ps.execute();
+      }
+      try (Statement st = c.createStatement()) {
+        st.execute(
+            "UPDATE dataset_seed SET key = md5(random()::text || clock_timestamp()::text)::uuid");
+        st.execute("INSERT INTO dataset SELECT * FROM dataset_seed");
+        try (ResultSet rs = st.executeQuery("SELECT key FROM dataset_seed")) {
+          while (rs.next()) {
+            usages.put(rs.getObject(1, UUID.class), (long) usages.size() + 1);
+          }
+        }
+        st.execute("DROP TABLE dataset_seed");
+      }
+    }
+    usages.put(datasetKey, 1L);
+    return usages;
+  }
+
+  private int countUsages(String downloadKey) throws SQLException {
+    try (Connection c = dataSource.getConnection();
+        PreparedStatement ps =
+            c.prepareStatement(
+                "SELECT count(*) FROM dataset_occurrence_download WHERE download_key = ?")) {
+      ps.setString(1, downloadKey);
+      try (ResultSet rs = ps.executeQuery()) {
+        rs.next();
+        return rs.getInt(1);
+      }
+    }
+  }
+
+  private List<DatasetOccurrenceDownloadUsage> listUsages(String downloadKey) {
+    return datasetOccurrenceDownloadMapper.listByDownload(
+        downloadKey, null, null, null, new PagingRequest(0, 10));
+  }
+}
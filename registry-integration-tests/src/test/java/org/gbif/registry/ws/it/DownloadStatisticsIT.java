@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.it;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.model.occurrence.Download;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.service.registry.OccurrenceDownloadService;
+import org.gbif.registry.database.TestCaseDatabaseInitializer;
+import org.gbif.registry.search.test.EsManageServer;
+import org.gbif.registry.test.TestDataFactory;
+import org.gbif.registry.ws.resources.scheduled.UpdateDownloadStatsService;
+import org.gbif.ws.client.filter.SimplePrincipalProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the download statistics updated incrementally are the same as the ones computed by
+ * the full reconciliation.
+ */
+public class DownloadStatisticsIT extends BaseItTest {
+
+  private static final String[] STATISTICS_QUERIES = {
+    "SELECT year_month, publishing_organization_country, dataset_key, total_records, number_downloads, type "
+        + "FROM download_statistics ORDER BY year_month, dataset_key, publishing_organization_country",
+    "SELECT year_month, user_country, total_records, number_downloads, type "
+        + "FROM download_user_statistics ORDER BY year_month, user_country",
+    "SELECT year_month, source, total_records, number_downloads, type "
+        + "FROM download_source_statistics ORDER BY year_month, source"
+  };
+
+  @RegisterExtension
+  protected TestCaseDatabaseInitializer databaseRule = new TestCaseDatabaseInitializer();
+
+  private final OccurrenceDownloadService occurrenceDownloadResource;
+  private final UpdateDownloadStatsService updateDownloadStatsService;
+  private final TestDataFactory testDataFactory;
+  private final DataSource dataSource;
+
+  @Autowired
+  public DownloadStatisticsIT(
+      @Qualifier("occurrenceDownloadResource") OccurrenceDownloadService occurrenceDownloadResource,
+      UpdateDownloadStatsService updateDownloadStatsService,
+      TestDataFactory testDataFactory,
+      DataSource dataSource,
+      SimplePrincipalProvider simplePrincipalProvider,
+      EsManageServer esServer) {
+    super(simplePrincipalProvider, esServer);
+    this.occurrenceDownloadResource = occurrenceDownloadResource;
+    this.updateDownloadStatsService = updateDownloadStatsService;
+    this.testDataFactory = testDataFactory;
+    this.dataSource = dataSource;
+  }
+
+  @BeforeEach
+  public void clearStatistics() throws SQLException {
+    try (Connection c = dataSource.getConnection()) {
+      for (String table :
+          new String[] {
+            "download_statistics", "download_user_statistics", "download_source_statistics"
+          }) {
+        try (PreparedStatement ps = c.prepareStatement("DELETE FROM " + table)) {
+          ps.execute();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void incrementalStatisticsTest() throws SQLException {
+    Dataset dataset1 = testDataFactory.newPersistedDataset(new DOI("10.21373/dataset1"));
+    Dataset dataset2 = testDataFactory.newPersistedDataset(new DOI("10.21373/dataset2"));
+
+    // usages added before the download succeeds
+    Download download1 = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download1);
+    Map<UUID, Long> usages = new HashMap<>();
+    usages.put(dataset1.getKey(), 10L);
+    usages.put(dataset2.getKey(), 20L);
+    occurrenceDownloadResource.createUsages(download1.getKey(), usages);
+    succeed(download1, 30L);
+
+    // usages added after the download succeeds
+    Download download2 = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download2);
+    succeed(download2, 5L);
+    occurrenceDownloadResource.createUsages(download2.getKey(), usages);
+    // usages updated
+    usages.put(dataset1.getKey(), 1L);
+    occurrenceDownloadResource.createUsages(download2.getKey(), usages);
+
+    // a failed download doesn't count
+    Download download3 = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download3);
+    occurrenceDownloadResource.createUsages(download3.getKey(), usages);
+    download3.setStatus(Download.Status.FAILED);
+    occurrenceDownloadResource.update(download3);
+
+    List<List<List<Object>>> incremental = readStatistics();
+    assertFalse(incremental.get(0).isEmpty());
+
+    // the reconciliation of the current month has to produce the same results
+    updateDownloadStatsService.updateDownloadStatisticsEndpoint();
+    assertEquals(readStatistics(), incremental);
+  }
+
+  @Test
+  public void subtractedStatisticsAreDeletedTest() throws SQLException {
+    Dataset dataset = testDataFactory.newPersistedDataset(new DOI("10.21373/dataset1"));
+
+    Download download = OccurrenceDownloadIT.getTestInstancePredicateDownload();
+    occurrenceDownloadResource.create(download);
+    occurrenceDownloadResource.createUsages(
+        download.getKey(), Collections.singletonMap(dataset.getKey(), 10L));
+    succeed(download, 10L);
+    assertFalse(readStatistics().get(0).isEmpty());
+
+    // the download leaves the counted statuses, no rows without downloads are left behind
+    Download current = occurrenceDownloadResource.get(download.getKey());
+    current.setStatus(Download.Status.CANCELLED);
+    occurrenceDownloadResource.update(current);
+
+    readStatistics().forEach(rows -> assertTrue(rows.isEmpty()));
+  }
+
+  private void succeed(Download download, long totalRecords) {
+    Download current = occurrenceDownloadResource.get(download.getKey());
+    current.setStatus(Download.Status.SUCCEEDED);
+    current.setSize(100L);
+    current.setTotalRecords(totalRecords);
+    occurrenceDownloadResource.update(current);
+  }
+
+  private List<List<List<Object>>> readStatistics() throws SQLException {
+    List<List<List<Object>>> statistics = new ArrayList<>();
+    try (Connection c = dataSource.getConnection()) {
+      for (String query : STATISTICS_QUERIES) {
+        List<List<Object>> rows = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(query);
+            ResultSet rs = ps.executeQuery()) {
+          ResultSetMetaData metaData = rs.getMetaData();
+          while (rs.next()) {
+            List<Object> row = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+              row.add(rs.getObject(i));
+            }
+            rows.add(row);
+          }
+        }
+        statistics.add(rows);
+      }
+    }
+    return statistics;
+  }
+}
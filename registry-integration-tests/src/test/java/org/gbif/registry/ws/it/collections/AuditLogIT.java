@@ -68,6 +68,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -230,6 +231,58 @@ public class AuditLogIT extends BaseItTest {
     assertDeletionCollectionEntity(key3);
   }
 
+  @Test
+  public void institutionMergeMovedCollectionsLogsTest() {
+    Institution i1 = new Institution();
+    i1.setCode("m1");
+    i1.setName("m1");
+    UUID key1 = institutionClient.create(i1);
+
+    Institution i2 = new Institution();
+    i2.setCode("m2");
+    i2.setName("m2");
+    UUID key2 = institutionClient.create(i2);
+
+    int numCollections = 3;
+    for (int i = 0; i < numCollections; i++) {
+      Collection c = new Collection();
+      c.setCode("mc" + i);
+      c.setName("mc" + i);
+      c.setInstitutionKey(key1);
+      collectionClient.create(c);
+    }
+
+    MergeParams mergeParams = new MergeParams();
+    mergeParams.setReplacementEntityKey(key2);
+    institutionClient.merge(key1, mergeParams);
+
+    List<AuditLog> logs =
+        auditLogMapper.list(
+            AuditLogListParams.builder()
+                .collectionEntityKey(key1)
+                .operation(EventType.REPLACE.name())
+                .build(),
+            new PagingRequest());
+    assertEquals(1, logs.size());
+    logs =
+        auditLogMapper.list(
+            AuditLogListParams.builder().traceId(logs.get(0).getTraceId()).build(),
+            new PagingRequest());
+
+    // the replace, the update of the replacement and an update for every moved collection
+    assertEquals(2 + numCollections, logs.size());
+    List<AuditLog> collectionLogs =
+        logs.stream()
+            .filter(l -> l.getCollectionEntityType() == CollectionEntityType.COLLECTION)
+            .collect(Collectors.toList());
+    assertEquals(numCollections, collectionLogs.size());
+    for (AuditLog log : collectionLogs) {
+      assertEquals(EventType.UPDATE.name(), log.getOperation());
+      assertTrue(log.getPreState().contains(key1.toString()));
+      assertTrue(log.getPostState().contains(key2.toString()));
+    }
+  }
+
   @Test
   public void collectionLogsTest() {
     Collection c = new Collection();
@@ -566,12 +619,17 @@ public class AuditLogIT extends BaseItTest {
     logs =
         auditLogMapper.list(
             AuditLogListParams.builder().traceId(mergeTraceId).build(), new PagingRequest());
-    assertTrue(logs.size() > 1);
-    // the replace operation is set on the old entity and the rest of the operations to the
-    // replacement
+    // the replace operation is set on the old entity and all the changes of the replacement are
+    // logged in a single update
+    assertEquals(2, logs.size());
     assertEquals(
-        logs.size() - 1,
-        logs.stream().filter(l -> l.getCollectionEntityKey().equals(replacementKey)).count());
+        1,
+        logs.stream()
+            .filter(
+                l ->
+                    l.getCollectionEntityKey().equals(replacementKey)
+                        && l.getOperation().equals(EventType.UPDATE.name()))
+            .count());
     assertTrue(logs.stream().allMatch(l -> l.getCollectionEntityType() == collectionEntityType));
   }
 }
@@ -40,15 +40,16 @@ import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.model.registry.MachineTaggable;
 import org.gbif.api.model.registry.Tag;
 import org.gbif.api.model.registry.Taggable;
-import org.gbif.api.service.collections.BatchService;
 import org.gbif.api.service.collections.ChangeSuggestionService;
 import org.gbif.api.service.collections.CollectionEntityService;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.IdentifierType;
 import org.gbif.api.vocabulary.UserRole;
 import org.gbif.api.vocabulary.collections.Source;
+import org.gbif.registry.domain.collections.BatchProgress;
 import org.gbif.registry.persistence.mapper.collections.params.DuplicatesSearchParams;
 import org.gbif.registry.security.ResourceNotFoundService;
+import org.gbif.registry.service.collections.batch.RegistryBatchService;
 import org.gbif.registry.service.collections.duplicates.DuplicatesService;
 import org.gbif.registry.service.collections.merge.MergeService;
 import org.gbif.registry.ws.client.collections.BaseCollectionEntityClient;
@@ -58,6 +59,7 @@ import org.gbif.registry.ws.it.fixtures.RequestTestFixture;
 import org.gbif.registry.ws.it.fixtures.TestConstants;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -589,7 +591,7 @@ abstract class BaseCollectionEntityResourceIT<
   @Test
   public void importBatchTest() throws Exception {
     int key = 1;
-    when(getBatchService().handleBatch(any(), any(), any())).thenReturn(key);
+    when(getBatchService().handleBatch(any(Path.class), any(Path.class), any())).thenReturn(key);
 
     Resource collectionsResource = new ClassPathResource("collections/collections.csv");
     Resource contactsResource = new ClassPathResource("collections/collections_contacts.csv");
@@ -640,6 +642,33 @@ abstract class BaseCollectionEntityResourceIT<
         .andExpect(jsonPath("state").value(batch.getState().name()));
   }
 
+  @Test
+  public void getBatchProgressTest() throws Exception {
+    BatchProgress progress = new BatchProgress();
+    progress.setKey(1);
+    progress.setState(Batch.State.IN_PROGRESS);
+    progress.setTotalRecords(10);
+    progress.setProcessedRecords(4);
+    progress.setFailedRecords(1);
+
+    // the batch services also report the progress of their batches
+    when(getBatchService().getProgress(anyInt())).thenReturn(progress);
+
+    mockMvc
+        .perform(
+            get(
+                "/grscicoll/"
+                    + paramType.getSimpleName().toLowerCase()
+                    + "/batch/"
+                    + progress.getKey()
+                    + "/progress"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("state").value(progress.getState().name()))
+        .andExpect(jsonPath("totalRecords").value(progress.getTotalRecords()))
+        .andExpect(jsonPath("processedRecords").value(progress.getProcessedRecords()))
+        .andExpect(jsonPath("failedRecords").value(progress.getFailedRecords()));
+  }
+
   @Test
   public void getBatchResultFileTest() throws Exception {
     Batch batch = new Batch();
@@ -677,5 +706,5 @@ abstract class BaseCollectionEntityResourceIT<
 
   protected abstract R newChangeSuggestion();
 
-  protected abstract BatchService getBatchService();
+  protected abstract RegistryBatchService getBatchService();
 }
@@ -22,15 +22,15 @@ import org.gbif.api.model.collections.view.CollectionView;
 import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.search.collections.KeyCodeNameResult;
-import org.gbif.api.service.collections.BatchService;
 import org.gbif.api.service.collections.ChangeSuggestionService;
 import org.gbif.api.service.collections.CollectionEntityService;
-import org.gbif.api.service.collections.CollectionService;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.GbifRegion;
 import org.gbif.api.vocabulary.collections.AccessionStatus;
 import org.gbif.api.vocabulary.collections.PreservationType;
+import org.gbif.registry.service.collections.RegistryCollectionService;
 import org.gbif.registry.service.collections.batch.CollectionBatchService;
+import org.gbif.registry.service.collections.batch.RegistryBatchService;
 import org.gbif.registry.service.collections.duplicates.CollectionDuplicatesService;
 import org.gbif.registry.service.collections.duplicates.DuplicatesService;
 import org.gbif.registry.service.collections.merge.CollectionMergeService;
@@ -54,12 +54,16 @@ import org.springframework.boot.web.server.LocalServerPort;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class CollectionResourceIT
     extends BaseCollectionEntityResourceIT<Collection, CollectionChangeSuggestion> {
 
-  @MockBean private CollectionService collectionService;
+  @MockBean private RegistryCollectionService collectionService;
 
   @MockBean private CollectionDuplicatesService collectionDuplicatesService;
 
@@ -105,6 +109,25 @@ public class CollectionResourceIT
     assertEquals(views.size(), result.getResults().size());
   }
 
+  @Test
+  public void listAfterKeyTest() throws Exception {
+    UUID afterKey = UUID.randomUUID();
+    PagingResponse<CollectionView> response =
+        new PagingResponse<>(new PagingRequest(), null, Collections.emptyList());
+    response.setEndOfRecords(true);
+    when(collectionService.list(any(CollectionSearchRequest.class), eq(afterKey), eq(false)))
+        .thenReturn(response);
+
+    mockMvc
+        .perform(
+            get("/grscicoll/collection")
+                .param("afterKey", afterKey.toString())
+                .param("count", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.endOfRecords").value(true))
+        .andExpect(jsonPath("$.count").doesNotExist());
+  }
+
   @Test
   public void testSuggest() {
     KeyCodeNameResult r1 = new KeyCodeNameResult(UUID.randomUUID(), "c1", "n1");
@@ -172,7 +195,7 @@ public class CollectionResourceIT
   }
 
   @Override
-  protected BatchService getBatchService() {
+  protected RegistryBatchService getBatchService() {
     return collectionBatchService;
   }
 
@@ -22,15 +22,15 @@ import org.gbif.api.model.collections.suggestions.Type;
 import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.search.collections.KeyCodeNameResult;
-import org.gbif.api.service.collections.BatchService;
 import org.gbif.api.service.collections.ChangeSuggestionService;
 import org.gbif.api.service.collections.CollectionEntityService;
-import org.gbif.api.service.collections.InstitutionService;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.GbifRegion;
 import org.gbif.api.vocabulary.collections.Discipline;
 import org.gbif.api.vocabulary.collections.InstitutionGovernance;
+import org.gbif.registry.service.collections.RegistryInstitutionService;
 import org.gbif.registry.service.collections.batch.InstitutionBatchService;
+import org.gbif.registry.service.collections.batch.RegistryBatchService;
 import org.gbif.registry.service.collections.duplicates.DuplicatesService;
 import org.gbif.registry.service.collections.duplicates.InstitutionDuplicatesService;
 import org.gbif.registry.service.collections.merge.InstitutionMergeService;
@@ -56,12 +56,16 @@ import org.springframework.boot.web.server.LocalServerPort;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class InstitutionResourceIT
     extends BaseCollectionEntityResourceIT<Institution, InstitutionChangeSuggestion> {
 
-  @MockBean private InstitutionService institutionService;
+  @MockBean private RegistryInstitutionService institutionService;
 
   @MockBean private InstitutionDuplicatesService institutionDuplicatesService;
 
@@ -108,6 +112,25 @@ public class InstitutionResourceIT
     assertEquals(institutions.size(), result.getResults().size());
   }
 
+  @Test
+  public void listAfterKeyTest() throws Exception {
+    UUID afterKey = UUID.randomUUID();
+    PagingResponse<Institution> response =
+        new PagingResponse<>(new PagingRequest(), null, Collections.emptyList());
+    response.setEndOfRecords(true);
+    when(institutionService.list(any(InstitutionSearchRequest.class), eq(afterKey), eq(false)))
+        .thenReturn(response);
+
+    mockMvc
+        .perform(
+            get("/grscicoll/institution")
+                .param("afterKey", afterKey.toString())
+                .param("count", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.endOfRecords").value(true))
+        .andExpect(jsonPath("$.count").doesNotExist());
+  }
+
   @Test
   public void listAsGeoJsonTest() {
     FeatureCollection featureCollection = new FeatureCollection();
@@ -222,7 +245,7 @@ public class InstitutionResourceIT
   }
 
   @Override
-  protected BatchService getBatchService() {
+  protected RegistryBatchService getBatchService() {
     return institutionBatchService;
   }
 
@@ -28,6 +28,7 @@ import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Identifier;
+import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.service.collections.CollectionService;
 import org.gbif.api.service.collections.InstitutionService;
 import org.gbif.api.service.registry.DatasetService;
@@ -46,10 +47,18 @@ import org.gbif.api.vocabulary.collections.IdType;
 import org.gbif.api.vocabulary.collections.MasterSourceType;
 import org.gbif.api.vocabulary.collections.PreservationType;
 import org.gbif.api.vocabulary.collections.Source;
+import org.gbif.registry.persistence.mapper.collections.CollectionMapper;
+import org.gbif.registry.persistence.mapper.collections.InstitutionMapper;
+import org.gbif.registry.persistence.mapper.collections.params.CollectionSearchParams;
 import org.gbif.registry.persistence.mapper.collections.params.DuplicatesSearchParams;
+import org.gbif.registry.service.collections.RegistryCollectionService;
 import org.gbif.registry.service.collections.duplicates.CollectionDuplicatesService;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -58,14 +67,22 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
 
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -75,20 +92,24 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 /** Tests the {@link CollectionService}. */
 public class CollectionServiceIT extends BaseCollectionEntityServiceIT<Collection> {
 
-  private final CollectionService collectionService;
+  private final RegistryCollectionService collectionService;
   private final CollectionDuplicatesService duplicatesService;
   private final InstitutionService institutionService;
+  private final SqlSessionFactory sqlSessionFactory;
+  private final DataSource dataSource;
 
   @Autowired
   public CollectionServiceIT(
       InstitutionService institutionService,
-      CollectionService collectionService,
+      RegistryCollectionService collectionService,
       DatasetService datasetService,
       NodeService nodeService,
       OrganizationService organizationService,
       InstallationService installationService,
       SimplePrincipalProvider principalProvider,
-      CollectionDuplicatesService duplicatesService) {
+      CollectionDuplicatesService duplicatesService,
+      SqlSessionFactory sqlSessionFactory,
+      DataSource dataSource) {
     super(
         collectionService,
         datasetService,
@@ -101,6 +122,8 @@ public class CollectionServiceIT extends BaseCollectionEntityServiceIT<Collectio
     this.collectionService = collectionService;
     this.duplicatesService = duplicatesService;
     this.institutionService = institutionService;
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.dataSource = dataSource;
   }
 
   @Test
@@ -937,4 +960,157 @@ public class CollectionServiceIT extends BaseCollectionEntityServiceIT<Collectio
     collectionService.deleteMasterSourceMetadata(collectionKey);
     assertDoesNotThrow(() -> collectionService.delete(collectionKey));
   }
+
+  @Test
+  public void listWithMultipleMatchingTagsTest() throws Exception {
+    List<UUID> keys = seedCatalogue(20);
+
+    CollectionSearchRequest request = new CollectionSearchRequest();
+    request.setMachineTagNamespace("paging.gbif.org");
+    request.setIdentifierType(IdentifierType.LSID);
+    request.setPage(new PagingRequest(0, 50));
+    PagingResponse<CollectionView> response = collectionService.list(request);
+
+    // every collection matches two machine tags and two identifiers but it's returned only once
+    assertEquals(keys.size(), response.getCount().intValue());
+    assertEquals(
+        keys.size(),
+        response.getResults().stream().map(v -> v.getCollection().getKey()).distinct().count());
+
+    // no deduplication step is needed in the list and count queries
+    CollectionSearchParams params =
+        CollectionSearchParams.builder()
+            .machineTagNamespace("paging.gbif.org")
+            .identifierType(IdentifierType.LSID)
+            .page(new PagingRequest(0, 50))
+            .build();
+    for (String statement : Arrays.asList("list", "count")) {
+      String plan = explain(CollectionMapper.class.getName() + "." + statement, params);
+      assertFalse(plan.contains("DISTINCT"), plan);
+      // a DISTINCT subquery can't be flattened by the planner
+      assertFalse(plan.contains("Subquery Scan"), plan);
+    }
+  }
+
+  @Test
+  public void suggestUsesTrigramIndexesTest() throws Exception {
+    MapperMethod.ParamMap<Object> paramMap = new MapperMethod.ParamMap<>();
+    paramMap.put("q", "botanic");
+    paramMap.put("param1", "botanic");
+
+    // the tables are tiny here, so sequential scans are disabled to see the indexes the
+    // planner can use. A q shorter than 3 characters has no trigram for the contains
+    // conditions and isn't asserted: those read the whole index or scan the table.
+    String plan = explain(CollectionMapper.class.getName() + ".suggest", paramMap, false);
+    assertTrue(plan.contains("collection_code_trgm_idx"), plan);
+    assertTrue(plan.contains("collection_name_trgm_idx"), plan);
+    assertFalse(plan.contains("Seq Scan"), plan);
+
+    plan = explain(InstitutionMapper.class.getName() + ".suggest", paramMap, false);
+    assertTrue(plan.contains("institution_code_trgm_idx"), plan);
+    assertTrue(plan.contains("institution_name_trgm_idx"), plan);
+    assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  @Test
+  public void listAfterKeyTest() {
+    seedCatalogue(15);
+
+    CollectionSearchRequest request = new CollectionSearchRequest();
+    request.setMachineTagNamespace("paging.gbif.org");
+    request.setPage(new PagingRequest(0, 50));
+    List<UUID> expected =
+        collectionService.list(request).getResults().stream()
+            .map(v -> v.getCollection().getKey())
+            .collect(Collectors.toList());
+
+    // pages continued after the last key return the same collections in the same order
+    List<UUID> paged = new ArrayList<>();
+    request.setPage(new PagingRequest(0, 4));
+    UUID afterKey = null;
+    PagingResponse<CollectionView> response;
+    do {
+      response = collectionService.list(request, afterKey, false);
+      assertNull(response.getCount());
+      response.getResults().forEach(v -> paged.add(v.getCollection().getKey()));
+      if (!response.getResults().isEmpty()) {
+        afterKey = paged.get(paged.size() - 1);
+      }
+    } while (!response.isEndOfRecords());
+    assertEquals(15, paged.size());
+    assertEquals(expected, paged);
+
+    // the count is for all the results, not only the ones after the key
+    response = collectionService.list(request, expected.get(0), true);
+    assertEquals(15, response.getCount());
+    assertEquals(expected.subList(1, 5), toKeys(response));
+
+    // the keyset is not supported for other sorts
+    request.setFuzzyName("collection");
+    UUID key = expected.get(0);
+    assertThrows(IllegalArgumentException.class, () -> collectionService.list(request, key, true));
+  }
+
+  private static List<UUID> toKeys(PagingResponse<CollectionView> response) {
+    return response.getResults().stream()
+        .map(v -> v.getCollection().getKey())
+        .collect(Collectors.toList());
+  }
+
+  private List<UUID> seedCatalogue(int size) {
+    List<UUID> keys = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      Collection collection = testData.newEntity();
+      collection.setCode("paging" + i);
+      collection.setName("collection " + i);
+      UUID key = collectionService.create(collection);
+      collectionService.addMachineTag(key, new MachineTag("paging.gbif.org", "a", "v" + i));
+      collectionService.addMachineTag(key, new MachineTag("paging.gbif.org", "b", "v" + i));
+      collectionService.addIdentifier(
+          key, new Identifier(IdentifierType.LSID, "urn:lsid:paging:a" + i));
+      collectionService.addIdentifier(
+          key, new Identifier(IdentifierType.LSID, "urn:lsid:paging:b" + i));
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  /** Returns the SQL of the statement followed by its query plan. */
+  private String explain(String statementId, CollectionSearchParams params) throws Exception {
+    MapperMethod.ParamMap<Object> paramMap = new MapperMethod.ParamMap<>();
+    paramMap.put("params", params);
+    paramMap.put("param1", params);
+    return explain(statementId, paramMap, true);
+  }
+
+  /**
+   * Returns the SQL of the statement followed by its query plan. Sequential scans can be disabled
+   * so the plan shows the indexes the query can use even when the test tables are tiny.
+   */
+  private String explain(
+      String statementId, MapperMethod.ParamMap<Object> paramMap, boolean seqScan)
+      throws Exception {
+    MappedStatement statement =
+        sqlSessionFactory.getConfiguration().getMappedStatement(statementId);
+    BoundSql boundSql = statement.getBoundSql(paramMap);
+
+    StringBuilder plan = new StringBuilder(boundSql.getSql()).append('\n');
+    try (Connection connection = dataSource.getConnection();
+        Statement settings = connection.createStatement();
+        PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+      settings.execute("SET enable_seqscan = " + seqScan);
+      try {
+        new DefaultParameterHandler(statement, paramMap, boundSql).setParameters(ps);
+        try (ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            plan.append(rs.getString(1)).append('\n');
+          }
+        }
+      } finally {
+        // the connection goes back to the pool
+        settings.execute("RESET enable_seqscan");
+      }
+    }
+    return plan.toString();
+  }
 }
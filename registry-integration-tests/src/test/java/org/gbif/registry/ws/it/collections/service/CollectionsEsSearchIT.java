@@ -0,0 +1,335 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.it.collections.service;
+
+import org.gbif.api.model.collections.Address;
+import org.gbif.api.model.collections.AlternativeCode;
+import org.gbif.api.model.collections.Collection;
+import org.gbif.api.model.collections.Institution;
+import org.gbif.api.model.collections.search.CollectionsSearchResponse;
+import org.gbif.api.service.collections.CollectionService;
+import org.gbif.api.service.collections.InstitutionService;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.registry.database.TestCaseDatabaseInitializer;
+import org.gbif.registry.domain.collections.TypeParam;
+import org.gbif.registry.persistence.mapper.collections.CollectionsSearchMapper;
+import org.gbif.registry.search.dataset.indexing.es.EsClient;
+import org.gbif.registry.search.dataset.service.collections.CollectionsEsIndexer;
+import org.gbif.registry.search.dataset.service.collections.CollectionsEsSearchService;
+import org.gbif.registry.search.dataset.service.collections.CollectionsSearchService;
+import org.gbif.registry.search.test.EsManageServer;
+import org.gbif.ws.client.filter.SimplePrincipalProvider;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.google.common.base.Stopwatch;
+
+import static org.gbif.registry.domain.collections.TypeParam.COLLECTION;
+import static org.gbif.registry.domain.collections.TypeParam.INSTITUTION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests the {@link CollectionsEsSearchService} and the {@link CollectionsEsIndexer} against an
+ * Elasticsearch server. The results are compared with the ones of the database search.
+ */
+public class CollectionsEsSearchIT extends BaseServiceIT {
+
+  private static final String ALIAS = "grscicoll_it";
+  private static final int UPDATE_TIMEOUT_SECS = 10;
+  private static final int UPDATE_POLL_MSECS = 20;
+
+  @RegisterExtension
+  protected TestCaseDatabaseInitializer databaseRule = new TestCaseDatabaseInitializer();
+
+  private final CollectionsSearchService dbSearchService;
+  private final InstitutionService institutionService;
+  private final CollectionService collectionService;
+  private final RestHighLevelClient restClient;
+  private final CollectionsEsIndexer indexer;
+  private final CollectionsEsSearchService esSearchService;
+
+  private final Institution i1 = new Institution();
+  private final Institution i2 = new Institution();
+  private final Collection c1 = new Collection();
+  private final Collection c2 = new Collection();
+
+  @Autowired
+  public CollectionsEsSearchIT(
+      SimplePrincipalProvider simplePrincipalProvider,
+      CollectionsSearchService collectionsSearchService,
+      InstitutionService institutionService,
+      CollectionService collectionService,
+      CollectionsSearchMapper collectionsSearchMapper,
+      EsManageServer esServer) {
+    super(simplePrincipalProvider);
+    // the Elasticsearch search is disabled in the context, so this one queries the database
+    this.dbSearchService = collectionsSearchService;
+    this.institutionService = institutionService;
+    this.collectionService = collectionService;
+    this.restClient = esServer.getRestClient();
+    this.indexer =
+        new CollectionsEsIndexer(
+            restClient, new EsClient(restClient), collectionsSearchMapper, ALIAS);
+    this.esSearchService = new CollectionsEsSearchService(restClient, ALIAS);
+  }
+
+  @BeforeEach
+  public void loadData() {
+    i1.setCode("I1");
+    i1.setName("Institution 1");
+    Address addressI1 = new Address();
+    addressI1.setCountry(Country.AFGHANISTAN);
+    addressI1.setAddress("foo street");
+    i1.setAddress(addressI1);
+    i1.setDisplayOnNHCPortal(false);
+    institutionService.create(i1);
+
+    i2.setCode("I2");
+    i2.setName("Institution 2");
+    i2.setDescription("different than i1");
+    i2.setAlternativeCodes(Collections.singletonList(new AlternativeCode("II2", "test")));
+    institutionService.create(i2);
+
+    c1.setCode("C1");
+    c1.setName("Collection 1");
+    c1.setInstitutionKey(i1.getKey());
+    Address addressC1 = new Address();
+    addressC1.setCountry(Country.SPAIN);
+    addressC1.setCity("Oviedo");
+    addressC1.setProvince("Asturias");
+    addressC1.setAddress("fake street");
+    c1.setAddress(addressC1);
+    collectionService.create(c1);
+
+    c2.setCode("C2");
+    c2.setName("Collection 2");
+    c2.setInstitutionKey(i2.getKey());
+    collectionService.create(c2);
+
+    // the index is rebuilt from the database for every test
+    indexer.reindexAll();
+  }
+
+  @Test
+  public void searchMatchesDbSearchTest() {
+    for (String q : new String[] {"Collection", "street", "oviedo", "asturias", "II2", "nothing"}) {
+      assertSameResponses(
+          dbSearchService.search(q, true, null, null, null, 10),
+          esSearchService.search(q, true, null, null, null, 10),
+          true);
+    }
+  }
+
+  @Test
+  public void searchHighlightsTest() {
+    List<CollectionsSearchResponse> responses =
+        esSearchService.search("oviedo", true, null, null, null, 10);
+    assertEquals(1, responses.size());
+    assertEquals(c1.getKey(), responses.get(0).getKey());
+    assertEquals(1, responses.get(0).getMatches().size());
+    CollectionsSearchResponse.Match match = responses.get(0).getMatches().iterator().next();
+    assertEquals("city", match.getField());
+    assertEquals("<b>Oviedo</b>", match.getSnippet());
+
+    responses = esSearchService.search("Collection", false, null, null, null, 10);
+    assertEquals(2, responses.size());
+    assertTrue(responses.stream().allMatch(r -> r.getMatches() == null));
+  }
+
+  @Test
+  public void searchFiltersMatchDbSearchTest() {
+    assertSameResponses(
+        dbSearchService.search(null, false, null, null, null, 10),
+        esSearchService.search(null, false, null, null, null, 10),
+        false);
+    for (TypeParam type : new TypeParam[] {INSTITUTION, COLLECTION}) {
+      assertSameResponses(
+          dbSearchService.search(null, false, type, null, null, 10),
+          esSearchService.search(null, false, type, null, null, 10),
+          false);
+    }
+    for (Boolean displayOnNHCPortal : new Boolean[] {true, false}) {
+      assertSameResponses(
+          dbSearchService.search(null, false, null, displayOnNHCPortal, null, 10),
+          esSearchService.search(null, false, null, displayOnNHCPortal, null, 10),
+          false);
+    }
+    for (Country country : new Country[] {Country.SPAIN, Country.DENMARK}) {
+      assertSameResponses(
+          dbSearchService.search(null, false, null, null, country, 10),
+          esSearchService.search(null, false, null, null, country, 10),
+          false);
+    }
+    assertSameResponses(
+        dbSearchService.search("C1", true, null, null, Country.SPAIN, 10),
+        esSearchService.search("C1", true, null, null, Country.SPAIN, 10),
+        false);
+
+    // the limit is applied
+    assertEquals(1, esSearchService.search(null, false, null, null, null, 1).size());
+  }
+
+  @Test
+  public void searchAfterUpdateTest() {
+    Collection collection = collectionService.get(c1.getKey());
+    collection.setName("Renamed");
+    collectionService.update(collection);
+    indexer.indexCollection(c1.getKey());
+    awaitIndex(() -> esSearchService.search("Renamed", false, null, null, null, 10).size() == 1);
+
+    assertSameResponses(
+        dbSearchService.search("Renamed", true, null, null, null, 10),
+        esSearchService.search("Renamed", true, null, null, null, 10),
+        true);
+    assertEquals(1, esSearchService.search("Collection", false, null, null, null, 10).size());
+
+    // the collections show the name of their institution
+    Institution institution = institutionService.get(i2.getKey());
+    institution.setName("Other name");
+    institutionService.update(institution);
+    indexer.indexInstitution(i2.getKey());
+    indexer.indexInstitutionCollections(i2.getKey());
+    awaitIndex(
+        () ->
+            esSearchService.search(null, false, COLLECTION, null, null, 10).stream()
+                .anyMatch(r -> "Other name".equals(r.getInstitutionName())));
+
+    assertSameResponses(
+        dbSearchService.search(null, false, null, null, null, 10),
+        esSearchService.search(null, false, null, null, null, 10),
+        false);
+  }
+
+  @Test
+  public void searchAfterDeleteTest() {
+    collectionService.delete(c2.getKey());
+    // the documents of deleted entities are removed
+    indexer.indexCollection(c2.getKey());
+    awaitIndex(() -> !containsKey(searchAll(), c2.getKey()));
+
+    institutionService.delete(i2.getKey());
+    indexer.delete(i2.getKey());
+    awaitIndex(() -> !containsKey(searchAll(), i2.getKey()));
+
+    List<CollectionsSearchResponse> responses = searchAll();
+    assertEquals(2, responses.size());
+    assertFalse(
+        containsKey(
+            esSearchService.search("Collection", false, null, null, null, 10), c2.getKey()));
+    assertSameResponses(
+        dbSearchService.search(null, false, null, null, null, 10), responses, false);
+  }
+
+  /**
+   * The ranking of both searches is different, so the responses are compared by key. The matches
+   * are compared by field because the snippets of the fuzzy matches of the database don't have
+   * highlights.
+   */
+  private static void assertSameResponses(
+      List<CollectionsSearchResponse> expected,
+      List<CollectionsSearchResponse> actual,
+      boolean compareMatches) {
+    assertEquals(expected.size(), actual.size());
+    Map<UUID, CollectionsSearchResponse> actualByKey =
+        actual.stream()
+            .collect(Collectors.toMap(CollectionsSearchResponse::getKey, Function.identity()));
+
+    for (CollectionsSearchResponse e : expected) {
+      CollectionsSearchResponse a = actualByKey.get(e.getKey());
+      assertTrue(a != null, "Missing response for " + e.getKey());
+      assertEquals(e.getType(), a.getType());
+      assertEquals(e.getCode(), a.getCode());
+      assertEquals(e.getName(), a.getName());
+      assertEquals(e.getDisplayOnNHCPortal(), a.getDisplayOnNHCPortal());
+      assertEquals(e.getCountry(), a.getCountry());
+      assertEquals(e.getMailingCountry(), a.getMailingCountry());
+      assertEquals(e.getInstitutionKey(), a.getInstitutionKey());
+      assertEquals(e.getInstitutionCode(), a.getInstitutionCode());
+      assertEquals(e.getInstitutionName(), a.getInstitutionName());
+
+      if (compareMatches) {
+        if (e.getMatches() == null) {
+          assertNull(a.getMatches());
+        } else {
+          assertEquals(matchedFields(e), matchedFields(a));
+          assertTrue(a.getMatches().stream().allMatch(m -> m.getSnippet().contains("<b>")));
+        }
+      }
+    }
+  }
+
+  private static Set<String> matchedFields(CollectionsSearchResponse response) {
+    return response.getMatches().stream()
+        .map(CollectionsSearchResponse.Match::getField)
+        .collect(Collectors.toSet());
+  }
+
+  private List<CollectionsSearchResponse> searchAll() {
+    return esSearchService.search(null, false, null, null, null, 10);
+  }
+
+  private static boolean containsKey(List<CollectionsSearchResponse> responses, UUID key) {
+    return responses.stream().anyMatch(r -> r.getKey().equals(key));
+  }
+
+  /** The indexer writes single entities asynchronously, so the index is polled until it's done. */
+  private void awaitIndex(BooleanSupplier condition) {
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    try {
+      while (true) {
+        restClient.indices().refresh(new RefreshRequest(ALIAS), RequestOptions.DEFAULT);
+        if (condition.getAsBoolean()) {
+          return;
+        }
+        if (stopwatch.elapsed(TimeUnit.SECONDS) > UPDATE_TIMEOUT_SECS) {
+          fail("The GRSciColl index wasn't updated in " + UPDATE_TIMEOUT_SECS + " seconds");
+        }
+        Thread.sleep(UPDATE_POLL_MSECS);
+      }
+    } catch (IOException | InterruptedException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  @DynamicPropertySource
+  static void properties(DynamicPropertyRegistry registry) {
+    registry.add("registry.datasource.url", PG_CONTAINER::getJdbcUrl);
+    registry.add("registry.datasource.username", PG_CONTAINER::getUsername);
+    registry.add("registry.datasource.password", PG_CONTAINER::getPassword);
+    registry.add("elasticsearch.mock", () -> "false");
+  }
+}
@@ -15,7 +15,7 @@ package org.gbif.registry.ws.it.collections.service;
 
 import java.sql.Connection;
 
-import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
@@ -23,7 +23,7 @@ import org.testcontainers.containers.PostgreSQLContainer;
 
 import lombok.SneakyThrows;
 
-public class CollectionsMaterializedViewsInitializer implements BeforeAllCallback {
+public class CollectionsMaterializedViewsInitializer implements BeforeEachCallback {
 
   private PostgreSQLContainer postgreSQLContainer;
 
@@ -35,14 +35,15 @@ public class CollectionsMaterializedViewsInitializer implements BeforeAllCallbac
 
   @SneakyThrows
   public void init(Connection connection) {
-    // create materialized view for testing
+    // reset the duplicates tables to the test fixtures. They are reset before each test because
+    // they are updated incrementally when collection entities are created in other tests
     ScriptUtils.executeSqlScript(
-        connection, new ClassPathResource("/scripts/create_duplicates_views.sql"));
+        connection, new ClassPathResource("/scripts/duplicates_fixtures.sql"));
     connection.close();
   }
 
   @Override
-  public void beforeAll(ExtensionContext extensionContext) throws Exception {
+  public void beforeEach(ExtensionContext extensionContext) throws Exception {
     init(postgreSQLContainer.createConnection(""));
   }
 }
@@ -25,6 +25,7 @@ import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.model.registry.Organization;
+import org.gbif.api.model.registry.search.collections.KeyCodeNameResult;
 import org.gbif.api.service.collections.InstitutionService;
 import org.gbif.api.service.registry.DatasetService;
 import org.gbif.api.service.registry.InstallationService;
@@ -50,6 +51,7 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
@@ -488,6 +490,28 @@ public class InstitutionServiceIT extends BaseCollectionEntityServiceIT<Institut
     assertEquals(1, institutionService.suggest("name2").size());
   }
 
+  @Test
+  public void testSuggestRanking() {
+    createInstitution("X4", "Royal Botanic");
+    createInstitution("ABOT", "Museum");
+    createInstitution("C2", "Botanic garden");
+    createInstitution("BOT", "Zoo");
+
+    // code prefix first, then name prefix, code contains and name contains
+    assertEquals(
+        Arrays.asList("BOT", "C2", "ABOT", "X4"),
+        institutionService.suggest("bot").stream()
+            .map(KeyCodeNameResult::getCode)
+            .collect(Collectors.toList()));
+  }
+
+  private void createInstitution(String code, String name) {
+    Institution institution = testData.newEntity();
+    institution.setCode(code);
+    institution.setName(name);
+    institutionService.create(institution);
+  }
+
   @Test
   public void listDeletedTest() {
     Institution institution1 = testData.newEntity();
@@ -20,6 +20,7 @@ import org.gbif.api.model.common.export.ExportFormat;
 import org.gbif.api.service.collections.CollectionEntityService;
 import org.gbif.registry.database.TestCaseDatabaseInitializer;
 import org.gbif.registry.service.collections.batch.BaseBatchHandler;
+import org.gbif.registry.service.collections.batch.BatchResultFile;
 import org.gbif.registry.service.collections.batch.FileFields;
 import org.gbif.registry.service.collections.batch.model.ContactsParserResult;
 import org.gbif.registry.service.collections.batch.model.EntitiesParserResult;
@@ -39,15 +40,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
-import org.springframework.util.StreamUtils;
 
 import com.opencsv.CSVParser;
 import com.opencsv.CSVParserBuilder;
@@ -109,10 +106,6 @@ public abstract class BaseBatchHandlerIT<T extends CollectionEntity> extends Bas
 
   @Test
   public void createResultFileTest() throws IOException {
-    Resource institutionsFile =
-        new ClassPathResource("collections/" + entityType.name().toLowerCase() + "s.csv");
-    Resource contactsFile =
-        new ClassPathResource("collections/" + entityType.name().toLowerCase() + "s_contacts.csv");
     ExportFormat format = ExportFormat.CSV;
 
     T parsedEntity = newEntity();
@@ -135,20 +128,21 @@ public abstract class BaseBatchHandlerIT<T extends CollectionEntity> extends Bas
     ParsedData<T> parsedData =
         ParsedData.<T>builder()
             .entity(parsedEntity)
+            .values(new String[] {"", "c1", "n1", "desc1", "true"})
             .errors(Collections.singletonList("entity error"))
             .build();
 
-    ParsedData<T> parsedData2 = ParsedData.<T>builder().entity(parsedEntity2).build();
-
-    Map<String, ParsedData<T>> parsedDataMap = new HashMap<>();
-    parsedDataMap.put(parsedEntity.getCode(), parsedData);
-    parsedDataMap.put(parsedEntity2.getCode(), parsedData2);
+    ParsedData<T> parsedData2 =
+        ParsedData.<T>builder()
+            .entity(parsedEntity2)
+            .values(new String[] {"", "c2", "n2", "desc2", "true"})
+            .build();
 
     EntitiesParserResult<T> parserResult =
         EntitiesParserResult.<T>builder()
             .format(format)
             .fileHeadersIndex(fileHeadersIndex)
-            .parsedDataMap(parsedDataMap)
+            .codes(new HashSet<>(Arrays.asList("c1", "c2")))
             .build();
 
     Contact contact = new Contact();
@@ -156,11 +150,11 @@ public abstract class BaseBatchHandlerIT<T extends CollectionEntity> extends Bas
     contact.setFirstName("name1");
     contact.setLastName("lastn1");
     contact.setPosition(Collections.singletonList("tester"));
-    int contactHash = Objects.hash(Arrays.asList("name1", "lastn1", "tester"));
 
     ParsedData<Contact> contactParsedData =
         ParsedData.<Contact>builder()
             .entity(contact)
+            .values(new String[] {"", "name1", "lastn1", "tester"})
             .errors(Collections.singletonList("contact error"))
             .build();
 
@@ -174,16 +168,26 @@ public abstract class BaseBatchHandlerIT<T extends CollectionEntity> extends Bas
         ContactsParserResult.builder()
             .format(format)
             .fileHeadersIndex(contactsHeadersIndex)
-            .contactsByKey(Collections.singletonMap(String.valueOf(contactHash), contactParsedData))
+            .entityCodes(Collections.singleton("c1"))
             .build();
 
-    Path resultFile =
-        batchHandler.createResultFile(
-            StreamUtils.copyToByteArray(institutionsFile.getInputStream()),
-            StreamUtils.copyToByteArray(contactsFile.getInputStream()),
-            parserResult,
-            contactsParserResult,
-            1);
+    List<String> entityFields =
+        Arrays.asList(
+            FileFields.CommonFields.KEY,
+            FileFields.CommonFields.CODE,
+            FileFields.CommonFields.NAME,
+            FileFields.CommonFields.DESCRIPTION,
+            FileFields.CommonFields.ACTIVE);
+
+    Path resultFile = Files.createTempFile("batchResult-", ".zip");
+    try (BatchResultFile<T> batchResultFile =
+        new BatchResultFile<>(parserResult, entityFields, contactsParserResult)) {
+      // the rows are added as their chunks are processed
+      batchResultFile.addEntity(parsedData);
+      batchResultFile.addContact(contactParsedData);
+      batchResultFile.addEntity(parsedData2);
+      batchResultFile.zip(resultFile);
+    }
 
     List<Path> unzippedFiles = ZipUtils.unzip(resultFile, "src/test/resources/collections");
     assertEquals(2, unzippedFiles.size());
@@ -207,11 +211,19 @@ public abstract class BaseBatchHandlerIT<T extends CollectionEntity> extends Bas
           assertEquals(contactsHeadersIndex.size() + 1, headers.size());
         }
 
+        int rows = 0;
         String[] values;
         while ((values = csvReader.readNextSilently()) != null) {
           values = normalizeValues(headers.size(), values);
           assertNotNull(values[headers.indexOf(FileFields.CommonFields.KEY)]);
           assertNotNull(values[headers.indexOf(FileFields.CommonFields.ERRORS)]);
+          rows++;
+        }
+
+        if (unzipped.getFileName().toString().startsWith("result-")) {
+          assertEquals(2, rows);
+        } else {
+          assertEquals(1, rows);
         }
       }
     }
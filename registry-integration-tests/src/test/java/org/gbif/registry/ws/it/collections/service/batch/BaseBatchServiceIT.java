@@ -21,23 +21,26 @@ import org.gbif.api.model.collections.CollectionEntityType;
 import org.gbif.api.model.collections.Contact;
 import org.gbif.api.model.common.Identifier;
 import org.gbif.api.model.common.export.ExportFormat;
-import org.gbif.api.service.collections.BatchService;
 import org.gbif.api.service.collections.CollectionEntityService;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.IdentifierType;
 import org.gbif.api.vocabulary.UserRole;
 import org.gbif.registry.database.TestCaseDatabaseInitializer;
+import org.gbif.registry.domain.collections.BatchProgress;
 import org.gbif.registry.service.collections.batch.FileFields;
 import org.gbif.registry.service.collections.batch.FileParsingUtils;
+import org.gbif.registry.service.collections.batch.RegistryBatchService;
 import org.gbif.registry.ws.it.collections.service.BaseServiceIT;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Arrays;
@@ -66,7 +69,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 public abstract class BaseBatchServiceIT<T extends CollectionEntity> extends BaseServiceIT {
 
   private final CollectionEntityService<T> entityService;
-  private final BatchService batchService;
+  private final RegistryBatchService batchService;
   private final CollectionEntityType entityType;
 
   @RegisterExtension
@@ -76,7 +79,7 @@ public abstract class BaseBatchServiceIT<T extends CollectionEntity> extends Bas
   public BaseBatchServiceIT(
       SimplePrincipalProvider simplePrincipalProvider,
       CollectionEntityService<T> entityService,
-      BatchService batchService,
+      RegistryBatchService batchService,
       CollectionEntityType entityType) {
     super(simplePrincipalProvider);
     this.entityService = entityService;
@@ -138,6 +141,55 @@ public abstract class BaseBatchServiceIT<T extends CollectionEntity> extends Bas
     Files.delete(Paths.get(batch.getResultFilePath()));
   }
 
+  @Test
+  public void handleSpooledBatchTest() throws IOException {
+    Path entitiesPath = RegistryBatchService.createSpoolFile("entities");
+    Path contactsPath = RegistryBatchService.createSpoolFile("contacts");
+    try (InputStream entities = getEntitiesResource().getInputStream();
+        InputStream contacts = getContactsResource().getInputStream()) {
+      Files.copy(entities, entitiesPath, StandardCopyOption.REPLACE_EXISTING);
+      Files.copy(contacts, contactsPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    int key = batchService.handleBatch(entitiesPath, contactsPath, ExportFormat.CSV);
+
+    Batch batch = batchService.get(key);
+    assertTrue(batch.getErrors().isEmpty());
+    assertEquals(Batch.State.FINISHED, batch.getState());
+    assertEquals(2, listAllEntities().size());
+
+    // the service owns the spooled files and deletes them once the batch is handled
+    assertFalse(Files.exists(entitiesPath));
+    assertFalse(Files.exists(contactsPath));
+
+    Files.delete(Paths.get(batch.getResultFilePath()));
+  }
+
+  @Test
+  public void handleBatchProgressTest() throws IOException, SQLException {
+    T existing = newInstance();
+    existing.setKey(UUID.fromString("0b453274-d25e-4644-b860-327d5c54f173"));
+    existing.setCode("c2");
+    existing.setName("n2");
+    persistDBEntities(existing);
+
+    int key =
+        batchService.handleBatch(
+            StreamUtils.copyToByteArray(getEntitiesResource().getInputStream()),
+            StreamUtils.copyToByteArray(getContactsResource().getInputStream()),
+            ExportFormat.CSV);
+
+    // the batch services also report the progress of their batches
+    BatchProgress progress = batchService.getProgress(key);
+    assertEquals(key, progress.getKey());
+    assertEquals(Batch.State.FINISHED, progress.getState());
+    assertEquals(2, progress.getTotalRecords().intValue());
+    assertEquals(2, progress.getProcessedRecords());
+    assertEquals(0, progress.getFailedRecords());
+
+    Files.delete(Paths.get(batchService.get(key).getResultFilePath()));
+  }
+
   @Test
   public void importBatchWithoutPermissionsTest() throws IOException, SQLException {
     Resource entitiesFile = getEntitiesResource();
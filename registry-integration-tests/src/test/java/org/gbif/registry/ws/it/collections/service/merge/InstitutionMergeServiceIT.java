@@ -17,21 +17,30 @@ import org.gbif.api.model.collections.Collection;
 import org.gbif.api.model.collections.Contact;
 import org.gbif.api.model.collections.Institution;
 import org.gbif.api.model.collections.OccurrenceMapping;
+import org.gbif.api.model.collections.request.CollectionSearchRequest;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.service.collections.CollectionService;
 import org.gbif.api.service.collections.InstitutionService;
 import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.collections.CollectionsMovedEvent;
+import org.gbif.registry.events.collections.ReplaceEntityEvent;
+import org.gbif.registry.events.collections.UpdateCollectionEntityEvent;
 import org.gbif.registry.service.collections.merge.InstitutionMergeService;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.eventbus.Subscribe;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -44,13 +53,15 @@ public class InstitutionMergeServiceIT extends BaseMergeServiceIT<Institution> {
   private final InstitutionMergeService institutionMergeService;
   private final InstitutionService institutionService;
   private final CollectionService collectionService;
+  private final EventManager eventManager;
 
   @Autowired
   public InstitutionMergeServiceIT(
       SimplePrincipalProvider simplePrincipalProvider,
       InstitutionMergeService institutionMergeService,
       InstitutionService institutionService,
-      CollectionService collectionService) {
+      CollectionService collectionService,
+      EventManager eventManager) {
     super(
         simplePrincipalProvider,
         institutionMergeService,
@@ -63,6 +74,7 @@ public class InstitutionMergeServiceIT extends BaseMergeServiceIT<Institution> {
     this.institutionMergeService = institutionMergeService;
     this.institutionService = institutionService;
     this.collectionService = collectionService;
+    this.eventManager = eventManager;
   }
 
   @Test
@@ -151,6 +163,82 @@ public class InstitutionMergeServiceIT extends BaseMergeServiceIT<Institution> {
     assertTrue(newCollection.isActive());
   }
 
+  @Test
+  public void mergeMovesAllCollectionsTest() {
+    Institution toReplace = createEntityToReplace();
+    institutionService.create(toReplace);
+    Institution replacement = createReplacement();
+    institutionService.create(replacement);
+
+    // more collections than the default page size
+    int numCollections = 25;
+    List<UUID> collectionKeys = new ArrayList<>();
+    for (int i = 0; i < numCollections; i++) {
+      Collection collection = new Collection();
+      collection.setCode("c" + i);
+      collection.setName("collection " + i);
+      collection.setInstitutionKey(toReplace.getKey());
+      collectionKeys.add(collectionService.create(collection));
+    }
+
+    EventRecorder recorder = new EventRecorder();
+    eventManager.register(recorder);
+    try {
+      institutionMergeService.merge(toReplace.getKey(), replacement.getKey());
+    } finally {
+      eventManager.unregister(recorder);
+    }
+
+    // one event for the replaced entity, one for the replacement and one for all the moved
+    // collections
+    assertEquals(3, recorder.events.size());
+    assertEquals(1, recorder.count(ReplaceEntityEvent.class));
+    assertEquals(1, recorder.count(UpdateCollectionEntityEvent.class));
+    assertEquals(1, recorder.count(CollectionsMovedEvent.class));
+    CollectionsMovedEvent movedEvent =
+        recorder.events.stream()
+            .filter(CollectionsMovedEvent.class::isInstance)
+            .map(CollectionsMovedEvent.class::cast)
+            .findFirst()
+            .get();
+    assertEquals(replacement.getKey(), movedEvent.getTargetInstitutionKey());
+    assertEquals(numCollections, movedEvent.getNewObjects().size());
+    assertEquals(numCollections, movedEvent.getOldObjects().size());
+
+    assertEquals(
+        0,
+        collectionService
+            .list(CollectionSearchRequest.builder().institution(toReplace.getKey()).build())
+            .getCount()
+            .intValue());
+    assertEquals(
+        numCollections,
+        collectionService
+            .list(CollectionSearchRequest.builder().institution(replacement.getKey()).build())
+            .getCount()
+            .intValue());
+
+    for (UUID collectionKey : collectionKeys) {
+      assertEquals(replacement.getKey(), collectionService.get(collectionKey).getInstitutionKey());
+    }
+  }
+  }
+
+  /** Records all the events posted to the event bus. */
+  public static class EventRecorder {
+
+    private final List<Object> events = new ArrayList<>();
+
+    @Subscribe
+    public void record(Object event) {
+      events.add(event);
+    }
+
+    long count(Class<?> eventClass) {
+      return events.stream().filter(eventClass::isInstance).count();
+    }
+  }
+
   @Test
   public void convertToCollectionMissingArgsTest() {
     assertThrows(
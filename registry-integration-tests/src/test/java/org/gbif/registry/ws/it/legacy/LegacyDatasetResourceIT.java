@@ -36,6 +36,7 @@ import org.gbif.registry.test.TestDataFactory;
 import org.gbif.registry.ws.it.BaseItTest;
 import org.gbif.registry.ws.it.fixtures.RequestTestFixture;
 import org.gbif.registry.ws.it.fixtures.TestConstants;
+import org.gbif.registry.ws.util.LegacyResourceUtils;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
 import java.util.Date;
@@ -433,6 +434,63 @@ public class LegacyDatasetResourceIT extends BaseItTest {
     assertEquals(dataset.getTitle(), response.getName());
   }
 
+  /**
+   * The datasets owned by an organization are loaded with a lightweight query, and the responses
+   * must be the same as the ones built from the full datasets.
+   */
+  @Test
+  public void testGetLegacyDatasetsForOrganizationSameAsFullDatasets() throws Exception {
+    Organization organization = testDataFactory.newPersistedOrganization();
+    UUID organizationKey = organization.getKey();
+    Installation installation = testDataFactory.newPersistedInstallation(organizationKey);
+
+    // one dataset with a primary contact and another one without contacts
+    Dataset withContact =
+        testDataFactory.newPersistedDataset(organizationKey, installation.getKey());
+    Contact c = testDataFactory.newContact();
+    c.setType(ContactType.TECHNICAL_POINT_OF_CONTACT);
+    datasetService.addContact(withContact.getKey(), c);
+    Dataset withoutContact =
+        testDataFactory.newPersistedDataset(organizationKey, installation.getKey());
+
+    ResultActions actions =
+        requestTestFixture
+            .getRequest("/registry/resource.json?organisationKey=" + organizationKey)
+            .andExpect(status().is2xxSuccessful());
+    LegacyDatasetResponseListWrapper responseWrapper =
+        requestTestFixture.extractJsonResponse(actions, LegacyDatasetResponseListWrapper.class);
+    assertEquals(2, responseWrapper.getLegacyDatasetResponses().size());
+
+    // sorted by creation date, newest first
+    assertSameResponse(
+        datasetService.get(withoutContact.getKey()),
+        responseWrapper.getLegacyDatasetResponses().get(0));
+    assertSameResponse(
+        datasetService.get(withContact.getKey()),
+        responseWrapper.getLegacyDatasetResponses().get(1));
+    assertEquals(
+        TECHNICAL_CONTACT_TYPE,
+        responseWrapper.getLegacyDatasetResponses().get(1).getPrimaryContactType());
+  }
+
+  private void assertSameResponse(Dataset dataset, LegacyDatasetResponse actual) {
+    LegacyDatasetResponse expected =
+        new LegacyDatasetResponse(dataset, LegacyResourceUtils.getPrimaryContact(dataset));
+    assertEquals(expected.getKey(), actual.getKey());
+    assertEquals(expected.getOrganisationKey(), actual.getOrganisationKey());
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getNameLanguage(), actual.getNameLanguage());
+    assertEquals(expected.getDescription(), actual.getDescription());
+    assertEquals(expected.getDescriptionLanguage(), actual.getDescriptionLanguage());
+    assertEquals(expected.getHomepageURL(), actual.getHomepageURL());
+    assertEquals(expected.getPrimaryContactName(), actual.getPrimaryContactName());
+    assertEquals(expected.getPrimaryContactAddress(), actual.getPrimaryContactAddress());
+    assertEquals(expected.getPrimaryContactEmail(), actual.getPrimaryContactEmail());
+    assertEquals(expected.getPrimaryContactPhone(), actual.getPrimaryContactPhone());
+    assertEquals(expected.getPrimaryContactDescription(), actual.getPrimaryContactDescription());
+    assertEquals(expected.getPrimaryContactType(), actual.getPrimaryContactType());
+  }
+
   /**
    * The test sends a get dataset (GET) request, the JSON response having all of: key,
    * organisationKey, name, description, nameLanguage, descriptionLanguage, homepageURL,
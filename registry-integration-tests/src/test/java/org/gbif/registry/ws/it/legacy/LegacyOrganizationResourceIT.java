@@ -29,15 +29,26 @@ import org.gbif.registry.ws.it.BaseItTest;
 import org.gbif.registry.ws.it.fixtures.RequestTestFixture;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.google.common.io.ByteStreams;
+
 import static org.gbif.registry.domain.ws.util.LegacyResourceConstants.TECHNICAL_CONTACT_TYPE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class LegacyOrganizationResourceIT extends BaseItTest {
@@ -49,6 +60,7 @@ public class LegacyOrganizationResourceIT extends BaseItTest {
   private final NodeService nodeService;
   private final TestDataFactory testDataFactory;
   private final RequestTestFixture requestTestFixture;
+  private final MockMvc mockMvc;
 
   @Autowired
   public LegacyOrganizationResourceIT(
@@ -56,6 +68,7 @@ public class LegacyOrganizationResourceIT extends BaseItTest {
       NodeService nodeService,
       TestDataFactory testDataFactory,
       RequestTestFixture requestTestFixture,
+      MockMvc mockMvc,
       SimplePrincipalProvider principalProvider,
       EsManageServer esServer) {
     super(principalProvider, esServer);
@@ -63,6 +76,7 @@ public class LegacyOrganizationResourceIT extends BaseItTest {
     this.nodeService = nodeService;
     this.testDataFactory = testDataFactory;
     this.requestTestFixture = requestTestFixture;
+    this.mockMvc = mockMvc;
   }
 
   /**
@@ -252,6 +266,50 @@ public class LegacyOrganizationResourceIT extends BaseItTest {
     assertEquals(organization.getTitle(), response.getName());
   }
 
+  /**
+   * The test sends a get all organizations (GET) request with the ETag of a previous response, and
+   * the organizations are not sent again until an organization changes.
+   */
+  @Test
+  public void testGetOrganizationsNotModified() throws Exception {
+    testDataFactory.newPersistedOrganization();
+
+    String uri = "/registry/organisation.json";
+    ResultActions actions = requestTestFixture.getRequest(uri).andExpect(status().isOk());
+    String etag = requestTestFixture.getHeader(actions, HttpHeaders.ETAG);
+    assertNotNull(etag);
+    assertTrue(
+        requestTestFixture.getHeader(actions, HttpHeaders.CACHE_CONTROL).contains("max-age"));
+
+    mockMvc
+        .perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+
+    // a new organization changes the listing
+    testDataFactory.newPersistedOrganization();
+    mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+  }
+
+  /** The listing is sent gzipped if the client accepts it. */
+  @Test
+  public void testGetOrganizationsGzipped() throws Exception {
+    Organization organization = testDataFactory.newPersistedOrganization();
+
+    MockHttpServletResponse response =
+        mockMvc
+            .perform(get("/registry/organisation.json").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse();
+
+    try (GZIPInputStream in =
+        new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      String content = new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+      assertTrue(content.contains(organization.getKey().toString()));
+    }
+  }
+
   /**
    * The test sends a password reminder (GET) request with op=password parameter, which triggers an
    * email to the primary contact of the organization with the password included.
@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.it.persistence.mapper;
+
+import org.gbif.api.model.ChallengeCode;
+import org.gbif.api.model.common.GbifUser;
+import org.gbif.api.model.registry.Node;
+import org.gbif.api.model.registry.Organization;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.Language;
+import org.gbif.api.vocabulary.NodeType;
+import org.gbif.api.vocabulary.ParticipationStatus;
+import org.gbif.api.vocabulary.UserRole;
+import org.gbif.registry.persistence.mapper.NodeMapper;
+import org.gbif.registry.persistence.mapper.OrganizationMapper;
+import org.gbif.registry.persistence.mapper.UserMapper;
+import org.gbif.registry.persistence.mapper.surety.ChallengeCodeMapper;
+import org.gbif.registry.search.test.EsManageServer;
+import org.gbif.registry.ws.it.BaseItTest;
+import org.gbif.ws.client.filter.SimplePrincipalProvider;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ChallengeCodeMapperIT extends BaseItTest {
+
+  private final ChallengeCodeMapper mapper;
+  private final UserMapper userMapper;
+  private final OrganizationMapper organizationMapper;
+  private final NodeMapper nodeMapper;
+
+  @Autowired
+  public ChallengeCodeMapperIT(
+      ChallengeCodeMapper mapper,
+      UserMapper userMapper,
+      OrganizationMapper organizationMapper,
+      NodeMapper nodeMapper,
+      SimplePrincipalProvider principalProvider,
+      EsManageServer esServer) {
+    super(principalProvider, esServer);
+    this.mapper = mapper;
+    this.userMapper = userMapper;
+    this.organizationMapper = organizationMapper;
+    this.nodeMapper = nodeMapper;
+  }
+
+  @Test
+  public void testCreateAndLink() {
+    GbifUser user = createUser("challenge_user");
+    assertNull(mapper.getLinkedChallengeCode(ChallengeCodeMapper.USER, user.getKey()));
+
+    ChallengeCode challengeCode = ChallengeCode.newRandom("data");
+    Integer challengeCodeKey =
+        mapper.createAndLinkChallengeCode(ChallengeCodeMapper.USER, user.getKey(), challengeCode);
+    assertNotNull(challengeCodeKey);
+    assertEquals(challengeCodeKey, userMapper.getChallengeCodeKey(user.getKey()));
+
+    ChallengeCode linked = mapper.getLinkedChallengeCode(ChallengeCodeMapper.USER, user.getKey());
+    assertEquals(challengeCodeKey, linked.getKey());
+    assertEquals(challengeCode.getCode(), linked.getCode());
+    assertEquals("data", linked.getData());
+
+    // unknown entities aren't linked
+    assertNull(
+        mapper.createAndLinkChallengeCode(ChallengeCodeMapper.USER, -1, ChallengeCode.newRandom()));
+  }
+
+  @Test
+  public void testUnlinkAndDelete() {
+    GbifUser user = createUser("challenge_user");
+    Integer challengeCodeKey =
+        mapper.createAndLinkChallengeCode(
+            ChallengeCodeMapper.USER, user.getKey(), ChallengeCode.newRandom());
+
+    assertEquals(1, mapper.unlinkAndDeleteChallengeCode(ChallengeCodeMapper.USER, user.getKey()));
+    assertNull(userMapper.getChallengeCodeKey(user.getKey()));
+    assertNull(mapper.getChallengeCodeObject(challengeCodeKey));
+
+    // nothing to delete the second time
+    assertEquals(0, mapper.unlinkAndDeleteChallengeCode(ChallengeCodeMapper.USER, user.getKey()));
+  }
+
+  @Test
+  public void testOrganizationChallengeCode() {
+    UUID organizationKey = createOrganization();
+    assertNull(mapper.getLinkedChallengeCode(ChallengeCodeMapper.ORGANIZATION, organizationKey));
+
+    ChallengeCode challengeCode = ChallengeCode.newRandom();
+    Integer challengeCodeKey =
+        mapper.createAndLinkChallengeCode(
+            ChallengeCodeMapper.ORGANIZATION, organizationKey, challengeCode);
+    assertNotNull(challengeCodeKey);
+    assertEquals(challengeCodeKey, organizationMapper.getChallengeCodeKey(organizationKey));
+    assertEquals(
+        challengeCode.getCode(),
+        mapper.getLinkedChallengeCode(ChallengeCodeMapper.ORGANIZATION, organizationKey).getCode());
+
+    assertEquals(
+        1, mapper.unlinkAndDeleteChallengeCode(ChallengeCodeMapper.ORGANIZATION, organizationKey));
+    assertNull(organizationMapper.getChallengeCodeKey(organizationKey));
+    assertNull(mapper.getChallengeCodeObject(challengeCodeKey));
+  }
+
+  @Test
+  public void testUnsupportedEntity() {
+    assertThrows(
+        DataAccessException.class,
+        () -> mapper.getLinkedChallengeCode("dataset", UUID.randomUUID()));
+    assertThrows(
+        DataAccessException.class,
+        () -> mapper.unlinkAndDeleteChallengeCode("dataset", UUID.randomUUID()));
+  }
+
+  @Test
+  public void testDeleteExpiredChallengeCodes() {
+    GbifUser pendingUser = createUser("pending_user");
+    GbifUser activeUser = createUser("active_user");
+    userMapper.updateLastLogin(activeUser.getKey());
+    mapper.createAndLinkChallengeCode(
+        ChallengeCodeMapper.USER, pendingUser.getKey(), ChallengeCode.newRandom());
+    mapper.createAndLinkChallengeCode(
+        ChallengeCodeMapper.USER, activeUser.getKey(), ChallengeCode.newRandom());
+    ChallengeCode orphan = ChallengeCode.newRandom();
+    mapper.createChallengeCode(orphan);
+
+    // nothing is old enough yet
+    Date past = Date.from(Instant.now().minus(1, ChronoUnit.DAYS));
+    assertEquals(0, mapper.deleteExpiredChallengeCodes(past));
+
+    // the code of the user pending confirmation is kept
+    Date future = Date.from(Instant.now().plus(1, ChronoUnit.DAYS));
+    assertEquals(2, mapper.deleteExpiredChallengeCodes(future));
+    assertNotNull(userMapper.getChallengeCodeKey(pendingUser.getKey()));
+    assertNull(userMapper.getChallengeCodeKey(activeUser.getKey()));
+    assertNull(mapper.getChallengeCodeObject(orphan.getKey()));
+  }
+
+  private UUID createOrganization() {
+    Node node = new Node();
+    node.setKey(UUID.randomUUID());
+    node.setTitle("node");
+    node.setType(NodeType.COUNTRY);
+    node.setParticipationStatus(ParticipationStatus.AFFILIATE);
+    node.setCreatedBy("test");
+    nodeMapper.create(node);
+
+    Organization organization = new Organization();
+    organization.setKey(UUID.randomUUID());
+    organization.setEndorsingNodeKey(node.getKey());
+    organization.setTitle("organization");
+    organization.setLanguage(Language.ENGLISH);
+    organization.setPassword("password");
+    organization.setCreatedBy("test");
+    organization.setCountry(Country.DENMARK);
+    organizationMapper.create(organization);
+    return organization.getKey();
+  }
+
+  private GbifUser createUser(String userName) {
+    GbifUser user = new GbifUser();
+    user.setUserName(userName);
+    user.setFirstName("John");
+    user.setLastName("Doe");
+    user.setEmail(userName + "@gbif.org");
+    user.setPasswordHash("$S$DtF4Xp0rohjeVvFuA7TOkfLsdhXnDMqfRjNvU.5g9468TPQojcPA");
+    user.setRoles(Collections.singleton(UserRole.USER));
+    userMapper.create(user);
+    return user;
+  }
+}
@@ -14,6 +14,7 @@
 package org.gbif.registry.ws.it.persistence.mapper;
 
 import org.gbif.api.model.collections.Collection;
+import org.gbif.api.model.collections.CollectionEntityType;
 import org.gbif.api.model.collections.Institution;
 import org.gbif.api.model.collections.MasterSourceMetadata;
 import org.gbif.api.model.registry.MachineTag;
@@ -25,8 +26,11 @@ import org.gbif.registry.persistence.mapper.collections.CollectionMapper;
 import org.gbif.registry.persistence.mapper.collections.DuplicatesMapper;
 import org.gbif.registry.persistence.mapper.collections.InstitutionMapper;
 import org.gbif.registry.persistence.mapper.collections.MasterSourceSyncMetadataMapper;
+import org.gbif.registry.persistence.mapper.collections.dto.DuplicateDto;
 import org.gbif.registry.persistence.mapper.collections.dto.DuplicateMetadataDto;
+import org.gbif.registry.persistence.mapper.collections.params.DuplicatesSearchParams;
 import org.gbif.registry.search.test.EsManageServer;
+import org.gbif.registry.service.collections.duplicates.DuplicatesUpdater;
 import org.gbif.registry.ws.it.BaseItTest;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
@@ -34,15 +38,26 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.gbif.registry.domain.collections.Constants.IDIGBIO_NAMESPACE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DuplicatesMapperIT extends BaseItTest {
@@ -56,6 +71,8 @@ public class DuplicatesMapperIT extends BaseItTest {
   private CollectionMapper collectionMapper;
   private MachineTagMapper machineTagMapper;
   private MasterSourceSyncMetadataMapper masterSourceMetadataMapper;
+  private DuplicatesUpdater duplicatesUpdater;
+  private TransactionTemplate transactionTemplate;
 
   @Autowired
   public DuplicatesMapperIT(
@@ -64,6 +81,8 @@ public class DuplicatesMapperIT extends BaseItTest {
       CollectionMapper collectionMapper,
       MachineTagMapper machineTagMapper,
       MasterSourceSyncMetadataMapper masterSourceMetadataMapper,
+      DuplicatesUpdater duplicatesUpdater,
+      PlatformTransactionManager transactionManager,
       SimplePrincipalProvider principalProvider,
       EsManageServer esServer) {
     super(principalProvider, esServer);
@@ -72,6 +91,8 @@ public class DuplicatesMapperIT extends BaseItTest {
     this.collectionMapper = collectionMapper;
     this.machineTagMapper = machineTagMapper;
     this.masterSourceMetadataMapper = masterSourceMetadataMapper;
+    this.duplicatesUpdater = duplicatesUpdater;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   @Test
@@ -171,4 +192,185 @@ public class DuplicatesMapperIT extends BaseItTest {
             new HashSet<>(Arrays.asList(c1.getKey(), c2.getKey())));
     assertEquals(2, metadataDtos.size());
   }
+
+  @Test
+  public void incrementalInstitutionDuplicatesTest() {
+    duplicatesMapper.deleteInstitutionDuplicates(null);
+
+    Institution inst1 = newInstitution("i1", "Natural History Museum");
+    Institution inst2 = newInstitution("i1", "Museum of Zoology");
+    Institution inst3 = newInstitution("i3", "Natural History Museum");
+    Institution inst4 = newInstitution("i4", "Botanical Garden");
+    for (Institution i : Arrays.asList(inst1, inst2, inst3, inst4)) {
+      institutionMapper.create(i);
+      duplicatesMapper.deleteInstitutionDuplicates(i.getKey());
+      duplicatesMapper.insertInstitutionDuplicates(i.getKey());
+    }
+
+    List<DuplicateDto> incremental =
+        duplicatesMapper.getInstitutionDuplicates(new DuplicatesSearchParams());
+    assertEquals(2, incremental.size());
+
+    // only the pairs of the changed entity are recomputed
+    inst4.setCode("i3");
+    institutionMapper.update(inst4);
+    duplicatesMapper.deleteInstitutionDuplicates(inst4.getKey());
+    duplicatesMapper.insertInstitutionDuplicates(inst4.getKey());
+    incremental = duplicatesMapper.getInstitutionDuplicates(new DuplicatesSearchParams());
+    assertEquals(3, incremental.size());
+
+    institutionMapper.delete(inst1.getKey());
+    duplicatesMapper.deleteInstitutionDuplicates(inst1.getKey());
+    duplicatesMapper.insertInstitutionDuplicates(inst1.getKey());
+    incremental = duplicatesMapper.getInstitutionDuplicates(new DuplicatesSearchParams());
+    assertEquals(1, incremental.size());
+
+    // the result has to be the same as a full recompute
+    duplicatesMapper.deleteInstitutionDuplicates(null);
+    duplicatesMapper.insertInstitutionDuplicates(null);
+    List<DuplicateDto> full =
+        duplicatesMapper.getInstitutionDuplicates(new DuplicatesSearchParams());
+    assertEquals(pairs(full), pairs(incremental));
+  }
+
+  @Test
+  public void incrementalCollectionDuplicatesTest() {
+    duplicatesMapper.deleteCollectionDuplicates(null);
+
+    Collection c1 = newCollection("c1", "Herbarium");
+    Collection c2 = newCollection("c1", "Insects");
+    Collection c3 = newCollection("c3", "Herbarium");
+    for (Collection c : Arrays.asList(c1, c2, c3)) {
+      collectionMapper.create(c);
+      duplicatesMapper.deleteCollectionDuplicates(c.getKey());
+      duplicatesMapper.insertCollectionDuplicates(c.getKey());
+    }
+
+    List<DuplicateDto> incremental =
+        duplicatesMapper.getCollectionDuplicates(new DuplicatesSearchParams());
+    assertEquals(2, incremental.size());
+
+    c3.setName("Fossils");
+    collectionMapper.update(c3);
+    duplicatesMapper.deleteCollectionDuplicates(c3.getKey());
+    duplicatesMapper.insertCollectionDuplicates(c3.getKey());
+    incremental = duplicatesMapper.getCollectionDuplicates(new DuplicatesSearchParams());
+    assertEquals(1, incremental.size());
+
+    duplicatesMapper.deleteCollectionDuplicates(null);
+    duplicatesMapper.insertCollectionDuplicates(null);
+    List<DuplicateDto> full =
+        duplicatesMapper.getCollectionDuplicates(new DuplicatesSearchParams());
+    assertEquals(pairs(full), pairs(incremental));
+  }
+
+  @Test
+  public void concurrentInstitutionUpdatesTest() throws Exception {
+    duplicatesMapper.deleteInstitutionDuplicates(null);
+    Institution inst1 = newInstitution("i1", "Natural History Museum");
+    Institution inst2 = newInstitution("i1", "Museum of Zoology");
+    institutionMapper.create(inst1);
+    institutionMapper.create(inst2);
+
+    // both entities of the pair are refreshed at the same time
+    refreshConcurrently(
+        () -> duplicatesUpdater.updateDuplicates(CollectionEntityType.INSTITUTION, inst1.getKey()),
+        () -> duplicatesUpdater.updateDuplicates(CollectionEntityType.INSTITUTION, inst2.getKey()));
+
+    List<DuplicateDto> duplicates =
+        duplicatesMapper.getInstitutionDuplicates(new DuplicatesSearchParams());
+    assertEquals(1, duplicates.size());
+  }
+
+  @Test
+  public void collectionUpdateDuringRebuildTest() throws Exception {
+    duplicatesMapper.deleteCollectionDuplicates(null);
+    Collection c1 = newCollection("c1", "Herbarium");
+    Collection c2 = newCollection("c1", "Insects");
+    collectionMapper.create(c1);
+    collectionMapper.create(c2);
+
+    // an entity is refreshed while the full recompute runs
+    refreshConcurrently(
+        () -> duplicatesUpdater.updateDuplicates(CollectionEntityType.COLLECTION, c1.getKey()),
+        duplicatesUpdater::rebuildAll);
+
+    List<DuplicateDto> duplicates =
+        duplicatesMapper.getCollectionDuplicates(new DuplicatesSearchParams());
+    assertEquals(1, duplicates.size());
+  }
+
+  /**
+   * Runs the first refresh in a transaction that stays open until the second refresh, run in
+   * another transaction, is blocked by it. Both transactions have to commit.
+   */
+  private void refreshConcurrently(Runnable first, Runnable second) throws Exception {
+    CountDownLatch firstRefreshed = new CountDownLatch(1);
+    CountDownLatch commitFirst = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> firstResult =
+          executor.submit(
+              () ->
+                  transactionTemplate.executeWithoutResult(
+                      status -> {
+                        first.run();
+                        firstRefreshed.countDown();
+                        try {
+                          commitFirst.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                        }
+                      }));
+      assertTrue(firstRefreshed.await(30, TimeUnit.SECONDS));
+
+      Future<?> secondResult =
+          executor.submit(() -> transactionTemplate.executeWithoutResult(status -> second.run()));
+      // the second refresh waits for the pair inserted by the first transaction
+      assertThrows(TimeoutException.class, () -> secondResult.get(1, TimeUnit.SECONDS));
+
+      commitFirst.countDown();
+      firstResult.get(30, TimeUnit.SECONDS);
+      secondResult.get(30, TimeUnit.SECONDS);
+    } finally {
+      commitFirst.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  private Institution newInstitution(String code, String name) {
+    Institution institution = new Institution();
+    institution.setKey(UUID.randomUUID());
+    institution.setCode(code);
+    institution.setName(name);
+    institution.setCreatedBy("test");
+    institution.setModifiedBy("test");
+    return institution;
+  }
+
+  private Collection newCollection(String code, String name) {
+    Collection collection = new Collection();
+    collection.setKey(UUID.randomUUID());
+    collection.setCode(code);
+    collection.setName(name);
+    collection.setCreatedBy("test");
+    collection.setModifiedBy("test");
+    return collection;
+  }
+
+  private static Set<String> pairs(List<DuplicateDto> dtos) {
+    return dtos.stream()
+        .map(
+            d ->
+                d.getKey1()
+                    + "-"
+                    + d.getKey2()
+                    + "-"
+                    + d.isCodeMatch()
+                    + d.isNameMatch()
+                    + d.isFuzzyNameMatch()
+                    + d.isCityMatch()
+                    + d.isCountryMatch())
+        .collect(Collectors.toSet());
+  }
 }
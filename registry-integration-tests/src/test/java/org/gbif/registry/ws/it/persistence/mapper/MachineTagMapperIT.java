@@ -14,16 +14,27 @@
 package org.gbif.registry.ws.it.persistence.mapper;
 
 import org.gbif.api.model.registry.MachineTag;
+import org.gbif.api.model.registry.Node;
+import org.gbif.api.vocabulary.NodeType;
+import org.gbif.api.vocabulary.ParticipationStatus;
 import org.gbif.registry.database.TestCaseDatabaseInitializer;
 import org.gbif.registry.persistence.mapper.MachineTagMapper;
+import org.gbif.registry.persistence.mapper.NodeMapper;
 import org.gbif.registry.search.test.EsManageServer;
 import org.gbif.registry.ws.it.BaseItTest;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MachineTagMapperIT extends BaseItTest {
@@ -33,12 +44,17 @@ public class MachineTagMapperIT extends BaseItTest {
       new TestCaseDatabaseInitializer("machine_tag");
 
   private final MachineTagMapper mapper;
+  private final NodeMapper nodeMapper;
 
   @Autowired
   public MachineTagMapperIT(
-      MachineTagMapper mapper, SimplePrincipalProvider principalProvider, EsManageServer esServer) {
+      MachineTagMapper mapper,
+      NodeMapper nodeMapper,
+      SimplePrincipalProvider principalProvider,
+      EsManageServer esServer) {
     super(principalProvider, esServer);
     this.mapper = mapper;
+    this.nodeMapper = nodeMapper;
   }
 
   @Test
@@ -54,4 +70,56 @@ public class MachineTagMapperIT extends BaseItTest {
     MachineTag machineTagStored = mapper.get(machineTag.getKey());
     assertTrue(machineTag.lenientEquals(machineTagStored));
   }
+
+  @Test
+  public void testBulkAddAndDelete() {
+    UUID node1 = insertNode();
+    UUID node2 = insertNode();
+    UUID unknownNode = UUID.randomUUID();
+    UUID deletedNode = insertNode();
+    nodeMapper.delete(deletedNode);
+
+    // the unknown and deleted entities are skipped
+    MachineTag machineTag = new MachineTag("test-namespace.gbif.org", "tagName", "tagValue");
+    machineTag.setCreatedBy("test");
+    List<UUID> tagged =
+        mapper.addMachineTagToEntities(
+            "node", Arrays.asList(node1, node2, unknownNode, deletedNode), machineTag);
+    assertEquals(new HashSet<>(Arrays.asList(node1, node2)), new HashSet<>(tagged));
+    assertTrue(nodeMapper.listMachineTags(deletedNode).isEmpty());
+    assertEquals(1, nodeMapper.listMachineTags(node1).size());
+    assertEquals(1, nodeMapper.listMachineTags(node2).size());
+    assertTrue(machineTag.lenientEquals(nodeMapper.listMachineTags(node1).get(0)));
+
+    MachineTag other = new MachineTag("test-namespace.gbif.org", "otherName", "otherValue");
+    other.setCreatedBy("test");
+    mapper.addMachineTagToEntities("node", Collections.singletonList(node1), other);
+    assertEquals(2, nodeMapper.listMachineTags(node1).size());
+
+    // only the machine tags with the name are deleted
+    List<UUID> changed =
+        mapper.deleteMachineTagsFromEntities(
+            "node", Arrays.asList(node1, node2), "test-namespace.gbif.org", "tagName", null);
+    assertEquals(new HashSet<>(Arrays.asList(node1, node2)), new HashSet<>(changed));
+    assertEquals(1, nodeMapper.listMachineTags(node1).size());
+    assertTrue(nodeMapper.listMachineTags(node2).isEmpty());
+
+    // the whole namespace
+    changed =
+        mapper.deleteMachineTagsFromEntities(
+            "node", Arrays.asList(node1, node2), "test-namespace.gbif.org", null, null);
+    assertEquals(Collections.singletonList(node1), changed);
+    assertTrue(nodeMapper.listMachineTags(node1).isEmpty());
+  }
+
+  private UUID insertNode() {
+    Node node = new Node();
+    node.setKey(UUID.randomUUID());
+    node.setTitle("node");
+    node.setType(NodeType.COUNTRY);
+    node.setParticipationStatus(ParticipationStatus.AFFILIATE);
+    node.setCreatedBy("test");
+    nodeMapper.create(node);
+    return node.getKey();
+  }
 }
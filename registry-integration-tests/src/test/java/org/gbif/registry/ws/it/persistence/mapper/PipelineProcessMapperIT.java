@@ -19,6 +19,7 @@ import org.gbif.api.model.pipelines.PipelineProcess;
 import org.gbif.api.model.pipelines.PipelineStep;
 import org.gbif.api.model.pipelines.StepRunner;
 import org.gbif.api.model.pipelines.StepType;
+import org.gbif.api.model.pipelines.ws.SearchResult;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Installation;
 import org.gbif.api.model.registry.Node;
@@ -40,12 +41,26 @@ import org.gbif.registry.search.test.EsManageServer;
 import org.gbif.registry.ws.it.BaseItTest;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import static org.gbif.api.model.pipelines.PipelineStep.MetricInfo;
@@ -54,10 +69,13 @@ import static org.gbif.registry.ws.it.fixtures.TestConstants.PAGE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PipelineProcessMapperIT extends BaseItTest {
 
+  private static final Logger LOG = LoggerFactory.getLogger(PipelineProcessMapperIT.class);
+
   @RegisterExtension
   protected TestCaseDatabaseInitializer databaseRule =
       new TestCaseDatabaseInitializer(
@@ -73,6 +91,7 @@ public class PipelineProcessMapperIT extends BaseItTest {
   private InstallationMapper installationMapper;
   private OrganizationMapper organizationMapper;
   private NodeMapper nodeMapper;
+  private DataSource dataSource;
 
   @Autowired
   public PipelineProcessMapperIT(
@@ -81,6 +100,7 @@ public class PipelineProcessMapperIT extends BaseItTest {
       InstallationMapper installationMapper,
       OrganizationMapper organizationMapper,
       NodeMapper nodeMapper,
+      DataSource dataSource,
       SimplePrincipalProvider principalProvider,
       EsManageServer esServer) {
     super(principalProvider, esServer);
@@ -89,6 +109,7 @@ public class PipelineProcessMapperIT extends BaseItTest {
     this.installationMapper = installationMapper;
     this.organizationMapper = organizationMapper;
     this.nodeMapper = nodeMapper;
+    this.dataSource = dataSource;
   }
 
   @Test
@@ -278,6 +299,281 @@ public class PipelineProcessMapperIT extends BaseItTest {
         expectedResult, pipelineProcessMapper.list(datasetKey, attempt, DEFAULT_PAGE).size());
   }
 
+  @Test
+  public void listWithExecutionsAndStepsTest() {
+    // insert some processes with executions and steps
+    UUID datasetKey = insertDataset();
+    for (int attempt = 1; attempt <= 5; attempt++) {
+      insertProcessWithSteps(datasetKey, attempt, LocalDateTime.now().minusHours(attempt));
+    }
+
+    // the same processes are returned continuing after the last key or with offsets
+    List<PipelineProcess> withOffsets = new ArrayList<>();
+    List<PipelineProcess> withKeyset = new ArrayList<>();
+    Long afterKey = null;
+    for (long offset = 0; offset < 5; offset += 2) {
+      withOffsets.addAll(pipelineProcessMapper.list(datasetKey, null, PAGE.apply(2, offset)));
+      List<PipelineProcess> page =
+          pipelineProcessMapper.list(datasetKey, null, afterKey, PAGE.apply(2, 0L));
+      withKeyset.addAll(page);
+      afterKey = page.get(page.size() - 1).getKey();
+    }
+    assertEquals(5, withKeyset.size());
+    assertEquals(keys(withOffsets), keys(withKeyset));
+    assertTrue(
+        pipelineProcessMapper.list(datasetKey, null, afterKey, PAGE.apply(2, 0L)).isEmpty());
+
+    // the executions and steps are loaded as with the get
+    for (PipelineProcess process : withKeyset) {
+      PipelineProcess expected = pipelineProcessMapper.get(process.getKey());
+      assertEquals("title", process.getDatasetTitle());
+      assertEquals(2, process.getExecutions().size());
+      assertEquals(expected.getExecutions(), process.getExecutions());
+      process.getExecutions().forEach(e -> assertEquals(2, e.getSteps().size()));
+    }
+  }
+
+  @Test
+  public void searchWithKeysetTest() {
+    UUID datasetKey = insertDataset();
+    for (int attempt = 1; attempt <= 3; attempt++) {
+      insertProcessWithSteps(datasetKey, attempt, LocalDateTime.now().minusHours(attempt));
+    }
+    // 3 processes with 2 executions of 2 steps each
+    assertEquals(
+        12,
+        pipelineProcessMapper.searchCount(
+            datasetKey, null, null, null, null, null, null, null, null));
+
+    // the same steps are returned continuing after the last result or with offsets
+    List<SearchResult> withOffsets = new ArrayList<>();
+    List<SearchResult> withKeyset = new ArrayList<>();
+    SearchResult last = null;
+    for (long offset = 0; offset < 12; offset += 5) {
+      withOffsets.addAll(
+          pipelineProcessMapper.search(
+              datasetKey, null, null, null, null, null, null, null, null, PAGE.apply(5, offset)));
+      List<SearchResult> page =
+          pipelineProcessMapper.search(
+              datasetKey,
+              null,
+              null,
+              null,
+              null,
+              null,
+              null,
+              null,
+              null,
+              last != null ? last.getExecutionKey() : null,
+              last != null ? last.getStepType() : null,
+              PAGE.apply(5, 0L));
+      withKeyset.addAll(page);
+      last = page.get(page.size() - 1);
+    }
+    assertEquals(12, withKeyset.size());
+    assertEquals(steps(withOffsets), steps(withKeyset));
+
+    // most recently started first
+    for (int i = 1; i < withKeyset.size(); i++) {
+      assertFalse(
+          withKeyset.get(i).getStepStarted().isAfter(withKeyset.get(i - 1).getStepStarted()));
+    }
+  }
+
+  @Test
+  public void runningExecutionsTest() {
+    UUID datasetKey = insertDataset();
+    PipelineProcess process =
+        new PipelineProcess().setDatasetKey(datasetKey).setAttempt(1).setCreatedBy(TEST_USER);
+    pipelineProcessMapper.createIfNotExists(process);
+
+    PipelineExecution execution = new PipelineExecution().setCreatedBy(TEST_USER);
+    pipelineProcessMapper.addPipelineExecution(process.getKey(), execution);
+    PipelineStep verbatim =
+        new PipelineStep()
+            .setType(StepType.DWCA_TO_VERBATIM)
+            .setState(Status.COMPLETED)
+            .setStarted(LocalDateTime.now().minusMinutes(2))
+            .setFinished(LocalDateTime.now().minusMinutes(1))
+            .setCreatedBy(TEST_USER);
+    pipelineProcessMapper.addPipelineStep(execution.getKey(), verbatim);
+    PipelineStep interpretation =
+        new PipelineStep()
+            .setType(StepType.VERBATIM_TO_INTERPRETED)
+            .setState(Status.RUNNING)
+            .setStarted(LocalDateTime.now())
+            .setCreatedBy(TEST_USER);
+    pipelineProcessMapper.addPipelineStep(execution.getKey(), interpretation);
+
+    // not in the running executions until marked
+    assertEquals(0, pipelineProcessMapper.getRunningPipelineProcessCount());
+    pipelineProcessMapper.markPipelineExecutionAsRunning(execution.getKey());
+    assertEquals(1, pipelineProcessMapper.getRunningPipelineProcessCount());
+    assertEquals(
+        execution.getKey(), pipelineProcessMapper.getRunningExecutionKey(datasetKey).longValue());
+    assertEquals(
+        Status.RUNNING, pipelineProcessMapper.getRunningExecutionState(execution.getKey()));
+
+    List<PipelineProcess> running = pipelineProcessMapper.getRunningPipelineProcess(DEFAULT_PAGE);
+    assertEquals(1, running.size());
+    assertEquals("title", running.get(0).getDatasetTitle());
+    assertEquals(1, running.get(0).getExecutions().size());
+    assertEquals(2, running.get(0).getExecutions().iterator().next().getSteps().size());
+
+    // the state follows the updates of the steps
+    pipelineProcessMapper.updatePipelineStep(interpretation.setState(Status.FAILED));
+    assertEquals(Status.FAILED, pipelineProcessMapper.getRunningExecutionState(execution.getKey()));
+    pipelineProcessMapper.updatePipelineStep(
+        interpretation.setState(Status.COMPLETED).setFinished(LocalDateTime.now()));
+    assertEquals(
+        Status.COMPLETED, pipelineProcessMapper.getRunningExecutionState(execution.getKey()));
+
+    // finished executions are removed
+    pipelineProcessMapper.markPipelineExecutionIfFinished(execution.getKey());
+    assertEquals(0, pipelineProcessMapper.getRunningPipelineProcessCount());
+    assertTrue(pipelineProcessMapper.getRunningPipelineProcess(DEFAULT_PAGE).isEmpty());
+    assertNull(pipelineProcessMapper.getRunningExecutionKey(datasetKey));
+    assertNull(pipelineProcessMapper.getRunningExecutionState(execution.getKey()));
+
+    // and added again when marked as running
+    pipelineProcessMapper.markPipelineExecutionAsRunning(execution.getKey());
+    assertEquals(1, pipelineProcessMapper.getRunningPipelineProcessCount());
+    pipelineProcessMapper.markPipelineStatusAsAborted(execution.getKey());
+    assertEquals(0, pipelineProcessMapper.getRunningPipelineProcessCount());
+  }
+
+  /**
+   * Benchmark of deep pages of the search with offsets and with keysets, and of the count, against
+   * a seeded table of 2 million steps. Run it with -Dbenchmarks=true.
+   */
+  @Tag("benchmark")
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  @Test
+  public void searchDeepPagesBenchmark() throws SQLException {
+    int processes = 250_000;
+    seedSteps(insertDataset(), processes);
+    int limit = 20;
+
+    for (long offset : new long[] {0, 10_000, 100_000, 1_000_000}) {
+      long offsetMillis =
+          time(
+              () ->
+                  pipelineProcessMapper.search(
+                      null, null, null, null, null, null, null, null, null,
+                      PAGE.apply(limit, offset)));
+
+      // the cursor of the previous page, taken outside of the measure
+      SearchResult last =
+          offset == 0
+              ? null
+              : pipelineProcessMapper
+                  .search(
+                      null, null, null, null, null, null, null, null, null,
+                      PAGE.apply(1, offset - 1))
+                  .get(0);
+      long keysetMillis =
+          time(
+              () ->
+                  pipelineProcessMapper.search(
+                      null, null, null, null, null, null, null, null, null,
+                      last != null ? last.getExecutionKey() : null,
+                      last != null ? last.getStepType() : null,
+                      PAGE.apply(limit, 0L)));
+
+      LOG.info(
+          "Page at {} of {} steps: offset {} ms, keyset {} ms",
+          offset,
+          processes * 8,
+          offsetMillis,
+          keysetMillis);
+    }
+
+    long countMillis =
+        time(
+            () ->
+                pipelineProcessMapper.searchCount(
+                    null, null, null, null, null, null, null, null, null));
+    LOG.info("Count of {} steps: {} ms", processes * 8, countMillis);
+  }
+
+  private void insertProcessWithSteps(UUID datasetKey, int attempt, LocalDateTime started) {
+    PipelineProcess process =
+        new PipelineProcess()
+            .setDatasetKey(datasetKey)
+            .setAttempt(attempt)
+            .setCreatedBy(TEST_USER);
+    pipelineProcessMapper.createIfNotExists(process);
+
+    for (int i = 0; i < 2; i++) {
+      PipelineExecution execution = new PipelineExecution().setCreatedBy(TEST_USER);
+      pipelineProcessMapper.addPipelineExecution(process.getKey(), execution);
+      for (StepType type : new StepType[] {StepType.DWCA_TO_VERBATIM, StepType.HDFS_VIEW}) {
+        pipelineProcessMapper.addPipelineStep(
+            execution.getKey(),
+            new PipelineStep()
+                .setType(type)
+                .setState(Status.COMPLETED)
+                // steps of the same execution start at the same time to check the ties
+                .setStarted(started.plusMinutes(i))
+                .setFinished(started.plusMinutes(i + 1))
+                .setCreatedBy(TEST_USER));
+      }
+    }
+  }
+
+  private static List<Long> keys(List<PipelineProcess> processes) {
+    return processes.stream().map(PipelineProcess::getKey).collect(Collectors.toList());
+  }
+
+  private static List<String> steps(List<SearchResult> results) {
+    return results.stream()
+        .map(r -> r.getExecutionKey() + "_" + r.getStepType())
+        .collect(Collectors.toList());
+  }
+
+  /** Seeds the processes with 2 executions of 4 steps each. */
+  private void seedSteps(UUID datasetKey, int processes) throws SQLException {
+    try (Connection c = dataSource.getConnection()) {
+      try (PreparedStatement ps =
+          c.prepareStatement(
+              "INSERT INTO pipeline_process(dataset_key, attempt, created, created_by) "
+                  + "SELECT ?, g, now() - g * interval '1 minute', 'benchmark' "
+                  + "FROM generate_series(1, ?) g")) {
+        ps.setObject(1, datasetKey);
+        ps.setInt(2, processes);
+        ps.execute();
+      }
+      try (Statement st = c.createStatement()) {
+        st.execute(
+            "INSERT INTO pipeline_execution(pipeline_process_key, created, created_by) "
+                + "SELECT p.key, p.created + g * interval '1 second', 'benchmark' "
+                + "FROM pipeline_process p, generate_series(0, 1) g");
+        st.execute(
+            "INSERT INTO pipeline_step(type, started, finished, state, created_by, "
+                + "pipeline_execution_key) "
+                + "SELECT t::pipeline_step_type, e.created, e.created + interval '1 minute', "
+                + "'COMPLETED', 'benchmark', e.key "
+                + "FROM pipeline_execution e, unnest(ARRAY['DWCA_TO_VERBATIM', "
+                + "'VERBATIM_TO_INTERPRETED', 'INTERPRETED_TO_INDEX', 'HDFS_VIEW']) t");
+        st.execute("ANALYZE pipeline_process");
+        st.execute("ANALYZE pipeline_execution");
+        st.execute("ANALYZE pipeline_step");
+      }
+    }
+  }
+
+  /** Runs the query a few times and returns the average time in milliseconds. */
+  private static long time(Supplier<?> query) {
+    // warm up
+    query.get();
+    int iterations = 5;
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      query.get();
+    }
+    return (System.nanoTime() - start) / 1_000_000 / iterations;
+  }
+
   @Test
   public void getPipelineStepTest() {
     // insert one process
@@ -20,8 +20,10 @@ import org.gbif.registry.search.test.EsManageServer;
 import org.gbif.registry.ws.it.BaseItTest;
 import org.gbif.ws.client.filter.SimplePrincipalProvider;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -66,4 +68,34 @@ public class UserMapperIT extends BaseItTest {
     assertNotNull(created);
     assertEquals(Locale.ENGLISH, created.getLocale());
   }
+
+  @Test
+  public void testSearchExactMatchFirst() {
+    mapper.create(newUser("search_user", "search_user@gbif.org"));
+    mapper.create(newUser("other_search_user", "other_search_user@gbif.org"));
+
+    // the substring search matches both users, sorted by name and username
+    List<GbifUser> users = mapper.search("search_user", null, null, null, null, null);
+    assertEquals(2, users.size());
+    assertEquals("other_search_user", users.get(0).getUserName());
+    assertEquals(2, mapper.count("search_user@gbif.org", null, null, null, null));
+
+    // the user whose email or username is the query comes first, ignoring the case
+    users = mapper.search("SEARCH_USER@gbif.org", null, null, null, null, null);
+    assertEquals(2, users.size());
+    assertEquals("search_user", users.get(0).getUserName());
+    users = mapper.search("Search_User", null, null, null, null, null);
+    assertEquals("search_user", users.get(0).getUserName());
+  }
+
+  private static GbifUser newUser(String userName, String email) {
+    GbifUser user = new GbifUser();
+    user.setUserName(userName);
+    user.setFirstName("John");
+    user.setLastName("Doe");
+    user.setEmail(email);
+    user.setPasswordHash("$S$DtF4Xp0rohjeVvFuA7TOkfLsdhXnDMqfRjNvU.5g9468TPQojcPA");
+    user.setRoles(Collections.singleton(UserRole.USER));
+    return user;
+  }
 }
@@ -66,6 +66,7 @@ import org.gbif.registry.persistence.mapper.collections.dto.InstitutionGeoJsonDt
 import org.gbif.registry.persistence.mapper.collections.dto.InstitutionMatchedDto;
 import org.gbif.registry.persistence.mapper.collections.dto.MasterSourceOrganizationDto;
 import org.gbif.registry.persistence.mapper.collections.dto.SearchDto;
+import org.gbif.registry.persistence.mapper.collections.dto.SearchIndexDto;
 import org.gbif.registry.persistence.mapper.collections.external.IDigBioCollectionDto;
 import org.gbif.registry.persistence.mapper.collections.external.IdentifierDto;
 import org.gbif.registry.persistence.mapper.collections.external.MachineTagDto;
@@ -154,6 +155,7 @@ public class MyBatisConfiguration {
           .getTypeAliasRegistry()
           .registerAlias("DuplicateMetadataDto", DuplicateMetadataDto.class);
       configuration.getTypeAliasRegistry().registerAlias("SearchDto", SearchDto.class);
+      configuration.getTypeAliasRegistry().registerAlias("SearchIndexDto", SearchIndexDto.class);
       configuration
           .getTypeAliasRegistry()
           .registerAlias("InstitutionMatchedDto", InstitutionMatchedDto.class);
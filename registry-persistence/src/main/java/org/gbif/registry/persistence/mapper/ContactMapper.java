@@ -15,6 +15,9 @@ package org.gbif.registry.persistence.mapper;
 
 import org.gbif.api.model.registry.Contact;
 
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -23,4 +26,10 @@ public interface ContactMapper {
   int createContact(Contact contact);
 
   void updateContact(Contact contact);
+
+  /** Reserves the given number of keys from the contact sequence, to insert contacts in batch. */
+  List<Integer> nextKeys(@Param("count") int count);
+
+  /** Inserts all the contacts in a single statement using the keys they already have. */
+  void createContacts(@Param("contacts") List<Contact> contacts);
 }
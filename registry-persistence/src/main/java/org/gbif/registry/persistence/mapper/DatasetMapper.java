@@ -14,18 +14,23 @@
 package org.gbif.registry.persistence.mapper;
 
 import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.registry.Contact;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Grid;
+import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.model.registry.Installation;
+import org.gbif.api.model.registry.Tag;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.registry.persistence.mapper.params.DatasetListParams;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -52,6 +57,20 @@ public interface DatasetMapper extends BaseNetworkEntityMapper<Dataset> {
 
   long countDatasetsHostedBy(@Param("organizationKey") UUID organizationKey);
 
+  /**
+   * Streams the datasets published by the given organization to the handler in a single query. Only
+   * the fields used by the legacy (IPT) responses are loaded, and the primary contact is the only
+   * contact of the datasets.
+   */
+  void listLegacyDatasetsPublishedBy(
+      @Param("organizationKey") UUID organizationKey, ResultHandler<Dataset> handler);
+
+  /**
+   * Lists the keys of the datasets not flagged as deleted, sorted by key, continuing after the given
+   * key so all the datasets can be iterated without offsets.
+   */
+  List<UUID> listKeys(@Nullable @Param("afterKey") UUID afterKey, @Param("limit") int limit);
+
   List<Dataset> withNoEndpoint(@Nullable @Param("page") Pageable page);
 
   long countWithNoEndpoint();
@@ -76,4 +95,26 @@ public interface DatasetMapper extends BaseNetworkEntityMapper<Dataset> {
   List<Grid> listGrids(@Param("datasetKey") UUID datasetKey);
 
   Dataset getLightweight(@Param("key") UUID key);
+
+  /** Links the contacts, which must exist already, to the dataset in a single statement. */
+  void addContacts(
+      @Param("targetEntityKey") UUID datasetKey, @Param("contacts") List<Contact> contacts);
+
+  /** Makes the given contacts of the dataset non primary. */
+  void unsetPrimaryContacts(
+      @Param("targetEntityKey") UUID datasetKey,
+      @Param("contactKeys") Collection<Integer> contactKeys);
+
+  /** Deletes the given contacts of the dataset in a single statement. */
+  void deleteContactsByKeys(
+      @Param("targetEntityKey") UUID datasetKey,
+      @Param("contactKeys") Collection<Integer> contactKeys);
+
+  /** Creates the tags and adds them to the dataset in a single statement. */
+  void addTags(@Param("targetEntityKey") UUID datasetKey, @Param("tags") List<Tag> tags);
+
+  /** Creates the identifiers and adds them to the dataset in a single statement. */
+  void addIdentifiers(
+      @Param("targetEntityKey") UUID datasetKey,
+      @Param("identifiers") List<Identifier> identifiers);
 }
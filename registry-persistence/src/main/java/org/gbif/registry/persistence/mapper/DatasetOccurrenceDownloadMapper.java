@@ -59,10 +59,32 @@ public interface DatasetOccurrenceDownloadMapper {
       @Param("sortOrder") SortOrder sortOrder,
       @Nullable @Param("page") Pageable page);
 
+  /**
+   * Iterates over the usages of a download using a keyset cursor, sorted by number of records
+   * descending and then by dataset key. The first page is retrieved when the last values are null.
+   * As in {@link #listByDownload} the Download objects are not retrieved.
+   */
+  List<DatasetOccurrenceDownloadUsage> listByDownloadAfter(
+      @Param("downloadKey") String downloadKey,
+      @Nullable @Param("lastNumberRecords") Long lastNumberRecords,
+      @Nullable @Param("lastDatasetKey") UUID lastDatasetKey,
+      @Param("limit") int limit);
+
   void createOrUpdateUsages(
       @Param("downloadKey") String downloadKey,
       @Param("citationMap") Map<UUID, Long> downloadDataset);
 
+  /**
+   * Creates, if it doesn't exist yet, the temporary table where the usages are loaded through COPY.
+   * The table is dropped at the end of the current transaction.
+   */
+  void createUsagesStagingTable();
+
+  void clearUsagesStagingTable();
+
+  /** Inserts or updates the usages of the staging table in a single statement. */
+  void mergeStagedUsages(@Param("downloadKey") String downloadKey);
+
   List<OrganizationOccurrenceDownloadUsage> listOrganizationsByDownload(
       @Param("downloadKey") String downloadKey,
       @Param("organizationTitle") String organizationTitle,
@@ -15,6 +15,12 @@ package org.gbif.registry.persistence.mapper;
 
 import org.gbif.api.model.registry.MachineTag;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
@@ -24,4 +30,33 @@ public interface MachineTagMapper {
   int createMachineTag(MachineTag machineTag);
 
   MachineTag get(@Param("key") int key);
+
+  /**
+   * Adds a copy of the machine tag to each of the given entities in a single statement. The keys
+   * that don't belong to an entity, or belong to a deleted one, are skipped.
+   *
+   * @param entity entity name: dataset, organization, installation, node or network
+   * @param entityKeys keys of the entities to tag
+   * @param machineTag machine tag to add
+   * @return the keys of the entities tagged
+   */
+  List<UUID> addMachineTagToEntities(
+      @Param("entity") String entity,
+      @Param("entityKeys") Collection<UUID> entityKeys,
+      @Param("machineTag") MachineTag machineTag);
+
+  /**
+   * Deletes the machine tags of a namespace, optionally restricted to a name and value, from the
+   * given entities in a single statement.
+   *
+   * @param entity entity name: dataset, organization, installation, node or network
+   * @param entityKeys keys of the entities to delete the machine tags from
+   * @return the keys of the entities whose machine tags were deleted, once per machine tag
+   */
+  List<UUID> deleteMachineTagsFromEntities(
+      @Param("entity") String entity,
+      @Param("entityKeys") Collection<UUID> entityKeys,
+      @Param("namespace") String namespace,
+      @Nullable @Param("name") String name,
+      @Nullable @Param("value") String value);
 }
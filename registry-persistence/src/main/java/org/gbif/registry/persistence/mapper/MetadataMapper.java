@@ -46,6 +46,17 @@ public interface MetadataMapper {
   /** Stores a new metadata document with its source document as a byte array exactly as it was. */
   int create(@Param("meta") Metadata metadata, @Param("data") byte[] content);
 
+  /**
+   * Returns the metadata of the given dataset and type whose document is byte by byte identical to
+   * the content passed. The lookup goes through the stored digest, so no documents are read.
+   *
+   * @return the matching metadata or {@code null} if the document is not stored yet
+   */
+  Metadata getByContent(
+      @Param("key") UUID datasetKey,
+      @Param("type") MetadataType type,
+      @Param("data") byte[] content);
+
   void delete(@Param("key") int key);
 
   /**
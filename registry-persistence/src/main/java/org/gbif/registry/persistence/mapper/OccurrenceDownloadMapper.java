@@ -142,4 +142,22 @@ public interface OccurrenceDownloadMapper {
   void updateDownloadUserStats(@Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
 
   void updateDownloadSourceStats(@Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+  void deleteDownloadStats(@Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+  void deleteDownloadUserStats(@Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+  void deleteDownloadSourceStats(@Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+  /**
+   * Adds the contribution of a download to the dataset statistics. Use a sign of -1 to subtract it.
+   * Only downloads in a successful terminal status contribute to the statistics.
+   */
+  void addToDownloadStats(@Param("downloadKey") String downloadKey, @Param("sign") int sign);
+
+  /** Same as {@link #addToDownloadStats(String, int)} for the user statistics. */
+  void addToDownloadUserStats(@Param("downloadKey") String downloadKey, @Param("sign") int sign);
+
+  /** Same as {@link #addToDownloadStats(String, int)} for the source statistics. */
+  void addToDownloadSourceStats(@Param("downloadKey") String downloadKey, @Param("sign") int sign);
 }
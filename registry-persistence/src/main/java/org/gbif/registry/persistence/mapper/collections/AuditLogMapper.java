@@ -29,6 +29,9 @@ public interface AuditLogMapper {
 
   void create(AuditLog auditLog);
 
+  /** Creates the logs of several entities changed together. The list can't be empty. */
+  void createAll(@Param("auditLogs") List<AuditLog> auditLogs);
+
   List<AuditLog> list(
       @Param("params") AuditLogListParams params, @Nullable @Param("page") Pageable page);
 
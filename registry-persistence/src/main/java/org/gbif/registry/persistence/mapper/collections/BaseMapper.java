@@ -65,5 +65,14 @@ public interface BaseMapper<T extends Taggable & Identifiable & MachineTaggable
 
   List<T> findByMasterSource(@Param("source") Source source, @Param("sourceId") String sourceId);
 
-  void updateCounts(@Param("counts") Collection<Count> counts);
+  /**
+   * Updates the occurrence and type specimen counts of the entities. Only the rows whose counts are
+   * different from the stored ones are written.
+   *
+   * @return number of rows updated
+   */
+  int updateCounts(@Param("counts") Collection<Count> counts);
+
+  /** Returns the stored occurrence and type specimen counts of all the non-deleted entities. */
+  List<Count> getAllCounts();
 }
@@ -14,6 +14,7 @@
 package org.gbif.registry.persistence.mapper.collections;
 
 import org.gbif.api.model.collections.Batch;
+import org.gbif.registry.domain.collections.BatchProgress;
 
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
@@ -27,4 +28,12 @@ public interface BatchMapper {
   Batch get(@Param("key") Integer key);
 
   void update(Batch batch);
+
+  void updateProgress(
+      @Param("key") Integer key,
+      @Param("totalRecords") Integer totalRecords,
+      @Param("processedRecords") int processedRecords,
+      @Param("failedRecords") int failedRecords);
+
+  BatchProgress getProgress(@Param("key") Integer key);
 }
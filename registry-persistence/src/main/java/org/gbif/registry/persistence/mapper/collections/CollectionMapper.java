@@ -65,4 +65,17 @@ public interface CollectionMapper
       @Param("organizationKey") UUID organizationKey);
 
   List<UUID> getAllKeys();
+
+  /** Gets the non-deleted collections of an institution. */
+  List<Collection> getByInstitution(@Param("institutionKey") UUID institutionKey);
+
+  /**
+   * Moves all the non-deleted collections of an institution to another institution.
+   *
+   * @return number of collections moved
+   */
+  int moveToInstitution(
+      @Param("sourceInstitutionKey") UUID sourceInstitutionKey,
+      @Param("targetInstitutionKey") UUID targetInstitutionKey,
+      @Param("user") String user);
 }
@@ -15,8 +15,10 @@ package org.gbif.registry.persistence.mapper.collections;
 
 import org.gbif.api.vocabulary.Country;
 import org.gbif.registry.persistence.mapper.collections.dto.SearchDto;
+import org.gbif.registry.persistence.mapper.collections.dto.SearchIndexDto;
 
 import java.util.List;
+import java.util.UUID;
 
 import javax.annotation.Nullable;
 
@@ -31,4 +33,23 @@ public interface CollectionsSearchMapper {
       @Nullable @Param("displayOnNHCPortal") Boolean displayOnNHCPortal,
       @Nullable @Param("country") Country country,
       @Param("limit") int limit);
+
+  /**
+   * Returns the non-deleted institutions to be indexed in the search index. If a key is given only
+   * that institution is returned, otherwise the institutions are paged by key.
+   */
+  List<SearchIndexDto> getInstitutionIndexDocuments(
+      @Nullable @Param("key") UUID key,
+      @Nullable @Param("afterKey") UUID afterKey,
+      @Nullable @Param("limit") Integer limit);
+
+  /**
+   * Returns the non-deleted collections to be indexed in the search index. They can be filtered by
+   * key or by institution, otherwise the collections are paged by key.
+   */
+  List<SearchIndexDto> getCollectionIndexDocuments(
+      @Nullable @Param("key") UUID key,
+      @Nullable @Param("institutionKey") UUID institutionKey,
+      @Nullable @Param("afterKey") UUID afterKey,
+      @Nullable @Param("limit") Integer limit);
 }
@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
@@ -36,4 +38,28 @@ public interface DuplicatesMapper {
 
   List<DuplicateMetadataDto> getCollectionsMetadata(
       @Param("collectionKeys") Set<UUID> collectionKeys);
+
+  /**
+   * Deletes the duplicate pairs where the institution participates. If the key is null all the
+   * pairs are deleted.
+   */
+  void deleteInstitutionDuplicates(@Nullable @Param("key") UUID institutionKey);
+
+  /**
+   * Computes and stores the duplicate pairs where the institution participates. If the key is null
+   * the pairs of all the institutions are computed.
+   */
+  void insertInstitutionDuplicates(@Nullable @Param("key") UUID institutionKey);
+
+  /**
+   * Deletes the duplicate pairs where the collection participates. If the key is null all the pairs
+   * are deleted.
+   */
+  void deleteCollectionDuplicates(@Nullable @Param("key") UUID collectionKey);
+
+  /**
+   * Computes and stores the duplicate pairs where the collection participates. If the key is null
+   * the pairs of all the collections are computed.
+   */
+  void insertCollectionDuplicates(@Nullable @Param("key") UUID collectionKey);
 }
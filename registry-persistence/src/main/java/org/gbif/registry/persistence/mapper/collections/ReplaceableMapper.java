@@ -23,4 +23,46 @@ public interface ReplaceableMapper {
       @Param("targetEntityKey") UUID targetEntityKey,
       @Param("replacementKey") UUID replacementKey,
       @Param("user") String user);
+
+  /**
+   * Copies the identifiers of the replaced entity that the replacement doesn't have yet and adds
+   * the key of the replaced entity as a UUID identifier of the replacement.
+   *
+   * @return number of identifiers added to the replacement
+   */
+  int copyIdentifiers(
+      @Param("targetEntityKey") UUID targetEntityKey,
+      @Param("replacementKey") UUID replacementKey,
+      @Param("user") String user);
+
+  /**
+   * Copies the machine tags of the given namespace that the replacement doesn't have yet.
+   *
+   * @return number of machine tags added to the replacement
+   */
+  int copyMachineTags(
+      @Param("targetEntityKey") UUID targetEntityKey,
+      @Param("replacementKey") UUID replacementKey,
+      @Param("namespace") String namespace,
+      @Param("user") String user);
+
+  /**
+   * Copies the contact persons of the replaced entity that the replacement doesn't have yet.
+   *
+   * @return number of contact persons added to the replacement
+   */
+  int copyContactPersons(
+      @Param("targetEntityKey") UUID targetEntityKey,
+      @Param("replacementKey") UUID replacementKey,
+      @Param("user") String user);
+
+  /**
+   * Copies the occurrence mappings of the replaced entity that the replacement doesn't have yet.
+   *
+   * @return number of occurrence mappings added to the replacement
+   */
+  int copyOccurrenceMappings(
+      @Param("targetEntityKey") UUID targetEntityKey,
+      @Param("replacementKey") UUID replacementKey,
+      @Param("user") String user);
 }
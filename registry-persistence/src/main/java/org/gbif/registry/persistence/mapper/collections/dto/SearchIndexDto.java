@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.persistence.mapper.collections.dto;
+
+import org.gbif.api.vocabulary.Country;
+
+import java.util.Date;
+import java.util.UUID;
+
+import lombok.Data;
+
+/** Institution or collection as stored in the GRSciColl search index. */
+@Data
+public class SearchIndexDto {
+
+  private String type;
+  private UUID key;
+  private String code;
+  private String name;
+  private String description;
+  private String alternativeCodes;
+  private boolean displayOnNHCPortal;
+  private Date created;
+  private UUID institutionKey;
+  private String institutionCode;
+  private String institutionName;
+  private String address;
+  private String city;
+  private String province;
+  private Country country;
+  private String mailAddress;
+  private String mailCity;
+  private String mailProvince;
+  private Country mailCountry;
+}
@@ -58,4 +58,11 @@ public abstract class SearchParams {
   @Nullable
   SortOrder sortOrder;
   @Nullable private Pageable page;
+  // keyset continuation, only valid for the default sort
+  @Nullable private UUID afterKey;
+
+  /** The default sort is by created date and key, and it's the only one that supports keysets. */
+  public boolean isDefaultSort() {
+    return query == null && fuzzyName == null && sortBy == null;
+  }
 }
@@ -62,10 +62,28 @@ public interface PipelineProcessMapper {
    */
   PipelineProcess get(@Param("key") long key);
 
+  /**
+   * Lists the processes with running executions, latest first, with their running executions and
+   * steps. They are read from the running executions kept by {@link
+   * #markPipelineExecutionAsRunning(long)}.
+   *
+   * @param page paging parameters over the processes
+   * @return the processes with running executions
+   */
   List<PipelineProcess> getRunningPipelineProcess(@Param("page") Pageable page);
 
   long getRunningPipelineProcessCount();
 
+  /**
+   * Retrieves the overall state of a running {@link PipelineExecution}, kept up to date with the
+   * updates of its steps.
+   *
+   * @param pipelineExecutionKey key of the execution
+   * @return the state or null if the execution isn't running
+   */
+  PipelineStep.Status getRunningExecutionState(
+      @Param("pipelineExecutionKey") long pipelineExecutionKey);
+
   Optional<Integer> getLastAttempt(@Param("datasetKey") UUID datasetKey);
 
   Optional<Integer> getLastSuccessfulAttempt(
@@ -117,9 +135,21 @@ public interface PipelineProcessMapper {
    * @param page page to specify the offset and the limit
    * @return list of {@link PipelineProcess}
    */
+  default List<PipelineProcess> list(
+      @Nullable UUID datasetKey, @Nullable Integer attempt, @Nullable Pageable page) {
+    return list(datasetKey, attempt, null, page);
+  }
+
+  /**
+   * Lists {@link PipelineProcess} based in the search parameters, most recent first.
+   *
+   * @param afterKey key of the last process of the previous page, the offset of the page is
+   *     ignored if it is set
+   */
   List<PipelineProcess> list(
       @Nullable @Param("datasetKey") UUID datasetKey,
       @Nullable @Param("attempt") Integer attempt,
+      @Nullable @Param("afterKey") Long afterKey,
       @Nullable @Param("page") Pageable page);
 
   /** Counts the number of {@link PipelineProcess} based in the search parameters. */
@@ -134,6 +164,36 @@ public interface PipelineProcessMapper {
       @Nullable @Param("datasetKey") UUID datasetKey,
       @Nullable @Param("attempts") List<Integer> attempts);
 
+  default List<SearchResult> search(
+      @Nullable UUID datasetKey,
+      @Nullable PipelineStep.Status state,
+      @Nullable StepType stepType,
+      @Nullable LocalDateTime startedMin,
+      @Nullable LocalDateTime startedMax,
+      @Nullable LocalDateTime finishedMin,
+      @Nullable LocalDateTime finishedMax,
+      @Nullable String rerunReason,
+      @Nullable String pipelinesVersion,
+      @Nullable Pageable page) {
+    return search(
+        datasetKey,
+        state,
+        stepType,
+        startedMin,
+        startedMax,
+        finishedMin,
+        finishedMax,
+        rerunReason,
+        pipelinesVersion,
+        null,
+        null,
+        page);
+  }
+
+  /**
+   * Same as {@link #search} but continuing after the step of the previous page identified by its
+   * execution key and type. The offset of the page is ignored if they are set.
+   */
   List<SearchResult> search(
       @Nullable @Param("datasetKey") UUID datasetKey,
       @Nullable @Param("state") PipelineStep.Status state,
@@ -144,6 +204,8 @@ public interface PipelineProcessMapper {
       @Nullable @Param("finishedMax") LocalDateTime finishedMax,
       @Nullable @Param("rerunReason") String rerunReason,
       @Nullable @Param("pipelinesVersion") String pipelinesVersion,
+      @Nullable @Param("afterExecutionKey") Long afterExecutionKey,
+      @Nullable @Param("afterStepType") StepType afterStepType,
       @Nullable @Param("page") Pageable page);
 
   long searchCount(
@@ -177,7 +239,9 @@ public interface PipelineProcessMapper {
   void markPipelineExecutionIfFinished(@Param("pipelineExecutionKey") long pipelineExecutionKey);
 
   /**
-   * When interpretation is allowed for failed identifiers, execution must have running status
+   * Marks an existing {@link PipelineExecution} as running, adding it to the running executions
+   * with the state of its steps. When interpretation is allowed for failed identifiers, execution
+   * must have running status.
    *
    * @param pipelineExecutionKey key of the process
    */
@@ -15,6 +15,7 @@ package org.gbif.registry.persistence.mapper.surety;
 
 import org.gbif.api.model.ChallengeCode;
 
+import java.util.Date;
 import java.util.UUID;
 
 import org.apache.ibatis.annotations.Param;
@@ -24,6 +25,11 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ChallengeCodeMapper {
 
+  /** Entities that reference the challenge codes. */
+  String ORGANIZATION = "organization";
+
+  String USER = "user";
+
   void createChallengeCode(ChallengeCode challengeCode);
 
   UUID getChallengeCode(@Param("key") Integer key);
@@ -31,4 +37,32 @@ public interface ChallengeCodeMapper {
   ChallengeCode getChallengeCodeObject(@Param("key") Integer key);
 
   void deleteChallengeCode(int key);
+
+  /** Gets the challenge code linked to an entity, null if it has none. */
+  ChallengeCode getLinkedChallengeCode(@Param("entity") String entity, @Param("key") Object key);
+
+  /**
+   * Creates the challenge code and links it to the entity.
+   *
+   * @return the key of the challenge code, null if the entity doesn't exist
+   */
+  Integer createAndLinkChallengeCode(
+      @Param("entity") String entity,
+      @Param("key") Object key,
+      @Param("challengeCode") ChallengeCode challengeCode);
+
+  /**
+   * Removes the link between the entity and its challenge code and deletes the code.
+   *
+   * @return the number of deleted codes
+   */
+  int unlinkAndDeleteChallengeCode(@Param("entity") String entity, @Param("key") Object key);
+
+  /**
+   * Deletes the unused challenge codes created before the given date, see the mapper for the codes
+   * that are kept.
+   *
+   * @return the number of deleted codes
+   */
+  int deleteExpiredChallengeCodes(@Param("createdBefore") Date createdBefore);
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.persistence.service;
+
+import org.gbif.registry.persistence.mapper.DatasetOccurrenceDownloadMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the dataset usages of a download in bulk. The usages are streamed through the Postgres COPY
+ * protocol into a temporary staging table and then merged into the dataset_occurrence_download
+ * table with a single INSERT...ON CONFLICT.
+ */
+@Slf4j
+@Service
+public class DatasetUsagesCopyLoader {
+
+  private static final String COPY_SQL =
+      "COPY dataset_usage_staging(dataset_key, number_records) FROM STDIN";
+
+  // size of the chunks written to the COPY stream
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final DataSource dataSource;
+  private final DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper;
+
+  public DatasetUsagesCopyLoader(
+      DataSource dataSource, DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper) {
+    this.dataSource = dataSource;
+    this.datasetOccurrenceDownloadMapper = datasetOccurrenceDownloadMapper;
+  }
+
+  /**
+   * Creates or updates the usages of the download. It has to run in a transaction since the
+   * staging table is dropped on commit and the COPY has to use the same connection as the mappers.
+   */
+  @Transactional
+  public void load(String downloadKey, Map<UUID, Long> usages) {
+    long start = System.currentTimeMillis();
+
+    datasetOccurrenceDownloadMapper.createUsagesStagingTable();
+    datasetOccurrenceDownloadMapper.clearUsagesStagingTable();
+    long copied = copyToStaging(usages);
+    datasetOccurrenceDownloadMapper.mergeStagedUsages(downloadKey);
+
+    log.debug(
+        "{} dataset usages loaded for download {} in {} ms",
+        copied,
+        downloadKey,
+        System.currentTimeMillis() - start);
+  }
+
+  private long copyToStaging(Map<UUID, Long> usages) {
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    CopyIn copyIn = null;
+    try {
+      copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+
+      StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 64);
+      for (Map.Entry<UUID, Long> usage : usages.entrySet()) {
+        buffer
+            .append(usage.getKey())
+            .append('\t')
+            .append(usage.getValue() != null ? usage.getValue().toString() : "\\N")
+            .append('\n');
+
+        if (buffer.length() >= BUFFER_SIZE) {
+          write(copyIn, buffer);
+        }
+      }
+      write(copyIn, buffer);
+
+      return copyIn.endCopy();
+    } catch (SQLException e) {
+      throw new UncategorizedSQLException("Copying dataset usages", COPY_SQL, e);
+    } finally {
+      cancelIfActive(copyIn);
+      DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+  }
+
+  private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+    if (buffer.length() > 0) {
+      byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+      copyIn.writeToCopy(bytes, 0, bytes.length);
+      buffer.setLength(0);
+    }
+  }
+
+  private static void cancelIfActive(CopyIn copyIn) {
+    if (copyIn != null && copyIn.isActive()) {
+      try {
+        copyIn.cancelCopy();
+      } catch (SQLException e) {
+        log.warn("Couldn't cancel the COPY of dataset usages", e);
+      }
+    }
+  }
+}
@@ -42,6 +42,8 @@ import org.gbif.registry.mail.pipelines.PipelinesEmailManager;
 import org.gbif.registry.persistence.mapper.pipelines.PipelineProcessMapper;
 import org.gbif.registry.pipelines.issues.GithubApiService;
 import org.gbif.registry.pipelines.issues.IssueCreator;
+import org.gbif.registry.pipelines.jobs.DatasetJob;
+import org.gbif.registry.pipelines.jobs.DatasetJobService;
 import org.gbif.registry.pipelines.util.PredicateUtils;
 
 import java.io.IOException;
@@ -57,10 +59,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.function.Consumer;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -70,7 +69,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -101,6 +99,8 @@ public class DefaultRegistryPipelinesHistoryTrackingService
   // Used to iterate over all datasets
   private static final int PAGE_SIZE = 200;
 
+  public static final String RUN_ALL_JOB = "RUN_ALL";
+
   private static final Comparator<Endpoint> ENDPOINT_COMPARATOR =
       Ordering.compound(
           Lists.newArrayList(
@@ -113,7 +113,7 @@ public class DefaultRegistryPipelinesHistoryTrackingService
 
   private final PipelineProcessMapper mapper;
   private final DatasetService datasetService;
-  private final ExecutorService executorService;
+  private final DatasetJobService datasetJobService;
   private final EmailSender emailSender;
   private final PipelinesEmailManager pipelinesEmailManager;
   private final GithubApiService githubApiService;
@@ -128,7 +128,7 @@ public class DefaultRegistryPipelinesHistoryTrackingService
       @Autowired PipelinesEmailManager pipelinesEmailManager,
       @Autowired GithubApiService githubApiService,
       @Autowired IssueCreator issueCreator,
-      @Value("${pipelines.doAllThreads}") Integer threadPoolSize) {
+      DatasetJobService datasetJobService) {
     this.objectMapper = objectMapper;
     this.publisher = publisher;
     this.mapper = mapper;
@@ -137,10 +137,7 @@ public class DefaultRegistryPipelinesHistoryTrackingService
     this.pipelinesEmailManager = pipelinesEmailManager;
     this.githubApiService = githubApiService;
     this.issueCreator = issueCreator;
-    this.executorService =
-        Optional.ofNullable(threadPoolSize)
-            .map(Executors::newFixedThreadPool)
-            .orElse(Executors.newSingleThreadExecutor());
+    this.datasetJobService = datasetJobService;
   }
 
   @Override
@@ -190,23 +187,33 @@ public class DefaultRegistryPipelinesHistoryTrackingService
       boolean useLastSuccessful,
       boolean markPreviousAttemptAsFailed,
       Set<String> interpretTypes) {
+    if (datasetsToInclude == null || datasetsToInclude.isEmpty()) {
+      throw new IllegalArgumentException("datasetsToInclude can't be null or empty");
+    }
+
     String prefix = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmm"));
-    CompletableFuture.runAsync(
-        () ->
-            doOnAllDatasets(
-                datasetKey ->
-                    runLastAttempt(
-                        datasetKey,
-                        steps,
-                        reason,
-                        user,
-                        prefix,
-                        useLastSuccessful,
-                        markPreviousAttemptAsFailed,
-                        interpretTypes),
-                datasetsToExclude,
-                datasetsToInclude),
-        executorService);
+    List<UUID> datasetKeys =
+        datasetsToInclude.stream()
+            .filter(PredicateUtils.not(datasetsToExclude::contains))
+            .collect(Collectors.toList());
+
+    // runs as a background job with a bounded queue and a limited message rate
+    DatasetJob job =
+        datasetJobService.submit(
+            RUN_ALL_JOB,
+            user,
+            datasetKeys,
+            datasetKey ->
+                runLastAttempt(
+                    datasetKey,
+                    steps,
+                    reason,
+                    user,
+                    prefix,
+                    useLastSuccessful,
+                    markPreviousAttemptAsFailed,
+                    interpretTypes));
+    LOG.info("Rerunning {} datasets in job {}", datasetKeys.size(), job.getKey());
 
     return RunPipelineResponse.builder()
         .setResponseStatus(RunPipelineResponse.ResponseStatus.OK)
@@ -214,33 +221,6 @@ public class DefaultRegistryPipelinesHistoryTrackingService
         .build();
   }
 
-  /** Utility method to run batch jobs on all dataset elements */
-  private void doOnAllDatasets(
-      Consumer<UUID> onDataset, List<UUID> datasetsToExclude, List<UUID> datasetsToInclude) {
-
-    if (datasetsToInclude == null || datasetsToInclude.isEmpty()) {
-      throw new RuntimeException("datasetsToExclude can't be null or empty");
-    }
-
-    datasetsToInclude.stream()
-        .filter(PredicateUtils.not(datasetsToExclude::contains))
-        .forEach(
-            datasetKey ->
-                CompletableFuture.runAsync(
-                    () -> {
-                      try {
-                        LOG.info("trying to rerun dataset {}", datasetKey);
-                        onDataset.accept(datasetKey);
-                      } catch (Exception ex) {
-                        LOG.error(
-                            "Error processing dataset {} while rerunning all datasets: {}",
-                            datasetKey,
-                            ex.getMessage());
-                      }
-                    },
-                    executorService));
-  }
-
   private Set<StepType> prioritizeSteps(Set<StepType> steps, Dataset dataset) {
     Set<StepType> newSteps = new HashSet<>(steps);
     if (steps.contains(StepType.TO_VERBATIM)) {
@@ -297,14 +277,24 @@ public class DefaultRegistryPipelinesHistoryTrackingService
    * @return the calculated status of a {@link PipelineProcess}
    */
   private Status getStatus(PipelineExecution execution) {
+    // Running executions keep their status up to date with the steps
+    if (!execution.isFinished()) {
+      Status status = mapper.getRunningExecutionState(execution.getKey());
+      if (status != null) {
+        return status;
+      }
+    }
+
     // Collects the latest steps per type.
-    Set<Status> statuses = new HashSet<>();
-    for (StepType stepType : StepType.values()) {
-      execution.getSteps().stream()
-          .filter(s -> stepType == s.getType())
-          .max(Comparator.comparing(PipelineStep::getStarted))
-          .ifPresent(step -> statuses.add(step.getState()));
+    Map<StepType, PipelineStep> latestSteps = new EnumMap<>(StepType.class);
+    for (PipelineStep step : execution.getSteps()) {
+      latestSteps.merge(
+          step.getType(),
+          step,
+          BinaryOperator.maxBy(Comparator.comparing(PipelineStep::getStarted)));
     }
+    Set<Status> statuses =
+        latestSteps.values().stream().map(PipelineStep::getState).collect(Collectors.toSet());
 
     // Only has one states, it could mean that all steps have the same status
     if (statuses.size() == 1) {
@@ -325,26 +315,24 @@ public class DefaultRegistryPipelinesHistoryTrackingService
 
   @Override
   public PagingResponse<PipelineProcess> history(Pageable pageable) {
-    long count = mapper.count(null, null);
-    List<PipelineProcess> statuses = mapper.list(null, null, pageable);
-
-    // add needed fields for the view
-    statuses.forEach(this::setDatasetTitle);
-
-    return new PagingResponse<>(pageable, count, statuses);
+    return history(null, null, pageable, true);
   }
 
   @Override
   public PagingResponse<PipelineProcess> history(UUID datasetKey, Pageable pageable) {
     Objects.requireNonNull(datasetKey, "DatasetKey can't be null");
+    return history(datasetKey, null, pageable, true);
+  }
 
-    long count = mapper.count(datasetKey, null);
-    List<PipelineProcess> statuses = mapper.list(datasetKey, null, pageable);
+  @Override
+  public PagingResponse<PipelineProcess> history(
+      @Nullable UUID datasetKey, @Nullable Long afterKey, Pageable pageable, boolean count) {
+    Pageable page = pageable == null ? new PagingRequest() : pageable;
 
-    // add needed fields for the view
-    statuses.forEach(this::setDatasetTitle);
+    // the dataset titles needed for the view are loaded by the same query
+    List<PipelineProcess> statuses = mapper.list(datasetKey, null, afterKey, page);
 
-    return new PagingResponse<>(pageable, count, statuses);
+    return pagingResponse(page, count ? mapper.count(datasetKey, null) : null, statuses);
   }
 
   @Transactional
@@ -593,6 +581,9 @@ public class DefaultRegistryPipelinesHistoryTrackingService
               mapper.addPipelineStep(pipelineExecution.getKey(), step);
             });
 
+    // adds it to the running executions with the state of the steps
+    mapper.markPipelineExecutionAsRunning(pipelineExecution.getKey());
+
     return pipelineExecution.getKey();
   }
 
@@ -645,6 +636,41 @@ public class DefaultRegistryPipelinesHistoryTrackingService
       @Nullable String rerunReason,
       @Nullable String pipelinesVersion,
       @Nullable Pageable page) {
+    return search(
+        datasetKey,
+        state,
+        stepType,
+        startedMin,
+        startedMax,
+        finishedMin,
+        finishedMax,
+        rerunReason,
+        pipelinesVersion,
+        null,
+        null,
+        page,
+        true);
+  }
+
+  @Override
+  public PagingResponse<SearchResult> search(
+      @Nullable UUID datasetKey,
+      @Nullable Status state,
+      @Nullable StepType stepType,
+      @Nullable LocalDateTime startedMin,
+      @Nullable LocalDateTime startedMax,
+      @Nullable LocalDateTime finishedMin,
+      @Nullable LocalDateTime finishedMax,
+      @Nullable String rerunReason,
+      @Nullable String pipelinesVersion,
+      @Nullable Long afterExecutionKey,
+      @Nullable StepType afterStepType,
+      @Nullable Pageable page,
+      boolean count) {
+    Preconditions.checkArgument(
+        (afterExecutionKey == null) == (afterStepType == null),
+        "The execution key and the step type are both required to continue after a result");
+    Pageable pageable = page == null ? new PagingRequest() : page;
 
     List<SearchResult> results =
         mapper.search(
@@ -657,20 +683,24 @@ public class DefaultRegistryPipelinesHistoryTrackingService
             finishedMax,
             rerunReason,
             pipelinesVersion,
-            page);
-    long count =
-        mapper.searchCount(
-            datasetKey,
-            state,
-            stepType,
-            startedMin,
-            startedMax,
-            finishedMin,
-            finishedMax,
-            rerunReason,
-            pipelinesVersion);
-
-    return new PagingResponse<>(page, count, results);
+            afterExecutionKey,
+            afterStepType,
+            pageable);
+    Long total =
+        count
+            ? mapper.searchCount(
+                datasetKey,
+                state,
+                stepType,
+                startedMin,
+                startedMax,
+                finishedMin,
+                finishedMax,
+                rerunReason,
+                pipelinesVersion)
+            : null;
+
+    return pagingResponse(pageable, total, results);
   }
 
   @Deprecated
@@ -851,6 +881,17 @@ public class DefaultRegistryPipelinesHistoryTrackingService
     return result;
   }
 
+  /** Without a count only the end of records is set, from the size of the page. */
+  private static <T> PagingResponse<T> pagingResponse(
+      Pageable page, @Nullable Long count, List<T> results) {
+    if (count != null) {
+      return new PagingResponse<>(page, count, results);
+    }
+    PagingResponse<T> response = new PagingResponse<>(page, null, results);
+    response.setEndOfRecords(results.size() < page.getLimit());
+    return response;
+  }
+
   private void setDatasetTitle(PipelineProcess process) {
     if (process != null && process.getDatasetKey() != null) {
       Dataset dataset = datasetService.get(process.getDatasetKey());
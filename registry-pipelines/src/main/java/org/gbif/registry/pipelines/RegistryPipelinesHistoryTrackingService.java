@@ -128,6 +128,20 @@ public interface RegistryPipelinesHistoryTrackingService {
    */
   PagingResponse<PipelineProcess> history(UUID datasetKey, Pageable pageable);
 
+  /**
+   * Lists the history of all {@link PipelineProcess}, or of the ones of a dataset, sorted
+   * descending from the most recent one.
+   *
+   * @param datasetKey dataset identifier, optional
+   * @param afterKey key of the last process of the previous page, to continue after it instead of
+   *     using the offset of the paging request
+   * @param pageable paging request
+   * @param count whether to count all the processes, otherwise only the end of records is set
+   * @return a paged response that contains a list of {@link PipelineProcess}
+   */
+  PagingResponse<PipelineProcess> history(
+      @Nullable UUID datasetKey, @Nullable Long afterKey, Pageable pageable, boolean count);
+
   /**
    * Gets the PipelineProcess identified by the dataset and attempt identifiers.
    *
@@ -228,6 +242,27 @@ public interface RegistryPipelinesHistoryTrackingService {
       @Nullable String pipelinesVersion,
       @Nullable Pageable page);
 
+  /**
+   * Same as {@link #search(UUID, PipelineStep.Status, StepType, LocalDateTime, LocalDateTime,
+   * LocalDateTime, LocalDateTime, String, String, Pageable)} but continuing after the last result
+   * of the previous page, identified by its execution key and step type, instead of using the
+   * offset of the paging request. The count is optional, without it only the end of records is set.
+   */
+  PagingResponse<SearchResult> search(
+      @Nullable UUID datasetKey,
+      @Nullable PipelineStep.Status state,
+      @Nullable StepType stepType,
+      @Nullable LocalDateTime startedMin,
+      @Nullable LocalDateTime startedMax,
+      @Nullable LocalDateTime finishedMin,
+      @Nullable LocalDateTime finishedMax,
+      @Nullable String rerunReason,
+      @Nullable String pipelinesVersion,
+      @Nullable Long afterExecutionKey,
+      @Nullable StepType afterStepType,
+      @Nullable Pageable page,
+      boolean count);
+
   /**
    * Sends email to data administrator about absent identifiers issue with a dataset
    *
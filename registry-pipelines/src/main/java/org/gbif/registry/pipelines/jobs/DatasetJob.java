@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.pipelines.jobs;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a background job run on many datasets, such as crawling or running the pipelines of
+ * all of them.
+ */
+public class DatasetJob {
+
+  public enum Status {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+  }
+
+  private final UUID key = UUID.randomUUID();
+  private final String type;
+  private final String createdBy;
+  private final Long total;
+  private final LocalDateTime started = LocalDateTime.now();
+  private volatile LocalDateTime finished;
+  private volatile Status status = Status.RUNNING;
+  private volatile boolean cancelRequested;
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  DatasetJob(String type, String createdBy, Long total) {
+    this.type = type;
+    this.createdBy = createdBy;
+    this.total = total;
+  }
+
+  public UUID getKey() {
+    return key;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getCreatedBy() {
+    return createdBy;
+  }
+
+  /** Number of datasets of the job, null when they are iterated without counting them first. */
+  public Long getTotal() {
+    return total;
+  }
+
+  public LocalDateTime getStarted() {
+    return started;
+  }
+
+  public LocalDateTime getFinished() {
+    return finished;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isCancelRequested() {
+    return cancelRequested;
+  }
+
+  /** Number of datasets handed to the workers so far. */
+  public long getSubmitted() {
+    return submitted.get();
+  }
+
+  /** Number of datasets processed so far, including the failed ones. */
+  public long getProcessed() {
+    return processed.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  void cancel() {
+    cancelRequested = true;
+  }
+
+  void onSubmitted() {
+    submitted.incrementAndGet();
+  }
+
+  void onProcessed(boolean success) {
+    processed.incrementAndGet();
+    if (!success) {
+      failed.incrementAndGet();
+    }
+  }
+
+  void finish(Status status) {
+    this.status = status;
+    this.finished = LocalDateTime.now();
+  }
+
+  @Override
+  public String toString() {
+    return "DatasetJob{"
+        + "key="
+        + key
+        + ", type="
+        + type
+        + ", status="
+        + status
+        + ", processed="
+        + processed
+        + ", failed="
+        + failed
+        + '}';
+  }
+}
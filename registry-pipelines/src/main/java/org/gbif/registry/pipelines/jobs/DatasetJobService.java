@@ -0,0 +1,248 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.pipelines.jobs;
+
+import org.gbif.registry.persistence.mapper.DatasetMapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs an action on many datasets as a tracked background job.
+ *
+ * <p>The datasets are handed to a shared pool of workers at a limited rate, since each action
+ * usually sends a message, and each job has a bounded number of datasets waiting for a worker, so
+ * the pending work doesn't pile up in memory. The datasets are iterated by key instead of offsets.
+ * The jobs can be queried and cancelled while they run, and the latest finished ones are kept.
+ */
+@Service
+public class DatasetJobService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetJobService.class);
+
+  // finished jobs kept to report their result
+  private static final int MAX_FINISHED_JOBS = 100;
+
+  private final DatasetMapper datasetMapper;
+  private final int maxQueued;
+  private final int pageSize;
+  private final RateLimiter rateLimiter;
+  private final ExecutorService workers;
+  private final ExecutorService coordinators =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setNameFormat("dataset-job-%d").setDaemon(true).build());
+
+  private final Map<UUID, DatasetJob> jobs =
+      Collections.synchronizedMap(
+          new LinkedHashMap<UUID, DatasetJob>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, DatasetJob> eldest) {
+              return size() > MAX_FINISHED_JOBS
+                  && eldest.getValue().getStatus() != DatasetJob.Status.RUNNING;
+            }
+          });
+
+  public DatasetJobService(
+      DatasetMapper datasetMapper,
+      @Value("${datasetJobs.threads:4}") int threads,
+      @Value("${datasetJobs.maxQueued:100}") int maxQueued,
+      @Value("${datasetJobs.messagesPerSecond:10}") double messagesPerSecond,
+      @Value("${datasetJobs.pageSize:1000}") int pageSize) {
+    this.datasetMapper = datasetMapper;
+    this.maxQueued = maxQueued;
+    this.pageSize = pageSize;
+    this.rateLimiter = RateLimiter.create(messagesPerSecond);
+    this.workers =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("dataset-job-worker-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Runs the action on all the datasets not flagged as deleted.
+   *
+   * @param type type of the job, e.g. CRAWL_ALL
+   * @param user user that started the job
+   * @param datasetsToExclude datasets to skip
+   * @param action action to run on each dataset key
+   * @return the job, to follow its progress
+   */
+  public DatasetJob submitOnAllDatasets(
+      String type,
+      String user,
+      @Nullable Collection<UUID> datasetsToExclude,
+      Consumer<UUID> action) {
+    Set<UUID> excluded =
+        datasetsToExclude != null ? new HashSet<>(datasetsToExclude) : Collections.emptySet();
+    Iterator<UUID> datasetKeys = Iterators.filter(allDatasetKeys(), k -> !excluded.contains(k));
+    return submit(new DatasetJob(type, user, null), datasetKeys, action);
+  }
+
+  /**
+   * Runs the action on the given datasets.
+   *
+   * @param type type of the job, e.g. RUN_ALL
+   * @param user user that started the job
+   * @param datasetKeys datasets to run the action on
+   * @param action action to run on each dataset key
+   * @return the job, to follow its progress
+   */
+  public DatasetJob submit(
+      String type, String user, Collection<UUID> datasetKeys, Consumer<UUID> action) {
+    List<UUID> keys = new ArrayList<>(datasetKeys);
+    return submit(new DatasetJob(type, user, (long) keys.size()), keys.iterator(), action);
+  }
+
+  /** @return the job or null if it doesn't exist or was discarded after finishing */
+  @Nullable
+  public DatasetJob get(UUID key) {
+    return jobs.get(key);
+  }
+
+  /** @return the running and latest finished jobs, latest first */
+  public List<DatasetJob> list() {
+    List<DatasetJob> result;
+    synchronized (jobs) {
+      result = new ArrayList<>(jobs.values());
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  /**
+   * Requests the cancellation of a job. The datasets already being processed are finished, and the
+   * rest are skipped.
+   *
+   * @return the job or null if it doesn't exist
+   */
+  @Nullable
+  public DatasetJob cancel(UUID key) {
+    DatasetJob job = jobs.get(key);
+    if (job != null) {
+      LOG.info("Cancelling {}", job);
+      job.cancel();
+    }
+    return job;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    coordinators.shutdownNow();
+    workers.shutdownNow();
+  }
+
+  private DatasetJob submit(DatasetJob job, Iterator<UUID> datasetKeys, Consumer<UUID> action) {
+    jobs.put(job.getKey(), job);
+    coordinators.execute(() -> run(job, datasetKeys, action));
+    LOG.info("Started {}", job);
+    return job;
+  }
+
+  private void run(DatasetJob job, Iterator<UUID> datasetKeys, Consumer<UUID> action) {
+    // bounds the datasets of the job waiting for a worker
+    Semaphore queued = new Semaphore(maxQueued);
+    try {
+      while (!job.isCancelRequested() && datasetKeys.hasNext()) {
+        UUID datasetKey = datasetKeys.next();
+        queued.acquire();
+        rateLimiter.acquire();
+        job.onSubmitted();
+        workers.execute(
+            () -> {
+              try {
+                if (!job.isCancelRequested()) {
+                  action.accept(datasetKey);
+                  job.onProcessed(true);
+                }
+              } catch (Exception ex) {
+                LOG.error(
+                    "Error processing dataset {} in job {}: {}",
+                    datasetKey,
+                    job.getKey(),
+                    ex.getMessage());
+                job.onProcessed(false);
+              } finally {
+                queued.release();
+              }
+            });
+      }
+
+      // waits for the datasets being processed
+      queued.acquire(maxQueued);
+      job.finish(
+          job.isCancelRequested() ? DatasetJob.Status.CANCELLED : DatasetJob.Status.COMPLETED);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      job.finish(DatasetJob.Status.CANCELLED);
+    } catch (Exception e) {
+      LOG.error("Error running job {}", job.getKey(), e);
+      job.finish(DatasetJob.Status.FAILED);
+    }
+    LOG.info("Finished {}", job);
+  }
+
+  /** Iterates over the keys of the datasets not flagged as deleted, a page at a time. */
+  private Iterator<UUID> allDatasetKeys() {
+    return new AbstractIterator<UUID>() {
+      private Iterator<UUID> page = Collections.emptyIterator();
+      private UUID afterKey;
+      private boolean lastPage;
+
+      @Override
+      protected UUID computeNext() {
+        if (!page.hasNext()) {
+          if (lastPage) {
+            return endOfData();
+          }
+          List<UUID> keys = datasetMapper.listKeys(afterKey, pageSize);
+          lastPage = keys.size() < pageSize;
+          if (keys.isEmpty()) {
+            return endOfData();
+          }
+          afterKey = keys.get(keys.size() - 1);
+          page = keys.iterator();
+        }
+        return page.next();
+      }
+    };
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.pipelines.jobs;
+
+import org.gbif.registry.persistence.mapper.DatasetMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DatasetJobServiceTest {
+
+  @Mock private DatasetMapper datasetMapper;
+
+  private DatasetJobService service;
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  @Test
+  void submitTest() throws InterruptedException {
+    service = new DatasetJobService(datasetMapper, 2, 5, 1000, 10);
+    List<UUID> keys = keys(30);
+    Set<UUID> processed = ConcurrentHashMap.newKeySet();
+
+    DatasetJob job =
+        service.submit(
+            "TEST",
+            "user",
+            keys,
+            k -> {
+              if (k.equals(keys.get(0))) {
+                throw new IllegalStateException("failed");
+              }
+              processed.add(k);
+            });
+    awaitFinished(job);
+
+    assertEquals(DatasetJob.Status.COMPLETED, job.getStatus());
+    assertEquals(30L, job.getTotal());
+    assertEquals(30, job.getSubmitted());
+    assertEquals(30, job.getProcessed());
+    assertEquals(1, job.getFailed());
+    assertEquals(29, processed.size());
+    assertNotNull(job.getFinished());
+    assertEquals(job, service.get(job.getKey()));
+    assertEquals(Collections.singletonList(job), service.list());
+  }
+
+  @Test
+  void submitOnAllDatasetsTest() throws InterruptedException {
+    service = new DatasetJobService(datasetMapper, 2, 5, 1000, 10);
+    List<UUID> keys = keys(25);
+    Collections.sort(keys);
+    // pages of 10 keys continued after the last key of the previous page
+    when(datasetMapper.listKeys(isNull(), anyInt())).thenReturn(keys.subList(0, 10));
+    when(datasetMapper.listKeys(any(UUID.class), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int from = keys.indexOf(invocation.<UUID>getArgument(0)) + 1;
+              return keys.subList(from, Math.min(from + 10, keys.size()));
+            });
+    Set<UUID> processed = ConcurrentHashMap.newKeySet();
+
+    DatasetJob job =
+        service.submitOnAllDatasets(
+            "TEST", "user", Collections.singletonList(keys.get(3)), processed::add);
+    awaitFinished(job);
+
+    assertEquals(DatasetJob.Status.COMPLETED, job.getStatus());
+    assertNull(job.getTotal());
+    assertEquals(24, job.getProcessed());
+    assertEquals(24, processed.size());
+    assertFalse(processed.contains(keys.get(3)));
+  }
+
+  @Test
+  void cancelTest() throws InterruptedException {
+    service = new DatasetJobService(datasetMapper, 1, 2, 1000, 10);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    DatasetJob job =
+        service.submit(
+            "TEST",
+            "user",
+            keys(100),
+            k -> {
+              started.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    // the queue is bounded so only a few datasets are submitted while the first one runs
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(job.getSubmitted() <= 3);
+
+    assertEquals(job, service.cancel(job.getKey()));
+    release.countDown();
+    awaitFinished(job);
+
+    assertEquals(DatasetJob.Status.CANCELLED, job.getStatus());
+    assertEquals(1, job.getProcessed());
+    assertNull(service.cancel(UUID.randomUUID()));
+  }
+
+  private static List<UUID> keys(int size) {
+    return IntStream.range(0, size)
+        .mapToObj(i -> UUID.randomUUID())
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  private static void awaitFinished(DatasetJob job) throws InterruptedException {
+    long timeout = System.currentTimeMillis() + 10_000;
+    while (job.getStatus() == DatasetJob.Status.RUNNING && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10);
+    }
+  }
+}
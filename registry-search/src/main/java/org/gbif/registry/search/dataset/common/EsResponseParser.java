@@ -91,7 +91,10 @@ public class EsResponseParser<T, S, P extends SearchParameter> {
       Function<SearchHit, R> mapper) {
 
     SearchResponse<R, P> response = new SearchResponse<>(request);
-    response.setCount(esResponse.getHits().getTotalHits().value);
+    // when the total hits are capped the count is a lower bound
+    if (esResponse.getHits().getTotalHits() != null) {
+      response.setCount(esResponse.getHits().getTotalHits().value);
+    }
     parseHits(esResponse, mapper).ifPresent(response::setResults);
     if (request instanceof FacetedSearchRequest) {
       parseFacets(esResponse, (FacetedSearchRequest<P>) request).ifPresent(response::setFacets);
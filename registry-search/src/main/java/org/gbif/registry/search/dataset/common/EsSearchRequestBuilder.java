@@ -32,7 +32,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 import org.elasticsearch.action.search.SearchRequest;
@@ -79,7 +78,6 @@ import static org.gbif.registry.search.dataset.indexing.es.EsQueryUtils.extractF
 public class EsSearchRequestBuilder<P extends SearchParameter> {
 
   private static final int MAX_SIZE_TERMS_AGGS = 1200000;
-  private static final IntUnaryOperator DEFAULT_SHARD_SIZE = size -> (size * 2) + 50000;
   private static final String PRE_HL_TAG = "<em class=\"gbifHl\">";
   private static final String POST_HL_TAG = "</em>";
 
@@ -103,12 +101,20 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
 
   public SearchRequest buildSearchRequest(
       FacetedSearchRequest<P> searchRequest, boolean facetsEnabled, String index) {
+    return buildSearchRequest(searchRequest, facetsEnabled, index, TotalHitsTracking.EXACT);
+  }
+
+  public SearchRequest buildSearchRequest(
+      FacetedSearchRequest<P> searchRequest,
+      boolean facetsEnabled,
+      String index,
+      TotalHitsTracking totalHitsTracking) {
 
     SearchRequest esRequest = new SearchRequest();
     esRequest.indices(index);
 
     SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.trackTotalHits(true);
+    totalHitsTracking.apply(searchSourceBuilder);
     esRequest.source(searchSourceBuilder);
     searchSourceBuilder.fetchSource(esFieldMapper.getMappedFields(), esFieldMapper.excludeFields());
 
@@ -396,14 +402,24 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
     termsAggsBuilder.size(size);
 
     // aggs shard size
-    /*
-    termsAggsBuilder.shardSize(
-        Optional.ofNullable(esFieldMapper.getCardinality(esField))
-            .orElse(DEFAULT_SHARD_SIZE.applyAsInt(size)));
-    */
+    termsAggsBuilder.shardSize(calculateShardSize(esField, size));
+
     return termsAggsBuilder;
   }
 
+  /**
+   * Uses the same heuristic as Elasticsearch to request some extra buckets from each shard, which
+   * improves the accuracy of the counts, but never more than the cardinality of the field.
+   */
+  private int calculateShardSize(String esField, int size) {
+    long shardSize = (long) (size * 1.5) + 10;
+    Integer maxCardinality = esFieldMapper.getCardinality(esField);
+    if (maxCardinality != null) {
+      shardSize = Math.min(shardSize, Math.max(size, maxCardinality));
+    }
+    return (int) Math.min(shardSize, MAX_SIZE_TERMS_AGGS);
+  }
+
   private int calculateAggsSize(String esField, int facetOffset, int facetLimit) {
     int maxCardinality =
         Optional.ofNullable(esFieldMapper.getCardinality(esField)).orElse(Integer.MAX_VALUE);
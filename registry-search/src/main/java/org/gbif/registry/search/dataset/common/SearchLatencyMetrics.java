@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.common;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Data;
+
+/**
+ * Latency of the searches grouped by the shape of the query, i.e. the parameters and facets used
+ * regardless of their values.
+ */
+public class SearchLatencyMetrics {
+
+  /** Shapes recorded after reaching the max are grouped together to bound the memory used. */
+  static final String OTHER_SHAPE = "other";
+
+  private final int maxShapes;
+  private final ConcurrentMap<String, ShapeStats> stats = new ConcurrentHashMap<>();
+
+  public SearchLatencyMetrics(int maxShapes) {
+    this.maxShapes = maxShapes;
+  }
+
+  public void record(String shape, long elapsedNanos, boolean cacheHit) {
+    ShapeStats shapeStats = stats.get(shape);
+    if (shapeStats == null) {
+      shapeStats =
+          stats.size() < maxShapes
+              ? stats.computeIfAbsent(shape, s -> new ShapeStats())
+              : stats.computeIfAbsent(OTHER_SHAPE, s -> new ShapeStats());
+    }
+
+    shapeStats.requests.increment();
+    if (cacheHit) {
+      shapeStats.cacheHits.increment();
+    }
+    shapeStats.totalNanos.add(elapsedNanos);
+    shapeStats.maxNanos.accumulate(elapsedNanos);
+  }
+
+  /** Returns the stats of each shape sorted by shape. */
+  public Map<String, ShapeSnapshot> snapshot() {
+    Map<String, ShapeSnapshot> snapshot = new TreeMap<>();
+    stats.forEach(
+        (shape, s) -> {
+          long requests = s.requests.sum();
+          ShapeSnapshot shapeSnapshot = new ShapeSnapshot();
+          shapeSnapshot.setRequests(requests);
+          shapeSnapshot.setCacheHits(s.cacheHits.sum());
+          shapeSnapshot.setMeanMillis(requests > 0 ? toMillis(s.totalNanos.sum()) / requests : 0);
+          shapeSnapshot.setMaxMillis(toMillis(s.maxNanos.get()));
+          snapshot.put(shape, shapeSnapshot);
+        });
+    return snapshot;
+  }
+
+  private static double toMillis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static class ShapeStats {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+  }
+
+  /** Stats of a shape at a point in time. */
+  @Data
+  public static class ShapeSnapshot {
+    private long requests;
+    private long cacheHits;
+    private double meanMillis;
+    private double maxMillis;
+  }
+}
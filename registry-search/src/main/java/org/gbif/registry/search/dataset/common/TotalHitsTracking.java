@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.common;
+
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import com.google.common.base.Strings;
+
+/**
+ * How precisely the total number of hits of a search is counted. Counting all the hits exactly
+ * forces Elasticsearch to visit every matching document, whereas a cap lets it stop early and the
+ * count returned is then a lower bound.
+ */
+public final class TotalHitsTracking {
+
+  /** Cap used by Elasticsearch when the total hits are not tracked exactly. */
+  public static final int DEFAULT_APPROXIMATE_LIMIT = 10_000;
+
+  public static final TotalHitsTracking EXACT = new TotalHitsTracking(null);
+
+  public static final TotalHitsTracking APPROXIMATE =
+      new TotalHitsTracking(DEFAULT_APPROXIMATE_LIMIT);
+
+  // null means exact
+  private final Integer upTo;
+
+  private TotalHitsTracking(Integer upTo) {
+    this.upTo = upTo;
+  }
+
+  /** Counts the hits exactly up to the limit given. */
+  public static TotalHitsTracking upTo(int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("The hit count limit must be greater than 0");
+    }
+    return new TotalHitsTracking(limit);
+  }
+
+  /**
+   * Parses the value of a request parameter: <code>true</code> or <code>exact</code> count all the
+   * hits, <code>false</code> or <code>approximate</code> use the Elasticsearch default cap and a
+   * number sets a custom cap. An empty value means exact.
+   */
+  public static TotalHitsTracking parse(@Nullable String value) {
+    if (Strings.isNullOrEmpty(value)
+        || "true".equalsIgnoreCase(value)
+        || "exact".equalsIgnoreCase(value)) {
+      return EXACT;
+    }
+    if ("false".equalsIgnoreCase(value) || "approximate".equalsIgnoreCase(value)) {
+      return APPROXIMATE;
+    }
+    try {
+      return upTo(Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid hit count tracking: " + value);
+    }
+  }
+
+  public boolean isExact() {
+    return upTo == null;
+  }
+
+  public void apply(SearchSourceBuilder searchSourceBuilder) {
+    if (upTo == null) {
+      searchSourceBuilder.trackTotalHits(true);
+    } else {
+      searchSourceBuilder.trackTotalHitsUpTo(upTo);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return Objects.equals(upTo, ((TotalHitsTracking) o).upTo);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(upTo);
+  }
+
+  @Override
+  public String toString() {
+    return upTo == null ? "exact" : "upTo" + upTo;
+  }
+}
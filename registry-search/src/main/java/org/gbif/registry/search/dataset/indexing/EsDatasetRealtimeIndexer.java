@@ -20,6 +20,7 @@ import org.gbif.api.model.registry.Organization;
 import org.gbif.api.util.iterables.Iterables;
 import org.gbif.registry.search.dataset.indexing.es.IndexingConstants;
 import org.gbif.registry.search.dataset.indexing.ws.GbifWsClient;
+import org.gbif.registry.search.dataset.service.DatasetSearchCache;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -31,6 +32,7 @@ import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -54,16 +56,21 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
 
   private final String index;
 
+  // not available when the indexer runs outside the registry, e.g. in the CLI
+  private final DatasetSearchCache searchCache;
+
   @Autowired
   public EsDatasetRealtimeIndexer(
       RestHighLevelClient restHighLevelClient,
       DatasetJsonConverter datasetJsonConverter,
       GbifWsClient gbifWsClient,
-      @Value("${elasticsearch.registry.index}") String index) {
+      @Value("${elasticsearch.registry.index}") String index,
+      @Autowired(required = false) DatasetSearchCache searchCache) {
     this.restHighLevelClient = restHighLevelClient;
     this.datasetJsonConverter = datasetJsonConverter;
     this.gbifWsClient = gbifWsClient;
     this.index = index;
+    this.searchCache = searchCache;
     pendingUpdates = new AtomicInteger();
   }
 
@@ -80,31 +87,32 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
     pendingUpdates.incrementAndGet();
     try {
       restHighLevelClient.indexAsync(
-          toIndexRequest(dataset),
+          toIndexRequest(dataset).setRefreshPolicy(refreshPolicy()),
           RequestOptions.DEFAULT,
           new ActionListener<IndexResponse>() {
             @Override
             public void onResponse(IndexResponse indexResponse) {
               log.info("Dataset indexed {}, result {}", dataset.getKey(), indexResponse);
-              pendingUpdates.decrementAndGet();
+              updatesFinished(1);
             }
 
             @Override
             public void onFailure(Exception ex) {
               log.error("Error indexing dataset {}", dataset, ex);
-              pendingUpdates.decrementAndGet();
+              updatesFinished(1);
             }
           });
     } catch (Exception ex) {
       log.error("Error indexing dataset {}", dataset, ex);
-      pendingUpdates.decrementAndGet();
+      updatesFinished(1);
     }
   }
 
   @Override
   public void index(Iterable<Dataset> datasets) {
     final AtomicInteger updatesCount = new AtomicInteger();
-    BulkRequest bulkRequest = new BulkRequest();
+    BulkRequest bulkRequest =
+        new BulkRequest().setRefreshPolicy(refreshPolicy());
 
     datasets.forEach(
         dataset -> {
@@ -126,17 +134,18 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
                 } else {
                   log.info("Datasets indexed");
                 }
-                pendingUpdates.addAndGet(-updatesCount.get());
+                updatesFinished(updatesCount.get());
               }
 
               @Override
               public void onFailure(Exception e) {
                 log.error("Error indexing datasets", e);
+                updatesFinished(updatesCount.get());
               }
             });
       } catch (Exception ex) {
         log.error("Error indexing datasets", ex);
-        pendingUpdates.addAndGet(-updatesCount.get());
+        updatesFinished(updatesCount.get());
       }
     }
   }
@@ -145,6 +154,8 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
   public void index(Organization organization) {
     // first purge cache
     gbifWsClient.purge(organization);
+    // the published and hosted datasets are a single batch for the search cache
+    pendingUpdates.incrementAndGet();
     // Update published datasets for the organization
     try {
       log.debug("Updating published datasets for organization {}", organization.getKey());
@@ -179,6 +190,7 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
           organization.getKey(),
           e);
     }
+    updatesFinished(1);
   }
 
   @Override
@@ -205,7 +217,10 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
   public void delete(Dataset dataset) {
     pendingUpdates.incrementAndGet();
     DeleteRequest deleteRequest =
-        new DeleteRequest().id(dataset.getKey().toString()).index(IndexingConstants.ALIAS);
+        new DeleteRequest()
+            .id(dataset.getKey().toString())
+            .index(IndexingConstants.ALIAS)
+            .setRefreshPolicy(refreshPolicy());
     try {
       restHighLevelClient.deleteAsync(
           deleteRequest,
@@ -214,18 +229,18 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
             @Override
             public void onResponse(DeleteResponse deleteResponse) {
               log.info("Dataset deleted {}, result {}", dataset.getKey(), deleteResponse);
-              pendingUpdates.decrementAndGet();
+              updatesFinished(1);
             }
 
             @Override
             public void onFailure(Exception ex) {
               log.error("Error deleting dataset {}", dataset, ex);
-              pendingUpdates.decrementAndGet();
+              updatesFinished(1);
             }
           });
     } catch (Exception ex) {
       log.error("Error deleting dataset {}", dataset, ex);
-      pendingUpdates.decrementAndGet();
+      updatesFinished(1);
     }
   }
 
@@ -250,4 +265,27 @@ public class EsDatasetRealtimeIndexer implements DatasetRealtimeIndexer {
   public int getPendingUpdates() {
     return pendingUpdates.get();
   }
+
+  /**
+   * Waits for the refresh when there is a search cache, so the cached searches are discarded once
+   * the change is visible.
+   */
+  private WriteRequest.RefreshPolicy refreshPolicy() {
+    return searchCache != null
+        ? WriteRequest.RefreshPolicy.WAIT_UNTIL
+        : WriteRequest.RefreshPolicy.NONE;
+  }
+
+  /**
+   * Starts a new search cache generation once there are no updates pending, so a batch of updates,
+   * e.g. the datasets of an organization or a burst of dataset changes, discards the cached
+   * searches only once. The generation changes before the updates stop being pending, so whoever
+   * waits for them doesn't get the cached searches.
+   */
+  private synchronized void updatesFinished(int updates) {
+    if (searchCache != null && pendingUpdates.get() == updates) {
+      searchCache.newGeneration();
+    }
+    pendingUpdates.addAndGet(-updates);
+  }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.service;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.registry.search.DatasetSearchParameter;
+import org.gbif.api.model.registry.search.DatasetSearchRequest;
+import org.gbif.api.model.registry.search.DatasetSearchResult;
+import org.gbif.registry.search.dataset.common.TotalHitsTracking;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of the dataset search responses keyed by the normalized search request.
+ *
+ * <p>The keys include an index generation that the indexers increase after each batch of changes,
+ * so a response computed before a batch can't be cached after it. The entries also expire after a
+ * while to bound the staleness caused by changes made by other processes, e.g. a full reindex.
+ *
+ * <p>The responses are kept serialized and every hit gets its own copy, so a caller can't change
+ * the response that other requests get.
+ */
+@Slf4j
+@Component
+public class DatasetSearchCache {
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private static final TypeReference<SearchResponse<DatasetSearchResult, DatasetSearchParameter>>
+      RESPONSE_TYPE =
+          new TypeReference<SearchResponse<DatasetSearchResult, DatasetSearchParameter>>() {};
+
+  private final AtomicLong generation = new AtomicLong();
+  private final Cache<String, byte[]> cache;
+
+  public DatasetSearchCache(
+      @Value("${elasticsearch.registry.searchCache.maxSize:1000}") long maxSize,
+      @Value("${elasticsearch.registry.searchCache.expireAfterWriteMinutes:10}")
+          long expireAfterWrite) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite, TimeUnit.MINUTES)
+            .build();
+  }
+
+  /**
+   * Creates the cache key of a request. It has to be created before running the search so the
+   * response is cached in the generation that was current when the search started.
+   */
+  public String key(DatasetSearchRequest request, TotalHitsTracking totalHitsTracking) {
+    return generation.get() + "|" + normalize(request) + "|" + totalHitsTracking;
+  }
+
+  /** Returns a copy of the cached response, or null if there is none. */
+  public SearchResponse<DatasetSearchResult, DatasetSearchParameter> get(String key) {
+    byte[] response = cache.getIfPresent(key);
+    if (response == null) {
+      return null;
+    }
+
+    try {
+      return OBJECT_MAPPER.readValue(response, RESPONSE_TYPE);
+    } catch (IOException e) {
+      log.warn("Couldn't read the cached dataset search response {}", key, e);
+      cache.invalidate(key);
+      return null;
+    }
+  }
+
+  public void put(
+      String key, SearchResponse<DatasetSearchResult, DatasetSearchParameter> response) {
+    try {
+      cache.put(key, OBJECT_MAPPER.writeValueAsBytes(response));
+    } catch (IOException e) {
+      log.warn("Couldn't cache the dataset search response {}", key, e);
+    }
+  }
+
+  /** Called by the indexers when a batch of changes is visible in the index. */
+  public void newGeneration() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Writes the request in a canonical form: parameters, values and facets are sorted and the
+   * defaults are made explicit, so equivalent requests get the same key.
+   */
+  static String normalize(DatasetSearchRequest request) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("q=").append(Strings.nullToEmpty(request.getQ()).trim());
+    sb.append("&offset=").append(request.getOffset());
+    sb.append("&limit=").append(request.getLimit());
+    sb.append("&hl=").append(request.isHighlight());
+
+    if (request.getParameters() != null) {
+      Map<DatasetSearchParameter, Set<String>> params =
+          new TreeMap<>(Comparator.comparing(DatasetSearchParameter::name));
+      request.getParameters().forEach((k, v) -> params.put(k, new TreeSet<>(v)));
+      params.forEach((k, v) -> sb.append('&').append(k.name()).append('=').append(v));
+    }
+
+    if (request.getFacets() != null && !request.getFacets().isEmpty()) {
+      sb.append("&multiSelect=").append(request.isMultiSelectFacets());
+      sb.append("&facetMinCount=").append(request.getFacetMinCount());
+      sb.append("&facetLimit=").append(request.getFacetLimit());
+      sb.append("&facetOffset=").append(request.getFacetOffset());
+      Set<DatasetSearchParameter> facets =
+          new TreeSet<>(Comparator.comparing(DatasetSearchParameter::name));
+      facets.addAll(request.getFacets());
+      for (DatasetSearchParameter facet : facets) {
+        sb.append("&facet=").append(facet.name());
+        Pageable facetPage = request.getFacetPage(facet);
+        if (facetPage != null) {
+          sb.append('(').append(facetPage.getOffset()).append(',');
+          sb.append(facetPage.getLimit()).append(')');
+        }
+      }
+    }
+
+    return sb.toString();
+  }
+}
@@ -19,13 +19,16 @@ import org.gbif.api.model.registry.search.DatasetSearchRequest;
 import org.gbif.api.model.registry.search.DatasetSearchResult;
 import org.gbif.api.model.registry.search.DatasetSuggestRequest;
 import org.gbif.api.model.registry.search.DatasetSuggestResult;
-import org.gbif.api.service.registry.DatasetSearchService;
 import org.gbif.registry.search.dataset.DatasetEsFieldMapper;
 import org.gbif.registry.search.dataset.DatasetEsResponseParser;
 import org.gbif.registry.search.dataset.common.EsSearchRequestBuilder;
+import org.gbif.registry.search.dataset.common.SearchLatencyMetrics;
+import org.gbif.registry.search.dataset.common.TotalHitsTracking;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.RequestOptions;
@@ -35,19 +38,24 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.google.common.base.Strings;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
 @Qualifier("datasetSearchServiceEs")
-public class DatasetSearchServiceEs implements DatasetSearchService {
+public class DatasetSearchServiceEs implements RegistryDatasetSearchService {
 
   private static final int DEFAULT_SUGGEST_LIMIT = 10;
   private static final int MAX_SUGGEST_LIMIT = 100;
+  private static final int MAX_METRICS_SHAPES = 500;
 
   private final DatasetEsResponseParser esResponseParser = DatasetEsResponseParser.create();
   private final RestHighLevelClient restHighLevelClient;
   private final String index;
+  private final DatasetSearchCache searchCache;
+  private final SearchLatencyMetrics latencyMetrics = new SearchLatencyMetrics(MAX_METRICS_SHAPES);
 
   private final EsSearchRequestBuilder<DatasetSearchParameter> esSearchRequestBuilder =
       new EsSearchRequestBuilder<>(new DatasetEsFieldMapper());
@@ -55,22 +63,52 @@ public class DatasetSearchServiceEs implements DatasetSearchService {
   @Autowired
   public DatasetSearchServiceEs(
       @Value("${elasticsearch.registry.index}") String index,
-      RestHighLevelClient restHighLevelClient) {
+      RestHighLevelClient restHighLevelClient,
+      DatasetSearchCache searchCache) {
     this.index = index;
     this.restHighLevelClient = restHighLevelClient;
+    this.searchCache = searchCache;
   }
 
   @Override
   public SearchResponse<DatasetSearchResult, DatasetSearchParameter> search(
       DatasetSearchRequest datasetSearchRequest) {
-    try {
-      SearchRequest searchRequest =
-          esSearchRequestBuilder.buildSearchRequest(datasetSearchRequest, true, index);
-      return esResponseParser.buildSearchResponse(
-          restHighLevelClient.search(searchRequest, RequestOptions.DEFAULT), datasetSearchRequest);
-    } catch (IOException ex) {
-      throw new RuntimeException(ex);
+    return search(datasetSearchRequest, TotalHitsTracking.EXACT);
+  }
+
+  /** The responses are cached until the index changes. */
+  @Override
+  public SearchResponse<DatasetSearchResult, DatasetSearchParameter> search(
+      DatasetSearchRequest datasetSearchRequest, TotalHitsTracking totalHitsTracking) {
+    long start = System.nanoTime();
+    String cacheKey = searchCache.key(datasetSearchRequest, totalHitsTracking);
+    SearchResponse<DatasetSearchResult, DatasetSearchParameter> response =
+        searchCache.get(cacheKey);
+    boolean cacheHit = response != null;
+
+    if (!cacheHit) {
+      try {
+        SearchRequest searchRequest =
+            esSearchRequestBuilder.buildSearchRequest(
+                datasetSearchRequest, true, index, totalHitsTracking);
+        response =
+            esResponseParser.buildSearchResponse(
+                restHighLevelClient.search(searchRequest, RequestOptions.DEFAULT),
+                datasetSearchRequest);
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+      searchCache.put(cacheKey, response);
     }
+
+    latencyMetrics.record(
+        shape(datasetSearchRequest, totalHitsTracking), System.nanoTime() - start, cacheHit);
+    return response;
+  }
+
+  /** Latency of the searches grouped by the shape of the request. */
+  public SearchLatencyMetrics getLatencyMetrics() {
+    return latencyMetrics;
   }
 
   @Override
@@ -102,4 +140,33 @@ public class DatasetSearchServiceEs implements DatasetSearchService {
       throw new RuntimeException(ex);
     }
   }
+
+  /**
+   * Describes the shape of a request, i.e. the parameters and facets used without their values,
+   * to group the latency metrics.
+   */
+  private static String shape(DatasetSearchRequest request, TotalHitsTracking totalHitsTracking) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(Strings.isNullOrEmpty(request.getQ()) ? "noQ" : "q");
+    if (request.isHighlight()) {
+      sb.append(",hl");
+    }
+    if (request.getParameters() != null && !request.getParameters().isEmpty()) {
+      Set<String> params = new TreeSet<>();
+      request.getParameters().keySet().forEach(p -> params.add(p.name()));
+      sb.append(",params=").append(params);
+    }
+    if (request.getFacets() != null && !request.getFacets().isEmpty()) {
+      Set<String> facets = new TreeSet<>();
+      request.getFacets().forEach(p -> facets.add(p.name()));
+      sb.append(",facets=").append(facets);
+      if (request.isMultiSelectFacets()) {
+        sb.append(",multiSelect");
+      }
+    }
+    if (!totalHitsTracking.isExact()) {
+      sb.append(",approximateCount");
+    }
+    return sb.toString();
+  }
 }
@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.service;
+
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.registry.search.DatasetSearchParameter;
+import org.gbif.api.model.registry.search.DatasetSearchRequest;
+import org.gbif.api.model.registry.search.DatasetSearchResult;
+import org.gbif.api.service.registry.DatasetSearchService;
+import org.gbif.registry.search.dataset.common.TotalHitsTracking;
+
+/** A {@link DatasetSearchService} that can cap the count of the total hits. */
+public interface RegistryDatasetSearchService extends DatasetSearchService {
+
+  /** Searches datasets counting the total hits as indicated. */
+  SearchResponse<DatasetSearchResult, DatasetSearchParameter> search(
+      DatasetSearchRequest datasetSearchRequest, TotalHitsTracking totalHitsTracking);
+}
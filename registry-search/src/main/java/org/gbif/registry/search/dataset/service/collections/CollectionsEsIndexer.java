@@ -0,0 +1,326 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.service.collections;
+
+import org.gbif.api.vocabulary.Country;
+import org.gbif.registry.persistence.mapper.collections.CollectionsSearchMapper;
+import org.gbif.registry.persistence.mapper.collections.dto.SearchIndexDto;
+import org.gbif.registry.search.dataset.indexing.es.EsClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.google.common.io.CharStreams;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.ADDRESS_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.ALTERNATIVE_CODES_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CITY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CODE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.COUNTRY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CREATED_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.DESCRIPTION_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.DISPLAY_ON_NHC_PORTAL_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.INSTITUTION_CODE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.INSTITUTION_KEY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.INSTITUTION_NAME_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.KEY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_ADDRESS_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_CITY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_COUNTRY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_PROVINCE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAPPING_FILE;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.NAME_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.PROVINCE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.SETTINGS_FILE;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.TYPE_FIELD;
+
+/**
+ * Keeps the GRSciColl search index in sync with the database.
+ *
+ * <p>Single entities are indexed asynchronously when they change. The whole index can be rebuilt
+ * in a new index that replaces the current one once it's complete, which is also done at startup
+ * if the index doesn't exist yet.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("grscicoll.search.es.enabled")
+public class CollectionsEsIndexer {
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final RestHighLevelClient restHighLevelClient;
+  private final EsClient esClient;
+  private final CollectionsSearchMapper searchMapper;
+  private final String alias;
+
+  @Autowired
+  public CollectionsEsIndexer(
+      RestHighLevelClient restHighLevelClient,
+      EsClient esClient,
+      CollectionsSearchMapper searchMapper,
+      @Value("${grscicoll.search.es.alias:grscicoll}") String alias) {
+    this.restHighLevelClient = restHighLevelClient;
+    this.esClient = esClient;
+    this.searchMapper = searchMapper;
+    this.alias = alias;
+  }
+
+  @PostConstruct
+  public void init() {
+    try {
+      if (!restHighLevelClient
+          .indices()
+          .existsAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT)) {
+        log.info("GRSciColl search index {} not found, creating it", alias);
+        reindexAll();
+      }
+    } catch (Exception ex) {
+      // the service can still start and the index can be rebuilt later
+      log.error("Couldn't initialize the GRSciColl search index {}", alias, ex);
+    }
+  }
+
+  public void indexInstitution(UUID institutionKey) {
+    List<SearchIndexDto> institution =
+        searchMapper.getInstitutionIndexDocuments(institutionKey, null, null);
+    if (institution.isEmpty()) {
+      // it was deleted
+      delete(institutionKey);
+      return;
+    }
+
+    BulkRequest bulkRequest = new BulkRequest();
+    bulkRequest.add(toIndexRequest(institution.get(0), alias));
+    bulkAsync(bulkRequest, "institution " + institutionKey);
+  }
+
+  /**
+   * Indexes the collections of an institution. Needed when the code or name of the institution
+   * change or when collections are moved to it in a merge.
+   */
+  public void indexInstitutionCollections(UUID institutionKey) {
+    BulkRequest bulkRequest = new BulkRequest();
+    searchMapper
+        .getCollectionIndexDocuments(null, institutionKey, null, null)
+        .forEach(c -> bulkRequest.add(toIndexRequest(c, alias)));
+    if (bulkRequest.numberOfActions() > 0) {
+      bulkAsync(bulkRequest, "collections of institution " + institutionKey);
+    }
+  }
+
+  public void indexCollection(UUID collectionKey) {
+    List<SearchIndexDto> collection =
+        searchMapper.getCollectionIndexDocuments(collectionKey, null, null, null);
+    if (collection.isEmpty()) {
+      // it was deleted
+      delete(collectionKey);
+      return;
+    }
+
+    BulkRequest bulkRequest = new BulkRequest();
+    bulkRequest.add(toIndexRequest(collection.get(0), alias));
+    bulkAsync(bulkRequest, "collection " + collectionKey);
+  }
+
+  public void delete(UUID key) {
+    try {
+      restHighLevelClient.deleteAsync(
+          new DeleteRequest(alias, key.toString()),
+          RequestOptions.DEFAULT,
+          new ActionListener<DeleteResponse>() {
+            @Override
+            public void onResponse(DeleteResponse deleteResponse) {
+              log.debug("GRSciColl entity {} deleted from the search index", key);
+            }
+
+            @Override
+            public void onFailure(Exception ex) {
+              log.error("Error deleting GRSciColl entity {} from the search index", key, ex);
+            }
+          });
+    } catch (Exception ex) {
+      log.error("Error deleting GRSciColl entity {} from the search index", key, ex);
+    }
+  }
+
+  /**
+   * Rebuilds the whole index. The entities are loaded in pages into a new index and the alias is
+   * moved to it at the end, so searches keep using the old index meanwhile.
+   */
+  public synchronized void reindexAll() {
+    String indexName = alias + "_" + System.currentTimeMillis();
+    log.info("Rebuilding the GRSciColl search index in {}", indexName);
+    createIndex(indexName);
+
+    int institutions =
+        indexAllPages(
+            indexName,
+            (afterKey, limit) -> searchMapper.getInstitutionIndexDocuments(null, afterKey, limit));
+    int collections =
+        indexAllPages(
+            indexName,
+            (afterKey, limit) ->
+                searchMapper.getCollectionIndexDocuments(null, null, afterKey, limit));
+
+    try {
+      restHighLevelClient.indices().refresh(new RefreshRequest(indexName), RequestOptions.DEFAULT);
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    esClient.swapAlias(alias, indexName);
+    log.info(
+        "GRSciColl search index {} rebuilt with {} institutions and {} collections",
+        indexName,
+        institutions,
+        collections);
+  }
+
+  private int indexAllPages(
+      String indexName, BiFunction<UUID, Integer, List<SearchIndexDto>> pageLoader) {
+    int count = 0;
+    UUID afterKey = null;
+    List<SearchIndexDto> page;
+    do {
+      page = pageLoader.apply(afterKey, PAGE_SIZE);
+      if (page.isEmpty()) {
+        break;
+      }
+
+      BulkRequest bulkRequest = new BulkRequest();
+      page.forEach(dto -> bulkRequest.add(toIndexRequest(dto, indexName)));
+      try {
+        BulkResponse response = esClient.bulk(bulkRequest);
+        if (response.hasFailures()) {
+          log.error("Error rebuilding the GRSciColl index: {}", response.buildFailureMessage());
+        }
+      } catch (IOException ex) {
+        throw new IllegalStateException(ex);
+      }
+
+      count += page.size();
+      afterKey = page.get(page.size() - 1).getKey();
+    } while (page.size() == PAGE_SIZE);
+
+    return count;
+  }
+
+  private void createIndex(String indexName) {
+    try {
+      CreateIndexRequest createIndexRequest = new CreateIndexRequest(indexName);
+      createIndexRequest.settings(readResource(SETTINGS_FILE), XContentType.JSON);
+      createIndexRequest.mapping(readResource(MAPPING_FILE), XContentType.JSON);
+      restHighLevelClient.indices().create(createIndexRequest, RequestOptions.DEFAULT);
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private void bulkAsync(BulkRequest bulkRequest, String description) {
+    try {
+      restHighLevelClient.bulkAsync(
+          bulkRequest,
+          RequestOptions.DEFAULT,
+          new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+              if (response.hasFailures()) {
+                log.error(
+                    "Error indexing GRSciColl {}: {}", description, response.buildFailureMessage());
+              } else {
+                log.debug("GRSciColl {} indexed", description);
+              }
+            }
+
+            @Override
+            public void onFailure(Exception ex) {
+              log.error("Error indexing GRSciColl {}", description, ex);
+            }
+          });
+    } catch (Exception ex) {
+      log.error("Error indexing GRSciColl {}", description, ex);
+    }
+  }
+
+  private static IndexRequest toIndexRequest(SearchIndexDto dto, String index) {
+    Map<String, Object> source = new HashMap<>();
+    source.put(TYPE_FIELD, dto.getType());
+    source.put(KEY_FIELD, dto.getKey().toString());
+    source.put(CODE_FIELD, dto.getCode());
+    source.put(NAME_FIELD, dto.getName());
+    source.put(DESCRIPTION_FIELD, dto.getDescription());
+    source.put(ALTERNATIVE_CODES_FIELD, dto.getAlternativeCodes());
+    source.put(DISPLAY_ON_NHC_PORTAL_FIELD, dto.isDisplayOnNHCPortal());
+    source.put(CREATED_FIELD, dto.getCreated());
+    source.put(
+        INSTITUTION_KEY_FIELD,
+        dto.getInstitutionKey() != null ? dto.getInstitutionKey().toString() : null);
+    source.put(INSTITUTION_CODE_FIELD, dto.getInstitutionCode());
+    source.put(INSTITUTION_NAME_FIELD, dto.getInstitutionName());
+    source.put(ADDRESS_FIELD, dto.getAddress());
+    source.put(CITY_FIELD, dto.getCity());
+    source.put(PROVINCE_FIELD, dto.getProvince());
+    source.put(COUNTRY_FIELD, isoCode(dto.getCountry()));
+    source.put(MAILING_ADDRESS_FIELD, dto.getMailAddress());
+    source.put(MAILING_CITY_FIELD, dto.getMailCity());
+    source.put(MAILING_PROVINCE_FIELD, dto.getMailProvince());
+    source.put(MAILING_COUNTRY_FIELD, isoCode(dto.getMailCountry()));
+
+    return new IndexRequest()
+        .index(index)
+        .id(dto.getKey().toString())
+        .opType(DocWriteRequest.OpType.INDEX)
+        .source(source);
+  }
+
+  private static String isoCode(Country country) {
+    return country != null ? country.getIso2LetterCode() : null;
+  }
+
+  private static String readResource(String resource) throws IOException {
+    try (InputStream in = CollectionsEsIndexer.class.getClassLoader().getResourceAsStream(resource);
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+      return CharStreams.toString(reader);
+    }
+  }
+}
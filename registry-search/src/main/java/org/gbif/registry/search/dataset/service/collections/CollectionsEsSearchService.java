@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.service.collections;
+
+import org.gbif.api.model.collections.search.CollectionsSearchResponse;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.registry.domain.collections.TypeParam;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.unit.Fuzziness;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.ADDRESS_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.ALTERNATIVE_CODES_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CITY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CODE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CODE_KEYWORD_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.COUNTRY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.CREATED_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.DESCRIPTION_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.DISPLAY_ON_NHC_PORTAL_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.HIGHLIGHT_FIELDS;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.INSTITUTION_CODE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.INSTITUTION_KEY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.INSTITUTION_NAME_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.KEY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_ADDRESS_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_CITY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_COUNTRY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.MAILING_PROVINCE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.NAME_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.NAME_FUZZY_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.PROVINCE_FIELD;
+import static org.gbif.registry.search.dataset.service.collections.CollectionsIndexingConstants.TYPE_FIELD;
+
+/**
+ * Searches GRSciColl institutions and collections in the Elasticsearch index maintained by {@link
+ * CollectionsEsIndexer}. The responses have the same shape as the ones of the database search and
+ * the highlights are produced by Elasticsearch.
+ */
+@Service
+@ConditionalOnProperty("grscicoll.search.es.enabled")
+public class CollectionsEsSearchService {
+
+  private static final String PRE_TAG = "<b>";
+  private static final String POST_TAG = "</b>";
+  private static final float EXACT_CODE_BOOST = 10f;
+
+  private final RestHighLevelClient restHighLevelClient;
+  private final String alias;
+
+  @Autowired
+  public CollectionsEsSearchService(
+      RestHighLevelClient restHighLevelClient,
+      @Value("${grscicoll.search.es.alias:grscicoll}") String alias) {
+    this.restHighLevelClient = restHighLevelClient;
+    this.alias = alias;
+  }
+
+  public List<CollectionsSearchResponse> search(
+      String query,
+      boolean highlight,
+      TypeParam type,
+      Boolean displayOnNHCPortal,
+      Country country,
+      int limit) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().size(limit);
+    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
+
+    if (type != null) {
+      boolQuery.filter(
+          QueryBuilders.termQuery(TYPE_FIELD, type.name().toLowerCase(Locale.ENGLISH)));
+    }
+    if (displayOnNHCPortal != null) {
+      boolQuery.filter(QueryBuilders.termQuery(DISPLAY_ON_NHC_PORTAL_FIELD, displayOnNHCPortal));
+    }
+    if (country != null) {
+      boolQuery.filter(
+          QueryBuilders.boolQuery()
+              .should(QueryBuilders.termQuery(COUNTRY_FIELD, country.getIso2LetterCode()))
+              .should(QueryBuilders.termQuery(MAILING_COUNTRY_FIELD, country.getIso2LetterCode()))
+              .minimumShouldMatch(1));
+    }
+
+    boolean hasQuery = !Strings.isNullOrEmpty(query) && !query.trim().isEmpty();
+    if (hasQuery) {
+      String q = query.trim();
+      boolQuery.must(
+          QueryBuilders.boolQuery()
+              .should(
+                  QueryBuilders.multiMatchQuery(
+                          q,
+                          CODE_FIELD,
+                          NAME_FIELD,
+                          DESCRIPTION_FIELD,
+                          ALTERNATIVE_CODES_FIELD,
+                          ADDRESS_FIELD,
+                          CITY_FIELD,
+                          PROVINCE_FIELD,
+                          MAILING_ADDRESS_FIELD,
+                          MAILING_CITY_FIELD,
+                          MAILING_PROVINCE_FIELD)
+                      .type(MultiMatchQueryBuilder.Type.BEST_FIELDS)
+                      .operator(Operator.AND))
+              .should(QueryBuilders.termQuery(CODE_KEYWORD_FIELD, q).boost(EXACT_CODE_BOOST))
+              .should(
+                  QueryBuilders.matchQuery(NAME_FUZZY_FIELD, q)
+                      .fuzziness(Fuzziness.AUTO)
+                      .operator(Operator.AND))
+              .should(
+                  QueryBuilders.termQuery(COUNTRY_FIELD, q.toUpperCase(Locale.ENGLISH)))
+              .should(
+                  QueryBuilders.termQuery(MAILING_COUNTRY_FIELD, q.toUpperCase(Locale.ENGLISH)))
+              .minimumShouldMatch(1));
+
+      if (highlight) {
+        HighlightBuilder highlightBuilder =
+            new HighlightBuilder()
+                .preTags(PRE_TAG)
+                .postTags(POST_TAG)
+                .numOfFragments(0)
+                .requireFieldMatch(true);
+        HIGHLIGHT_FIELDS.keySet().forEach(highlightBuilder::field);
+        searchSourceBuilder.highlighter(highlightBuilder);
+      }
+    } else {
+      searchSourceBuilder.sort(CREATED_FIELD, SortOrder.ASC).sort(KEY_FIELD, SortOrder.ASC);
+    }
+
+    searchSourceBuilder.query(boolQuery);
+
+    SearchResponse esResponse;
+    try {
+      esResponse =
+          restHighLevelClient.search(
+              new SearchRequest(alias).source(searchSourceBuilder), RequestOptions.DEFAULT);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error searching GRSciColl entities", ex);
+    }
+
+    List<CollectionsSearchResponse> responses = new ArrayList<>();
+    for (SearchHit hit : esResponse.getHits().getHits()) {
+      responses.add(toResponse(hit, hasQuery && highlight));
+    }
+    return responses;
+  }
+
+  private static CollectionsSearchResponse toResponse(SearchHit hit, boolean highlight) {
+    Map<String, Object> source = hit.getSourceAsMap();
+
+    CollectionsSearchResponse response = new CollectionsSearchResponse();
+    response.setType((String) source.get(TYPE_FIELD));
+    response.setKey(UUID.fromString((String) source.get(KEY_FIELD)));
+    response.setCode((String) source.get(CODE_FIELD));
+    response.setName((String) source.get(NAME_FIELD));
+    response.setDisplayOnNHCPortal(Boolean.TRUE.equals(source.get(DISPLAY_ON_NHC_PORTAL_FIELD)));
+    response.setCountry(Country.fromIsoCode((String) source.get(COUNTRY_FIELD)));
+    response.setMailingCountry(Country.fromIsoCode((String) source.get(MAILING_COUNTRY_FIELD)));
+
+    if ("collection".equals(response.getType())) {
+      String institutionKey = (String) source.get(INSTITUTION_KEY_FIELD);
+      response.setInstitutionKey(institutionKey != null ? UUID.fromString(institutionKey) : null);
+      response.setInstitutionCode((String) source.get(INSTITUTION_CODE_FIELD));
+      response.setInstitutionName((String) source.get(INSTITUTION_NAME_FIELD));
+    }
+
+    if (highlight && hit.getHighlightFields() != null && !hit.getHighlightFields().isEmpty()) {
+      Set<CollectionsSearchResponse.Match> matches = new HashSet<>();
+      Set<String> matchedFields = new HashSet<>();
+      // the fields are iterated in order so the prefix match of the name wins over the fuzzy one
+      HIGHLIGHT_FIELDS.forEach(
+          (indexField, matchField) -> {
+            HighlightField highlightField = hit.getHighlightFields().get(indexField);
+            if (highlightField == null
+                || highlightField.getFragments() == null
+                || highlightField.getFragments().length == 0
+                || !matchedFields.add(matchField)) {
+              return;
+            }
+            CollectionsSearchResponse.Match match = new CollectionsSearchResponse.Match();
+            match.setField(matchField);
+            match.setSnippet(highlightField.getFragments()[0].string());
+            matches.add(match);
+          });
+      if (!matches.isEmpty()) {
+        response.setMatches(matches);
+      }
+    }
+
+    return response;
+  }
+}
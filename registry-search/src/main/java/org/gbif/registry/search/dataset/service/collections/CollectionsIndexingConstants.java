@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.search.dataset.service.collections;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.experimental.UtilityClass;
+
+/** Constants used for indexing GRSciColl institutions and collections into Elasticsearch. */
+@UtilityClass
+public class CollectionsIndexingConstants {
+
+  public static final String MAPPING_FILE = "collections-es-mapping.json";
+
+  public static final String SETTINGS_FILE = "collections-es-settings.json";
+
+  public static final String TYPE_FIELD = "type";
+  public static final String KEY_FIELD = "key";
+  public static final String CODE_FIELD = "code";
+  public static final String CODE_KEYWORD_FIELD = "code.keyword";
+  public static final String NAME_FIELD = "name";
+  public static final String NAME_FUZZY_FIELD = "name.fuzzy";
+  public static final String DESCRIPTION_FIELD = "description";
+  public static final String ALTERNATIVE_CODES_FIELD = "alternativeCodes";
+  public static final String DISPLAY_ON_NHC_PORTAL_FIELD = "displayOnNHCPortal";
+  public static final String CREATED_FIELD = "created";
+  public static final String INSTITUTION_KEY_FIELD = "institutionKey";
+  public static final String INSTITUTION_CODE_FIELD = "institutionCode";
+  public static final String INSTITUTION_NAME_FIELD = "institutionName";
+  public static final String ADDRESS_FIELD = "address";
+  public static final String CITY_FIELD = "city";
+  public static final String PROVINCE_FIELD = "province";
+  public static final String COUNTRY_FIELD = "country";
+  public static final String MAILING_ADDRESS_FIELD = "mailingAddress";
+  public static final String MAILING_CITY_FIELD = "mailingCity";
+  public static final String MAILING_PROVINCE_FIELD = "mailingProvince";
+  public static final String MAILING_COUNTRY_FIELD = "mailingCountry";
+
+  /**
+   * Full-text fields of the index with the name of the field used in the matches of the search
+   * response. The name has 2 entries because it's analyzed for prefix and fuzzy matching.
+   */
+  public static final Map<String, String> HIGHLIGHT_FIELDS = new LinkedHashMap<>();
+
+  static {
+    HIGHLIGHT_FIELDS.put(CODE_FIELD, "code");
+    HIGHLIGHT_FIELDS.put(NAME_FIELD, "name");
+    HIGHLIGHT_FIELDS.put(NAME_FUZZY_FIELD, "name");
+    HIGHLIGHT_FIELDS.put(DESCRIPTION_FIELD, "description");
+    HIGHLIGHT_FIELDS.put(ALTERNATIVE_CODES_FIELD, "alternativeCode");
+    HIGHLIGHT_FIELDS.put(ADDRESS_FIELD, "address");
+    HIGHLIGHT_FIELDS.put(CITY_FIELD, "city");
+    HIGHLIGHT_FIELDS.put(PROVINCE_FIELD, "province");
+    HIGHLIGHT_FIELDS.put(COUNTRY_FIELD, "country");
+    HIGHLIGHT_FIELDS.put(MAILING_ADDRESS_FIELD, "mailingAddress");
+    HIGHLIGHT_FIELDS.put(MAILING_CITY_FIELD, "mailingCity");
+    HIGHLIGHT_FIELDS.put(MAILING_PROVINCE_FIELD, "mailingProvince");
+    HIGHLIGHT_FIELDS.put(MAILING_COUNTRY_FIELD, "mailingCountry");
+  }
+}
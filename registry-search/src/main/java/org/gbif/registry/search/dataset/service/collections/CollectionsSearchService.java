@@ -33,17 +33,25 @@ import org.elasticsearch.common.Strings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-/** Service to lookup GRSciColl institutions and collections. */
+/**
+ * Service to lookup GRSciColl institutions and collections. The search is delegated to {@link
+ * CollectionsEsSearchService} when the Elasticsearch index is enabled, otherwise the database is
+ * queried.
+ */
 @Service
 public class CollectionsSearchService {
 
   private static final Pattern HIGHLIGHT_PATTERN = Pattern.compile(".*<b>.+</b>.*");
 
   private final CollectionsSearchMapper searchMapper;
+  private final CollectionsEsSearchService esSearchService;
 
   @Autowired
-  public CollectionsSearchService(CollectionsSearchMapper searchMapper) {
+  public CollectionsSearchService(
+      CollectionsSearchMapper searchMapper,
+      Optional<CollectionsEsSearchService> esSearchService) {
     this.searchMapper = searchMapper;
+    this.esSearchService = esSearchService.orElse(null);
   }
 
   public List<CollectionsSearchResponse> search(
@@ -53,6 +61,10 @@ public class CollectionsSearchService {
       Boolean displayOnNHCPortal,
       Country country,
       int limit) {
+    if (esSearchService != null) {
+      return esSearchService.search(query, highlight, type, displayOnNHCPortal, country, limit);
+    }
+
     List<SearchDto> dtos =
         searchMapper.search(
             query,
@@ -46,6 +46,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.gbif.registry.security.SecurityContextCheck.checkIsNotAdmin;
@@ -101,6 +102,9 @@ public class EditorAuthorizationFilter extends OncePerRequestFilter {
           Pattern.compile(
               "^POST /(organization|dataset|installation|node|network)/([a-f0-9-]+)/machineTag$",
               Pattern.CASE_INSENSITIVE),
+          Pattern.compile(
+              "^POST /(organization|dataset|installation|node|network)/machineTag/bulk(?:/delete)?$",
+              Pattern.CASE_INSENSITIVE),
           Pattern.compile(
               "^POST /(organization|dataset|installation|node|network)/([a-f0-9-]+)/contact$",
               Pattern.CASE_INSENSITIVE),
@@ -159,6 +163,7 @@ public class EditorAuthorizationFilter extends OncePerRequestFilter {
 
   public static final String PIPELINES = "pipelines";
   public static final String MACHINE_TAG = "machineTag";
+  public static final String MACHINE_TAG_BULK = "machineTag/bulk";
   public static final String ORGANIZATION = "organization";
   public static final String DATASET = "dataset";
   public static final String INSTALLATION = "installation";
@@ -292,6 +297,10 @@ public class EditorAuthorizationFilter extends OncePerRequestFilter {
     if (PIPELINES.equals(resourceName)) {
       ensurePipelinesRunRequest(username, resourceKey);
     }
+    // bulk machine tag requests
+    else if (path.contains(MACHINE_TAG_BULK)) {
+      ensureMachineTagBulkRequest(resourceName, username, request);
+    }
     // machine tag requests
     else if (path.contains(MACHINE_TAG)) {
       if (subKey != null) {
@@ -369,6 +378,43 @@ public class EditorAuthorizationFilter extends OncePerRequestFilter {
     }
   }
 
+  /**
+   * Ensure bulk machine tag request is allowed for the user.
+   * If so do nothing, if not throw {@link WebApplicationException}.
+   * The user must have rights on the namespace of the machine tag, it is checked once for all the
+   * entities of the request.
+   *
+   * @param entityName network entity name (e.g. dataset, organization)
+   * @param username   username
+   * @param request    request with the keys and the machine tag in the body
+   */
+  private void ensureMachineTagBulkRequest(
+      String entityName, String username, HttpServletRequest request) {
+    try {
+      JsonNode namespaceNode =
+          objectMapper
+              .readTree(((GbifHttpServletRequestWrapper) request).getContent())
+              .path("machineTag")
+              .path("namespace");
+
+      if (!namespaceNode.isTextual()
+          || !userAuthService.allowedToModifyNamespace(username, namespaceNode.asText())) {
+        LOG.warn(
+            "User {} is not allowed to modify machine tags of {} in bulk", username, entityName);
+        throw new WebApplicationException(
+            MessageFormat.format(
+                "User {0} is not allowed to modify machine tags of {1} in bulk",
+                username, entityName),
+            HttpStatus.FORBIDDEN);
+      }
+
+      LOG.debug("User {} is allowed to modify machine tags of {} in bulk", username, entityName);
+    } catch (JsonProcessingException e) {
+      LOG.error("Failed to deserialize JSON", e);
+      throw new WebApplicationException("Failed to deserialize JSON", HttpStatus.BAD_REQUEST);
+    }
+  }
+
   /**
    * Ensure machine tag request is allowed for the user.
    * If so do nothing, if not throw {@link WebApplicationException}.
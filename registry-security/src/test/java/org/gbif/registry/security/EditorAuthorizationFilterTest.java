@@ -43,6 +43,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,6 +54,9 @@ public class EditorAuthorizationFilterTest {
   private static final int SUB_KEY = 123;
   private static final String USERNAME = "user";
   private static final String CONTENT = "{\"key\": \"" + KEY + "\"}";
+  private static final String NAMESPACE = "test-namespace.gbif.org";
+  private static final String BULK_CONTENT =
+      "{\"keys\": [\"" + KEY + "\"], \"machineTag\": {\"namespace\": \"" + NAMESPACE + "\"}}";
   private static final Organization ORG = new Organization();
   private static final List<GrantedAuthority> ROLES_EDITOR_ONLY =
       Collections.singletonList(new SimpleGrantedAuthority(UserRoles.EDITOR_ROLE));
@@ -348,6 +352,44 @@ public class EditorAuthorizationFilterTest {
     verify(mockAuthentication).getAuthorities();
   }
 
+  @Test
+  public void testDatasetMachineTagBulkPostNotNullEditorUserSuccess() throws Exception {
+    // GIVEN
+    when(mockAuthenticationFacade.getAuthentication()).thenReturn(mockAuthentication);
+    when(mockRequest.getRequestURI()).thenReturn("/dataset/machineTag/bulk");
+    when(mockRequest.getMethod()).thenReturn("POST");
+    when(mockRequest.getContent()).thenReturn(BULK_CONTENT);
+    when(mockAuthentication.getName()).thenReturn(USERNAME);
+    doReturn(ROLES_EDITOR_ONLY).when(mockAuthentication).getAuthorities();
+    when(mockEditorAuthService.allowedToModifyNamespace(USERNAME, NAMESPACE)).thenReturn(true);
+
+    // WHEN
+    filter.doFilter(mockRequest, mockResponse, mockFilterChain);
+
+    // THEN
+    verify(mockRequest).getContent();
+    verify(mockEditorAuthService).allowedToModifyNamespace(USERNAME, NAMESPACE);
+    verify(mockEditorAuthService, never()).allowedToModifyDataset(USERNAME, KEY);
+  }
+
+  @Test
+  public void testDatasetMachineTagBulkDeleteWithoutNamespaceFail() {
+    // GIVEN
+    when(mockAuthenticationFacade.getAuthentication()).thenReturn(mockAuthentication);
+    when(mockRequest.getRequestURI()).thenReturn("/dataset/machineTag/bulk/delete");
+    when(mockRequest.getMethod()).thenReturn("POST");
+    when(mockRequest.getContent()).thenReturn("{\"keys\": [\"" + KEY + "\"]}");
+    when(mockAuthentication.getName()).thenReturn(USERNAME);
+    doReturn(ROLES_EDITOR_ONLY).when(mockAuthentication).getAuthorities();
+
+    // WHEN & THEN
+    assertThrows(
+        WebApplicationException.class,
+        () -> filter.doFilter(mockRequest, mockResponse, mockFilterChain));
+    verify(mockRequest).getContent();
+    verify(mockEditorAuthService, never()).allowedToModifyNamespace(any(), any());
+  }
+
   @Test
   public void testOrganizationEndorsementPostAnyUserSuccess() throws Exception {
     // GIVEN
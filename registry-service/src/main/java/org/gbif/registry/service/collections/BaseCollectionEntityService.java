@@ -22,6 +22,8 @@ import org.gbif.api.model.collections.MasterSourceMetadata;
 import org.gbif.api.model.collections.OccurrenceMapping;
 import org.gbif.api.model.collections.UserId;
 import org.gbif.api.model.collections.request.SearchRequest;
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.Comment;
 import org.gbif.api.model.registry.Commentable;
 import org.gbif.api.model.registry.Dataset;
@@ -77,6 +79,7 @@ import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.groups.Default;
@@ -509,6 +512,20 @@ public class BaseCollectionEntityService<
   @Transactional
   @Override
   public void update(@NotNull @Valid T entity, boolean lockFields) {
+    T entityOld = updateWithoutEvent(entity, lockFields);
+    eventManager.post(UpdateCollectionEntityEvent.newInstance(get(entity.getKey()), entityOld));
+  }
+
+  /**
+   * Updates the entity without posting an update event. Used by the operations that make more
+   * changes to the entity and post a single event for all of them.
+   *
+   * @return the entity before the update
+   */
+  @Validated({PostPersist.class, Default.class})
+  @Secured({GRSCICOLL_ADMIN_ROLE, GRSCICOLL_MEDIATOR_ROLE})
+  @Transactional
+  public T updateWithoutEvent(@NotNull @Valid T entity, boolean lockFields) {
     preUpdate(entity);
     T entityOld = get(entity.getKey());
     checkArgument(entityOld != null, "Entity doesn't exist");
@@ -549,9 +566,7 @@ public class BaseCollectionEntityService<
       addressMapper.delete(entityOld.getAddress().getKey());
     }
 
-    T newEntity = get(entity.getKey());
-
-    eventManager.post(UpdateCollectionEntityEvent.newInstance(newEntity, entityOld));
+    return entityOld;
   }
 
   public T lockFields(T entityOld, T entityNew) {
@@ -909,6 +924,17 @@ public class BaseCollectionEntityService<
     }
   }
 
+  /** Creates the response of a page whose total count may have been skipped. */
+  protected static <R> PagingResponse<R> pagingResponse(
+      Pageable page, @Nullable Long count, List<R> results) {
+    if (count != null) {
+      return new PagingResponse<>(page, count, results);
+    }
+    PagingResponse<R> response = new PagingResponse<>(page, null, results);
+    response.setEndOfRecords(results.size() < page.getLimit());
+    return response;
+  }
+
   protected RangeParam parseIntegerRangeParameter(String param) {
     if (Strings.isNullOrEmpty(param)) {
       return null;
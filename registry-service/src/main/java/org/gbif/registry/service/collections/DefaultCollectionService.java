@@ -25,7 +25,6 @@ import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Organization;
 import org.gbif.api.model.registry.PrePersist;
 import org.gbif.api.model.registry.search.collections.KeyCodeNameResult;
-import org.gbif.api.service.collections.CollectionService;
 import org.gbif.api.vocabulary.collections.Source;
 import org.gbif.registry.events.EventManager;
 import org.gbif.registry.events.collections.CreateCollectionEntityEvent;
@@ -50,6 +49,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
@@ -74,7 +74,7 @@ import static org.gbif.registry.security.UserRoles.GRSCICOLL_MEDIATOR_ROLE;
 @Validated
 @Service
 public class DefaultCollectionService extends BaseCollectionEntityService<Collection>
-    implements CollectionService {
+    implements RegistryCollectionService {
 
   private final CollectionMapper collectionMapper;
   private final DatasetMapper datasetMapper;
@@ -131,68 +131,86 @@ public class DefaultCollectionService extends BaseCollectionEntityService<Collec
 
   @Override
   public PagingResponse<CollectionView> list(CollectionSearchRequest searchRequest) {
-    return listInternal(searchRequest, false);
+    return listInternal(searchRequest, false, null, true);
+  }
+
+  @Override
+  public PagingResponse<CollectionView> list(
+      CollectionSearchRequest searchRequest, @Nullable UUID afterKey, boolean count) {
+    return listInternal(searchRequest, false, afterKey, count);
   }
 
   @NotNull
   private PagingResponse<CollectionView> listInternal(
-      CollectionSearchRequest searchRequest, boolean deleted) {
+      CollectionSearchRequest searchRequest, boolean deleted, UUID afterKey, boolean count) {
     if (searchRequest == null) {
       searchRequest = new CollectionSearchRequest();
     }
 
     Pageable page = searchRequest.getPage() == null ? new PagingRequest() : searchRequest.getPage();
 
-    String query =
-        searchRequest.getQ() != null
-            ? Strings.emptyToNull(CharMatcher.WHITESPACE.trimFrom(searchRequest.getQ()))
-            : searchRequest.getQ();
+    CollectionSearchParams params = buildSearchParams(searchRequest, deleted, page, afterKey);
+    checkArgument(
+        afterKey == null || params.isDefaultSort(),
+        "afterKey is only supported with the default sort");
 
-    CollectionSearchParams params =
-        CollectionSearchParams.builder()
-            .institutionKey(searchRequest.getInstitution())
-            .query(query)
-            .code(searchRequest.getCode())
-            .name(searchRequest.getName())
-            .alternativeCode(searchRequest.getAlternativeCode())
-            .machineTagNamespace(searchRequest.getMachineTagNamespace())
-            .machineTagName(searchRequest.getMachineTagName())
-            .machineTagValue(searchRequest.getMachineTagValue())
-            .identifierType(searchRequest.getIdentifierType())
-            .identifier(searchRequest.getIdentifier())
-            .countries(searchRequest.getCountry())
-            .regionCountries(parseGbifRegion(searchRequest))
-            .city(searchRequest.getCity())
-            .fuzzyName(searchRequest.getFuzzyName())
-            .active(searchRequest.getActive())
-            .contentTypes(searchRequest.getContentTypes())
-            .preservationTypes(searchRequest.getPreservationTypes())
-            .accessionStatus(searchRequest.getAccessionStatus())
-            .personalCollection(searchRequest.getPersonalCollection())
-            .masterSourceType(searchRequest.getMasterSourceType())
-            .numberSpecimens(parseIntegerRangeParameter(searchRequest.getNumberSpecimens()))
-            .displayOnNHCPortal(searchRequest.getDisplayOnNHCPortal())
-            .replacedBy(searchRequest.getReplacedBy())
-            .occurrenceCount(parseIntegerRangeParameter(searchRequest.getOccurrenceCount()))
-            .typeSpecimenCount(parseIntegerRangeParameter(searchRequest.getTypeSpecimenCount()))
-            .deleted(deleted)
-            .sortBy(searchRequest.getSortBy())
-            .sortOrder(searchRequest.getSortOrder())
-            .page(page)
-            .build();
-
-    long total = collectionMapper.count(params);
+    // the count is for all the results, not only the ones after the key
+    Long total =
+        count
+            ? collectionMapper.count(buildSearchParams(searchRequest, deleted, page, null))
+            : null;
     List<CollectionDto> collectionDtos = collectionMapper.list(params);
 
     List<CollectionView> views =
         collectionDtos.stream().map(this::convertToCollectionView).collect(Collectors.toList());
 
-    return new PagingResponse<>(page, total, views);
+    return pagingResponse(page, total, views);
+  }
+
+  private CollectionSearchParams buildSearchParams(
+      CollectionSearchRequest searchRequest, boolean deleted, Pageable page, UUID afterKey) {
+    String query =
+        searchRequest.getQ() != null
+            ? Strings.emptyToNull(CharMatcher.WHITESPACE.trimFrom(searchRequest.getQ()))
+            : searchRequest.getQ();
+
+    return CollectionSearchParams.builder()
+        .institutionKey(searchRequest.getInstitution())
+        .query(query)
+        .code(searchRequest.getCode())
+        .name(searchRequest.getName())
+        .alternativeCode(searchRequest.getAlternativeCode())
+        .machineTagNamespace(searchRequest.getMachineTagNamespace())
+        .machineTagName(searchRequest.getMachineTagName())
+        .machineTagValue(searchRequest.getMachineTagValue())
+        .identifierType(searchRequest.getIdentifierType())
+        .identifier(searchRequest.getIdentifier())
+        .countries(searchRequest.getCountry())
+        .regionCountries(parseGbifRegion(searchRequest))
+        .city(searchRequest.getCity())
+        .fuzzyName(searchRequest.getFuzzyName())
+        .active(searchRequest.getActive())
+        .contentTypes(searchRequest.getContentTypes())
+        .preservationTypes(searchRequest.getPreservationTypes())
+        .accessionStatus(searchRequest.getAccessionStatus())
+        .personalCollection(searchRequest.getPersonalCollection())
+        .masterSourceType(searchRequest.getMasterSourceType())
+        .numberSpecimens(parseIntegerRangeParameter(searchRequest.getNumberSpecimens()))
+        .displayOnNHCPortal(searchRequest.getDisplayOnNHCPortal())
+        .replacedBy(searchRequest.getReplacedBy())
+        .occurrenceCount(parseIntegerRangeParameter(searchRequest.getOccurrenceCount()))
+        .typeSpecimenCount(parseIntegerRangeParameter(searchRequest.getTypeSpecimenCount()))
+        .deleted(deleted)
+        .sortBy(searchRequest.getSortBy())
+        .sortOrder(searchRequest.getSortOrder())
+        .page(page)
+        .afterKey(afterKey)
+        .build();
   }
 
   @Override
   public PagingResponse<CollectionView> listDeleted(CollectionSearchRequest searchRequest) {
-    return listInternal(searchRequest, true);
+    return listInternal(searchRequest, true, null, true);
   }
 
   @Override
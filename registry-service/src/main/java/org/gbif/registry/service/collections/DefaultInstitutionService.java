@@ -23,7 +23,6 @@ import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.Organization;
 import org.gbif.api.model.registry.PrePersist;
 import org.gbif.api.model.registry.search.collections.KeyCodeNameResult;
-import org.gbif.api.service.collections.InstitutionService;
 import org.gbif.api.vocabulary.collections.Source;
 import org.gbif.registry.events.EventManager;
 import org.gbif.registry.events.collections.CreateCollectionEntityEvent;
@@ -49,6 +48,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
@@ -76,7 +76,7 @@ import static org.gbif.registry.security.UserRoles.GRSCICOLL_MEDIATOR_ROLE;
 @Validated
 @Service
 public class DefaultInstitutionService extends BaseCollectionEntityService<Institution>
-    implements InstitutionService {
+    implements RegistryInstitutionService {
 
   private final InstitutionMapper institutionMapper;
   private final OrganizationMapper organizationMapper;
@@ -120,26 +120,39 @@ public class DefaultInstitutionService extends BaseCollectionEntityService<Insti
 
   @Override
   public PagingResponse<Institution> list(InstitutionSearchRequest searchRequest) {
-    return listInternal(searchRequest, false);
+    return listInternal(searchRequest, false, null, true);
+  }
+
+  @Override
+  public PagingResponse<Institution> list(
+      InstitutionSearchRequest searchRequest, @Nullable UUID afterKey, boolean count) {
+    return listInternal(searchRequest, false, afterKey, count);
   }
 
   @NotNull
   private PagingResponse<Institution> listInternal(
-      InstitutionSearchRequest searchRequest, boolean deleted) {
+      InstitutionSearchRequest searchRequest, boolean deleted, UUID afterKey, boolean count) {
     if (searchRequest == null) {
       searchRequest = new InstitutionSearchRequest();
     }
 
     Pageable page = searchRequest.getPage() == null ? new PagingRequest() : searchRequest.getPage();
 
-    InstitutionSearchParams params = buildSearchParams(searchRequest, deleted, page);
-
-    long total = institutionMapper.count(params);
-    return new PagingResponse<>(page, total, institutionMapper.list(params));
+    InstitutionSearchParams params = buildSearchParams(searchRequest, deleted, page, afterKey);
+    checkArgument(
+        afterKey == null || params.isDefaultSort(),
+        "afterKey is only supported with the default sort");
+
+    // the count is for all the results, not only the ones after the key
+    Long total =
+        count
+            ? institutionMapper.count(buildSearchParams(searchRequest, deleted, page, null))
+            : null;
+    return pagingResponse(page, total, institutionMapper.list(params));
   }
 
   private InstitutionSearchParams buildSearchParams(
-      InstitutionSearchRequest searchRequest, boolean deleted, Pageable page) {
+      InstitutionSearchRequest searchRequest, boolean deleted, Pageable page, UUID afterKey) {
     String query =
         searchRequest.getQ() != null
             ? Strings.emptyToNull(CharMatcher.WHITESPACE.trimFrom(searchRequest.getQ()))
@@ -173,12 +186,13 @@ public class DefaultInstitutionService extends BaseCollectionEntityService<Insti
         .sortBy(searchRequest.getSortBy())
         .sortOrder(searchRequest.getSortOrder())
         .page(page)
+        .afterKey(afterKey)
         .build();
   }
 
   @Override
   public PagingResponse<Institution> listDeleted(InstitutionSearchRequest searchRequest) {
-    return listInternal(searchRequest, true);
+    return listInternal(searchRequest, true, null, true);
   }
 
   @Override
@@ -242,7 +256,7 @@ public class DefaultInstitutionService extends BaseCollectionEntityService<Insti
   @Override
   public FeatureCollection listGeojson(InstitutionSearchRequest searchRequest) {
     List<InstitutionGeoJsonDto> dtos =
-        institutionMapper.listGeoJson(buildSearchParams(searchRequest, false, null));
+        institutionMapper.listGeoJson(buildSearchParams(searchRequest, false, null, null));
 
     FeatureCollection featureCollection = new FeatureCollection();
     dtos.forEach(
@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.service.collections;
+
+import org.gbif.api.model.collections.Institution;
+import org.gbif.api.model.collections.request.InstitutionSearchRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.service.collections.InstitutionService;
+
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/** Registry extension of the {@link InstitutionService}. */
+public interface RegistryInstitutionService extends InstitutionService {
+
+  /**
+   * Lists the institutions that match the search request.
+   *
+   * @param afterKey key of the last institution of the previous page, only supported with the
+   *     default sort. The offset of the page is ignored if it is set
+   * @param count if false the total number of results is not counted
+   */
+  PagingResponse<Institution> list(
+      InstitutionSearchRequest searchRequest, @Nullable UUID afterKey, boolean count);
+}
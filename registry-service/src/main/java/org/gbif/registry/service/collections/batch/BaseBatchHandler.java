@@ -13,26 +13,23 @@
  */
 package org.gbif.registry.service.collections.batch;
 
+import org.gbif.api.model.collections.Address;
 import org.gbif.api.model.collections.Batch;
 import org.gbif.api.model.collections.CollectionEntity;
 import org.gbif.api.model.collections.CollectionEntityType;
 import org.gbif.api.model.collections.Contact;
 import org.gbif.api.model.common.export.ExportFormat;
 import org.gbif.api.model.registry.Identifier;
+import org.gbif.api.model.registry.MachineTag;
+import org.gbif.api.model.registry.MachineTaggable;
 import org.gbif.api.service.collections.CollectionEntityService;
+import org.gbif.registry.events.EventManager;
 import org.gbif.registry.persistence.mapper.collections.BatchMapper;
 import org.gbif.registry.service.collections.batch.model.ContactsParserResult;
+import org.gbif.registry.service.collections.batch.model.EntitiesParserResult;
 import org.gbif.registry.service.collections.batch.model.ParsedData;
-import org.gbif.registry.service.collections.batch.model.ParserResult;
-
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -42,36 +39,35 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.BiFunction;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.CSVWriter;
-import com.opencsv.ICSVWriter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
-import static org.gbif.registry.service.collections.batch.FileFields.CommonFields.CODE;
-import static org.gbif.registry.service.collections.batch.FileFields.CommonFields.ERRORS;
-import static org.gbif.registry.service.collections.batch.FileFields.CommonFields.KEY;
+import static org.gbif.registry.service.collections.batch.FileParser.indexContacts;
+import static org.gbif.registry.service.collections.batch.FileParser.indexEntities;
 import static org.gbif.registry.service.collections.batch.FileParser.parseContacts;
 import static org.gbif.registry.service.collections.batch.FileParser.parseEntities;
 
@@ -83,33 +79,48 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
   private final Path resultDirPath;
   private final CollectionEntityType entityType;
   private final Class<T> clazz;
+  private final TransactionTemplate transactionTemplate;
+  private final EventManager eventManager;
+  private final int validationThreads;
+  private final int chunkSize;
 
   BaseBatchHandler(
       BatchMapper batchMapper,
       CollectionEntityService<T> entityService,
       String resultDirPath,
       CollectionEntityType entityType,
-      Class<T> clazz) {
+      Class<T> clazz,
+      PlatformTransactionManager transactionManager,
+      EventManager eventManager,
+      int validationThreads,
+      int chunkSize) {
     this.batchMapper = batchMapper;
     this.entityService = entityService;
     this.resultDirPath = Paths.get(resultDirPath);
     this.entityType = entityType;
     this.clazz = clazz;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventManager = eventManager;
+    this.validationThreads = validationThreads;
+    this.chunkSize = chunkSize;
   }
 
+  /**
+   * Handles a batch whose files were spooled to disk. The files are first read to check them, and
+   * then the entities are parsed, validated, written and added to the result chunk by chunk, so
+   * only the current chunk is kept in memory. The files are deleted once the batch is processed.
+   */
   @Async
   @Override
-  public void handleBatch(
-      byte[] entitiesFile, byte[] contactsFile, ExportFormat format, Batch batch) {
+  public void handleBatch(Path entitiesFile, Path contactsFile, ExportFormat format, Batch batch) {
     Objects.requireNonNull(batch.getKey());
 
     try {
-      ParserResult<T> parsingResult =
-          parseEntities(entitiesFile, format, this::createEntityFromValues, entityType);
-      Optional.ofNullable(parsingResult.getFileErrors())
+      EntitiesParserResult<T> entitiesIndex = indexEntities(entitiesFile, format, entityType);
+      Optional.ofNullable(entitiesIndex.getFileErrors())
           .ifPresent(e -> batch.getErrors().addAll(e));
 
-      if (!parsingResult.getDuplicates().isEmpty()) {
+      if (!entitiesIndex.getDuplicates().isEmpty()) {
         batch.setState(Batch.State.FAILED);
         batch
             .getErrors()
@@ -117,69 +128,87 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
                 "Duplicate "
                     + entityType.name().toLowerCase()
                     + " codes: "
-                    + String.join(",", parsingResult.getDuplicates()));
+                    + String.join(",", entitiesIndex.getDuplicates()));
         batchMapper.update(batch);
         return;
       }
 
-      ContactsParserResult contactsParsed =
-          parseContacts(
-              contactsFile,
-              parsingResult.getParsedDataMap(),
-              format,
-              FileFields.ContactFields.getEntityCode(entityType));
-      Optional.ofNullable(contactsParsed.getFileErrors())
+      String entityCodeColumn = FileFields.ContactFields.getEntityCode(entityType);
+      ContactsParserResult contactsIndex =
+          indexContacts(contactsFile, entitiesIndex.getCodes(), format, entityCodeColumn);
+      Optional.ofNullable(contactsIndex.getFileErrors())
           .ifPresent(e -> batch.getErrors().addAll(e));
 
-      if (!contactsParsed.getDuplicates().isEmpty()) {
+      if (!contactsIndex.getDuplicates().isEmpty()) {
         batch
             .getErrors()
-            .add(
-                "Duplicate contact keys: "
-                    + contactsParsed.getDuplicates().stream()
-                        .map(Object::toString)
-                        .collect(Collectors.joining(",")));
+            .add("Duplicate contact keys: " + String.join(",", contactsIndex.getDuplicates()));
       }
 
-      for (ParsedData<T> parsedEntity : parsingResult.getParsedDataMap().values()) {
-        T entity = parsedEntity.getEntity();
-
-        boolean succesful = false;
-        if (entity.getKey() == null) {
-          succesful = createEntity(entity, parsedEntity);
-        } else {
-          succesful = updateEntity(entity, parsedEntity, parsingResult.getFileHeadersIndex());
-        }
-
-        if (!succesful) {
-          continue;
-        }
-
-        handleIdentifiers(parsedEntity, entity);
-
-        // handle contacts of the entity
-        List<ParsedData<Contact>> entityContacts =
-            contactsParsed
-                .getContactsByEntity()
-                .getOrDefault(entity.getCode(), Collections.emptyList());
-
-        if (entityContacts.isEmpty()) {
-          continue;
-        }
-
-        handleContacts(parsedEntity, entity, entityContacts);
+      if (entitiesIndex.getCodes().isEmpty()) {
+        batch.setState(Batch.State.FAILED);
+        batch.getErrors().add("No entities found. Check the file delimiter is correct");
+        batchMapper.update(batch);
+        return;
       }
 
-      if (!parsingResult.getParsedDataMap().isEmpty()) {
+      int total = entitiesIndex.getCodes().size();
+      batchMapper.updateProgress(batch.getKey(), total, 0, 0);
+
+      // the validations only read from the DB so they can run in parallel
+      ExecutorService validationExecutor =
+          new DelegatingSecurityContextExecutorService(
+              Executors.newFixedThreadPool(
+                  validationThreads,
+                  new ThreadFactoryBuilder().setNameFormat("batch-validation-%d").build()),
+              SecurityContextHolder.getContext());
+
+      try (BatchResultFile<T> resultFile =
+          new BatchResultFile<>(entitiesIndex, getEntityFields(), contactsIndex)) {
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        parseEntities(
+            entitiesFile,
+            entitiesIndex,
+            this::createEntityFromValues,
+            chunkSize,
+            chunk -> {
+              Map<String, List<ParsedData<Contact>>> chunkContacts =
+                  parseContacts(
+                      contactsFile,
+                      contactsIndex,
+                      chunk.stream().map(p -> p.getEntity().getCode()).collect(Collectors.toSet()),
+                      entityCodeColumn);
+              int chunkFailed =
+                  handleChunk(
+                      chunk,
+                      chunkContacts,
+                      entitiesIndex.getFileHeadersIndex().keySet(),
+                      validationExecutor,
+                      resultFile);
+
+              batchMapper.updateProgress(
+                  batch.getKey(),
+                  total,
+                  processed.addAndGet(chunk.size()),
+                  failed.addAndGet(chunkFailed));
+            });
+
         // write the results to a new file
         Path resultPath =
-            createResultFile(
-                entitiesFile, contactsFile, parsingResult, contactsParsed, batch.getKey());
+            resultFile.zip(
+                Files.createFile(
+                    resultDirPath.resolve(
+                        Paths.get(
+                            "batchResult-"
+                                + batch.getKey()
+                                + "-"
+                                + System.currentTimeMillis()
+                                + ".zip"))));
         batch.setState(Batch.State.FINISHED);
         batch.setResultFilePath(resultPath.toFile().getAbsolutePath());
-      } else {
-        batch.setState(Batch.State.FAILED);
-        batch.getErrors().add("No entities found. Check the file delimiter is correct");
+      } finally {
+        validationExecutor.shutdownNow();
       }
 
       // update batch
@@ -188,6 +217,235 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
       batch.getErrors().add("Import failed: " + ex.getMessage());
       batch.setState(Batch.State.FAILED);
       batchMapper.update(batch);
+    } finally {
+      deleteQuietly(entitiesFile);
+      deleteQuietly(contactsFile);
+    }
+  }
+
+  /**
+   * Validates and writes a chunk of entities with their contacts, and adds them to the result.
+   *
+   * @return the number of entities of the chunk with errors
+   */
+  @SneakyThrows
+  private int handleChunk(
+      List<ParsedData<T>> chunk,
+      Map<String, List<ParsedData<Contact>>> chunkContacts,
+      Set<String> fileHeaders,
+      ExecutorService validationExecutor,
+      BatchResultFile<T> resultFile) {
+    // assign the contacts to their entity
+    for (ParsedData<T> parsedEntity : chunk) {
+      chunkContacts
+          .getOrDefault(parsedEntity.getEntity().getCode(), Collections.emptyList())
+          .forEach(c -> parsedEntity.getEntity().getContactPersons().add(c.getEntity()));
+    }
+
+    List<Future<ValidatedEntity<T>>> futures = new ArrayList<>(chunk.size());
+    for (ParsedData<T> parsedEntity : chunk) {
+      futures.add(validationExecutor.submit(() -> validateEntity(parsedEntity, fileHeaders)));
+    }
+    List<ValidatedEntity<T>> validatedEntities = new ArrayList<>(futures.size());
+    for (Future<ValidatedEntity<T>> future : futures) {
+      validatedEntities.add(future.get());
+    }
+
+    writeChunk(validatedEntities, chunkContacts);
+
+    int failed = 0;
+    for (ValidatedEntity<T> validatedEntity : validatedEntities) {
+      resultFile.addEntity(validatedEntity.getParsedData());
+      getEntityContacts(validatedEntity, chunkContacts).forEach(resultFile::addContact);
+      if (hasErrors(validatedEntity, chunkContacts)) {
+        failed++;
+      }
+    }
+    return failed;
+  }
+
+  private ValidatedEntity<T> validateEntity(ParsedData<T> parsedEntity, Set<String> fileHeaders)
+      throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
+    T entity = parsedEntity.getEntity();
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+    if (entity.getKey() == null) {
+      if (!allowedToCreateEntity(entity, authentication)) {
+        parsedEntity
+            .getErrors()
+            .add(
+                "User "
+                    + authentication.getName()
+                    + " not allowed to create this "
+                    + entityType.name().toLowerCase()
+                    + ". Contacts skipped");
+        return new ValidatedEntity<>(parsedEntity, null);
+      }
+      return new ValidatedEntity<>(parsedEntity, entity);
+    }
+
+    if (!entityService.exists(entity.getKey())) {
+      parsedEntity.getErrors().add(entityType.name().toLowerCase() + " doesn't exist");
+      return new ValidatedEntity<>(parsedEntity, null);
+    }
+
+    if (!allowedToUpdateEntity(entity, authentication)) {
+      parsedEntity
+          .getErrors()
+          .add(
+              "User "
+                  + authentication.getName()
+                  + " not allowed to update this "
+                  + entityType.name().toLowerCase()
+                  + ". Contacts skipped");
+      return new ValidatedEntity<>(parsedEntity, null);
+    }
+
+    T mergedEntity = mergeEntities(entityService.get(entity.getKey()), entity, fileHeaders);
+    mergedEntity.setModifiedBy(authentication.getName());
+    return new ValidatedEntity<>(parsedEntity, mergedEntity);
+  }
+
+  /**
+   * Writes a chunk of entities in one transaction. If any of them fails the whole chunk is rolled
+   * back, so its entities are written again one by one to keep the rest of the chunk. The events
+   * of the chunk are held until it's committed, so a rolled back chunk doesn't post any.
+   */
+  private void writeChunk(
+      List<ValidatedEntity<T>> chunk, Map<String, List<ParsedData<Contact>>> contactsParsed) {
+    List<Runnable> stateRestorers =
+        chunk.stream()
+            .map(v -> captureState(v, getEntityContacts(v, contactsParsed)))
+            .collect(Collectors.toList());
+
+    try {
+      eventManager.postAfter(
+          () ->
+              transactionTemplate.executeWithoutResult(
+                  status -> chunk.forEach(v -> writeEntity(v, contactsParsed))));
+    } catch (Exception ex) {
+      log.debug("Chunk of {} entities rolled back, writing them one by one", chunk.size(), ex);
+      stateRestorers.forEach(Runnable::run);
+      chunk.forEach(v -> writeEntity(v, contactsParsed));
+    }
+  }
+
+  private void writeEntity(
+      ValidatedEntity<T> validatedEntity, Map<String, List<ParsedData<Contact>>> contactsParsed) {
+    if (validatedEntity.getEntityToWrite() == null) {
+      // it didn't pass the validations
+      return;
+    }
+
+    ParsedData<T> parsedEntity = validatedEntity.getParsedData();
+    T entity = parsedEntity.getEntity();
+
+    boolean succesful;
+    if (entity.getKey() == null) {
+      succesful = createEntity(entity, parsedEntity);
+    } else {
+      succesful = updateEntity(validatedEntity.getEntityToWrite(), parsedEntity);
+    }
+
+    if (!succesful) {
+      return;
+    }
+
+    handleIdentifiers(parsedEntity, entity);
+
+    // handle contacts of the entity
+    List<ParsedData<Contact>> entityContacts = getEntityContacts(validatedEntity, contactsParsed);
+    if (!entityContacts.isEmpty()) {
+      handleContacts(parsedEntity, entity, entityContacts);
+    }
+  }
+
+  /**
+   * Captures the values that a write sets in the parsed data so they can be restored if the write
+   * is rolled back.
+   */
+  private Runnable captureState(
+      ValidatedEntity<T> validatedEntity, List<ParsedData<Contact>> entityContacts) {
+    ParsedData<T> parsedEntity = validatedEntity.getParsedData();
+    UUID key = parsedEntity.getEntity().getKey();
+    int errorsCount = parsedEntity.getErrors().size();
+
+    T entityToWrite = validatedEntity.getEntityToWrite();
+    Address address = entityToWrite != null ? entityToWrite.getAddress() : null;
+    Integer addressKey = address != null ? address.getKey() : null;
+    Address mailingAddress = entityToWrite != null ? entityToWrite.getMailingAddress() : null;
+    Integer mailingAddressKey = mailingAddress != null ? mailingAddress.getKey() : null;
+
+    List<Integer> contactKeys =
+        entityContacts.stream().map(c -> c.getEntity().getKey()).collect(Collectors.toList());
+    List<Integer> contactErrorsCount =
+        entityContacts.stream().map(c -> c.getErrors().size()).collect(Collectors.toList());
+
+    // the identifiers and machine tags are only inserted if they don't have a key yet
+    List<Identifier> identifiers = new ArrayList<>();
+    List<MachineTag> machineTags = new ArrayList<>();
+    for (T entity : Arrays.asList(parsedEntity.getEntity(), entityToWrite)) {
+      if (entity == null) {
+        continue;
+      }
+      identifiers.addAll(entity.getIdentifiers());
+      if (entity instanceof MachineTaggable) {
+        machineTags.addAll(((MachineTaggable) entity).getMachineTags());
+      }
+    }
+    List<Integer> identifierKeys =
+        identifiers.stream().map(Identifier::getKey).collect(Collectors.toList());
+    List<Integer> machineTagKeys =
+        machineTags.stream().map(MachineTag::getKey).collect(Collectors.toList());
+
+    return () -> {
+      parsedEntity.getEntity().setKey(key);
+      truncate(parsedEntity.getErrors(), errorsCount);
+      if (address != null) {
+        address.setKey(addressKey);
+      }
+      if (mailingAddress != null) {
+        mailingAddress.setKey(mailingAddressKey);
+      }
+      for (int i = 0; i < entityContacts.size(); i++) {
+        entityContacts.get(i).getEntity().setKey(contactKeys.get(i));
+        truncate(entityContacts.get(i).getErrors(), contactErrorsCount.get(i));
+      }
+      for (int i = 0; i < identifiers.size(); i++) {
+        identifiers.get(i).setKey(identifierKeys.get(i));
+      }
+      for (int i = 0; i < machineTags.size(); i++) {
+        machineTags.get(i).setKey(machineTagKeys.get(i));
+      }
+    };
+  }
+
+  private static void truncate(List<String> list, int size) {
+    if (list.size() > size) {
+      list.subList(size, list.size()).clear();
+    }
+  }
+
+  private List<ParsedData<Contact>> getEntityContacts(
+      ValidatedEntity<T> validatedEntity, Map<String, List<ParsedData<Contact>>> contactsParsed) {
+    return contactsParsed.getOrDefault(
+        validatedEntity.getParsedData().getEntity().getCode(), Collections.emptyList());
+  }
+
+  private boolean hasErrors(
+      ValidatedEntity<T> validatedEntity, Map<String, List<ParsedData<Contact>>> contactsParsed) {
+    return !validatedEntity.getParsedData().getErrors().isEmpty()
+        || getEntityContacts(validatedEntity, contactsParsed).stream()
+            .anyMatch(c -> !c.getErrors().isEmpty());
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      if (path != null) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      log.warn("Couldn't delete batch file {}", path, e);
     }
   }
 
@@ -261,21 +519,8 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
       return false;
     }
 
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    if (!allowedToCreateEntity(entity, authentication)) {
-      parsedEntity
-          .getErrors()
-          .add(
-              "User "
-                  + authentication.getName()
-                  + " not allowed to create this "
-                  + entityType.name().toLowerCase()
-                  + ". Contacts skipped");
-      return false;
-    }
-
     // create entity
-    entity.setCreatedBy(authentication.getName());
+    entity.setCreatedBy(SecurityContextHolder.getContext().getAuthentication().getName());
 
     try {
       UUID key = entityService.create(entity);
@@ -290,32 +535,7 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
     return false;
   }
 
-  private boolean updateEntity(
-      T entity, ParsedData<T> parsedEntity, Map<String, Integer> fileHeadersIndex)
-      throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
-    if (!entityService.exists(entity.getKey()) || entity.getKey() == null) {
-      parsedEntity.getErrors().add(entityType.name().toLowerCase() + " doesn't exist");
-      return false;
-    }
-
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    if (!allowedToUpdateEntity(entity, authentication)) {
-      parsedEntity
-          .getErrors()
-          .add(
-              "User "
-                  + authentication.getName()
-                  + " not allowed to update this "
-                  + entityType.name().toLowerCase()
-                  + ". Contacts skipped");
-      return false;
-    }
-
-    // update entity
-    T mergedEntity =
-        mergeEntities(entityService.get(entity.getKey()), entity, fileHeadersIndex.keySet());
-    mergedEntity.setModifiedBy(authentication.getName());
-
+  private boolean updateEntity(T mergedEntity, ParsedData<T> parsedEntity) {
     try {
       entityService.update(mergedEntity);
       return true;
@@ -400,159 +620,6 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
             .anyMatch(c -> c.getKey().equals(contact.getKey()));
   }
 
-  @SneakyThrows
-  @VisibleForTesting
-  public Path createResultFile(
-      byte[] entitiesFile,
-      byte[] contactsFile,
-      ParserResult<T> entityParserResult,
-      ContactsParserResult contactsParsed,
-      int batchKey) {
-
-    Path resultFile =
-        Files.createTempFile(
-            resultDirPath,
-            "result-" + System.currentTimeMillis(),
-            "." + entityParserResult.getFormat().name().toLowerCase());
-    writeResult(
-        entitiesFile, resultFile, getEntityFields(), entityParserResult, (v, h) -> v[h.get(CODE)]);
-
-    List<Path> resultFiles = new ArrayList<>();
-    resultFiles.add(resultFile);
-
-    // contacts
-    if (contactsFile != null && !contactsParsed.getParsedDataMap().isEmpty()) {
-      Path contactsResultFile =
-          Files.createTempFile(
-              resultDirPath,
-              "contacts-" + System.currentTimeMillis(),
-              "." + contactsParsed.getFormat().name().toLowerCase());
-
-      writeResult(
-          contactsFile,
-          contactsResultFile,
-          FileFields.ContactFields.ALL_FIELDS,
-          contactsParsed,
-          (v, h) -> String.valueOf(FileParser.getContactUniqueKey(v, h)));
-
-      resultFiles.add(contactsResultFile);
-    }
-
-    // zip both files
-    Path zipFile =
-        Files.createFile(
-            resultDirPath.resolve(
-                Paths.get("batchResult-" + batchKey + "-" + System.currentTimeMillis() + ".zip")));
-    toZipFile(resultFiles, zipFile);
-
-    for (Path path : resultFiles) {
-      Files.deleteIfExists(path);
-    }
-
-    return zipFile;
-  }
-
-  private <R> void writeResult(
-      byte[] entitiesFile,
-      Path resultFile,
-      List<String> entityFields,
-      ParserResult<R> parserResult,
-      BiFunction<String[], Map<String, Integer>, String> keyExtractor)
-      throws IOException {
-
-    // csv options
-    CSVParser csvParser =
-        new CSVParserBuilder().withSeparator(parserResult.getFormat().getDelimiter()).build();
-
-    try (CSVReader csvReader =
-            new CSVReaderBuilder(
-                    new BufferedReader(
-                        new InputStreamReader(new ByteArrayInputStream(entitiesFile))))
-                .withCSVParser(csvParser)
-                .build();
-        CSVWriter csvWriter =
-            new CSVWriter(
-                new BufferedWriter(new FileWriter(resultFile.toFile())),
-                parserResult.getFormat().getDelimiter(),
-                ICSVWriter.DEFAULT_QUOTE_CHARACTER,
-                ICSVWriter.DEFAULT_ESCAPE_CHARACTER,
-                ICSVWriter.DEFAULT_LINE_END)) {
-
-      // write headers in result file. We only use the headers used in the batch plus the key and
-      // errors
-      Set<String> sourceHeaders =
-          entityFields.stream()
-              .filter(f -> parserResult.getFileHeadersIndex().containsKey(f))
-              .collect(Collectors.toCollection(LinkedHashSet::new));
-      sourceHeaders.add(KEY);
-
-      String[] resultHeaders =
-          Arrays.copyOf(sourceHeaders.toArray(new String[0]), sourceHeaders.size() + 1);
-      resultHeaders[resultHeaders.length - 1] = ERRORS;
-      csvWriter.writeNext(resultHeaders);
-
-      // skip header line
-      csvReader.readNextSilently();
-
-      String[] values;
-      while ((values = csvReader.readNextSilently()) != null) {
-        if (values.length == 0) {
-          continue;
-        }
-
-        values = FileParsingUtils.normalizeValues(sourceHeaders.size(), values);
-
-        // we get the key of the current entity from the specific column
-        String keyValue = keyExtractor.apply(values, parserResult.getFileHeadersIndex());
-        // we find the entity in the parsed data to write the generated values during the batch
-        // processing such as the key and the errors
-        ParsedData<R> parsingData = parserResult.getParsedDataMap().get(keyValue);
-
-        if (parsingData == null) {
-          log.warn("No parsed data found for key value {}", keyValue);
-          continue;
-        }
-
-        String[] resultValues = new String[resultHeaders.length + 1];
-        int i = 0;
-        for (String sourceHeader : sourceHeaders) {
-          if (sourceHeader.equals(KEY)) {
-            String key = parserResult.getEntityKeyExtractor().apply(parsingData.getEntity());
-            resultValues[i] = key != null ? key : "";
-          } else {
-            resultValues[i] = values[parserResult.getFileHeadersIndex().get(sourceHeader)];
-          }
-          i++;
-        }
-
-        // add errors
-        if (parsingData.getErrors() != null) {
-          resultValues[i] = String.join(FileParsingUtils.LIST_DELIMITER, parsingData.getErrors());
-        }
-
-        csvWriter.writeNext(resultValues);
-      }
-    }
-  }
-
-  @SneakyThrows
-  private static void toZipFile(List<Path> filesToZip, Path targetFile) {
-    try (FileOutputStream fos = new FileOutputStream(targetFile.toFile());
-        ZipOutputStream zipOut = new ZipOutputStream(fos)) {
-      for (Path file : filesToZip) {
-        try (FileInputStream fis = new FileInputStream(file.toFile())) {
-          ZipEntry zipEntry = new ZipEntry(file.toFile().getName());
-          zipOut.putNextEntry(zipEntry);
-          byte[] bytes = new byte[1024];
-          int length;
-          while ((length = fis.read(bytes)) >= 0) {
-            zipOut.write(bytes, 0, length);
-          }
-        }
-      }
-    }
-  }
-
   abstract boolean allowedToCreateEntity(T entity, Authentication authentication);
 
   abstract boolean allowedToUpdateEntity(T entity, Authentication authentication);
@@ -562,4 +629,12 @@ public abstract class BaseBatchHandler<T extends CollectionEntity> implements Ba
   abstract ParsedData<T> createEntityFromValues(String[] values, Map<String, Integer> headersIndex);
 
   abstract List<UUID> findEntity(String code, List<Identifier> identifiers);
+
+  /** Result of validating a parsed entity. The entity to write is null if it failed. */
+  @AllArgsConstructor
+  @Getter
+  private static class ValidatedEntity<T> {
+    private final ParsedData<T> parsedData;
+    private final T entityToWrite;
+  }
 }
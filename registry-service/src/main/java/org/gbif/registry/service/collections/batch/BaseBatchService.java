@@ -16,9 +16,12 @@ package org.gbif.registry.service.collections.batch;
 import org.gbif.api.model.collections.Batch;
 import org.gbif.api.model.collections.CollectionEntityType;
 import org.gbif.api.model.common.export.ExportFormat;
-import org.gbif.api.service.collections.BatchService;
+import org.gbif.registry.domain.collections.BatchProgress;
 import org.gbif.registry.persistence.mapper.collections.BatchMapper;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,11 +31,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.google.common.base.Preconditions;
 
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
 import static org.gbif.registry.security.UserRoles.GRSCICOLL_ADMIN_ROLE;
 import static org.gbif.registry.security.UserRoles.GRSCICOLL_EDITOR_ROLE;
 import static org.gbif.registry.security.UserRoles.GRSCICOLL_MEDIATOR_ROLE;
 
-public abstract class BaseBatchService implements BatchService {
+@Slf4j
+public abstract class BaseBatchService implements RegistryBatchService {
 
   private final BatchMapper batchMapper;
   private final BatchHandler batchHandler;
@@ -46,32 +53,81 @@ public abstract class BaseBatchService implements BatchService {
     this.entityType = entityType;
   }
 
+  /**
+   * Spools the files to disk so they are streamed during the processing instead of kept in memory.
+   * The files are deleted once the batch finishes.
+   */
+  @SneakyThrows
   @Override
   @Secured({GRSCICOLL_ADMIN_ROLE, GRSCICOLL_MEDIATOR_ROLE, GRSCICOLL_EDITOR_ROLE})
   public int handleBatch(byte[] entitiesFile, byte[] contactsFile, ExportFormat format) {
     Objects.requireNonNull(entitiesFile);
     Objects.requireNonNull(contactsFile);
-    Objects.requireNonNull(format);
 
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    Preconditions.checkArgument(
-        authentication != null && authentication.getName() != null, "Authentication is required");
+    Path entitiesPath = RegistryBatchService.createSpoolFile("entities");
+    Path contactsPath = null;
+    try {
+      Files.write(entitiesPath, entitiesFile);
+      contactsPath = Files.write(RegistryBatchService.createSpoolFile("contacts"), contactsFile);
+    } catch (IOException e) {
+      deleteQuietly(entitiesPath);
+      deleteQuietly(contactsPath);
+      throw e;
+    }
+    return handleBatch(entitiesPath, contactsPath, format);
+  }
+
+  @Override
+  @Secured({GRSCICOLL_ADMIN_ROLE, GRSCICOLL_MEDIATOR_ROLE, GRSCICOLL_EDITOR_ROLE})
+  public int handleBatch(Path entitiesFile, Path contactsFile, ExportFormat format) {
+    boolean handled = false;
+    try {
+      Objects.requireNonNull(entitiesFile);
+      Objects.requireNonNull(contactsFile);
+      Objects.requireNonNull(format);
+
+      Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+      Preconditions.checkArgument(
+          authentication != null && authentication.getName() != null,
+          "Authentication is required");
 
-    // create entry in DB
-    Batch batch = new Batch();
-    batch.setCreatedBy(authentication.getName());
-    batch.setState(Batch.State.IN_PROGRESS);
-    batch.setEntityType(entityType);
-    batchMapper.create(batch);
+      // create entry in DB
+      Batch batch = new Batch();
+      batch.setCreatedBy(authentication.getName());
+      batch.setState(Batch.State.IN_PROGRESS);
+      batch.setEntityType(entityType);
+      batchMapper.create(batch);
 
-    // async handle
-    batchHandler.handleBatch(entitiesFile, contactsFile, format, batch);
+      // async handle. The handler deletes the files when it finishes
+      batchHandler.handleBatch(entitiesFile, contactsFile, format, batch);
+      handled = true;
 
-    return batch.getKey();
+      return batch.getKey();
+    } finally {
+      if (!handled) {
+        deleteQuietly(entitiesFile);
+        deleteQuietly(contactsFile);
+      }
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      if (path != null) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      log.warn("Couldn't delete batch file {}", path, e);
+    }
   }
 
   @Override
   public Batch get(int key) {
     return batchMapper.get(key);
   }
+
+  @Override
+  public BatchProgress getProgress(int key) {
+    return batchMapper.getProgress(key);
+  }
 }
@@ -16,7 +16,9 @@ package org.gbif.registry.service.collections.batch;
 import org.gbif.api.model.collections.Batch;
 import org.gbif.api.model.common.export.ExportFormat;
 
+import java.nio.file.Path;
+
 public interface BatchHandler {
 
-  void handleBatch(byte[] entitiesFile, byte[] contactsFile, ExportFormat format, Batch batch);
+  void handleBatch(Path entitiesFile, Path contactsFile, ExportFormat format, Batch batch);
 }
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.service.collections.batch;
+
+import org.gbif.api.model.collections.Contact;
+import org.gbif.registry.service.collections.batch.model.ParsedData;
+import org.gbif.registry.service.collections.batch.model.ParserResult;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static org.gbif.registry.service.collections.batch.FileFields.CommonFields.ERRORS;
+import static org.gbif.registry.service.collections.batch.FileFields.CommonFields.KEY;
+
+/**
+ * Result of a batch: the rows of the source files with the keys generated and the errors found. The
+ * rows are written to temporary files as the chunks are processed, and zipped at the end.
+ */
+@Slf4j
+public class BatchResultFile<T> implements Closeable {
+
+  private final ResultWriter<T> entitiesWriter;
+  private final ResultWriter<Contact> contactsWriter;
+
+  public BatchResultFile(
+      ParserResult<T> entitiesParserResult,
+      List<String> entityFields,
+      ParserResult<Contact> contactsParserResult)
+      throws IOException {
+    this.entitiesWriter = new ResultWriter<>("entities", entitiesParserResult, entityFields);
+    try {
+      this.contactsWriter =
+          new ResultWriter<>(
+              "contacts", contactsParserResult, FileFields.ContactFields.ALL_FIELDS);
+    } catch (IOException e) {
+      entitiesWriter.close();
+      throw e;
+    }
+  }
+
+  public void addEntity(ParsedData<T> parsedEntity) {
+    entitiesWriter.write(parsedEntity);
+  }
+
+  public void addContact(ParsedData<Contact> parsedContact) {
+    contactsWriter.write(parsedContact);
+  }
+
+  /** Zips the results written so far into the given file. */
+  public Path zip(Path zipFile) throws IOException {
+    try (ZipOutputStream zipOut =
+        new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile)))) {
+      entitiesWriter.copyTo(zipOut, "result-");
+      if (contactsWriter.rows > 0) {
+        contactsWriter.copyTo(zipOut, "contacts-");
+      }
+    }
+    return zipFile;
+  }
+
+  /** Deletes the temporary files. */
+  @Override
+  public void close() {
+    entitiesWriter.close();
+    contactsWriter.close();
+  }
+
+  /** Writes the result rows of a source file to a temporary file. */
+  private static class ResultWriter<R> {
+
+    private final ParserResult<R> parserResult;
+    private final Set<String> sourceHeaders;
+    private final Path file;
+    private final CSVWriter csvWriter;
+    private int rows;
+
+    ResultWriter(String prefix, ParserResult<R> parserResult, List<String> fields)
+        throws IOException {
+      this.parserResult = parserResult;
+      this.file = RegistryBatchService.createSpoolFile("result-" + prefix);
+      this.csvWriter =
+          new CSVWriter(
+              Files.newBufferedWriter(file),
+              parserResult.getFormat().getDelimiter(),
+              ICSVWriter.DEFAULT_QUOTE_CHARACTER,
+              ICSVWriter.DEFAULT_ESCAPE_CHARACTER,
+              ICSVWriter.DEFAULT_LINE_END);
+
+      // we only use the headers used in the batch plus the key and errors
+      Map<String, Integer> headersIndex = parserResult.getFileHeadersIndex();
+      sourceHeaders = new LinkedHashSet<>();
+      fields.stream().filter(headersIndex::containsKey).forEach(sourceHeaders::add);
+      sourceHeaders.add(KEY);
+
+      String[] resultHeaders = sourceHeaders.toArray(new String[sourceHeaders.size() + 1]);
+      resultHeaders[resultHeaders.length - 1] = ERRORS;
+      csvWriter.writeNext(resultHeaders);
+    }
+
+    void write(ParsedData<R> parsedData) {
+      String[] values = parsedData.getValues();
+      Map<String, Integer> headersIndex = parserResult.getFileHeadersIndex();
+
+      String[] resultValues = new String[sourceHeaders.size() + 1];
+      int i = 0;
+      for (String sourceHeader : sourceHeaders) {
+        if (sourceHeader.equals(KEY)) {
+          String key = parserResult.getEntityKeyExtractor().apply(parsedData.getEntity());
+          resultValues[i] = key != null ? key : "";
+        } else {
+          Integer index = headersIndex.get(sourceHeader);
+          resultValues[i] = values != null && index < values.length ? values[index] : "";
+        }
+        i++;
+      }
+
+      // add errors
+      if (parsedData.getErrors() != null) {
+        resultValues[i] = String.join(FileParsingUtils.LIST_DELIMITER, parsedData.getErrors());
+      }
+
+      csvWriter.writeNext(resultValues);
+      rows++;
+    }
+
+    void copyTo(ZipOutputStream zipOut, String entryPrefix) throws IOException {
+      csvWriter.flush();
+      zipOut.putNextEntry(
+          new ZipEntry(
+              entryPrefix
+                  + System.currentTimeMillis()
+                  + "."
+                  + parserResult.getFormat().name().toLowerCase()));
+      Files.copy(file, zipOut);
+      zipOut.closeEntry();
+    }
+
+    void close() {
+      try {
+        csvWriter.close();
+      } catch (IOException e) {
+        log.warn("Couldn't close batch result file {}", file, e);
+      }
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        log.warn("Couldn't delete batch result file {}", file, e);
+      }
+    }
+  }
+}
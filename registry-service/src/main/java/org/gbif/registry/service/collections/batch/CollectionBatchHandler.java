@@ -19,6 +19,7 @@ import org.gbif.api.model.collections.request.CollectionSearchRequest;
 import org.gbif.api.model.collections.view.CollectionView;
 import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.service.collections.CollectionService;
+import org.gbif.registry.events.EventManager;
 import org.gbif.registry.persistence.mapper.collections.BatchMapper;
 import org.gbif.registry.security.grscicoll.GrSciCollAuthorizationService;
 import org.gbif.registry.service.collections.batch.model.ParsedData;
@@ -33,6 +34,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.google.common.base.Strings;
 
@@ -47,13 +49,21 @@ public class CollectionBatchHandler extends BaseBatchHandler<Collection> {
       BatchMapper batchMapper,
       CollectionService collectionService,
       GrSciCollAuthorizationService authorizationService,
-      @Value("${grscicoll.batchResultPath}") String resultPath) {
+      @Value("${grscicoll.batchResultPath}") String resultPath,
+      PlatformTransactionManager transactionManager,
+      EventManager eventManager,
+      @Value("${grscicoll.batchValidationThreads:4}") int validationThreads,
+      @Value("${grscicoll.batchChunkSize:100}") int chunkSize) {
     super(
         batchMapper,
         collectionService,
         resultPath,
         CollectionEntityType.COLLECTION,
-        Collection.class);
+        Collection.class,
+        transactionManager,
+        eventManager,
+        validationThreads,
+        chunkSize);
     this.collectionService = collectionService;
     this.authorizationService = authorizationService;
   }
@@ -28,17 +28,21 @@ import org.gbif.api.vocabulary.collections.PreservationType;
 import org.gbif.registry.service.collections.batch.model.ContactsParserResult;
 import org.gbif.registry.service.collections.batch.model.EntitiesParserResult;
 import org.gbif.registry.service.collections.batch.model.ParsedData;
-import org.gbif.registry.service.collections.batch.model.ParserResult;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
@@ -107,29 +111,22 @@ import static org.gbif.registry.service.collections.batch.FileParsingUtils.parse
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class FileParser {
 
+  /**
+   * Reads the headers and the codes of the entities file to check it before the entities are
+   * parsed. Only the codes are kept, the entities are parsed later chunk by chunk.
+   */
   @SneakyThrows
-  static <T extends CollectionEntity> ParserResult<T> parseEntities(
-      byte[] entitiesFile,
-      ExportFormat format,
-      BiFunction<String[], Map<String, Integer>, ParsedData<T>> createEntityFn,
-      CollectionEntityType entityType) {
-
-    Map<String, ParsedData<T>> dataMap = new HashMap<>();
+  static <T extends CollectionEntity> EntitiesParserResult<T> indexEntities(
+      Path entitiesFile, ExportFormat format, CollectionEntityType entityType) {
+    Set<String> codes = new HashSet<>();
     List<String> fileErrors = new ArrayList<>();
     List<String> duplicateKeys = new ArrayList<>();
     Map<String, Integer> headersIndex = new HashMap<>();
 
-    // csv options
-    CSVParser csvParser = new CSVParserBuilder().withSeparator(format.getDelimiter()).build();
-
-    try (CSVReader csvReader =
-        new CSVReaderBuilder(
-                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(entitiesFile))))
-            .withCSVParser(csvParser)
-            .build()) {
+    try (CSVReader csvReader = newReader(entitiesFile, format)) {
       // extract headers
       String[] headers = csvReader.readNextSilently();
-      for (int i = 0; i < headers.length; i++) {
+      for (int i = 0; headers != null && i < headers.length; i++) {
         if (isEntityField(headers[i], entityType)) {
           headersIndex.put(headers[i].toUpperCase(), i);
         } else {
@@ -147,30 +144,66 @@ public class FileParser {
           continue;
         }
 
-        values = FileParsingUtils.normalizeValues(headersIndex.entrySet().size(), values);
-
-        ParsedData<T> data = createEntityFn.apply(values, headersIndex);
-        String entityCode = data.getEntity().getCode();
-        if (entityCode == null) {
-          data.getErrors().add("No code found");
-        } else {
-          if (dataMap.containsKey(entityCode)) {
-            duplicateKeys.add(entityCode);
-          }
-          dataMap.put(entityCode, data);
+        values = FileParsingUtils.normalizeValues(headersIndex.size(), values);
+        String entityCode = extractValue(values, headersIndex.get(CODE));
+        if (entityCode != null && !codes.add(entityCode)) {
+          duplicateKeys.add(entityCode);
         }
       }
     }
 
     return EntitiesParserResult.<T>builder()
         .format(format)
-        .parsedDataMap(dataMap)
+        .codes(codes)
         .duplicates(duplicateKeys)
         .fileHeadersIndex(headersIndex)
         .fileErrors(fileErrors)
         .build();
   }
 
+  /**
+   * Parses the entities file and hands the entities to the consumer in chunks, in the order of the
+   * file. The entities without code are skipped.
+   */
+  @SneakyThrows
+  static <T extends CollectionEntity> void parseEntities(
+      Path entitiesFile,
+      EntitiesParserResult<T> entitiesIndex,
+      BiFunction<String[], Map<String, Integer>, ParsedData<T>> createEntityFn,
+      int chunkSize,
+      Consumer<List<ParsedData<T>>> chunkConsumer) {
+    Map<String, Integer> headersIndex = entitiesIndex.getFileHeadersIndex();
+    List<ParsedData<T>> chunk = new ArrayList<>(chunkSize);
+
+    try (CSVReader csvReader = newReader(entitiesFile, entitiesIndex.getFormat())) {
+      // skip header line
+      csvReader.readNextSilently();
+
+      String[] values;
+      while ((values = csvReader.readNextSilently()) != null) {
+        if (values.length == 0) {
+          continue;
+        }
+
+        values = FileParsingUtils.normalizeValues(headersIndex.size(), values);
+        ParsedData<T> data = createEntityFn.apply(values, headersIndex);
+        if (data.getEntity().getCode() == null) {
+          continue;
+        }
+
+        chunk.add(data);
+        if (chunk.size() == chunkSize) {
+          chunkConsumer.accept(chunk);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+    }
+
+    if (!chunk.isEmpty()) {
+      chunkConsumer.accept(chunk);
+    }
+  }
+
   static ParsedData<Institution> createInstitutionFromValues(
       String[] values, Map<String, Integer> headersIndex) {
     List<String> errors = new ArrayList<>();
@@ -266,7 +299,11 @@ public class FileParser {
         institution::setIdentifiers,
         errors);
 
-    return ParsedData.<Institution>builder().entity(institution).errors(errors).build();
+    return ParsedData.<Institution>builder()
+        .entity(institution)
+        .errors(errors)
+        .values(values)
+        .build();
   }
 
   static ParsedData<Collection> createCollectionFromValues(
@@ -381,36 +418,33 @@ public class FileParser {
     collection.setDivision(
         extractValue(values, headersIndex.get(FileFields.CollectionFields.DIVISION)));
 
-    return ParsedData.<Collection>builder().entity(collection).errors(errors).build();
+    return ParsedData.<Collection>builder()
+        .entity(collection)
+        .errors(errors)
+        .values(values)
+        .build();
   }
 
   static String extractValue(String[] values, Integer index) {
     return index != null && index < values.length ? Strings.emptyToNull(values[index]) : null;
   }
 
+  /**
+   * Reads the headers of the contacts file and the codes of the entities they belong to. Only the
+   * codes and the keys of the contacts, to find the duplicates, are kept.
+   */
   @SneakyThrows
-  static <T extends CollectionEntity> ContactsParserResult parseContacts(
-      byte[] contactsFile,
-      Map<String, ParsedData<T>> entitiesMap,
-      ExportFormat format,
-      String entityCodeColum) {
+  static ContactsParserResult indexContacts(
+      Path contactsFile, Set<String> entityCodes, ExportFormat format, String entityCodeColum) {
     Map<String, Integer> columnsIndex = new HashMap<>();
-
-    Map<String, List<ParsedData<Contact>>> contactsByEntityKey = new HashMap<>();
+    Set<String> entitiesWithContacts = new HashSet<>();
     List<String> fileErrors = new ArrayList<>();
     List<String> duplicateContactKeys = new ArrayList<>();
-    Map<String, ParsedData<Contact>> contactsByKey = new HashMap<>();
-
-    // csv options
-    CSVParser csvParser = new CSVParserBuilder().withSeparator(format.getDelimiter()).build();
+    Set<String> contactKeys = new HashSet<>();
 
-    try (CSVReader csvReader =
-        new CSVReaderBuilder(
-                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contactsFile))))
-            .withCSVParser(csvParser)
-            .build()) {
+    try (CSVReader csvReader = newReader(contactsFile, format)) {
       String[] headers = csvReader.readNextSilently();
-      for (int i = 0; i < headers.length; i++) {
+      for (int i = 0; headers != null && i < headers.length; i++) {
         if (isContactField(headers[i])) {
           columnsIndex.put(headers[i].toUpperCase(), i);
         } else {
@@ -420,50 +454,92 @@ public class FileParser {
 
       String[] values;
       while ((values = csvReader.readNextSilently()) != null) {
-        if (values.length == 0) {
+        String entityCode = readContactEntityCode(values, columnsIndex, entityCodeColum);
+        if (entityCode == null || !entityCodes.contains(entityCode)) {
+          // invalid entity code
           continue;
         }
 
-        values = FileParsingUtils.normalizeValues(columnsIndex.entrySet().size(), values);
-
-        ParsedData<Contact> parsedContact = createContactFromValues(values, columnsIndex);
-        if (!columnsIndex.containsKey(entityCodeColum)) {
-          parsedContact.getErrors().add("There is no column with entity code");
-          continue;
-        }
-
-        String entityCode = values[columnsIndex.get(entityCodeColum)];
-
-        if (Strings.isNullOrEmpty(entityCode) || !entitiesMap.containsKey(entityCode)) {
-          parsedContact.getErrors().add("Invalid entity code");
-          continue;
-        }
-
-        // assign the contact to the entity
-        entitiesMap.get(entityCode).getEntity().getContactPersons().add(parsedContact.getEntity());
+        entitiesWithContacts.add(entityCode);
 
         // get a key of the contact. For updates it's the contact key but for inital imports
         // we hash all the values of the fields
-        String uniqueKey = String.valueOf(getContactUniqueKey(values, columnsIndex));
-
-        if (contactsByKey.containsKey(uniqueKey)) {
+        String uniqueKey =
+            String.valueOf(
+                getContactUniqueKey(
+                    FileParsingUtils.normalizeValues(columnsIndex.size(), values),
+                    columnsIndex));
+        if (!contactKeys.add(uniqueKey)) {
           duplicateContactKeys.add(uniqueKey);
         }
-        contactsByKey.put(uniqueKey, parsedContact);
-        contactsByEntityKey.computeIfAbsent(entityCode, k -> new ArrayList<>()).add(parsedContact);
       }
     }
 
     return ContactsParserResult.builder()
         .format(format)
-        .contactsByEntity(contactsByEntityKey)
-        .contactsByKey(contactsByKey)
+        .entityCodes(entitiesWithContacts)
         .duplicates(duplicateContactKeys)
         .fileHeadersIndex(columnsIndex)
         .fileErrors(fileErrors)
         .build();
   }
 
+  /**
+   * Parses the contacts of the given entities, grouped by the code of their entity. The contacts
+   * of the other entities are skipped.
+   */
+  @SneakyThrows
+  static Map<String, List<ParsedData<Contact>>> parseContacts(
+      Path contactsFile,
+      ContactsParserResult contactsIndex,
+      Set<String> entityCodes,
+      String entityCodeColum) {
+    Map<String, List<ParsedData<Contact>>> contactsByEntityCode = new HashMap<>();
+    if (Collections.disjoint(contactsIndex.getEntityCodes(), entityCodes)) {
+      return contactsByEntityCode;
+    }
+
+    Map<String, Integer> columnsIndex = contactsIndex.getFileHeadersIndex();
+    try (CSVReader csvReader = newReader(contactsFile, contactsIndex.getFormat())) {
+      // skip header line
+      csvReader.readNextSilently();
+
+      String[] values;
+      while ((values = csvReader.readNextSilently()) != null) {
+        String entityCode = readContactEntityCode(values, columnsIndex, entityCodeColum);
+        if (entityCode == null || !entityCodes.contains(entityCode)) {
+          continue;
+        }
+
+        values = FileParsingUtils.normalizeValues(columnsIndex.size(), values);
+        ParsedData<Contact> parsedContact = createContactFromValues(values, columnsIndex);
+        contactsByEntityCode
+            .computeIfAbsent(entityCode, k -> new ArrayList<>())
+            .add(parsedContact);
+      }
+    }
+
+    return contactsByEntityCode;
+  }
+
+  private static String readContactEntityCode(
+      String[] values, Map<String, Integer> columnsIndex, String entityCodeColum) {
+    if (values.length == 0 || !columnsIndex.containsKey(entityCodeColum)) {
+      return null;
+    }
+    return extractValue(
+        FileParsingUtils.normalizeValues(columnsIndex.size(), values),
+        columnsIndex.get(entityCodeColum));
+  }
+
+  private static CSVReader newReader(Path file, ExportFormat format) throws IOException {
+    CSVParser csvParser = new CSVParserBuilder().withSeparator(format.getDelimiter()).build();
+    return new CSVReaderBuilder(
+            new BufferedReader(new InputStreamReader(Files.newInputStream(file))))
+        .withCSVParser(csvParser)
+        .build();
+  }
+
   private static ParsedData<Contact> createContactFromValues(
       String[] values, Map<String, Integer> headersIndex) {
     List<String> errors = new ArrayList<>();
@@ -502,7 +578,7 @@ public class FileParser {
         contact::setUserIds,
         errors);
 
-    return ParsedData.<Contact>builder().entity(contact).errors(errors).build();
+    return ParsedData.<Contact>builder().entity(contact).errors(errors).values(values).build();
   }
 
   static int getContactUniqueKey(String[] values, Map<String, Integer> headersIndex) {
@@ -18,6 +18,7 @@ import org.gbif.api.model.collections.Institution;
 import org.gbif.api.model.collections.request.InstitutionSearchRequest;
 import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.service.collections.InstitutionService;
+import org.gbif.registry.events.EventManager;
 import org.gbif.registry.persistence.mapper.collections.BatchMapper;
 import org.gbif.registry.security.grscicoll.GrSciCollAuthorizationService;
 import org.gbif.registry.service.collections.batch.FileFields.InstitutionFields;
@@ -33,6 +34,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.google.common.base.Strings;
 
@@ -46,13 +48,21 @@ public class InstitutionBatchHandler extends BaseBatchHandler<Institution> {
       BatchMapper batchMapper,
       InstitutionService institutionService,
       GrSciCollAuthorizationService authorizationService,
-      @Value("${grscicoll.batchResultPath}") String resultPath) {
+      @Value("${grscicoll.batchResultPath}") String resultPath,
+      PlatformTransactionManager transactionManager,
+      EventManager eventManager,
+      @Value("${grscicoll.batchValidationThreads:4}") int validationThreads,
+      @Value("${grscicoll.batchChunkSize:100}") int chunkSize) {
     super(
         batchMapper,
         institutionService,
         resultPath,
         CollectionEntityType.INSTITUTION,
-        Institution.class);
+        Institution.class,
+        transactionManager,
+        eventManager,
+        validationThreads,
+        chunkSize);
     this.institutionService = institutionService;
     this.authorizationService = authorizationService;
   }
@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.service.collections.batch;
+
+import org.gbif.api.model.common.export.ExportFormat;
+import org.gbif.api.service.collections.BatchService;
+import org.gbif.registry.domain.collections.BatchProgress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Handles GRSciColl batches from files spooled to disk, and reports their progress while they're
+ * processed.
+ */
+public interface RegistryBatchService extends BatchService {
+
+  /**
+   * Handles a batch whose files were spooled to disk with {@link #createSpoolFile(String)}. The
+   * service takes ownership of the files and deletes them once the batch finishes, or if it can't
+   * be started.
+   */
+  int handleBatch(Path entitiesFile, Path contactsFile, ExportFormat format);
+
+  BatchProgress getProgress(int key);
+
+  /** Creates an empty file to spool a batch file. */
+  static Path createSpoolFile(String prefix) throws IOException {
+    return Files.createTempFile("batch-" + prefix + "-", ".tmp");
+  }
+}
@@ -19,6 +19,7 @@ import org.gbif.api.model.common.export.ExportFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import lombok.Builder;
@@ -27,18 +28,13 @@ import lombok.Getter;
 @Builder
 public class ContactsParserResult implements ParserResult<Contact> {
 
-  @Getter private Map<String, List<ParsedData<Contact>>> contactsByEntity;
-  private Map<String, ParsedData<Contact>> contactsByKey;
+  // codes of the entities that have contacts, the contacts are parsed with the chunk of their entity
+  @Getter private Set<String> entityCodes;
   private List<String> duplicates;
   private List<String> fileErrors = new ArrayList<>();
   private Map<String, Integer> fileHeadersIndex;
   private ExportFormat format;
 
-  @Override
-  public Map<String, ParsedData<Contact>> getParsedDataMap() {
-    return contactsByKey;
-  }
-
   @Override
   public List<String> getDuplicates() {
     return duplicates;
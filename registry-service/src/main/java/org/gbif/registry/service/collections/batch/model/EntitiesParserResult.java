@@ -19,24 +19,22 @@ import org.gbif.api.model.common.export.ExportFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import lombok.Builder;
+import lombok.Getter;
 
 @Builder
 public class EntitiesParserResult<T extends CollectionEntity> implements ParserResult<T> {
 
-  private Map<String, ParsedData<T>> parsedDataMap;
+  // codes of the entities in the file, the entities are parsed later chunk by chunk
+  @Getter private Set<String> codes;
   private List<String> duplicates;
   private List<String> fileErrors = new ArrayList<>();
   private Map<String, Integer> fileHeadersIndex;
   private ExportFormat format;
 
-  @Override
-  public Map<String, ParsedData<T>> getParsedDataMap() {
-    return parsedDataMap;
-  }
-
   @Override
   public List<String> getDuplicates() {
     return duplicates;
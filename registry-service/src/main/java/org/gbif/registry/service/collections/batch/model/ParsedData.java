@@ -23,4 +23,6 @@ import lombok.Getter;
 public class ParsedData<T> {
   T entity;
   List<String> errors;
+  // values of the row in the file, to write them back in the result file
+  String[] values;
 }
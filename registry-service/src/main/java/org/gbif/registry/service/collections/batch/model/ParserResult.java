@@ -13,15 +13,14 @@
  */
 package org.gbif.registry.service.collections.batch.model;
 
-
 import org.gbif.api.model.common.export.ExportFormat;
 
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
+/** Headers and file level checks of a batch file, read before its rows are processed. */
 public interface ParserResult<T> {
-  Map<String, ParsedData<T>> getParsedDataMap();
 
   List<String> getDuplicates();
 
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.service.collections.duplicates;
+
+import org.gbif.api.model.collections.CollectionEntity;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.collections.CollectionsMovedEvent;
+import org.gbif.registry.events.collections.CreateCollectionEntityEvent;
+import org.gbif.registry.events.collections.DeleteCollectionEntityEvent;
+import org.gbif.registry.events.collections.ReplaceEntityEvent;
+import org.gbif.registry.events.collections.UpdateCollectionEntityEvent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Listens to the changes of institutions and collections and recomputes the duplicate pairs where
+ * the changed entities participate.
+ */
+@Component
+public class DuplicatesUpdateListener {
+
+  private final DuplicatesUpdater duplicatesUpdater;
+
+  @Autowired
+  public DuplicatesUpdateListener(DuplicatesUpdater duplicatesUpdater, EventManager eventManager) {
+    this.duplicatesUpdater = duplicatesUpdater;
+    eventManager.register(this);
+  }
+
+  @Subscribe
+  public <T extends CollectionEntity> void onCreate(CreateCollectionEntityEvent<T> event) {
+    duplicatesUpdater.updateDuplicates(
+        event.getCollectionEntityType(), event.getNewObject().getKey());
+  }
+
+  @Subscribe
+  public <T extends CollectionEntity> void onUpdate(UpdateCollectionEntityEvent<T> event) {
+    duplicatesUpdater.updateDuplicates(
+        event.getCollectionEntityType(), event.getNewObject().getKey());
+  }
+
+  @Subscribe
+  public <T extends CollectionEntity> void onDelete(DeleteCollectionEntityEvent<T> event) {
+    duplicatesUpdater.updateDuplicates(
+        event.getCollectionEntityType(), event.getOldObject().getKey());
+  }
+
+  @Subscribe
+  public <T extends CollectionEntity> void onReplace(ReplaceEntityEvent<T> event) {
+    duplicatesUpdater.updateDuplicates(
+        event.getCollectionEntityType(), event.getTargetEntityKey());
+    if (event.getReplacementKey() != null) {
+      duplicatesUpdater.updateDuplicates(
+          event.getCollectionEntityType(), event.getReplacementKey());
+    }
+  }
+
+  @Subscribe
+  public void onMove(CollectionsMovedEvent event) {
+    event
+        .getNewObjects()
+        .forEach(
+            c -> duplicatesUpdater.updateDuplicates(event.getCollectionEntityType(), c.getKey()));
+  }
+}
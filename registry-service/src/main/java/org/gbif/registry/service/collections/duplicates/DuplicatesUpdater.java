@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.service.collections.duplicates;
+
+import org.gbif.api.model.collections.CollectionEntityType;
+import org.gbif.registry.persistence.mapper.collections.DuplicatesMapper;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the institution and collection duplicates tables up to date. When an entity changes only
+ * the pairs where that entity participates are recomputed, see {@link DuplicatesUpdateListener}. A
+ * full recompute is also available to reconcile changes made outside the services.
+ */
+@Slf4j
+@Service
+public class DuplicatesUpdater {
+
+  private final DuplicatesMapper duplicatesMapper;
+
+  @Autowired
+  public DuplicatesUpdater(DuplicatesMapper duplicatesMapper) {
+    this.duplicatesMapper = duplicatesMapper;
+  }
+
+  /** Recomputes only the duplicate pairs where the entity participates. */
+  @Transactional
+  public void updateDuplicates(CollectionEntityType entityType, UUID entityKey) {
+    if (entityType == CollectionEntityType.INSTITUTION) {
+      duplicatesMapper.deleteInstitutionDuplicates(entityKey);
+      duplicatesMapper.insertInstitutionDuplicates(entityKey);
+    } else if (entityType == CollectionEntityType.COLLECTION) {
+      duplicatesMapper.deleteCollectionDuplicates(entityKey);
+      duplicatesMapper.insertCollectionDuplicates(entityKey);
+    }
+  }
+
+  /** Recomputes all the duplicate pairs. */
+  @Transactional
+  public void rebuildAll() {
+    log.info("Rebuilding GRSciColl duplicates");
+    duplicatesMapper.deleteInstitutionDuplicates(null);
+    duplicatesMapper.insertInstitutionDuplicates(null);
+    duplicatesMapper.deleteCollectionDuplicates(null);
+    duplicatesMapper.insertCollectionDuplicates(null);
+    log.info("GRSciColl duplicates rebuilt");
+  }
+}
@@ -18,15 +18,14 @@ import org.gbif.api.model.collections.CollectionEntity;
 import org.gbif.api.model.collections.Contactable;
 import org.gbif.api.model.collections.MasterSourceMetadata;
 import org.gbif.api.model.collections.OccurrenceMappeable;
-import org.gbif.api.model.collections.OccurrenceMapping;
 import org.gbif.api.model.registry.Commentable;
 import org.gbif.api.model.registry.Identifiable;
-import org.gbif.api.model.registry.Identifier;
-import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.model.registry.MachineTaggable;
 import org.gbif.api.model.registry.Taggable;
-import org.gbif.api.service.collections.CollectionEntityService;
-import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.collections.UpdateCollectionEntityEvent;
+import org.gbif.registry.persistence.mapper.collections.BaseMapper;
+import org.gbif.registry.service.collections.BaseCollectionEntityService;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -48,7 +47,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.gbif.registry.domain.collections.Constants.IDIGBIO_NAMESPACE;
 import static org.gbif.registry.security.UserRoles.GRSCICOLL_ADMIN_ROLE;
 import static org.gbif.registry.security.UserRoles.GRSCICOLL_MEDIATOR_ROLE;
+import static org.gbif.registry.service.collections.utils.MasterSourceUtils.CONTACTS_FIELD_NAME;
 import static org.gbif.registry.service.collections.utils.MasterSourceUtils.hasExternalMasterSource;
+import static org.gbif.registry.service.collections.utils.MasterSourceUtils.isLockableEntity;
+import static org.gbif.registry.service.collections.utils.MasterSourceUtils.isSourceableField;
 
 public abstract class BaseMergeService<
         T extends
@@ -56,10 +58,17 @@ public abstract class BaseMergeService<
                 & Taggable & Commentable>
     implements MergeService<T> {
 
-  protected final CollectionEntityService<T> primaryEntityService;
+  protected final BaseCollectionEntityService<T> primaryEntityService;
+  protected final BaseMapper<T> primaryEntityMapper;
+  protected final EventManager eventManager;
 
-  protected BaseMergeService(CollectionEntityService<T> primaryEntityService) {
+  protected BaseMergeService(
+      BaseCollectionEntityService<T> primaryEntityService,
+      BaseMapper<T> primaryEntityMapper,
+      EventManager eventManager) {
     this.primaryEntityService = primaryEntityService;
+    this.primaryEntityMapper = primaryEntityMapper;
+    this.eventManager = eventManager;
   }
 
   @Secured({GRSCICOLL_ADMIN_ROLE, GRSCICOLL_MEDIATOR_ROLE})
@@ -101,32 +110,40 @@ public abstract class BaseMergeService<
 
     checkMergeExtraPreconditions(entityToReplace, replacement);
 
+    // the contacts of an entity synced with an external source can only be changed by the sync
+    if (isLockableEntity(replacement)
+        && isSourceableField(replacement.getClass(), CONTACTS_FIELD_NAME)
+        && entityToReplace.getContactPersons().stream()
+            .anyMatch(
+                c ->
+                    replacement.getContactPersons().stream()
+                        .noneMatch(cp -> cp.lenientEquals(c)))) {
+      throw new IllegalArgumentException(
+          "Cannot add contacts to an entity whose master source is not GRSciColl");
+    }
+
     // delete and set the replacement
     primaryEntityService.replace(entityToReplaceKey, replacementKey);
 
+    // the fields, the sub-entities and the master source of the replacement are changed without
+    // posting events, and a single update event is posted for all the changes
+    String user = authentication.getName();
+    T replacementBeforeMerge = primaryEntityService.get(replacementKey);
+
     // merge entity fields
-    T updatedEntityToReplace = mergeEntityFields(entityToReplace, replacement);
-    primaryEntityService.update(updatedEntityToReplace);
+    primaryEntityService.updateWithoutEvent(mergeEntityFields(entityToReplace, replacement), true);
 
-    // copy the identifiers
-    entityToReplace.getIdentifiers().stream()
-        .filter(i -> !containsIdentifier(replacement, i))
-        .forEach(
-            i ->
-                primaryEntityService.addIdentifier(
-                    replacementKey, new Identifier(i.getType(), i.getIdentifier())));
-
-    // copy iDigBio and IH machine tags
-    entityToReplace.getMachineTags().stream()
-        .filter(mt -> mt.getNamespace().equals(IDIGBIO_NAMESPACE))
-        .filter(mt -> !containsMachineTag(replacement, mt))
-        .forEach(
-            mt ->
-                primaryEntityService.addMachineTag(
-                    replacementKey,
-                    new MachineTag(mt.getNamespace(), mt.getName(), mt.getValue())));
+    // copy the identifiers and add the UUID key of the replaced entity as identifier
+    primaryEntityMapper.copyIdentifiers(entityToReplaceKey, replacementKey, user);
+    // copy iDigBio machine tags
+    primaryEntityMapper.copyMachineTags(
+        entityToReplaceKey, replacementKey, IDIGBIO_NAMESPACE, user);
+    // merge contact persons
+    primaryEntityMapper.copyContactPersons(entityToReplaceKey, replacementKey, user);
+    // copy occurrence mappings
+    primaryEntityMapper.copyOccurrenceMappings(entityToReplaceKey, replacementKey, user);
 
-    // copy master source
+    // copy master source. It still posts its own event to sync the replacement with the source
     if (entityToReplace.getMasterSourceMetadata() != null) {
       primaryEntityService.addMasterSourceMetadata(
           replacementKey,
@@ -135,32 +152,9 @@ public abstract class BaseMergeService<
               entityToReplace.getMasterSourceMetadata().getSourceId()));
     }
 
-    // merge contact persons
-    entityToReplace.getContactPersons().stream()
-        .filter(c -> replacement.getContactPersons().stream().noneMatch(cp -> cp.lenientEquals(c)))
-        .forEach(
-            c -> {
-              c.setKey(null);
-              primaryEntityService.addContactPerson(replacementKey, c);
-            });
-
-    // add the UUID key of the replaced entity as an identifier of the replacement
-    Identifier keyIdentifier =
-        new Identifier(IdentifierType.UUID, entityToReplace.getKey().toString());
-    primaryEntityService.addIdentifier(replacementKey, keyIdentifier);
-
-    // update occurrence mappings
-    List<OccurrenceMapping> occMappings =
-        primaryEntityService.listOccurrenceMappings(entityToReplaceKey);
-    occMappings.stream()
-        .filter(om -> !containsOccurrenceMapping(replacement, om))
-        .forEach(
-            om -> {
-              om.setKey(null);
-              primaryEntityService.addOccurrenceMapping(
-                  replacementKey,
-                  new OccurrenceMapping(om.getCode(), om.getIdentifier(), om.getDatasetKey()));
-            });
+    eventManager.post(
+        UpdateCollectionEntityEvent.newInstance(
+            primaryEntityService.get(replacementKey), replacementBeforeMerge));
 
     additionalOperations(entityToReplace, replacement);
   }
@@ -170,19 +164,6 @@ public abstract class BaseMergeService<
         .anyMatch(mt -> mt.getNamespace().equals(IDIGBIO_NAMESPACE));
   }
 
-  protected boolean containsIdentifier(T entity, Identifier identifier) {
-    return entity.getIdentifiers().stream().anyMatch(i -> i.lenientEquals(identifier));
-  }
-
-  protected boolean containsMachineTag(T entity, MachineTag machineTag) {
-    return entity.getMachineTags().stream().anyMatch(mt -> mt.lenientEquals(machineTag));
-  }
-
-  protected boolean containsOccurrenceMapping(T entity, OccurrenceMapping occurrenceMapping) {
-    return entity.getOccurrenceMappings().stream()
-        .anyMatch(om -> om.lenientEquals(occurrenceMapping));
-  }
-
   /** Sets the fields that are null in target with the value of the source. */
   protected void setNullFieldsInTarget(T target, T source) {
     Class<T> clazz = (Class<T>) target.getClass();
@@ -15,7 +15,9 @@ package org.gbif.registry.service.collections.merge;
 
 import org.gbif.api.model.collections.AlternativeCode;
 import org.gbif.api.model.collections.Collection;
-import org.gbif.api.service.collections.CollectionService;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.persistence.mapper.collections.CollectionMapper;
+import org.gbif.registry.service.collections.DefaultCollectionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -27,8 +29,11 @@ import com.google.common.base.Preconditions;
 public class CollectionMergeService extends BaseMergeService<Collection> {
 
   @Autowired
-  protected CollectionMergeService(CollectionService collectionService) {
-    super(collectionService);
+  protected CollectionMergeService(
+      DefaultCollectionService collectionService,
+      CollectionMapper collectionMapper,
+      EventManager eventManager) {
+    super(collectionService, collectionMapper, eventManager);
   }
 
   @Override
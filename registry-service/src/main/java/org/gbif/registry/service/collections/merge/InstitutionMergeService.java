@@ -18,15 +18,20 @@ import org.gbif.api.model.collections.AlternativeCode;
 import org.gbif.api.model.collections.Collection;
 import org.gbif.api.model.collections.Institution;
 import org.gbif.api.model.collections.OccurrenceMapping;
-import org.gbif.api.model.collections.request.CollectionSearchRequest;
-import org.gbif.api.model.collections.view.CollectionView;
-import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.Identifier;
 import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.service.collections.CollectionService;
-import org.gbif.api.service.collections.InstitutionService;
-
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.collections.CollectionsMovedEvent;
+import org.gbif.registry.persistence.mapper.collections.CollectionMapper;
+import org.gbif.registry.persistence.mapper.collections.InstitutionMapper;
+import org.gbif.registry.service.collections.DefaultInstitutionService;
+
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -46,15 +51,21 @@ import static org.gbif.registry.security.UserRoles.GRSCICOLL_MEDIATOR_ROLE;
 @Service
 public class InstitutionMergeService extends BaseMergeService<Institution> {
 
-  private final InstitutionService institutionService;
+  private final DefaultInstitutionService institutionService;
   private final CollectionService collectionService;
+  private final CollectionMapper collectionMapper;
 
   @Autowired
   public InstitutionMergeService(
-      InstitutionService institutionService, CollectionService collectionService) {
-    super(institutionService);
+      DefaultInstitutionService institutionService,
+      InstitutionMapper institutionMapper,
+      CollectionService collectionService,
+      CollectionMapper collectionMapper,
+      EventManager eventManager) {
+    super(institutionService, institutionMapper, eventManager);
     this.institutionService = institutionService;
     this.collectionService = collectionService;
+    this.collectionMapper = collectionMapper;
   }
 
   @Secured({GRSCICOLL_ADMIN_ROLE, GRSCICOLL_MEDIATOR_ROLE})
@@ -205,16 +216,28 @@ public class InstitutionMergeService extends BaseMergeService<Institution> {
 
   private void moveCollectionsToAnotherInstitution(
       UUID sourceInstitutionKey, UUID targetInstitutionKey) {
-    // move the collections to the entity to keep
-    PagingResponse<CollectionView> collections =
-        collectionService.list(
-            CollectionSearchRequest.builder().institution(sourceInstitutionKey).build());
-    collections
-        .getResults()
-        .forEach(
-            c -> {
-              c.getCollection().setInstitutionKey(targetInstitutionKey);
-              collectionService.update(c.getCollection());
-            });
+    List<Collection> collectionsToMove = collectionMapper.getByInstitution(sourceInstitutionKey);
+    if (collectionsToMove.isEmpty()) {
+      return;
+    }
+
+    // move all the collections to the entity to keep in one statement
+    collectionMapper.moveToInstitution(
+        sourceInstitutionKey,
+        targetInstitutionKey,
+        SecurityContextHolder.getContext().getAuthentication().getName());
+
+    // the statement bypasses the service, so a single event is posted for all the moved
+    // collections
+    Map<UUID, Collection> movedCollections =
+        collectionMapper.getByInstitution(targetInstitutionKey).stream()
+            .collect(Collectors.toMap(Collection::getKey, Function.identity()));
+    eventManager.post(
+        CollectionsMovedEvent.newInstance(
+            targetInstitutionKey,
+            collectionsToMove.stream()
+                .map(c -> movedCollections.get(c.getKey()))
+                .collect(Collectors.toList()),
+            collectionsToMove));
   }
 }
@@ -30,12 +30,19 @@ public class BaseChallengeCodeManager<K> implements ChallengeCodeManager<K> {
 
   private final ChallengeCodeMapper challengeCodeMapper;
   private final ChallengeCodeSupportMapper<K> challengeCodeSupportMapper;
+  private final String entity;
 
+  /**
+   * @param entity entity pointing to the challengeCodes, one of the entities of the {@link
+   *     ChallengeCodeMapper}
+   */
   public BaseChallengeCodeManager(
       ChallengeCodeMapper challengeCodeMapper,
-      ChallengeCodeSupportMapper<K> challengeCodeSupportMapper) {
+      ChallengeCodeSupportMapper<K> challengeCodeSupportMapper,
+      String entity) {
     this.challengeCodeMapper = challengeCodeMapper;
     this.challengeCodeSupportMapper = challengeCodeSupportMapper;
+    this.entity = entity;
   }
 
   /**
@@ -47,14 +54,10 @@ public class BaseChallengeCodeManager<K> implements ChallengeCodeManager<K> {
       return false;
     }
 
-    Integer ccKey = challengeCodeSupportMapper.getChallengeCodeKey(key);
-
-    if (ccKey != null) {
-      ChallengeCode ccObject = challengeCodeMapper.getChallengeCodeObject(ccKey);
-      return challengeCode.equals(ccObject.getCode()) && Objects.equals(data, ccObject.getData());
-    }
-
-    return false;
+    ChallengeCode ccObject = challengeCodeMapper.getLinkedChallengeCode(entity, key);
+    return ccObject != null
+        && challengeCode.equals(ccObject.getCode())
+        && Objects.equals(data, ccObject.getData());
   }
 
   /**
@@ -71,10 +74,7 @@ public class BaseChallengeCodeManager<K> implements ChallengeCodeManager<K> {
    */
   @Override
   public ChallengeCode create(K key) {
-    ChallengeCode challengeCode = ChallengeCode.newRandom();
-    challengeCodeMapper.createChallengeCode(challengeCode);
-    challengeCodeSupportMapper.updateChallengeCodeKey(key, challengeCode.getKey());
-    return challengeCode;
+    return createAndLink(key, ChallengeCode.newRandom());
   }
 
   /**
@@ -84,10 +84,7 @@ public class BaseChallengeCodeManager<K> implements ChallengeCodeManager<K> {
    */
   @Override
   public ChallengeCode create(K key, String data) {
-    ChallengeCode challengeCode = ChallengeCode.newRandom(data);
-    challengeCodeMapper.createChallengeCode(challengeCode);
-    challengeCodeSupportMapper.updateChallengeCodeKey(key, challengeCode.getKey());
-    return challengeCode;
+    return createAndLink(key, ChallengeCode.newRandom(data));
   }
 
   /**
@@ -96,12 +93,13 @@ public class BaseChallengeCodeManager<K> implements ChallengeCodeManager<K> {
    */
   @Override
   public void remove(K key) {
-    Integer challengeCodeKey = challengeCodeSupportMapper.getChallengeCodeKey(key);
+    challengeCodeMapper.unlinkAndDeleteChallengeCode(entity, key);
+  }
 
-    if (challengeCodeKey != null) {
-      // remove the challengeCode from the referencing table first
-      challengeCodeSupportMapper.updateChallengeCodeKey(key, null);
-      challengeCodeMapper.deleteChallengeCode(challengeCodeKey);
-    }
+  private ChallengeCode createAndLink(K key, ChallengeCode challengeCode) {
+    Integer challengeCodeKey =
+        challengeCodeMapper.createAndLinkChallengeCode(entity, key, challengeCode);
+    challengeCode.setKey(challengeCodeKey);
+    return challengeCode;
   }
 }
@@ -27,6 +27,6 @@ public class OrganizationChallengeCodeManager extends BaseChallengeCodeManager<U
 
   public OrganizationChallengeCodeManager(
       ChallengeCodeMapper challengeCodeMapper, OrganizationMapper organizationMapper) {
-    super(challengeCodeMapper, organizationMapper);
+    super(challengeCodeMapper, organizationMapper, ChallengeCodeMapper.ORGANIZATION);
   }
 }
@@ -24,6 +24,6 @@ import org.springframework.stereotype.Service;
 public class UserChallengeCodeManager extends BaseChallengeCodeManager<Integer> {
 
   public UserChallengeCodeManager(ChallengeCodeMapper challengeCodeMapper, UserMapper userMapper) {
-    super(challengeCodeMapper, userMapper);
+    super(challengeCodeMapper, userMapper, ChallengeCodeMapper.USER);
   }
 }
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Endpoint;
+import org.gbif.api.model.registry.Installation;
+import org.gbif.api.model.registry.MachineTag;
+import org.gbif.api.model.registry.Network;
+import org.gbif.api.model.registry.Node;
+import org.gbif.api.model.registry.Organization;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.cloud.openfeign.SpringQueryMap;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Async variants of the main read methods of the registry clients, to issue many concurrent
+ * lookups without a thread per request. Built with {@link
+ * RegistryClientBuilder#buildAsync(Class)}, e.g.:
+ *
+ * <pre>{@code
+ * AsyncRegistryClient client =
+ *     new RegistryClientBuilder()
+ *         .withUrl("https://api.gbif.org/v1")
+ *         .withTransport(transport)
+ *         .buildAsync(AsyncRegistryClient.class);
+ * List<CompletableFuture<Dataset>> datasets =
+ *     keys.stream().map(client::getDataset).collect(Collectors.toList());
+ * }</pre>
+ *
+ * <p>Missing entities complete the futures with null, as the blocking clients do.
+ */
+public interface AsyncRegistryClient {
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "dataset/{key}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<Dataset> getDataset(@PathVariable("key") UUID key);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "dataset/{key}/endpoint",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<List<Endpoint>> listDatasetEndpoints(@PathVariable("key") UUID key);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "dataset/{key}/machineTag",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<List<MachineTag>> listDatasetMachineTags(@PathVariable("key") UUID key);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "organization/{key}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<Organization> getOrganization(@PathVariable("key") UUID key);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "organization/{key}/publishedDataset",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<PagingResponse<Dataset>> listPublishedDatasets(
+      @PathVariable("key") UUID key, @SpringQueryMap Pageable page);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "installation/{key}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<Installation> getInstallation(@PathVariable("key") UUID key);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "installation/{key}/dataset",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<PagingResponse<Dataset>> listHostedDatasets(
+      @PathVariable("key") UUID key, @SpringQueryMap Pageable page);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "node/{key}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<Node> getNode(@PathVariable("key") UUID key);
+
+  @RequestMapping(
+      method = RequestMethod.GET,
+      value = "network/{key}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  CompletableFuture<Network> getNetwork(@PathVariable("key") UUID key);
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client;
+
+import org.gbif.registry.ws.client.cache.CachingClient;
+import org.gbif.registry.ws.client.cache.ResponseCache;
+import org.gbif.registry.ws.client.transport.HttpTransport;
+import org.gbif.ws.client.ClientBuilder;
+import org.gbif.ws.client.ClientContract;
+import org.gbif.ws.client.ClientErrorDecoder;
+import org.gbif.ws.client.ClientRetryer;
+import org.gbif.ws.client.GbifAuthRequestInterceptor;
+import org.gbif.ws.json.JacksonJsonObjectMapperProvider;
+import org.gbif.ws.security.Md5EncodeServiceImpl;
+import org.gbif.ws.security.SecretKeySigningService;
+
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+
+import feign.AsyncFeign;
+import feign.Client;
+import feign.Feign;
+import feign.RequestInterceptor;
+import feign.Retryer;
+import feign.auth.BasicAuthRequestInterceptor;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+
+/**
+ * Wraps the {@link ClientBuilder} to add the optional transport features of this module, which the
+ * {@link ClientBuilder} doesn't support. Without them the clients are built by the {@link
+ * ClientBuilder} itself. With them the clients are built with the same contract, credentials,
+ * error decoder and retryer. Example of a client with a response cache of 50MB:
+ *
+ * <pre>{@code
+ * DatasetClient client =
+ *     new RegistryClientBuilder()
+ *         .withUrl("https://api.gbif.org/v1")
+ *         .withAppKeyCredentials("user", "appKey", "secretKey")
+ *         .withResponseCache(new ResponseCache(50 * 1024 * 1024))
+ *         .build(DatasetClient.class);
+ * }</pre>
+ *
+ * <p>With an {@link HttpTransport} the clients share a pool of keep-alive connections, and async
+ * clients like the {@link AsyncRegistryClient} can be built too.
+ */
+public class RegistryClientBuilder {
+
+  private final ClientBuilder clientBuilder = new ClientBuilder();
+  private String url;
+  private ObjectMapper objectMapper =
+      JacksonJsonObjectMapperProvider.getObjectMapperWithBuilderSupport();
+  private RequestInterceptor requestInterceptor;
+  private Retryer retryer;
+  private ResponseCache responseCache;
+  private HttpTransport transport;
+
+  public RegistryClientBuilder() {
+    clientBuilder.withObjectMapper(objectMapper);
+  }
+
+  public RegistryClientBuilder withUrl(String url) {
+    this.url = url;
+    clientBuilder.withUrl(url);
+    return this;
+  }
+
+  public RegistryClientBuilder withObjectMapper(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    clientBuilder.withObjectMapper(objectMapper);
+    return this;
+  }
+
+  /** Uses basic authentication in all the requests. */
+  public RegistryClientBuilder withCredentials(String username, String password) {
+    this.requestInterceptor = new BasicAuthRequestInterceptor(username, password);
+    clientBuilder.withCredentials(username, password);
+    return this;
+  }
+
+  /** Signs all the requests with the app key, as the {@link ClientBuilder} does. */
+  public RegistryClientBuilder withAppKeyCredentials(
+      String username, String appKey, String secretKey) {
+    this.requestInterceptor =
+        new GbifAuthRequestInterceptor(
+            username,
+            appKey,
+            secretKey,
+            new SecretKeySigningService(),
+            new Md5EncodeServiceImpl(objectMapper));
+    clientBuilder.withAppKeyCredentials(username, appKey, secretKey);
+    return this;
+  }
+
+  /** Retries the failed requests, waiting longer after each attempt. */
+  public RegistryClientBuilder withExponentialBackoffRetry(
+      Duration initialDuration, double multiplier, int maxAttempts) {
+    this.retryer = new ClientRetryer(initialDuration.toMillis(), maxAttempts, multiplier);
+    clientBuilder.withExponentialBackoffRetry(initialDuration, multiplier, maxAttempts);
+    return this;
+  }
+
+  /**
+   * Stores the GET responses in the cache, see {@link CachingClient}. The same cache can be used by
+   * several clients.
+   */
+  public RegistryClientBuilder withResponseCache(ResponseCache responseCache) {
+    this.responseCache = responseCache;
+    return this;
+  }
+
+  /**
+   * Sends the requests through the pooled connections of the transport instead of a new {@link
+   * java.net.HttpURLConnection} per request. The transport is not closed by the clients.
+   */
+  public RegistryClientBuilder withTransport(HttpTransport transport) {
+    this.transport = transport;
+    return this;
+  }
+
+  public <T> T build(Class<T> clazz) {
+    Preconditions.checkNotNull(url, "The URL of the registry is required");
+    if (responseCache == null && transport == null) {
+      return clientBuilder.build(clazz);
+    }
+
+    Client client = transport != null ? transport.client() : new Client.Default(null, null);
+    if (responseCache != null) {
+      client = new CachingClient(client, responseCache);
+    }
+
+    Feign.Builder builder = Feign.builder();
+    if (transport != null) {
+      builder.options(transport.options());
+    }
+    if (requestInterceptor != null) {
+      builder.requestInterceptor(requestInterceptor);
+    }
+    if (retryer != null) {
+      builder.retryer(retryer);
+    }
+    return builder
+        .client(client)
+        .contract(new ClientContract())
+        .encoder(new JacksonEncoder(objectMapper))
+        .decoder(new JacksonDecoder(objectMapper))
+        .errorDecoder(new ClientErrorDecoder())
+        .decode404()
+        .target(clazz, url);
+  }
+
+  /**
+   * Builds a client whose methods return {@link java.util.concurrent.CompletableFuture}s, like the
+   * {@link AsyncRegistryClient}. It requires a transport, and the response cache and the retryer
+   * are not used.
+   */
+  public <T> T buildAsync(Class<T> clazz) {
+    Preconditions.checkNotNull(url, "The URL of the registry is required");
+    Preconditions.checkState(transport != null, "Async clients require a transport");
+
+    AsyncFeign.AsyncBuilder<Object> builder = AsyncFeign.asyncBuilder();
+    if (requestInterceptor != null) {
+      builder.requestInterceptor(requestInterceptor);
+    }
+    return builder
+        .client(transport.asyncClient())
+        .options(transport.options())
+        .contract(new ClientContract())
+        .encoder(new JacksonEncoder(objectMapper))
+        .decoder(new JacksonDecoder(objectMapper))
+        .errorDecoder(new ClientErrorDecoder())
+        .decode404()
+        .target(clazz, url);
+  }
+}
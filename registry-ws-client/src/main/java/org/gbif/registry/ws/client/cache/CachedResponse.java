@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.cache;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import feign.Request;
+import feign.Response;
+
+/**
+ * A stored response with its validators and the time until it can be served without revalidating
+ * it with the server.
+ */
+final class CachedResponse {
+
+  static final String CACHE_CONTROL = "Cache-Control";
+  static final String ETAG = "ETag";
+  static final String LAST_MODIFIED = "Last-Modified";
+  private static final String EXPIRES = "Expires";
+  private static final String DATE = "Date";
+  private static final String AGE = "Age";
+
+  private final int status;
+  private final String reason;
+  private final Map<String, Collection<String>> headers;
+  private final byte[] body;
+  private final String variant;
+  private final long freshUntil;
+
+  private CachedResponse(
+      int status,
+      String reason,
+      Map<String, Collection<String>> headers,
+      byte[] body,
+      String variant,
+      long freshUntil) {
+    this.status = status;
+    this.reason = reason;
+    this.headers = headers;
+    this.body = body;
+    this.variant = variant;
+    this.freshUntil = freshUntil;
+  }
+
+  /**
+   * Whether a response can be stored. Responses marked as no-store are never stored, and the rest
+   * need validators or some freshness to be worth storing.
+   */
+  static boolean isStorable(Response response, long defaultMaxAgeMillis) {
+    if (response.status() != 200 || hasDirective(response.headers(), "no-store")) {
+      return false;
+    }
+    return header(response.headers(), ETAG) != null
+        || header(response.headers(), LAST_MODIFIED) != null
+        || freshnessLifetime(response.headers(), defaultMaxAgeMillis) > 0;
+  }
+
+  static CachedResponse create(
+      Response response, byte[] body, String variant, long now, long defaultMaxAgeMillis) {
+    Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.putAll(response.headers());
+    return new CachedResponse(
+        response.status(),
+        response.reason(),
+        Collections.unmodifiableMap(headers),
+        body,
+        variant,
+        now + freshnessLifetime(headers, defaultMaxAgeMillis));
+  }
+
+  /**
+   * Returns a copy of this response updated with the headers of a 304 response to a revalidation,
+   * as they carry the new validators and freshness.
+   */
+  CachedResponse revalidated(
+      Map<String, Collection<String>> notModifiedHeaders, long now, long defaultMaxAgeMillis) {
+    Map<String, Collection<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    merged.putAll(headers);
+    merged.putAll(notModifiedHeaders);
+    return new CachedResponse(
+        status,
+        reason,
+        Collections.unmodifiableMap(merged),
+        body,
+        variant,
+        now + freshnessLifetime(merged, defaultMaxAgeMillis));
+  }
+
+  boolean isFresh(long now) {
+    return now < freshUntil;
+  }
+
+  String getVariant() {
+    return variant;
+  }
+
+  String getETag() {
+    return header(headers, ETAG);
+  }
+
+  String getLastModified() {
+    return header(headers, LAST_MODIFIED);
+  }
+
+  int weight() {
+    return body.length;
+  }
+
+  Response toResponse(Request request) {
+    return Response.builder()
+        .status(status)
+        .reason(reason)
+        .headers(headers)
+        .body(body)
+        .request(request)
+        .build();
+  }
+
+  /**
+   * Milliseconds that a response can be served without revalidating it, using the max-age or the
+   * Expires header, or the default if none of them is present.
+   */
+  private static long freshnessLifetime(
+      Map<String, Collection<String>> headers, long defaultMaxAgeMillis) {
+    if (hasDirective(headers, "no-cache")) {
+      return 0;
+    }
+
+    long age = parseSeconds(header(headers, AGE)) * 1000;
+    String maxAge = directiveValue(headers, "max-age");
+    if (maxAge != null) {
+      return Math.max(0, parseSeconds(maxAge) * 1000 - age);
+    }
+
+    String expires = header(headers, EXPIRES);
+    if (expires != null) {
+      Long expiresTime = parseDate(expires);
+      Long date = parseDate(header(headers, DATE));
+      if (expiresTime == null || date == null) {
+        // invalid dates mean the response is already expired
+        return 0;
+      }
+      return Math.max(0, expiresTime - date - age);
+    }
+
+    return defaultMaxAgeMillis;
+  }
+
+  private static boolean hasDirective(Map<String, Collection<String>> headers, String directive) {
+    return directiveValue(headers, directive) != null;
+  }
+
+  /** Value of a Cache-Control directive, empty if it has no value or null if not present. */
+  private static String directiveValue(Map<String, Collection<String>> headers, String directive) {
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      if (!CACHE_CONTROL.equalsIgnoreCase(header.getKey())) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        for (String token : value.split(",")) {
+          String[] parts = token.trim().split("=", 2);
+          if (parts[0].trim().equalsIgnoreCase(directive)) {
+            return parts.length > 1 ? parts[1].trim().replace("\"", "") : "";
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  static String header(Map<String, Collection<String>> headers, String name) {
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+        return header.getValue().iterator().next();
+      }
+    }
+    return null;
+  }
+
+  private static long parseSeconds(String value) {
+    if (value == null || value.isEmpty()) {
+      return 0;
+    }
+    try {
+      return Math.max(0, Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static Long parseDate(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+          .toInstant()
+          .toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Feign {@link Client} that stores the GET responses in a {@link ResponseCache} and follows the
+ * HTTP caching rules of a private cache:
+ *
+ * <ul>
+ *   <li>Fresh responses, according to their Cache-Control or Expires headers, are served without
+ *       contacting the server.
+ *   <li>Stale responses are revalidated with If-None-Match and If-Modified-Since, and reused if the
+ *       server answers with a 304.
+ *   <li>Responses marked as no-store are never stored, and no-cache ones are always revalidated.
+ *   <li>Successful requests with any other method evict the stored responses of their path, and of
+ *       its parent and child paths, e.g. a PUT of /dataset/{key} evicts /dataset/{key},
+ *       /dataset/{key}/contact and the /dataset listings.
+ * </ul>
+ */
+public class CachingClient implements Client {
+
+  private static final String IF_NONE_MATCH = "If-None-Match";
+  private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+  private static final String ACCEPT = "Accept";
+  private static final String AUTHORIZATION = "Authorization";
+
+  private final Client delegate;
+  private final ResponseCache cache;
+  private final LongSupplier clock;
+
+  public CachingClient(Client delegate, ResponseCache cache) {
+    this(delegate, cache, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  CachingClient(Client delegate, ResponseCache cache, LongSupplier clock) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.clock = clock;
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    if (request.httpMethod() != Request.HttpMethod.GET) {
+      Response response = delegate.execute(request, options);
+      if (response.status() < 400) {
+        cache.invalidateRelated(request.url());
+      }
+      return response;
+    }
+
+    String variant = variant(request);
+    CachedResponse cached = cache.get(request.url());
+    if (cached != null && !cached.getVariant().equals(variant)) {
+      // stored for another user or media type
+      cached = null;
+    }
+
+    long now = clock.getAsLong();
+    if (cached != null && cached.isFresh(now)) {
+      cache.recordHit();
+      return cached.toResponse(request);
+    }
+
+    if (cached == null) {
+      cache.recordMiss();
+      return store(request, variant, delegate.execute(request, options), now);
+    }
+
+    Response response = delegate.execute(withValidators(request, cached), options);
+    if (response.status() == 304) {
+      cache.recordRevalidation(true);
+      response.close();
+      CachedResponse revalidated =
+          cached.revalidated(response.headers(), now, cache.getDefaultMaxAgeMillis());
+      cache.put(request.url(), revalidated);
+      return revalidated.toResponse(request);
+    }
+    cache.recordRevalidation(false);
+    return store(request, variant, response, now);
+  }
+
+  /** Stores the response if possible, returning a response that can still be read. */
+  private Response store(Request request, String variant, Response response, long now)
+      throws IOException {
+    if (!CachedResponse.isStorable(response, cache.getDefaultMaxAgeMillis())) {
+      cache.invalidate(request.url());
+      return response;
+    }
+
+    Integer length = response.body() != null ? response.body().length() : null;
+    if (length != null && length > cache.getMaxEntryBytes()) {
+      cache.invalidate(request.url());
+      return response;
+    }
+
+    byte[] body;
+    if (response.body() == null) {
+      body = new byte[0];
+    } else {
+      try (InputStream in = response.body().asInputStream()) {
+        body = Util.toByteArray(in);
+      }
+    }
+
+    CachedResponse cached =
+        CachedResponse.create(response, body, variant, now, cache.getDefaultMaxAgeMillis());
+    if (body.length <= cache.getMaxEntryBytes()) {
+      cache.put(request.url(), cached);
+    } else {
+      cache.invalidate(request.url());
+    }
+    return cached.toResponse(request);
+  }
+
+  private static Request withValidators(Request request, CachedResponse cached) {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+    if (cached.getETag() != null) {
+      headers.put(IF_NONE_MATCH, Collections.singletonList(cached.getETag()));
+    }
+    if (cached.getLastModified() != null) {
+      headers.put(IF_MODIFIED_SINCE, Collections.singletonList(cached.getLastModified()));
+    }
+    return Request.create(
+        request.httpMethod(),
+        request.url(),
+        headers,
+        request.body(),
+        request.charset(),
+        request.requestTemplate());
+  }
+
+  /**
+   * Identifies the representation requested, so a response is never served to a different user or
+   * for a different media type. The credentials are hashed to avoid keeping them in memory.
+   */
+  private static String variant(Request request) {
+    String accept = CachedResponse.header(request.headers(), ACCEPT);
+    String authorization = CachedResponse.header(request.headers(), AUTHORIZATION);
+    return (accept != null ? accept : "")
+        + '|'
+        + (authorization != null
+            ? Hashing.murmur3_128().hashString(authorization, UTF_8).toString()
+            : "");
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Size-bounded store of the GET responses used by {@link CachingClient}. The entries are weighted
+ * by the size of their bodies and the least recently used ones are evicted first when the cache is
+ * full. A cache can be shared by several clients, since the entries are keyed by the full URL.
+ */
+public class ResponseCache {
+
+  private final Cache<String, CachedResponse> cache;
+  private final long maxEntryBytes;
+  private final long defaultMaxAgeMillis;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder notModified = new LongAdder();
+
+  /**
+   * Creates a cache that only keeps the responses that have validators or an explicit freshness.
+   *
+   * @param maxBytes max size of all the bodies stored, a tenth of it is the max size of each body
+   */
+  public ResponseCache(long maxBytes) {
+    this(maxBytes, Math.max(1, maxBytes / 10), Duration.ZERO);
+  }
+
+  /**
+   * @param maxBytes max size of all the bodies stored
+   * @param maxEntryBytes responses bigger than this are not stored
+   * @param defaultMaxAge freshness of the responses that don't have a max-age or expiry date, zero
+   *     to always revalidate them
+   */
+  public ResponseCache(long maxBytes, long maxEntryBytes, Duration defaultMaxAge) {
+    Preconditions.checkArgument(maxBytes > 0, "The max size of the cache must be positive");
+    Preconditions.checkArgument(
+        maxEntryBytes > 0 && maxEntryBytes <= maxBytes,
+        "The max size of the entries must be positive and not bigger than the cache");
+    Preconditions.checkArgument(
+        defaultMaxAge != null && !defaultMaxAge.isNegative(),
+        "The default max age can't be negative");
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedResponse response) -> response.weight())
+            .build();
+    this.maxEntryBytes = maxEntryBytes;
+    this.defaultMaxAgeMillis = defaultMaxAge.toMillis();
+  }
+
+  CachedResponse get(String url) {
+    return cache.getIfPresent(url);
+  }
+
+  void put(String url, CachedResponse response) {
+    cache.put(url, response);
+  }
+
+  long getMaxEntryBytes() {
+    return maxEntryBytes;
+  }
+
+  long getDefaultMaxAgeMillis() {
+    return defaultMaxAgeMillis;
+  }
+
+  /** Evicts the response of the URL, if present. */
+  public void invalidate(String url) {
+    cache.invalidate(url);
+  }
+
+  /**
+   * Evicts the responses of the path of the URL and of its parent and child paths, whatever their
+   * query parameters, since a change of a resource can be seen in all of them.
+   */
+  public void invalidateRelated(String url) {
+    String path = path(url);
+    cache
+        .asMap()
+        .keySet()
+        .removeIf(
+            key -> {
+              String keyPath = path(key);
+              return keyPath.equals(path)
+                  || keyPath.startsWith(path + '/')
+                  || path.startsWith(keyPath + '/');
+            });
+  }
+
+  /** Evicts all the responses. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static String path(String url) {
+    int queryStart = url.indexOf('?');
+    String path = queryStart >= 0 ? url.substring(0, queryStart) : url;
+    return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+  }
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordRevalidation(boolean wasNotModified) {
+    revalidations.increment();
+    if (wasNotModified) {
+      notModified.increment();
+    }
+  }
+
+  /** Snapshot of the counters of the cache. */
+  public Stats getStats() {
+    return new Stats(
+        hits.sum(), misses.sum(), revalidations.sum(), notModified.sum(), cache.size());
+  }
+
+  /** Counters of the cache since it was created. */
+  public static class Stats {
+
+    private final long hits;
+    private final long misses;
+    private final long revalidations;
+    private final long notModified;
+    private final long size;
+
+    Stats(long hits, long misses, long revalidations, long notModified, long size) {
+      this.hits = hits;
+      this.misses = misses;
+      this.revalidations = revalidations;
+      this.notModified = notModified;
+      this.size = size;
+    }
+
+    /** Requests served from the cache without contacting the server. */
+    public long getHits() {
+      return hits;
+    }
+
+    /** Requests sent to the server because there was no stored response. */
+    public long getMisses() {
+      return misses;
+    }
+
+    /** Conditional requests sent to the server to revalidate a stale response. */
+    public long getRevalidations() {
+      return revalidations;
+    }
+
+    /** Revalidations answered with a 304, so the stored response was reused. */
+    public long getNotModified() {
+      return notModified;
+    }
+
+    /** Number of responses stored. */
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{hits="
+          + hits
+          + ", misses="
+          + misses
+          + ", revalidations="
+          + revalidations
+          + ", notModified="
+          + notModified
+          + ", size="
+          + size
+          + '}';
+    }
+  }
+}
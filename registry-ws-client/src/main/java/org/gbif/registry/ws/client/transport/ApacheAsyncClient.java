@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+
+import com.google.common.io.ByteStreams;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+
+/**
+ * Feign {@link AsyncClient} over the non-blocking Apache {@link CloseableHttpAsyncClient}, so the
+ * requests don't hold a thread while they wait for the response. The responses are buffered in
+ * memory before they are decoded.
+ */
+class ApacheAsyncClient implements AsyncClient<Object> {
+
+  private final CloseableHttpAsyncClient client;
+  private final HttpTransportConfig config;
+
+  ApacheAsyncClient(CloseableHttpAsyncClient client, HttpTransportConfig config) {
+    this.client = client;
+    this.config = config;
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(
+      Request request, Request.Options options, Optional<Object> requestContext) {
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    Future<HttpResponse> httpFuture =
+        client.execute(
+            toHttpRequest(request, options),
+            new FutureCallback<HttpResponse>() {
+              @Override
+              public void completed(HttpResponse httpResponse) {
+                try {
+                  result.complete(toResponse(httpResponse, request));
+                } catch (Exception e) {
+                  result.completeExceptionally(e);
+                }
+              }
+
+              @Override
+              public void failed(Exception e) {
+                result.completeExceptionally(e);
+              }
+
+              @Override
+              public void cancelled() {
+                result.cancel(false);
+              }
+            });
+
+    // cancelling the returned future aborts the request too
+    result.whenComplete(
+        (response, e) -> {
+          if (result.isCancelled()) {
+            httpFuture.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private HttpUriRequest toHttpRequest(Request request, Request.Options options) {
+    RequestBuilder builder =
+        RequestBuilder.create(request.httpMethod().name())
+            .setUri(request.url())
+            .setConfig(
+                RequestConfig.custom()
+                    .setConnectTimeout(options.connectTimeoutMillis())
+                    .setSocketTimeout(options.readTimeoutMillis())
+                    .setConnectionRequestTimeout(
+                        (int) config.getConnectionRequestTimeout().toMillis())
+                    .setRedirectsEnabled(options.isFollowRedirects())
+                    .build());
+
+    boolean acceptEncoding = false;
+    for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+      // the client sets the content length itself and fails if it is already present
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+        continue;
+      }
+      acceptEncoding |= HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(header.getKey());
+      for (String value : header.getValue()) {
+        builder.addHeader(header.getKey(), value);
+      }
+    }
+    // unlike the blocking client, the async one doesn't handle the compression by itself
+    if (config.isCompression() && !acceptEncoding) {
+      builder.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    }
+
+    if (request.body() != null) {
+      builder.setEntity(new ByteArrayEntity(request.body()));
+    }
+    return builder.build();
+  }
+
+  private static Response toResponse(HttpResponse httpResponse, Request request)
+      throws IOException {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>();
+    boolean gzipped = false;
+    for (Header header : httpResponse.getAllHeaders()) {
+      if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.getName())
+          && "gzip".equalsIgnoreCase(header.getValue().trim())) {
+        gzipped = true;
+        continue;
+      }
+      headers.computeIfAbsent(header.getName(), k -> new ArrayList<>()).add(header.getValue());
+    }
+
+    byte[] body =
+        httpResponse.getEntity() != null ? EntityUtils.toByteArray(httpResponse.getEntity()) : null;
+    if (gzipped && body != null) {
+      body = gunzip(body);
+      headers.keySet().removeIf(HttpHeaders.CONTENT_LENGTH::equalsIgnoreCase);
+    }
+
+    return Response.builder()
+        .status(httpResponse.getStatusLine().getStatusCode())
+        .reason(httpResponse.getStatusLine().getReasonPhrase())
+        .headers(headers)
+        .body(body)
+        .request(request)
+        .build();
+  }
+
+  private static byte[] gunzip(byte[] body) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+}
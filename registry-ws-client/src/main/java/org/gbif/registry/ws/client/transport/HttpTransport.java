@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+
+import com.google.common.base.Preconditions;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.httpclient.ApacheHttpClient;
+
+/**
+ * Pooled HTTP transport shared by the registry clients built with it, see {@link
+ * org.gbif.registry.ws.client.RegistryClientBuilder#withTransport(HttpTransport)}. The connection
+ * pools are created on first use and released when the transport is closed.
+ */
+public class HttpTransport implements Closeable {
+
+  private final HttpTransportConfig config;
+  private CloseableHttpClient httpClient;
+  private CloseableHttpAsyncClient httpAsyncClient;
+  private boolean closed;
+
+  public HttpTransport() {
+    this(new HttpTransportConfig());
+  }
+
+  public HttpTransport(HttpTransportConfig config) {
+    this.config = Preconditions.checkNotNull(config);
+  }
+
+  public HttpTransportConfig getConfig() {
+    return config;
+  }
+
+  /** Blocking client over the pool of this transport. */
+  public synchronized Client client() {
+    Preconditions.checkState(!closed, "The transport is closed");
+    if (httpClient == null) {
+      httpClient = PooledHttpClientFactory.createClient(config);
+    }
+    return new ApacheHttpClient(httpClient);
+  }
+
+  /** Non-blocking client over the pool of this transport. */
+  public synchronized AsyncClient<Object> asyncClient() {
+    Preconditions.checkState(!closed, "The transport is closed");
+    if (httpAsyncClient == null) {
+      httpAsyncClient = PooledHttpClientFactory.createAsyncClient(config);
+    }
+    return new ApacheAsyncClient(httpAsyncClient, config);
+  }
+
+  /** Timeouts of the requests. */
+  public Request.Options options() {
+    return new Request.Options(
+        (int) config.getConnectTimeout().toMillis(), (int) config.getReadTimeout().toMillis());
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    try {
+      if (httpClient != null) {
+        httpClient.close();
+      }
+    } finally {
+      if (httpAsyncClient != null) {
+        httpAsyncClient.close();
+      }
+    }
+  }
+}
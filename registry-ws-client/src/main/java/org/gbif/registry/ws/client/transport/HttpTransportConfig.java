@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.transport;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Configuration of the pooled HTTP transport of the registry clients. The defaults suit a single
+ * registry host; high fan-out callers usually only need to raise the connection limits.
+ */
+public class HttpTransportConfig {
+
+  private int maxConnections = 200;
+  private int maxConnectionsPerRoute = 50;
+  private final Map<String, Integer> routeMaxConnections = new HashMap<>();
+  private Duration connectTimeout = Duration.ofSeconds(10);
+  private Duration readTimeout = Duration.ofSeconds(60);
+  private Duration connectionRequestTimeout = Duration.ofSeconds(10);
+  private Duration keepAlive = Duration.ofSeconds(30);
+  private boolean compression = true;
+  private int ioThreads = Runtime.getRuntime().availableProcessors();
+
+  /** Max connections open in total. */
+  public HttpTransportConfig withMaxConnections(int maxConnections) {
+    Preconditions.checkArgument(maxConnections > 0, "maxConnections must be positive");
+    this.maxConnections = maxConnections;
+    return this;
+  }
+
+  /** Max connections open to the same host, unless a specific limit is set for it. */
+  public HttpTransportConfig withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+    Preconditions.checkArgument(
+        maxConnectionsPerRoute > 0, "maxConnectionsPerRoute must be positive");
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    return this;
+  }
+
+  /**
+   * Max connections open to a specific host.
+   *
+   * @param route scheme, host and optional port of the host, e.g. https://api.gbif.org
+   */
+  public HttpTransportConfig withRouteMaxConnections(String route, int maxConnections) {
+    Preconditions.checkArgument(maxConnections > 0, "maxConnections must be positive");
+    this.routeMaxConnections.put(route, maxConnections);
+    return this;
+  }
+
+  public HttpTransportConfig withConnectTimeout(Duration connectTimeout) {
+    this.connectTimeout = connectTimeout;
+    return this;
+  }
+
+  /** Max time waiting for data once the connection is established. */
+  public HttpTransportConfig withReadTimeout(Duration readTimeout) {
+    this.readTimeout = readTimeout;
+    return this;
+  }
+
+  /** Max time waiting for a free connection of the pool. */
+  public HttpTransportConfig withConnectionRequestTimeout(Duration connectionRequestTimeout) {
+    this.connectionRequestTimeout = connectionRequestTimeout;
+    return this;
+  }
+
+  /** Time that idle connections are kept open, if the server doesn't ask for a shorter time. */
+  public HttpTransportConfig withKeepAlive(Duration keepAlive) {
+    this.keepAlive = keepAlive;
+    return this;
+  }
+
+  /** Whether to ask for gzip compressed responses. */
+  public HttpTransportConfig withCompression(boolean compression) {
+    this.compression = compression;
+    return this;
+  }
+
+  /** Threads that perform the I/O of the async clients. */
+  public HttpTransportConfig withIoThreads(int ioThreads) {
+    Preconditions.checkArgument(ioThreads > 0, "ioThreads must be positive");
+    this.ioThreads = ioThreads;
+    return this;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public Map<String, Integer> getRouteMaxConnections() {
+    return Collections.unmodifiableMap(routeMaxConnections);
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public Duration getReadTimeout() {
+    return readTimeout;
+  }
+
+  public Duration getConnectionRequestTimeout() {
+    return connectionRequestTimeout;
+  }
+
+  public Duration getKeepAlive() {
+    return keepAlive;
+  }
+
+  public boolean isCompression() {
+    return compression;
+  }
+
+  public int getIoThreads() {
+    return ioThreads;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.transport;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+
+/**
+ * Creates the pooled Apache HTTP clients of the {@link HttpTransport}. The connections are kept
+ * alive and reused across requests, limited in total and per host as set in the {@link
+ * HttpTransportConfig}.
+ */
+final class PooledHttpClientFactory {
+
+  private PooledHttpClientFactory() {}
+
+  /** Creates a blocking client. */
+  static CloseableHttpClient createClient(HttpTransportConfig config) {
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager(
+            config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+    connectionManager.setMaxTotal(config.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+    for (Map.Entry<String, Integer> route : config.getRouteMaxConnections().entrySet()) {
+      connectionManager.setMaxPerRoute(toRoute(route.getKey()), route.getValue());
+    }
+    // stale connections are checked before being leased if they were idle for a while
+    connectionManager.setValidateAfterInactivity(2000);
+
+    HttpClientBuilder builder =
+        HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig(config))
+            .setKeepAliveStrategy(keepAliveStrategy(config))
+            .evictIdleConnections(config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS)
+            .evictExpiredConnections();
+    if (!config.isCompression()) {
+      builder.disableContentCompression();
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates and starts a non-blocking client, which can keep many requests in flight with the few
+   * I/O threads set in the config.
+   */
+  static CloseableHttpAsyncClient createAsyncClient(HttpTransportConfig config) {
+    PoolingNHttpClientConnectionManager connectionManager;
+    try {
+      connectionManager =
+          new PoolingNHttpClientConnectionManager(
+              new DefaultConnectingIOReactor(
+                  IOReactorConfig.custom()
+                      .setIoThreadCount(config.getIoThreads())
+                      .setConnectTimeout((int) config.getConnectTimeout().toMillis())
+                      .setSoTimeout((int) config.getReadTimeout().toMillis())
+                      .setSoKeepAlive(true)
+                      .build()));
+    } catch (IOReactorException e) {
+      throw new UncheckedIOException("Can't create the I/O reactor of the HTTP client", e);
+    }
+    connectionManager.setMaxTotal(config.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+    for (Map.Entry<String, Integer> route : config.getRouteMaxConnections().entrySet()) {
+      connectionManager.setMaxPerRoute(toRoute(route.getKey()), route.getValue());
+    }
+
+    CloseableHttpAsyncClient client =
+        HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig(config))
+            .setKeepAliveStrategy(keepAliveStrategy(config))
+            .build();
+    client.start();
+    return client;
+  }
+
+  private static RequestConfig requestConfig(HttpTransportConfig config) {
+    return RequestConfig.custom()
+        .setConnectTimeout((int) config.getConnectTimeout().toMillis())
+        .setSocketTimeout((int) config.getReadTimeout().toMillis())
+        .setConnectionRequestTimeout((int) config.getConnectionRequestTimeout().toMillis())
+        .setContentCompressionEnabled(config.isCompression())
+        .build();
+  }
+
+  /** Uses the keep-alive time of the server if it is shorter than the configured one. */
+  private static ConnectionKeepAliveStrategy keepAliveStrategy(HttpTransportConfig config) {
+    long keepAlive = config.getKeepAlive().toMillis();
+    return (response, context) -> {
+      long serverKeepAlive =
+          DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+    };
+  }
+
+  /**
+   * Routes are matched by scheme, host and port, so the default port of the scheme is set when it
+   * is missing, as the clients do.
+   */
+  private static HttpRoute toRoute(String route) {
+    HttpHost host = HttpHost.create(route);
+    boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+    if (host.getPort() <= 0) {
+      host = new HttpHost(host.getHostName(), secure ? 443 : 80, host.getSchemeName());
+    }
+    return new HttpRoute(host, null, secure);
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.cache;
+
+import org.gbif.api.model.registry.Node;
+import org.gbif.registry.ws.client.NodeClient;
+import org.gbif.registry.ws.client.RegistryClientBuilder;
+import org.gbif.ws.json.JacksonJsonObjectMapperProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Client;
+import feign.Feign;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Tests the {@link CachingClient} against a stub of the registry node resource. */
+public class CachingClientTest {
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      JacksonJsonObjectMapperProvider.getObjectMapperWithBuilderSupport();
+  private static final UUID NODE_KEY = UUID.randomUUID();
+
+  private HttpServer server;
+  private final List<String> conditionalHeaders = new CopyOnWriteArrayList<>();
+  private final Map<String, String> responseHeaders = new ConcurrentHashMap<>();
+  private volatile String etag = "\"v1\"";
+  private volatile String title = "Node v1";
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+
+  @BeforeEach
+  public void startStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/node/", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  public void stopStub() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testFreshResponsesAreServedFromTheCache() {
+    responseHeaders.put("Cache-Control", "max-age=60");
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    NodeClient client =
+        new RegistryClientBuilder().withUrl(url()).withResponseCache(cache).build(NodeClient.class);
+
+    assertEquals("Node v1", client.get(NODE_KEY).getTitle());
+    assertEquals("Node v1", client.get(NODE_KEY).getTitle());
+
+    assertEquals(1, conditionalHeaders.size());
+    assertEquals(1, cache.getStats().getHits());
+    assertEquals(1, cache.getStats().getMisses());
+  }
+
+  @Test
+  public void testStaleResponsesAreRevalidated() {
+    responseHeaders.put("Cache-Control", "max-age=60");
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    NodeClient client = client(cache);
+
+    assertEquals("Node v1", client.get(NODE_KEY).getTitle());
+
+    // stale but not modified
+    clock.addAndGet(61_000);
+    assertEquals("Node v1", client.get(NODE_KEY).getTitle());
+    assertEquals("\"v1\"", conditionalHeaders.get(1));
+    assertEquals(1, cache.getStats().getNotModified());
+
+    // fresh again after the revalidation
+    assertEquals("Node v1", client.get(NODE_KEY).getTitle());
+    assertEquals(2, conditionalHeaders.size());
+
+    // stale and modified
+    clock.addAndGet(61_000);
+    etag = "\"v2\"";
+    title = "Node v2";
+    assertEquals("Node v2", client.get(NODE_KEY).getTitle());
+    assertEquals(2, cache.getStats().getRevalidations());
+    assertEquals(1, cache.getStats().getNotModified());
+    assertEquals(1, cache.getStats().getHits());
+  }
+
+  @Test
+  public void testNoCacheResponsesAreAlwaysRevalidated() {
+    responseHeaders.put("Cache-Control", "no-cache");
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    NodeClient client = client(cache);
+
+    client.get(NODE_KEY);
+    client.get(NODE_KEY);
+
+    assertEquals(2, conditionalHeaders.size());
+    assertEquals("", conditionalHeaders.get(0));
+    assertEquals("\"v1\"", conditionalHeaders.get(1));
+    assertEquals(0, cache.getStats().getHits());
+    assertEquals(1, cache.getStats().getNotModified());
+  }
+
+  @Test
+  public void testNoStoreResponsesAreNotStored() {
+    responseHeaders.put("Cache-Control", "no-store");
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    NodeClient client = client(cache);
+
+    client.get(NODE_KEY);
+    client.get(NODE_KEY);
+
+    assertEquals("", conditionalHeaders.get(1));
+    assertEquals(0, cache.getStats().getSize());
+    assertEquals(2, cache.getStats().getMisses());
+  }
+
+  @Test
+  public void testUpdatesEvictTheResponse() {
+    responseHeaders.put("Cache-Control", "max-age=60");
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    NodeClient client = client(cache);
+
+    Node node = client.get(NODE_KEY);
+    client.update(node);
+    client.get(NODE_KEY);
+
+    assertEquals(2, cache.getStats().getMisses());
+    assertEquals(0, cache.getStats().getHits());
+  }
+
+  @Test
+  public void testNotFoundIsNotStored() {
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    NodeClient client = client(cache);
+
+    assertNull(client.get(UUID.randomUUID()));
+    assertEquals(0, cache.getStats().getSize());
+  }
+
+  private NodeClient client(ResponseCache cache) {
+    return Feign.builder()
+        .client(new CachingClient(new Client.Default(null, null), cache, clock::get))
+        .contract(new SpringMvcContract())
+        .encoder(new JacksonEncoder(OBJECT_MAPPER))
+        .decoder(new JacksonDecoder(OBJECT_MAPPER))
+        .decode404()
+        .target(NodeClient.class, url());
+  }
+
+  private String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    if ("PUT".equals(exchange.getRequestMethod())) {
+      exchange.sendResponseHeaders(204, -1);
+      exchange.close();
+      return;
+    }
+    if (!path.equals("/node/" + NODE_KEY)) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+
+    String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+    conditionalHeaders.add(ifNoneMatch != null ? ifNoneMatch : "");
+    responseHeaders.forEach((k, v) -> exchange.getResponseHeaders().set(k, v));
+    exchange.getResponseHeaders().set("ETag", etag);
+    if (etag.equals(ifNoneMatch)) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    Node node = new Node();
+    node.setKey(NODE_KEY);
+    node.setTitle(title);
+    byte[] body = OBJECT_MAPPER.writeValueAsString(node).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
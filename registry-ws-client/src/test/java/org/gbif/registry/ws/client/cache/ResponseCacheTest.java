@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.cache;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import feign.Request;
+import feign.Response;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Tests the {@link ResponseCache}. */
+public class ResponseCacheTest {
+
+  private static final String API = "http://localhost/v1/";
+
+  @Test
+  public void testInvalidateRelated() {
+    ResponseCache cache = new ResponseCache(1024 * 1024);
+    put(cache, API + "dataset/k1");
+    put(cache, API + "dataset/k1/contact");
+    put(cache, API + "dataset?limit=10");
+    put(cache, API + "dataset/k10");
+    put(cache, API + "node/k1");
+
+    cache.invalidateRelated(API + "dataset/k1?validate=true");
+
+    // the resource, its sub-resources and the listings are evicted
+    assertNull(cache.get(API + "dataset/k1"));
+    assertNull(cache.get(API + "dataset/k1/contact"));
+    assertNull(cache.get(API + "dataset?limit=10"));
+    // other resources are kept
+    assertNotNull(cache.get(API + "dataset/k10"));
+    assertNotNull(cache.get(API + "node/k1"));
+  }
+
+  @Test
+  public void testSmallCache() {
+    assertEquals(1, new ResponseCache(5).getMaxEntryBytes());
+    assertEquals(10, new ResponseCache(100).getMaxEntryBytes());
+    assertThrows(IllegalArgumentException.class, () -> new ResponseCache(0));
+  }
+
+  private static void put(ResponseCache cache, String url) {
+    Response response =
+        Response.builder()
+            .status(200)
+            .headers(
+                Collections.singletonMap(
+                    CachedResponse.CACHE_CONTROL, Collections.singletonList("max-age=60")))
+            .request(
+                Request.create(
+                    Request.HttpMethod.GET, url, Collections.emptyMap(), null, UTF_8, null))
+            .build();
+    cache.put(url, CachedResponse.create(response, new byte[0], "", 0, 0));
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.client.transport;
+
+import org.gbif.api.model.registry.Node;
+import org.gbif.registry.ws.client.AsyncRegistryClient;
+import org.gbif.registry.ws.client.NodeClient;
+import org.gbif.registry.ws.client.RegistryClientBuilder;
+import org.gbif.ws.json.JacksonJsonObjectMapperProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Tests the clients built with an {@link HttpTransport} against a stub of the node resource. */
+public class HttpTransportTest {
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      JacksonJsonObjectMapperProvider.getObjectMapperWithBuilderSupport();
+  private static final UUID NODE_KEY = UUID.randomUUID();
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private HttpTransport transport;
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger gzippedResponses = new AtomicInteger();
+
+  @BeforeEach
+  public void startStub() throws IOException {
+    serverExecutor = Executors.newFixedThreadPool(20);
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/node/", this::handle);
+    server.setExecutor(serverExecutor);
+    server.start();
+    transport =
+        new HttpTransport(
+            new HttpTransportConfig().withMaxConnectionsPerRoute(10).withIoThreads(2));
+  }
+
+  @AfterEach
+  public void stopStub() throws IOException {
+    transport.close();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testConnectionsAreReused() {
+    NodeClient client =
+        new RegistryClientBuilder().withUrl(url()).withTransport(transport).build(NodeClient.class);
+
+    for (int i = 0; i < 20; i++) {
+      assertEquals("Node", client.get(NODE_KEY).getTitle());
+    }
+
+    assertEquals(1, clientPorts.size());
+    assertEquals(20, gzippedResponses.get());
+  }
+
+  @Test
+  public void testNotFound() throws Exception {
+    NodeClient client =
+        new RegistryClientBuilder().withUrl(url()).withTransport(transport).build(NodeClient.class);
+    AsyncRegistryClient asyncClient =
+        new RegistryClientBuilder()
+            .withUrl(url())
+            .withTransport(transport)
+            .buildAsync(AsyncRegistryClient.class);
+
+    assertNull(client.get(UUID.randomUUID()));
+    assertNull(asyncClient.getNode(UUID.randomUUID()).get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testConcurrentAsyncLookups() {
+    AsyncRegistryClient client =
+        new RegistryClientBuilder()
+            .withUrl(url())
+            .withTransport(transport)
+            .buildAsync(AsyncRegistryClient.class);
+
+    List<CompletableFuture<Node>> nodes =
+        IntStream.range(0, 200)
+            .mapToObj(i -> client.getNode(NODE_KEY))
+            .collect(Collectors.toList());
+    CompletableFuture.allOf(nodes.toArray(new CompletableFuture[0])).join();
+
+    nodes.forEach(n -> assertEquals("Node", n.join().getTitle()));
+    // the requests share the connections of the route
+    assertTrue(clientPorts.size() <= 10);
+    assertEquals(200, gzippedResponses.get());
+  }
+
+  private String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    if (!exchange.getRequestURI().getPath().equals("/node/" + NODE_KEY)) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+
+    Node node = new Node();
+    node.setKey(NODE_KEY);
+    node.setTitle("Node");
+    byte[] body = OBJECT_MAPPER.writeValueAsString(node).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      gzippedResponses.incrementAndGet();
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      exchange.sendResponseHeaders(200, 0);
+      try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+        out.write(body);
+      }
+    } else {
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+}
@@ -43,6 +43,7 @@ import org.gbif.registry.doi.DoiIssuingService;
 import org.gbif.registry.doi.DownloadDoiDataCiteHandlingService;
 import org.gbif.registry.persistence.mapper.DatasetOccurrenceDownloadMapper;
 import org.gbif.registry.persistence.mapper.OccurrenceDownloadMapper;
+import org.gbif.registry.persistence.service.DatasetUsagesCopyLoader;
 import org.gbif.registry.ws.export.CsvWriter;
 import org.gbif.registry.ws.provider.PartialDate;
 import org.gbif.registry.ws.util.DateUtils;
@@ -58,18 +59,22 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 import javax.validation.groups.Default;
@@ -81,6 +86,7 @@ import org.slf4j.MarkerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -95,11 +101,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.Iterators;
 
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
@@ -133,13 +140,15 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
 
   private final OccurrenceDownloadMapper occurrenceDownloadMapper;
   private final DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper;
+  private final DatasetUsagesCopyLoader datasetUsagesCopyLoader;
   private final IdentityAccessService identityService;
   private final DoiIssuingService doiIssuingService;
   private final DownloadDoiDataCiteHandlingService doiDataCiteHandlingService;
   private final DownloadType downloadType;
+  private final DownloadStatisticsCache statisticsCache;
 
-  // Page size to iterate over dataset usages
-  private static final int BATCH_SIZE = 5_000;
+  // Number of dataset usages above which they are loaded through COPY
+  private static final int COPY_THRESHOLD = 1_000;
 
   // Page size to iterate over download stats export service
   private static final int STATS_EXPORT_LIMIT = 7_500;
@@ -163,6 +172,10 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
   private static final EnumSet<Download.Status> FAILED_STATES =
       EnumSet.of(Download.Status.KILLED, Download.Status.CANCELLED, Download.Status.FAILED);
 
+  // Statuses of the downloads counted in the download statistics
+  private static final EnumSet<Download.Status> STATISTICS_STATES =
+      EnumSet.of(Download.Status.SUCCEEDED, Download.Status.FILE_ERASED);
+
   @Target({ElementType.METHOD, ElementType.TYPE})
   @Retention(RetentionPolicy.RUNTIME)
   @Parameter(name = "key", description = "The key of the download", in = ParameterIn.PATH)
@@ -203,15 +216,19 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
   public BaseDownloadResource(
       OccurrenceDownloadMapper occurrenceDownloadMapper,
       DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper,
+      DatasetUsagesCopyLoader datasetUsagesCopyLoader,
       DoiIssuingService doiIssuingService,
       @Lazy DownloadDoiDataCiteHandlingService doiDataCiteHandlingService,
       @Qualifier("baseIdentityAccessService") IdentityAccessService identityService,
+      DownloadStatisticsCache statisticsCache,
       DownloadType downloadType) {
     this.occurrenceDownloadMapper = occurrenceDownloadMapper;
     this.datasetOccurrenceDownloadMapper = datasetOccurrenceDownloadMapper;
+    this.datasetUsagesCopyLoader = datasetUsagesCopyLoader;
     this.doiIssuingService = doiIssuingService;
     this.doiDataCiteHandlingService = doiDataCiteHandlingService;
     this.identityService = identityService;
+    this.statisticsCache = statisticsCache;
     this.downloadType = downloadType;
   }
 
@@ -526,7 +543,30 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
       download.setDoi(null);
     }
 
+    // the statistics are updated only when the download enters or leaves a counted status, other
+    // changes are fixed by the periodic reconciliation
+    boolean wasCounted = STATISTICS_STATES.contains(currentDownload.getStatus());
+    boolean isCounted = STATISTICS_STATES.contains(download.getStatus());
+    if (wasCounted && !isCounted) {
+      updateStatistics(download.getKey(), -1);
+    }
+
     occurrenceDownloadMapper.update(download);
+
+    if (!wasCounted && isCounted) {
+      updateStatistics(download.getKey(), 1);
+    }
+  }
+
+  /**
+   * Adds (sign 1) or subtracts (sign -1) the contribution of a download to the statistics. It has no
+   * effect if the download is not in a counted status.
+   */
+  private void updateStatistics(String downloadKey, int sign) {
+    occurrenceDownloadMapper.addToDownloadStats(downloadKey, sign);
+    occurrenceDownloadMapper.addToDownloadUserStats(downloadKey, sign);
+    occurrenceDownloadMapper.addToDownloadSourceStats(downloadKey, sign);
+    statisticsCache.invalidate();
   }
 
   @Override
@@ -784,12 +824,18 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
     LOG.debug("Dataset citations for download key {}:", downloadKey);
     datasetCitations.forEach((key, value) -> LOG.debug("{} - {}", key, value));
 
-    Iterators.partition(datasetCitations.entrySet().iterator(), BATCH_SIZE)
-        .forEachRemaining(
-            batch ->
-                datasetOccurrenceDownloadMapper.createOrUpdateUsages(
-                    downloadKey,
-                    batch.stream().collect(Collectors.toMap(Entry::getKey, Entry::getValue))));
+    // if the download is already counted in the statistics the usages are replaced there too
+    occurrenceDownloadMapper.addToDownloadStats(downloadKey, -1);
+
+    if (datasetCitations.size() <= COPY_THRESHOLD) {
+      // a single statement is cheaper than setting up the COPY for small downloads
+      datasetOccurrenceDownloadMapper.createOrUpdateUsages(downloadKey, datasetCitations);
+    } else {
+      datasetUsagesCopyLoader.load(downloadKey, datasetCitations);
+    }
+
+    occurrenceDownloadMapper.addToDownloadStats(downloadKey, 1);
+    statisticsCache.invalidate();
   }
 
   @Override
@@ -872,15 +918,28 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
   @ApiResponse(responseCode = "200", description = "Download statistics.")
   @Docs.DefaultUnsuccessfulReadResponses
   @GetMapping("statistics/downloadsByUserCountry")
+  public Map<Integer, Map<Integer, Long>> getDownloadsByUserCountry(
+      @PartialDate Date fromDate,
+      @PartialDate Date toDate,
+      Country userCountry,
+      WebRequest webRequest) {
+    String country = Optional.ofNullable(userCountry).map(Country::getIso2LetterCode).orElse(null);
+    return cachedStatistics(
+        webRequest,
+        () ->
+            groupByYear(
+                occurrenceDownloadMapper.getDownloadsByUserCountry(
+                    fromDate, toDate, country, downloadType)),
+        "downloadsByUserCountry",
+        fromDate,
+        toDate,
+        country);
+  }
+
   @Override
   public Map<Integer, Map<Integer, Long>> getDownloadsByUserCountry(
-      @PartialDate Date fromDate, @PartialDate Date toDate, Country userCountry) {
-    return groupByYear(
-        occurrenceDownloadMapper.getDownloadsByUserCountry(
-            fromDate,
-            toDate,
-            Optional.ofNullable(userCountry).map(Country::getIso2LetterCode).orElse(null),
-            downloadType));
+      Date fromDate, Date toDate, Country userCountry) {
+    return getDownloadsByUserCountry(fromDate, toDate, userCountry, null);
   }
 
   @Tag(name = "Occurrence download statistics")
@@ -900,11 +959,24 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
   @ApiResponse(responseCode = "200", description = "Download statistics.")
   @Docs.DefaultUnsuccessfulReadResponses
   @GetMapping("statistics/downloadsBySource")
+  public Map<Integer, Map<Integer, Long>> getDownloadsBySource(
+      @PartialDate Date fromDate, @PartialDate Date toDate, String source, WebRequest webRequest) {
+    return cachedStatistics(
+        webRequest,
+        () ->
+            groupByYear(
+                occurrenceDownloadMapper.getDownloadsBySource(
+                    fromDate, toDate, source, downloadType)),
+        "downloadsBySource",
+        fromDate,
+        toDate,
+        source);
+  }
+
   @Override
   public Map<Integer, Map<Integer, Long>> getDownloadsBySource(
-      @PartialDate Date fromDate, @PartialDate Date toDate, String source) {
-    return groupByYear(
-        occurrenceDownloadMapper.getDownloadsBySource(fromDate, toDate, source, downloadType));
+      Date fromDate, Date toDate, String source) {
+    return getDownloadsBySource(fromDate, toDate, source, null);
   }
 
   @Tag(name = "Occurrence download statistics")
@@ -940,21 +1012,38 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
   @ApiResponse(responseCode = "200", description = "Download statistics.")
   @Docs.DefaultUnsuccessfulReadResponses
   @GetMapping("statistics/downloadedRecordsByDataset")
-  @Override
   public Map<Integer, Map<Integer, Long>> getDownloadedRecordsByDataset( // TODO rename method?
       @PartialDate Date fromDate,
       @PartialDate Date toDate,
       Country publishingCountry,
       @RequestParam(value = "datasetKey", required = false) UUID datasetKey,
-      @RequestParam(value = "publishingOrgKey", required = false) UUID publishingOrgKey) {
-    return groupByYear(
-        occurrenceDownloadMapper.getDownloadedRecordsByDataset(
-            fromDate,
-            toDate,
-            Optional.ofNullable(publishingCountry).map(Country::getIso2LetterCode).orElse(null),
-            datasetKey,
-            publishingOrgKey,
-            downloadType));
+      @RequestParam(value = "publishingOrgKey", required = false) UUID publishingOrgKey,
+      WebRequest webRequest) {
+    String country =
+        Optional.ofNullable(publishingCountry).map(Country::getIso2LetterCode).orElse(null);
+    return cachedStatistics(
+        webRequest,
+        () ->
+            groupByYear(
+                occurrenceDownloadMapper.getDownloadedRecordsByDataset(
+                    fromDate, toDate, country, datasetKey, publishingOrgKey, downloadType)),
+        "downloadedRecordsByDataset",
+        fromDate,
+        toDate,
+        country,
+        datasetKey,
+        publishingOrgKey);
+  }
+
+  @Override
+  public Map<Integer, Map<Integer, Long>> getDownloadedRecordsByDataset(
+      Date fromDate,
+      Date toDate,
+      Country publishingCountry,
+      UUID datasetKey,
+      UUID publishingOrgKey) {
+    return getDownloadedRecordsByDataset(
+        fromDate, toDate, publishingCountry, datasetKey, publishingOrgKey, null);
   }
 
   @Tag(name = "Occurrence download statistics")
@@ -990,21 +1079,38 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
   @ApiResponse(responseCode = "200", description = "Download statistics.")
   @Docs.DefaultUnsuccessfulReadResponses
   @GetMapping("statistics/downloadsByDataset")
-  @Override
   public Map<Integer, Map<Integer, Long>> getDownloadsByDataset(
       @PartialDate Date fromDate,
       @PartialDate Date toDate,
       Country publishingCountry,
       @RequestParam(value = "datasetKey", required = false) UUID datasetKey,
-      @RequestParam(value = "publishingOrgKey", required = false) UUID publishingOrgKey) {
-    return groupByYear(
-        occurrenceDownloadMapper.getDownloadsByDataset(
-            fromDate,
-            toDate,
-            Optional.ofNullable(publishingCountry).map(Country::getIso2LetterCode).orElse(null),
-            datasetKey,
-            publishingOrgKey,
-            downloadType));
+      @RequestParam(value = "publishingOrgKey", required = false) UUID publishingOrgKey,
+      WebRequest webRequest) {
+    String country =
+        Optional.ofNullable(publishingCountry).map(Country::getIso2LetterCode).orElse(null);
+    return cachedStatistics(
+        webRequest,
+        () ->
+            groupByYear(
+                occurrenceDownloadMapper.getDownloadsByDataset(
+                    fromDate, toDate, country, datasetKey, publishingOrgKey, downloadType)),
+        "downloadsByDataset",
+        fromDate,
+        toDate,
+        country,
+        datasetKey,
+        publishingOrgKey);
+  }
+
+  @Override
+  public Map<Integer, Map<Integer, Long>> getDownloadsByDataset(
+      Date fromDate,
+      Date toDate,
+      Country publishingCountry,
+      UUID datasetKey,
+      UUID publishingOrgKey) {
+    return getDownloadsByDataset(
+        fromDate, toDate, publishingCountry, datasetKey, publishingOrgKey, null);
   }
 
   @Tag(name = "Occurrence download statistics")
@@ -1118,6 +1224,43 @@ public class BaseDownloadResource implements OccurrenceDownloadService {
     }
   }
 
+  /**
+   * Gets the statistics from the cache using the normalized parameters as key. When called within a
+   * web request it also sets the cache headers and returns null if the ETag sent by the client still
+   * matches, in which case a 304 is returned.
+   */
+  private Map<Integer, Map<Integer, Long>> cachedStatistics(
+      @Nullable WebRequest webRequest,
+      Supplier<Map<Integer, Map<Integer, Long>>> loader,
+      String statistic,
+      Object... params) {
+    String key =
+        Stream.concat(Stream.of(downloadType, statistic), Arrays.stream(params))
+            .map(p -> p instanceof Date ? ((Date) p).getTime() : p)
+            .map(p -> p != null ? p.toString() : "")
+            .collect(Collectors.joining("|"));
+    DownloadStatisticsCache.CachedStatistics cached = statisticsCache.get(key, loader);
+
+    if (webRequest != null) {
+      // set before checking the ETag, so the 304 responses carry it too
+      if (webRequest instanceof ServletWebRequest
+          && ((ServletWebRequest) webRequest).getResponse() != null) {
+        ((ServletWebRequest) webRequest)
+            .getResponse()
+            .setHeader(
+                HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(statisticsCache.getMaxAgeSeconds(), TimeUnit.SECONDS)
+                    .cachePublic()
+                    .getHeaderValue());
+      }
+      if (webRequest.checkNotModified(cached.getEtag())) {
+        return null;
+      }
+    }
+
+    return cached.getStatistics();
+  }
+
   /** Aggregates the download statistics in tree structure of month grouped by year. */
   private Map<Integer, Map<Integer, Long>> groupByYear(List<Facet.Count> counts) {
     Map<Integer, Map<Integer, Long>> yearsGrouping = new TreeMap<>();
@@ -32,6 +32,7 @@ import org.gbif.api.util.Range;
 import org.gbif.api.vocabulary.IdentifierType;
 import org.gbif.api.vocabulary.TagName;
 import org.gbif.api.vocabulary.TagNamespace;
+import org.gbif.registry.domain.ws.MachineTagBulkRequest;
 import org.gbif.registry.events.ChangedComponentEvent;
 import org.gbif.registry.events.CreateEvent;
 import org.gbif.registry.events.DeleteEvent;
@@ -59,6 +60,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 import javax.validation.Valid;
@@ -319,6 +321,14 @@ public abstract class BaseNetworkEntityResource<T extends NetworkEntity, P exten
   @Transactional
   @Override
   public void update(T entity) {
+    updateAndGet(entity);
+  }
+
+  /**
+   * Updates the entity and returns the complete entity as it is after the update, so subclasses
+   * don't need to read it again.
+   */
+  protected T updateAndGet(T entity) {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     if (authentication != null) {
       entity.setModifiedBy(authentication.getName());
@@ -330,6 +340,7 @@ public abstract class BaseNetworkEntityResource<T extends NetworkEntity, P exten
     // and old entities
     T newEntity = get(entity.getKey());
     eventManager.post(UpdateEvent.newInstance(newEntity, oldEntity, objectClass));
+    return newEntity;
   }
 
   /**
@@ -562,6 +573,82 @@ public abstract class BaseNetworkEntityResource<T extends NetworkEntity, P exten
     return mapper.listMachineTags(targetEntityKey);
   }
 
+  /**
+   * Adds a machine tag to many entities in one transaction, e.g. to flag a list of datasets. The
+   * machine tags are inserted in batches and one change event is sent per entity tagged. Editors
+   * are authorized once for the namespace by the {@code EditorAuthorizationFilter}.
+   *
+   * @param request keys of the entities and machine tag to add
+   * @return the keys of the entities tagged, the keys that don't exist or are deleted are skipped
+   */
+  @Hidden
+  @PostMapping(value = "machineTag/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @Validated({PrePersist.class, Default.class})
+  @Secured({ADMIN_ROLE, EDITOR_ROLE})
+  @Trim
+  @Transactional
+  public List<UUID> addMachineTags(
+      @RequestBody @Valid @NotNull @Trim MachineTagBulkRequest request) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    MachineTag machineTag = request.getMachineTag();
+    machineTag.setCreatedBy(authentication != null ? authentication.getName() : null);
+
+    List<UUID> tagged =
+        machineTagMapper.addMachineTagToEntities(entityName(), request.getKeys(), machineTag);
+    tagged.forEach(
+        key ->
+            eventManager.post(
+                ChangedComponentEvent.newInstance(key, objectClass, MachineTag.class)));
+    return tagged;
+  }
+
+  /**
+   * Deletes the machine tags of a namespace from many entities in one transaction. If the name, or
+   * the name and the value, of the machine tag are given only the matching machine tags are
+   * deleted. One change event is sent per entity changed.
+   *
+   * @param request keys of the entities and machine tag to delete
+   * @return the keys of the entities whose machine tags were deleted
+   */
+  @Hidden
+  @PostMapping(value = "machineTag/bulk/delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @Secured({ADMIN_ROLE, EDITOR_ROLE})
+  @Trim
+  @Transactional
+  public List<UUID> deleteMachineTags(@RequestBody @NotNull @Trim MachineTagBulkRequest request) {
+    MachineTag machineTag = request.getMachineTag();
+    checkArgument(
+        machineTag != null && machineTag.getNamespace() != null, "A namespace is required");
+    checkArgument(
+        request.getKeys() != null
+            && !request.getKeys().isEmpty()
+            && request.getKeys().size() <= MachineTagBulkRequest.MAX_KEYS,
+        "Between 1 and %s keys are required",
+        MachineTagBulkRequest.MAX_KEYS);
+
+    List<UUID> changed =
+        machineTagMapper
+            .deleteMachineTagsFromEntities(
+                entityName(),
+                request.getKeys(),
+                machineTag.getNamespace(),
+                machineTag.getName(),
+                machineTag.getName() != null ? machineTag.getValue() : null)
+            .stream()
+            .distinct()
+            .collect(Collectors.toList());
+    changed.forEach(
+        key ->
+            eventManager.post(
+                ChangedComponentEvent.newInstance(key, objectClass, MachineTag.class)));
+    return changed;
+  }
+
+  /** Name of the entity as used in the paths and tables, e.g. dataset. */
+  private String entityName() {
+    return objectClass.getSimpleName().toLowerCase();
+  }
+
   @Override
   @Deprecated
   public PagingResponse<T> listByMachineTag(
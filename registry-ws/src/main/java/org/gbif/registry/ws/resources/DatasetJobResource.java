@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources;
+
+import org.gbif.api.annotation.NullToNotFound;
+import org.gbif.registry.pipelines.jobs.DatasetJob;
+import org.gbif.registry.pipelines.jobs.DatasetJobService;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Hidden;
+
+import static org.gbif.registry.security.UserRoles.ADMIN_ROLE;
+
+/**
+ * Progress and cancellation of the background jobs run on many datasets, such as crawling all the
+ * datasets or rerunning the pipelines of many of them.
+ */
+@Hidden
+@RestController
+@RequestMapping(path = "admin/datasetJob", produces = MediaType.APPLICATION_JSON_VALUE)
+public class DatasetJobResource {
+
+  private final DatasetJobService datasetJobService;
+
+  public DatasetJobResource(DatasetJobService datasetJobService) {
+    this.datasetJobService = datasetJobService;
+  }
+
+  /** Lists the running and latest finished jobs, latest first. */
+  @GetMapping
+  @Secured(ADMIN_ROLE)
+  public List<DatasetJob> list() {
+    return datasetJobService.list();
+  }
+
+  @GetMapping("{key}")
+  @Secured(ADMIN_ROLE)
+  @NullToNotFound("/admin/datasetJob/{key}")
+  public DatasetJob get(@PathVariable("key") UUID key) {
+    return datasetJobService.get(key);
+  }
+
+  /** Cancels a job, the datasets being processed are finished and the rest skipped. */
+  @DeleteMapping("{key}")
+  @Secured(ADMIN_ROLE)
+  @NullToNotFound("/admin/datasetJob/{key}")
+  public DatasetJob cancel(@PathVariable("key") UUID key) {
+    return datasetJobService.cancel(key);
+  }
+}
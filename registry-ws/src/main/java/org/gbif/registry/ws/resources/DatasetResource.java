@@ -20,7 +20,6 @@ import org.gbif.api.exception.ServiceUnavailableException;
 import org.gbif.api.model.common.DOI;
 import org.gbif.api.model.common.export.ExportFormat;
 import org.gbif.api.model.common.paging.Pageable;
-import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.common.search.FacetedSearchRequest;
 import org.gbif.api.model.common.search.SearchResponse;
@@ -29,7 +28,6 @@ import org.gbif.api.model.registry.Contact;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.model.registry.Grid;
 import org.gbif.api.model.registry.Identifier;
-import org.gbif.api.model.registry.LenientEquals;
 import org.gbif.api.model.registry.Metadata;
 import org.gbif.api.model.registry.Network;
 import org.gbif.api.model.registry.PostPersist;
@@ -45,6 +43,7 @@ import org.gbif.api.service.registry.DatasetProcessStatusService;
 import org.gbif.api.service.registry.DatasetSearchService;
 import org.gbif.api.service.registry.DatasetService;
 import org.gbif.api.util.iterables.Iterables;
+import org.gbif.api.vocabulary.ContactType;
 import org.gbif.api.vocabulary.Continent;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.DatasetSubtype;
@@ -67,11 +66,14 @@ import org.gbif.registry.persistence.mapper.DatasetProcessStatusMapper;
 import org.gbif.registry.persistence.mapper.IdentifierMapper;
 import org.gbif.registry.persistence.mapper.MetadataMapper;
 import org.gbif.registry.persistence.mapper.NetworkMapper;
-import org.gbif.registry.persistence.mapper.TagMapper;
 import org.gbif.registry.persistence.mapper.params.BaseListParams;
 import org.gbif.registry.persistence.mapper.params.DatasetListParams;
 import org.gbif.registry.persistence.mapper.params.NetworkListParams;
 import org.gbif.registry.persistence.service.MapperServiceLocator;
+import org.gbif.registry.pipelines.jobs.DatasetJob;
+import org.gbif.registry.pipelines.jobs.DatasetJobService;
+import org.gbif.registry.search.dataset.common.TotalHitsTracking;
+import org.gbif.registry.search.dataset.service.RegistryDatasetSearchService;
 import org.gbif.registry.service.RegistryDatasetService;
 import org.gbif.registry.service.WithMyBatis;
 import org.gbif.registry.ws.export.CsvWriter;
@@ -81,7 +83,6 @@ import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -92,12 +93,13 @@ import java.lang.annotation.Target;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletResponse;
@@ -128,8 +130,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
-import com.google.common.io.CharStreams;
 
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
@@ -174,7 +176,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
 
   private static final Logger LOG = LoggerFactory.getLogger(DatasetResource.class);
 
-  private static final int ALL_DATASETS_LIMIT = 200;
+  private static final String CRAWL_ALL_JOB = "CRAWL_ALL";
 
   // Page size to iterate over search export service
   private static final int SEARCH_EXPORT_LIMIT = 300;
@@ -188,7 +190,6 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
   private final DatasetMapper datasetMapper;
   private final ContactMapper contactMapper;
   private final IdentifierMapper identifierMapper;
-  private final TagMapper tagMapper;
   private final NetworkMapper networkMapper;
   private final DatasetProcessStatusMapper datasetProcessStatusMapper;
   private final DatasetDoiDataCiteHandlingService doiDataCiteHandlingService;
@@ -196,6 +197,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
   private final DoiIssuingService doiIssuingService;
   private final WithMyBatis withMyBatis;
   private final EMLWriter emlWriter;
+  private final DatasetJobService datasetJobService;
 
   // The messagePublisher can be optional
   private final MessagePublisher messagePublisher;
@@ -209,6 +211,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
       DataCiteMetadataBuilderService metadataBuilderService,
       DoiIssuingService doiIssuingService,
       WithMyBatis withMyBatis,
+      DatasetJobService datasetJobService,
       @Autowired(required = false) MessagePublisher messagePublisher) {
     super(
         mapperServiceLocator.getDatasetMapper(),
@@ -222,7 +225,6 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
     this.datasetMapper = mapperServiceLocator.getDatasetMapper();
     this.contactMapper = mapperServiceLocator.getContactMapper();
     this.identifierMapper = mapperServiceLocator.getIdentifierMapper();
-    this.tagMapper = mapperServiceLocator.getTagMapper();
     this.datasetProcessStatusMapper = mapperServiceLocator.getDatasetProcessStatusMapper();
     this.networkMapper = mapperServiceLocator.getNetworkMapper();
     this.doiDataCiteHandlingService = doiDataCiteHandlingService;
@@ -231,6 +233,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
     this.messagePublisher = messagePublisher;
     this.withMyBatis = withMyBatis;
     this.emlWriter = EMLWriter.newInstance(false);
+    this.datasetJobService = datasetJobService;
   }
 
   @Target({ElementType.METHOD, ElementType.TYPE})
@@ -362,6 +365,26 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
   @ApiResponse(responseCode = "400", description = "Invalid search query provided")
   @Docs.DefaultUnsuccessfulReadResponses
   @GetMapping("search")
+  public SearchResponse<DatasetSearchResult, DatasetSearchParameter> search(
+      DatasetSearchRequest searchRequest,
+      @Parameter(
+              description =
+                  "How the total number of results is counted: `true` counts them exactly, `false` "
+                      + "counts them up to 10,000 and a number counts them up to that number. When "
+                      + "the count is capped it's a lower bound of the total.",
+              schema = @Schema(implementation = String.class, defaultValue = "true"),
+              in = ParameterIn.QUERY)
+          @RequestParam(value = "trackTotalHits", required = false)
+          String trackTotalHits) {
+    TotalHitsTracking totalHitsTracking = TotalHitsTracking.parse(trackTotalHits);
+    if (searchService instanceof RegistryDatasetSearchService) {
+      return ((RegistryDatasetSearchService) searchService)
+          .search(searchRequest, totalHitsTracking);
+    }
+    // other implementations always count the hits exactly
+    return searchService.search(searchRequest);
+  }
+
   @Override
   public SearchResponse<DatasetSearchResult, DatasetSearchParameter> search(
       DatasetSearchRequest searchRequest) {
@@ -648,20 +671,10 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
     // we do this, because updating metadata when nothing has changed, results in registry change
     // events being
     // propagated which can trigger crawlers which will run an update etc.
-    List<Metadata> existingDocs = listMetadata(datasetKey, type);
-    for (Metadata existing : existingDocs) {
-      try (InputStream in = getMetadataDocument(existing.getKey())) {
-        String existingContent =
-            CharStreams.toString(new InputStreamReader(in, StandardCharsets.UTF_8));
-        if (existingContent != null) {
-          if (existingContent.equals(new String(data))) {
-            LOG.debug("This metadata document already exists - returning existing");
-            return existing;
-          }
-        }
-      } catch (Exception e) {
-        // swallow - we'll delete it anyway
-      }
+    Metadata existingDoc = metadataMapper.getByContent(datasetKey, type, data);
+    if (existingDoc != null) {
+      LOG.debug("This metadata document already exists - returning existing");
+      return existingDoc;
     }
 
     // persist metadata & data, which we know is not already stored
@@ -672,7 +685,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
     metadata.setType(type);
     metadata.setCreatedBy(user);
     metadata.setModifiedBy(user);
-    for (Metadata existing : existingDocs) {
+    for (Metadata existing : listMetadata(datasetKey, type)) {
       deleteMetadata(existing.getKey());
     }
     int metaKey = metadataMapper.create(metadata, data);
@@ -723,13 +736,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
     updatedDataset.setCreated(existingDataset.getCreated());
 
     // keep original license, unless a supported license detected in preferred metadata
-    if (!replaceLicense(updatedDataset.getLicense())) {
-      LOG.warn(
-          "New dataset license {} cannot replace old license {}! Restoring old license.",
-          updatedDataset.getLicense(),
-          existingDataset.getLicense());
-      updatedDataset.setLicense(existingDataset.getLicense());
-    }
+    preserveLicense(updatedDataset, existingDataset);
 
     return updatedDataset;
   }
@@ -761,8 +768,8 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
       updDataset.setModifiedBy(user);
       updDataset.setModified(new Date());
 
-      // persist contacts, overwriting any existing ones
-      replaceContacts(uuid, updDataset.getContacts(), user);
+      // sync the components, only the rows that differ are written
+      syncContacts(uuid, updDataset.getContacts(), user);
       addIdentifiers(uuid, updDataset.getIdentifiers(), user);
       addTags(uuid, updDataset.getTags(), user);
 
@@ -773,60 +780,128 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
       updDataset.getTags().clear();
       updDataset.getMachineTags().clear();
 
-      update(updDataset);
+      // the dataset was already read above, no need to go through the public update, but its
+      // identifiers have to include the ones just added for the DOI handling
+      dataset.setIdentifiers(datasetMapper.listIdentifiers(uuid));
+      update(updDataset, dataset, user);
     } else {
       LOG.debug("Dataset [key={}] has no preferred metadata document, skipping update!", uuid);
     }
   }
 
-  private <T extends LenientEquals<T>> boolean containedIn(T id, Collection<T> ids) {
-    for (T id2 : ids) {
-      if (id.lenientEquals(id2)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
   /** Add all not yet existing identifiers to the db! */
   private void addIdentifiers(UUID datasetKey, List<Identifier> newIdentifiers, String user) {
-    List<Identifier> existing = datasetMapper.listIdentifiers(datasetKey);
+    Set<String> existing =
+        datasetMapper.listIdentifiers(datasetKey).stream()
+            .map(DatasetResource::identifierKey)
+            .collect(Collectors.toSet());
+    List<Identifier> toAdd = new ArrayList<>();
     for (Identifier id : newIdentifiers) {
-      if (IdentifierType.UNKNOWN != id.getType() && !containedIn(id, existing)) {
-        // insert into db
+      // the set also prevents adding duplicates within the new identifiers
+      if (IdentifierType.UNKNOWN != id.getType() && existing.add(identifierKey(id))) {
         id.setCreatedBy(user);
         id.setCreated(new Date());
-        withMyBatis.addIdentifier(identifierMapper, datasetMapper, datasetKey, id);
-        // keep it in list for subsequent tests
-        existing.add(id);
+        toAdd.add(id);
       }
     }
+    if (!toAdd.isEmpty()) {
+      datasetMapper.addIdentifiers(datasetKey, toAdd);
+    }
   }
 
-  /** Add all not yet existing identifiers to the db! */
+  /** Fields compared by {@link Identifier#lenientEquals}. */
+  private static String identifierKey(Identifier id) {
+    return id.getType() + "|" + id.getIdentifier();
+  }
+
+  /** Add all not yet existing tags to the db! */
   private void addTags(UUID datasetKey, List<Tag> newTags, String user) {
-    List<Tag> existing = datasetMapper.listTags(datasetKey);
+    Set<String> existing =
+        datasetMapper.listTags(datasetKey).stream().map(Tag::getValue).collect(Collectors.toSet());
+    List<Tag> toAdd = new ArrayList<>();
     for (Tag tag : newTags) {
-      if (!containedIn(tag, existing)) {
-        // insert into db
+      if (existing.add(tag.getValue())) {
         tag.setCreatedBy(user);
         tag.setCreated(new Date());
-        withMyBatis.addTag(tagMapper, datasetMapper, datasetKey, tag);
-        // keep it in list for subsequent tests
-        existing.add(tag);
+        toAdd.add(tag);
+      }
+    }
+    if (!toAdd.isEmpty()) {
+      datasetMapper.addTags(datasetKey, toAdd);
+    }
+  }
+
+  /**
+   * Makes the contacts of the dataset equal to the given ones, keeping their order. The contacts
+   * are compared by position: the ones that are equal are left untouched, the ones that differ are
+   * updated in place, and the remaining ones are inserted or deleted in single statements.
+   */
+  private void syncContacts(UUID datasetKey, List<Contact> contacts, String user) {
+    // as when adding them one by one, the last primary contact of each type wins
+    Set<ContactType> primaryTypes = EnumSet.noneOf(ContactType.class);
+    for (Contact c : Lists.reverse(contacts)) {
+      if (c.isPrimary() && c.getType() != null && !primaryTypes.add(c.getType())) {
+        c.setPrimary(false);
+      }
+    }
+
+    List<Contact> existing = datasetMapper.listContacts(datasetKey);
+    int common = Math.min(existing.size(), contacts.size());
+
+    List<Contact> toUpdate = new ArrayList<>();
+    for (int i = 0; i < common; i++) {
+      Contact current = existing.get(i);
+      Contact c = contacts.get(i);
+      if (!c.lenientEquals(current)) {
+        c.setKey(current.getKey());
+        c.setModifiedBy(user);
+        c.setModified(new Date());
+        toUpdate.add(c);
+      }
+    }
+
+    if (existing.size() > common) {
+      datasetMapper.deleteContactsByKeys(
+          datasetKey,
+          existing.subList(common, existing.size()).stream()
+              .map(Contact::getKey)
+              .collect(Collectors.toList()));
+    }
+
+    if (!toUpdate.isEmpty()) {
+      // clear the primary flags first, so there are never 2 primary contacts of the same type
+      datasetMapper.unsetPrimaryContacts(
+          datasetKey, toUpdate.stream().map(Contact::getKey).collect(Collectors.toList()));
+      for (Contact c : toUpdate) {
+        contactMapper.updateContact(c);
+        datasetMapper.updateContact(datasetKey, c.getKey(), c.getType(), c.isPrimary());
       }
     }
+
+    if (contacts.size() > common) {
+      List<Contact> toAdd = contacts.subList(common, contacts.size());
+      Iterator<Integer> keys = contactMapper.nextKeys(toAdd.size()).stream().sorted().iterator();
+      for (Contact c : toAdd) {
+        c.setKey(keys.next());
+        c.setCreatedBy(user);
+        c.setCreated(new Date());
+        c.setModifiedBy(user);
+        c.setModified(new Date());
+      }
+      contactMapper.createContacts(toAdd);
+      datasetMapper.addContacts(datasetKey, toAdd);
+    }
   }
 
-  private void replaceContacts(UUID datasetKey, List<Contact> contacts, String user) {
-    // persist contacts, overwriting any existing ones
-    datasetMapper.deleteContacts(datasetKey);
-    for (Contact c : contacts) {
-      c.setCreatedBy(user);
-      c.setCreated(new Date());
-      c.setModifiedBy(user);
-      c.setModified(new Date());
-      withMyBatis.addContact(contactMapper, datasetMapper, datasetKey, c);
+  /** Restores the current license if the new one can't replace it. */
+  private void preserveLicense(Dataset dataset, Dataset old) {
+    // replace current license? Only if dataset being updated has a supported license
+    if (!replaceLicense(dataset.getLicense())) {
+      LOG.warn(
+          "New dataset license {} cannot replace old license {}! Restoring old license.",
+          dataset.getLicense(),
+          old.getLicense());
+      dataset.setLicense(old.getLicense());
     }
   }
 
@@ -923,14 +998,7 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
     if (old == null) {
       throw new IllegalArgumentException("Dataset " + dataset.getKey() + " not existing");
     }
-    // replace current license? Only if dataset being updated has a supported license
-    if (!replaceLicense(dataset.getLicense())) {
-      LOG.warn(
-          "New dataset license {} cannot replace old license {}! Restoring old license.",
-          dataset.getLicense(),
-          old.getLicense());
-      dataset.setLicense(old.getLicense());
-    }
+    preserveLicense(dataset, old);
 
     final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     String user = null;
@@ -1001,11 +1069,10 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
       removeAltIdIfExists(dataset.getKey(), dataset.getDoi(), existingIds);
     }
 
-    // update database for core dataset only
-    super.update(dataset);
+    // update database for core dataset only, the updated copy has the latest timestamps
+    Dataset updated = updateAndGet(dataset);
 
-    // to get the latest timestamps we need to read a new copy of the dataset
-    doiDataCiteHandlingService.datasetChanged(get(dataset.getKey()), oldDoi);
+    doiDataCiteHandlingService.datasetChanged(updated, oldDoi);
   }
 
   /** Add old DOI to list of alt identifiers in dataset. */
@@ -1281,31 +1348,6 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
         page, datasetMapper.countWithNoEndpoint(), datasetMapper.withNoEndpoint(page));
   }
 
-  /** Utility method to run batch jobs on all dataset elements */
-  private void doOnAllOccurrenceDatasets(
-      Consumer<Dataset> onDataset, List<UUID> datasetsToExclude) {
-    PagingRequest pagingRequest = new PagingRequest(0, ALL_DATASETS_LIMIT);
-    PagingResponse<Dataset> response;
-    do {
-      response = list(pagingRequest);
-      response.getResults().stream()
-          .filter(d -> datasetsToExclude == null || !datasetsToExclude.contains(d.getKey()))
-          .forEach(
-              d -> {
-                try {
-                  LOG.info("trying to crawl dataset {}", d.getKey());
-                  onDataset.accept(d);
-                } catch (Exception ex) {
-                  LOG.error(
-                      "Error processing dataset {} while crawling all: {}",
-                      d.getKey(),
-                      ex.getMessage());
-                }
-              });
-      pagingRequest.addOffset(response.getResults().size());
-    } while (!response.isEndOfRecords());
-  }
-
   /**
    * This is a REST only (e.g. not part of the Java API) method that allows the registry console to
    * trigger the crawling of the dataset. This simply emits a message to rabbitmq requesting the
@@ -1315,14 +1357,15 @@ public class DatasetResource extends BaseNetworkEntityResource<Dataset, DatasetL
   @Hidden
   @PostMapping("crawlall")
   @Secured(ADMIN_ROLE)
-  public void crawlAll(
+  public DatasetJob crawlAll(
       @RequestParam(value = "platform", required = false) String platform,
       @Nullable CrawlAllParams crawlAllParams) {
-    CompletableFuture.runAsync(
-        () ->
-            doOnAllOccurrenceDatasets(
-                dataset -> crawl(dataset.getKey(), platform),
-                crawlAllParams != null ? crawlAllParams.datasetsToExclude : null));
+    // runs as a background job, its progress can be followed in admin/datasetJob
+    return datasetJobService.submitOnAllDatasets(
+        CRAWL_ALL_JOB,
+        SecurityContextHolder.getContext().getAuthentication().getName(),
+        crawlAllParams != null ? crawlAllParams.datasetsToExclude : null,
+        datasetKey -> crawl(datasetKey, platform));
   }
 
   /**
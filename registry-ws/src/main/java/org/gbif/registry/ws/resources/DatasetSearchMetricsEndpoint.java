@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources;
+
+import org.gbif.registry.search.dataset.common.SearchLatencyMetrics;
+import org.gbif.registry.search.dataset.service.DatasetSearchCache;
+import org.gbif.registry.search.dataset.service.DatasetSearchServiceEs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** Exposes the latency of the dataset searches per query shape and the state of their cache. */
+@Component
+@Endpoint(id = "datasetSearchMetrics")
+public class DatasetSearchMetricsEndpoint {
+
+  private final DatasetSearchServiceEs searchService;
+  private final DatasetSearchCache searchCache;
+
+  @Autowired
+  public DatasetSearchMetricsEndpoint(
+      DatasetSearchServiceEs searchService, DatasetSearchCache searchCache) {
+    this.searchService = searchService;
+    this.searchCache = searchCache;
+  }
+
+  @ReadOperation
+  public Map<String, Object> metrics() {
+    Map<String, SearchLatencyMetrics.ShapeSnapshot> shapes =
+        searchService.getLatencyMetrics().snapshot();
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("indexGeneration", searchCache.getGeneration());
+    metrics.put("shapes", shapes);
+    return metrics;
+  }
+}
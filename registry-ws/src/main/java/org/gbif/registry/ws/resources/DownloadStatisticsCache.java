@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Cache of the download statistics responses. The entries are keyed by the normalized query
+ * parameters and are evicted when the statistics tables change in this instance. The changes made
+ * through other instances are not notified, so the entries also expire after a short time, which
+ * bounds how stale the responses of each instance can be.
+ *
+ * <p>Each invalidation starts a new generation. The entries record the generation in which their
+ * load started, so a load still running when the cache is invalidated isn't served afterwards.
+ */
+@Component
+public class DownloadStatisticsCache {
+
+  private final Cache<String, CachedStatistics> cache;
+  private final long maxAgeSeconds;
+  private final AtomicLong generation = new AtomicLong();
+
+  public DownloadStatisticsCache(
+      @Value("${downloads.statistics.cache.maxSize:1000}") long maxSize,
+      @Value("${downloads.statistics.cache.expireAfterWriteMinutes:10}") long expireAfterWrite,
+      @Value("${downloads.statistics.cache.maxAge:600}") long maxAgeSeconds) {
+    this(maxSize, expireAfterWrite, maxAgeSeconds, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  DownloadStatisticsCache(long maxSize, long expireAfterWrite, long maxAgeSeconds, Ticker ticker) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite, TimeUnit.MINUTES)
+            .ticker(ticker)
+            .build();
+    this.maxAgeSeconds = maxAgeSeconds;
+  }
+
+  /** Returns the cached statistics for the key, loading them with the loader if not present. */
+  public CachedStatistics get(String key, Supplier<Map<Integer, Map<Integer, Long>>> loader) {
+    try {
+      CachedStatistics cached = load(key, loader);
+      while (cached.generation != generation.get()) {
+        // loaded from data that was changed during the load
+        cache.asMap().remove(key, cached);
+        cached = load(key, loader);
+      }
+      return cached;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Error loading download statistics", e.getCause());
+    }
+  }
+
+  private CachedStatistics load(
+      String key, Supplier<Map<Integer, Map<Integer, Long>>> loader) throws ExecutionException {
+    return cache.get(
+        key,
+        () -> {
+          long loadGeneration = generation.get();
+          return new CachedStatistics(loader.get(), loadGeneration);
+        });
+  }
+
+  /**
+   * Evicts all the entries. If there is an active transaction the eviction is deferred until it
+   * commits, otherwise a concurrent request could cache the statistics before the changes are
+   * visible.
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              invalidateAll();
+            }
+          });
+    } else {
+      invalidateAll();
+    }
+  }
+
+  private void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /** Max age in seconds that the HTTP caches can keep the responses. */
+  public long getMaxAgeSeconds() {
+    return maxAgeSeconds;
+  }
+
+  /** Cached statistics together with their ETag. */
+  public static class CachedStatistics {
+
+    private final Map<Integer, Map<Integer, Long>> statistics;
+    private final String etag;
+    private final long generation;
+
+    CachedStatistics(Map<Integer, Map<Integer, Long>> statistics, long generation) {
+      this.statistics = Collections.unmodifiableMap(statistics);
+      this.generation = generation;
+      // the statistics are sorted maps, so the same content always produces the same ETag
+      this.etag =
+          '"'
+              + Hashing.murmur3_128()
+                  .hashString(statistics.toString(), StandardCharsets.UTF_8)
+                  .toString()
+              + '"';
+    }
+
+    public Map<Integer, Map<Integer, Long>> getStatistics() {
+      return statistics;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+  }
+}
@@ -19,6 +19,7 @@ import org.gbif.registry.doi.DoiIssuingService;
 import org.gbif.registry.doi.DownloadDoiDataCiteHandlingService;
 import org.gbif.registry.persistence.mapper.DatasetOccurrenceDownloadMapper;
 import org.gbif.registry.persistence.mapper.OccurrenceDownloadMapper;
+import org.gbif.registry.persistence.service.DatasetUsagesCopyLoader;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
@@ -39,15 +40,19 @@ public class EventDownloadResource extends BaseDownloadResource {
   public EventDownloadResource(
       OccurrenceDownloadMapper occurrenceDownloadMapper,
       DatasetOccurrenceDownloadMapper datasetOccurrenceDownloadMapper,
+      DatasetUsagesCopyLoader datasetUsagesCopyLoader,
       DoiIssuingService doiIssuingService,
       @Lazy DownloadDoiDataCiteHandlingService doiDataCiteHandlingService,
-      @Qualifier("baseIdentityAccessService") IdentityAccessService identityService) {
+      @Qualifier("baseIdentityAccessService") IdentityAccessService identityService,
+      DownloadStatisticsCache statisticsCache) {
     super(
         occurrenceDownloadMapper,
         datasetOccurrenceDownloadMapper,
+        datasetUsagesCopyLoader,
         doiIssuingService,
         doiDataCiteHandlingService,
         identityService,
+        statisticsCache,
         DownloadType.EVENT);
   }
 }
@@ -289,7 +289,11 @@ public class UserManagementResource {
     return ResponseEntity.noContent().build();
   }
 
-  /** For admin console only. User search, intended for user administration console use only. */
+  /**
+   * For admin console only. User search, intended for user administration console use only. A
+   * user whose email or username is exactly the query is ranked first, and the other matches are
+   * still returned after it. The count of the results can be skipped to make the search cheaper.
+   */
   @GetMapping("search")
   @Secured(ADMIN_ROLE)
   public PagingResponse<GbifUser> search(
@@ -300,6 +304,7 @@ public class UserManagementResource {
           Set<String> namespaceRightsOn,
       @Nullable @RequestParam(value = "countryRightsOn", required = false)
           Set<String> countryRightsOn,
+      @RequestParam(value = "count", defaultValue = "true") boolean count,
       Pageable page) {
     page = page == null ? new PagingRequest() : page;
     String q =
@@ -311,7 +316,8 @@ public class UserManagementResource {
             .map(v -> v.stream().map(Country::fromIsoCode).collect(Collectors.toSet()))
             .orElse(null);
 
-    return identityService.search(q, roles, editorRightsOn, namespaceRightsOn, countries, page);
+    return identityService.search(
+        q, roles, editorRightsOn, namespaceRightsOn, countries, page, count);
   }
 
   /**
@@ -41,13 +41,14 @@ import org.gbif.api.model.registry.MachineTag;
 import org.gbif.api.model.registry.MachineTaggable;
 import org.gbif.api.model.registry.Tag;
 import org.gbif.api.model.registry.Taggable;
-import org.gbif.api.service.collections.BatchService;
 import org.gbif.api.service.collections.ChangeSuggestionService;
 import org.gbif.api.service.collections.CollectionEntityService;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.IdentifierType;
 import org.gbif.api.vocabulary.collections.MasterSourceType;
+import org.gbif.registry.domain.collections.BatchProgress;
 import org.gbif.registry.persistence.mapper.collections.params.DuplicatesSearchParams;
+import org.gbif.registry.service.collections.batch.RegistryBatchService;
 import org.gbif.registry.service.collections.duplicates.DuplicatesService;
 import org.gbif.registry.service.collections.merge.MergeService;
 import org.gbif.registry.ws.resources.Docs;
@@ -75,7 +76,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -115,7 +115,7 @@ public abstract class BaseCollectionEntityResource<
   protected final MergeService<T> mergeService;
   protected final ChangeSuggestionService<T, R> changeSuggestionService;
   protected final DuplicatesService duplicatesService;
-  protected final BatchService batchService;
+  protected final RegistryBatchService batchService;
   protected String apiBaseUrl;
 
   protected BaseCollectionEntityResource(
@@ -123,7 +123,7 @@ public abstract class BaseCollectionEntityResource<
       CollectionEntityService<T> collectionEntityService,
       ChangeSuggestionService<T, R> changeSuggestionService,
       DuplicatesService duplicatesService,
-      BatchService batchService,
+      RegistryBatchService batchService,
       String apiBaseUrl,
       Class<T> objectClass) {
     this.objectClass = objectClass;
@@ -850,11 +850,20 @@ public abstract class BaseCollectionEntityResource<
       @RequestParam("format") ExportFormat format,
       @RequestPart("entitiesFile") MultipartFile entitiesFile,
       @RequestPart("contactsFile") MultipartFile contactsFile) {
-    int batchKey =
-        batchService.handleBatch(
-            StreamUtils.copyToByteArray(entitiesFile.getResource().getInputStream()),
-            StreamUtils.copyToByteArray(contactsFile.getResource().getInputStream()),
-            format);
+    // the uploads are streamed to disk instead of read in memory. The batch service deletes the
+    // files when it finishes with them
+    Path entitiesPath = RegistryBatchService.createSpoolFile("entities");
+    Path contactsPath = RegistryBatchService.createSpoolFile("contacts");
+    int batchKey;
+    try {
+      entitiesFile.transferTo(entitiesPath);
+      contactsFile.transferTo(contactsPath);
+      batchKey = batchService.handleBatch(entitiesPath, contactsPath, format);
+    } catch (Exception e) {
+      Files.deleteIfExists(entitiesPath);
+      Files.deleteIfExists(contactsPath);
+      throw e;
+    }
 
     String batchUri = getNormalizedApiBaseUrl() + request.getRequestURI() + "/" + batchKey;
     return ResponseEntity.created(new URI(batchUri)).body(batchUri);
@@ -888,6 +897,19 @@ public abstract class BaseCollectionEntityResource<
     return batchView;
   }
 
+  @Operation(
+      operationId = "getBatchProgress",
+      summary = "Get the progress of a batch",
+      description = "Number of records processed and failed so far in a batch.")
+  @Docs.DefaultEntityKeyParameter
+  @ApiResponse(responseCode = "200", description = "Batch progress")
+  @Docs.DefaultUnsuccessfulReadResponses
+  @GetMapping("batch/{key}/progress")
+  @NullToNotFound
+  public BatchProgress getBatchProgress(@PathVariable("key") int batchKey) {
+    return batchService.getProgress(batchKey);
+  }
+
   @Operation(
       operationId = "getBatchResultFile",
       summary =
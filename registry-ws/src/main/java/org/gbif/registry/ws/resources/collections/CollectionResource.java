@@ -32,6 +32,7 @@ import org.gbif.api.vocabulary.GbifRegion;
 import org.gbif.api.vocabulary.collections.AccessionStatus;
 import org.gbif.api.vocabulary.collections.CollectionContentType;
 import org.gbif.api.vocabulary.collections.PreservationType;
+import org.gbif.registry.service.collections.RegistryCollectionService;
 import org.gbif.registry.service.collections.batch.CollectionBatchService;
 import org.gbif.registry.service.collections.duplicates.CollectionDuplicatesService;
 import org.gbif.registry.service.collections.merge.CollectionMergeService;
@@ -52,6 +53,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -104,7 +106,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 public class CollectionResource
     extends BaseCollectionEntityResource<Collection, CollectionChangeSuggestion> {
 
-  public final CollectionService collectionService;
+  public final RegistryCollectionService collectionService;
 
   // Prefix for the export file format
   private static final String EXPORT_FILE_NAME = "%scollections.%s";
@@ -115,7 +117,7 @@ public class CollectionResource
   public CollectionResource(
       CollectionMergeService collectionMergeService,
       CollectionDuplicatesService duplicatesService,
-      CollectionService collectionService,
+      RegistryCollectionService collectionService,
       CollectionChangeSuggestionService collectionChangeSuggestionService,
       CollectionBatchService batchService,
       @Value("${api.root.url}") String apiBaseUrl) {
@@ -253,9 +255,27 @@ public class CollectionResource
   @CollectionSearchParameters
   @ApiResponse(responseCode = "200", description = "Collection search successful")
   @ApiResponse(responseCode = "400", description = "Invalid search query provided")
+  @Parameter(
+      name = "afterKey",
+      description =
+          "Key of the last collection of the previous page to continue after it. Only supported "
+              + "with the default sort, the offset is ignored if it's set.",
+      schema = @Schema(implementation = UUID.class),
+      in = ParameterIn.QUERY)
+  @Parameter(
+      name = "count",
+      description = "If false the total number of results is not counted.",
+      schema = @Schema(implementation = Boolean.class),
+      in = ParameterIn.QUERY)
   @GetMapping
-  public PagingResponse<CollectionView> list(CollectionSearchRequest searchRequest) {
-    return collectionService.list(searchRequest);
+  public PagingResponse<CollectionView> list(
+      CollectionSearchRequest searchRequest,
+      @Nullable @RequestParam(value = "afterKey", required = false) UUID afterKey,
+      @RequestParam(value = "count", defaultValue = "true") boolean count) {
+    if (afterKey == null && count) {
+      return collectionService.list(searchRequest);
+    }
+    return collectionService.list(searchRequest, afterKey, count);
   }
 
   private String getExportFileHeader(CollectionSearchRequest searchRequest, ExportFormat format) {
@@ -32,6 +32,7 @@ import org.gbif.api.vocabulary.GbifRegion;
 import org.gbif.api.vocabulary.collections.Discipline;
 import org.gbif.api.vocabulary.collections.InstitutionGovernance;
 import org.gbif.api.vocabulary.collections.InstitutionType;
+import org.gbif.registry.service.collections.RegistryInstitutionService;
 import org.gbif.registry.service.collections.batch.InstitutionBatchService;
 import org.gbif.registry.service.collections.duplicates.InstitutionDuplicatesService;
 import org.gbif.registry.service.collections.merge.InstitutionMergeService;
@@ -52,6 +53,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletResponse;
 
 import org.geojson.FeatureCollection;
@@ -104,13 +106,13 @@ public class InstitutionResource
   // Page size to iterate over download stats export service
   private static final int EXPORT_LIMIT = 1_000;
 
-  private final InstitutionService institutionService;
+  private final RegistryInstitutionService institutionService;
   private final InstitutionMergeService institutionMergeService;
 
   public InstitutionResource(
       InstitutionMergeService institutionMergeService,
       InstitutionDuplicatesService duplicatesService,
-      InstitutionService institutionService,
+      RegistryInstitutionService institutionService,
       InstitutionChangeSuggestionService institutionChangeSuggestionService,
       InstitutionBatchService batchService,
       @Value("${api.root.url}") String apiBaseUrl) {
@@ -237,9 +239,27 @@ public class InstitutionResource
   @InstitutionSearchParameters
   @ApiResponse(responseCode = "200", description = "Institution search successful")
   @ApiResponse(responseCode = "400", description = "Invalid search query provided")
+  @Parameter(
+      name = "afterKey",
+      description =
+          "Key of the last institution of the previous page to continue after it. Only supported "
+              + "with the default sort, the offset is ignored if it's set.",
+      schema = @Schema(implementation = UUID.class),
+      in = ParameterIn.QUERY)
+  @Parameter(
+      name = "count",
+      description = "If false the total number of results is not counted.",
+      schema = @Schema(implementation = Boolean.class),
+      in = ParameterIn.QUERY)
   @GetMapping
-  public PagingResponse<Institution> list(InstitutionSearchRequest searchRequest) {
-    return institutionService.list(searchRequest);
+  public PagingResponse<Institution> list(
+      InstitutionSearchRequest searchRequest,
+      @Nullable @RequestParam(value = "afterKey", required = false) UUID afterKey,
+      @RequestParam(value = "count", defaultValue = "true") boolean count) {
+    if (afterKey == null && count) {
+      return institutionService.list(searchRequest);
+    }
+    return institutionService.list(searchRequest, afterKey, count);
   }
 
   @Operation(
@@ -13,8 +13,6 @@
  */
 package org.gbif.registry.ws.resources.legacy;
 
-import org.gbif.api.model.common.paging.PagingRequest;
-import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.Contact;
 import org.gbif.api.model.registry.Dataset;
 import org.gbif.api.service.registry.DatasetService;
@@ -26,7 +24,7 @@ import org.gbif.registry.domain.ws.IptEntityResponse;
 import org.gbif.registry.domain.ws.LegacyDataset;
 import org.gbif.registry.domain.ws.LegacyDatasetResponse;
 import org.gbif.registry.domain.ws.LegacyDatasetResponseListWrapper;
-import org.gbif.registry.domain.ws.util.LegacyResourceConstants;
+import org.gbif.registry.persistence.mapper.DatasetMapper;
 import org.gbif.registry.ws.util.LegacyResourceUtils;
 import org.gbif.ws.NotFoundException;
 import org.gbif.ws.util.CommonWsUtils;
@@ -73,18 +71,21 @@ public class LegacyDatasetResource {
   private final InstallationService installationService;
   private final IptResource iptResource;
   private final NetworkService networkService;
+  private final DatasetMapper datasetMapper;
 
   public LegacyDatasetResource(
       OrganizationService organizationService,
       DatasetService datasetService,
       IptResource iptResource,
       InstallationService installationService,
-      NetworkService networkService) {
+      NetworkService networkService,
+      DatasetMapper datasetMapper) {
     this.organizationService = organizationService;
     this.datasetService = datasetService;
     this.iptResource = iptResource;
     this.installationService = installationService;
     this.networkService = networkService;
+    this.datasetMapper = datasetMapper;
   }
 
   /**
@@ -287,19 +288,15 @@ public class LegacyDatasetResource {
         // verify organization with key exists, otherwise NotFoundException gets thrown
         organizationService.get(organizationKey);
 
+        // only the fields of the legacy responses are loaded, in a single query
         List<LegacyDatasetResponse> datasets = Lists.newArrayList();
-        PagingRequest page = new PagingRequest(0, LegacyResourceConstants.WS_PAGE_SIZE);
-        PagingResponse<Dataset> response;
-        do {
-          LOG.debug(
-              "Requesting {} datasets starting at offset {}", page.getLimit(), page.getOffset());
-          response = organizationService.publishedDatasets(organizationKey, page);
-          for (Dataset d : response.getResults()) {
-            Contact contact = LegacyResourceUtils.getPrimaryContact(d);
-            datasets.add(new LegacyDatasetResponse(d, contact));
-          }
-          page.nextPage();
-        } while (!response.isEndOfRecords());
+        datasetMapper.listLegacyDatasetsPublishedBy(
+            organizationKey,
+            context -> {
+              Dataset d = context.getResultObject();
+              Contact contact = LegacyResourceUtils.getPrimaryContact(d);
+              datasets.add(new LegacyDatasetResponse(d, contact));
+            });
         LOG.debug("Get all Datasets owned by Organization finished");
 
         return ResponseEntity.status(HttpStatus.OK)
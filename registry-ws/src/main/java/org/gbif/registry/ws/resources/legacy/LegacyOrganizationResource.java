@@ -19,28 +19,27 @@ import org.gbif.api.model.registry.Organization;
 import org.gbif.api.service.registry.NodeService;
 import org.gbif.api.service.registry.OrganizationService;
 import org.gbif.registry.domain.ws.ErrorResponse;
-import org.gbif.registry.domain.ws.LegacyOrganizationBriefResponse;
-import org.gbif.registry.domain.ws.LegacyOrganizationBriefResponseListWrapper;
 import org.gbif.registry.domain.ws.LegacyOrganizationResponse;
-import org.gbif.registry.persistence.mapper.OrganizationMapper;
 import org.gbif.registry.ws.surety.OrganizationEmailEndorsementService;
 import org.gbif.registry.ws.util.LegacyResourceUtils;
 import org.gbif.ws.NotFoundException;
 import org.gbif.ws.util.CommonWsUtils;
 
-import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -59,18 +58,18 @@ public class LegacyOrganizationResource {
 
   private final OrganizationService organizationService;
   private final NodeService nodeService;
-  private final OrganizationMapper organizationMapper;
   private final OrganizationEmailEndorsementService emailManager;
+  private final LegacyOrganizationsCache organizationsCache;
 
   public LegacyOrganizationResource(
       OrganizationService organizationService,
       NodeService nodeService,
-      OrganizationMapper organizationMapper,
-      OrganizationEmailEndorsementService emailManager) {
+      OrganizationEmailEndorsementService emailManager,
+      LegacyOrganizationsCache organizationsCache) {
     this.organizationService = organizationService;
     this.nodeService = nodeService;
-    this.organizationMapper = organizationMapper;
     this.emailManager = emailManager;
+    this.organizationsCache = organizationsCache;
   }
 
   /**
@@ -208,21 +207,30 @@ public class LegacyOrganizationResource {
    * Get a list of all Organizations, handling incoming request with path
    * /registry/organisation.json. For each Organization, only the key and title(name) fields are
    * required. No authorization is required for this request. When no extension provided then xml is
-   * default
+   * default.
+   *
+   * <p>The bodies are pre-rendered by {@link LegacyOrganizationsCache}, so they are served with an
+   * ETag and can be cached by the clients. The gzipped body is sent if the client accepts it.
    *
    * @return list of all Organizations
    */
   @GetMapping(
       value = {"organisation", "organisation{extension:\\.[a-z]+}"},
       produces = {MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<LegacyOrganizationBriefResponseListWrapper> getOrganizations(
+  public ResponseEntity<byte[]> getOrganizations(
       @PathVariable(required = false, value = "extension") String extension,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
       HttpServletResponse response) {
     LOG.debug("List all Organizations for IPT");
 
     String responseType =
         CommonWsUtils.getResponseTypeByExtension(extension, MediaType.APPLICATION_XML_VALUE);
-    if (responseType != null) {
+    LegacyOrganizationsCache.CachedBody organizations =
+        responseType != null
+            ? organizationsCache.get(
+                responseType, acceptEncoding != null && acceptEncoding.contains("gzip"))
+            : null;
+    if (organizations != null) {
       response.setContentType(responseType);
     } else {
       return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -230,12 +238,18 @@ public class LegacyOrganizationResource {
           .build();
     }
 
-    List<LegacyOrganizationBriefResponse> organizations =
-        organizationMapper.listLegacyOrganizationsBrief();
-
-    return ResponseEntity.status(HttpStatus.OK)
-        .cacheControl(CacheControl.noCache())
-        .contentType(MediaType.parseMediaType(responseType))
-        .body(new LegacyOrganizationBriefResponseListWrapper(organizations));
+    // the ETag is checked against If-None-Match when writing the response, a 304 is sent if matched
+    ResponseEntity.BodyBuilder builder =
+        ResponseEntity.status(HttpStatus.OK)
+            .cacheControl(
+                CacheControl.maxAge(organizationsCache.getMaxAgeSeconds(), TimeUnit.SECONDS)
+                    .cachePublic())
+            .eTag(organizations.getEtag())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.parseMediaType(responseType));
+    if (organizations.isGzipped()) {
+      builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return builder.body(organizations.getBody());
   }
 }
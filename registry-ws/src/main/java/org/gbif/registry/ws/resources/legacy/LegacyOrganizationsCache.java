@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources.legacy;
+
+import org.gbif.api.model.registry.Organization;
+import org.gbif.registry.domain.ws.LegacyOrganizationBriefResponseListWrapper;
+import org.gbif.registry.events.CreateEvent;
+import org.gbif.registry.events.DeleteEvent;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.events.UpdateEvent;
+import org.gbif.registry.persistence.mapper.OrganizationMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Pre-rendered XML and JSON bodies of the legacy organisation listing used by the IPTs. The bodies
+ * are written with the same message converters as the other responses. They are evicted when an
+ * organization is created, updated or deleted in this instance, and they also expire after a
+ * short time to bound how stale the changes made through other instances can be.
+ */
+@Component
+public class LegacyOrganizationsCache {
+
+  private final OrganizationMapper organizationMapper;
+  private final HttpMessageConverters messageConverters;
+  private final boolean gzipEnabled;
+  private final long maxAgeSeconds;
+  // keyed by media type
+  private final Cache<String, CachedBody> bodies;
+
+  public LegacyOrganizationsCache(
+      OrganizationMapper organizationMapper,
+      HttpMessageConverters messageConverters,
+      EventManager eventManager,
+      @Value("${legacy.organisations.cache.gzip:true}") boolean gzipEnabled,
+      @Value("${legacy.organisations.cache.maxAge:600}") long maxAgeSeconds,
+      @Value("${legacy.organisations.cache.expireAfterWriteMinutes:10}") long expireAfterWrite) {
+    this.organizationMapper = organizationMapper;
+    this.messageConverters = messageConverters;
+    this.gzipEnabled = gzipEnabled;
+    this.maxAgeSeconds = maxAgeSeconds;
+    this.bodies =
+        CacheBuilder.newBuilder().expireAfterWrite(expireAfterWrite, TimeUnit.MINUTES).build();
+    eventManager.register(this);
+  }
+
+  /**
+   * Returns the rendered body for the media type, or null if the media type is not supported. The
+   * gzipped variant is only returned if requested and the gzip compression is enabled.
+   */
+  public CachedBody get(String mediaType, boolean gzip) {
+    if (!MediaType.APPLICATION_XML_VALUE.equals(mediaType)
+        && !MediaType.APPLICATION_JSON_VALUE.equals(mediaType)) {
+      return null;
+    }
+
+    CachedBody body;
+    try {
+      body = bodies.get(mediaType, () -> createBody(render(MediaType.parseMediaType(mediaType))));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Error rendering the legacy organisations", e.getCause());
+    }
+
+    if (gzip && gzipEnabled) {
+      return body.getGzipped();
+    }
+    return body;
+  }
+
+  /** Max age in seconds that the HTTP caches can keep the responses. */
+  public long getMaxAgeSeconds() {
+    return maxAgeSeconds;
+  }
+
+  @Subscribe
+  public final <T> void created(CreateEvent<T> event) {
+    if (Organization.class.equals(event.getObjectClass())) {
+      invalidate();
+    }
+  }
+
+  @Subscribe
+  public final <T> void updated(UpdateEvent<T> event) {
+    if (Organization.class.equals(event.getObjectClass())) {
+      invalidate();
+    }
+  }
+
+  @Subscribe
+  public final <T> void deleted(DeleteEvent<T> event) {
+    if (Organization.class.equals(event.getObjectClass())) {
+      invalidate();
+    }
+  }
+
+  /**
+   * Evicts the bodies. If there is an active transaction the eviction is deferred until it
+   * commits, otherwise a concurrent request could render the bodies before the change is visible.
+   */
+  private void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              bodies.invalidateAll();
+            }
+          });
+    } else {
+      bodies.invalidateAll();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private byte[] render(MediaType mediaType) throws IOException {
+    LegacyOrganizationBriefResponseListWrapper organizations =
+        new LegacyOrganizationBriefResponseListWrapper(
+            organizationMapper.listLegacyOrganizationsBrief());
+
+    // the first converter that can write the body is the one that the handlers would use
+    for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+      if (converter.canWrite(organizations.getClass(), mediaType)) {
+        BufferedOutputMessage message = new BufferedOutputMessage();
+        ((HttpMessageConverter<Object>) converter).write(organizations, mediaType, message);
+        return message.body.toByteArray();
+      }
+    }
+    throw new IllegalStateException("No message converter can write " + mediaType);
+  }
+
+  private CachedBody createBody(byte[] body) {
+    String hash = Hashing.murmur3_128().hashBytes(body).toString();
+    CachedBody gzipped =
+        gzipEnabled ? new CachedBody(gzip(body), '"' + hash + "-gzip\"", true, null) : null;
+    return new CachedBody(body, '"' + hash + '"', false, gzipped);
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /** Output message that keeps the written body in memory. */
+  private static class BufferedOutputMessage implements HttpOutputMessage {
+
+    private final HttpHeaders headers = new HttpHeaders();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+
+  /** Rendered body together with its ETag. */
+  public static class CachedBody {
+
+    private final byte[] body;
+    private final String etag;
+    private final boolean gzipped;
+    private final CachedBody gzippedBody;
+
+    CachedBody(byte[] body, String etag, boolean gzipped, CachedBody gzippedBody) {
+      this.body = body;
+      this.etag = etag;
+      this.gzipped = gzipped;
+      this.gzippedBody = gzippedBody;
+    }
+
+    public byte[] getBody() {
+      return body;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    /** Whether the body is gzip encoded. */
+    public boolean isGzipped() {
+      return gzipped;
+    }
+
+    CachedBody getGzipped() {
+      return gzippedBody != null ? gzippedBody : this;
+    }
+  }
+}
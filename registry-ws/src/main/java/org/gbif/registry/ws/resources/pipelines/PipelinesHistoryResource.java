@@ -73,19 +73,36 @@ public class PipelinesHistoryResource implements PipelinesHistoryService {
     this.historyTrackingService = historyTrackingService;
   }
 
-  /** Lists the history of all pipelines. */
-  @GetMapping
   @Override
   public PagingResponse<PipelineProcess> history(Pageable pageable) {
     return historyTrackingService.history(pageable);
   }
 
+  /**
+   * Lists the history of all pipelines. The page can continue after the key of the last process of
+   * the previous page, and the count can be skipped.
+   */
+  @GetMapping
+  public PagingResponse<PipelineProcess> history(
+      @Nullable @RequestParam(value = "afterKey", required = false) Long afterKey,
+      @RequestParam(value = "count", defaultValue = "true") boolean count,
+      Pageable pageable) {
+    return historyTrackingService.history(null, afterKey, pageable, count);
+  }
+
+  @Override
+  public PagingResponse<PipelineProcess> history(UUID datasetKey, Pageable pageable) {
+    return historyTrackingService.history(datasetKey, pageable);
+  }
+
   /** Lists the history of a dataset. */
   @GetMapping("{datasetKey}")
-  @Override
   public PagingResponse<PipelineProcess> history(
-      @PathVariable("datasetKey") UUID datasetKey, Pageable pageable) {
-    return historyTrackingService.history(datasetKey, pageable);
+      @PathVariable("datasetKey") UUID datasetKey,
+      @Nullable @RequestParam(value = "afterKey", required = false) Long afterKey,
+      @RequestParam(value = "count", defaultValue = "true") boolean count,
+      Pageable pageable) {
+    return historyTrackingService.history(datasetKey, afterKey, pageable, count);
   }
 
   /** Gets the data of a {@link PipelineProcess}. */
@@ -257,6 +274,11 @@ public class PipelinesHistoryResource implements PipelinesHistoryService {
         interpretTypes);
   }
 
+  /**
+   * Searches the pipeline steps, most recently started first. The page can continue after the
+   * execution key and step type of the last result of the previous page, and the count can be
+   * skipped, which is cheaper for deep pages.
+   */
   @GetMapping("search")
   public PagingResponse<SearchResult> search(
       @Nullable @RequestParam(value = "datasetKey", required = false) UUID datasetKey,
@@ -268,6 +290,9 @@ public class PipelinesHistoryResource implements PipelinesHistoryService {
       @Nullable @RequestParam(value = "finishedMax", required = false) String finishedMaxAsString,
       @Nullable @RequestParam(value = "rerunReason", required = false) String rerunReason,
       @Nullable @RequestParam(value = "pipelinesVersion", required = false) String pipelinesVersion,
+      @Nullable @RequestParam(value = "afterExecutionKey", required = false) Long afterExecutionKey,
+      @Nullable @RequestParam(value = "afterStepType", required = false) StepType afterStepType,
+      @RequestParam(value = "count", defaultValue = "true") boolean count,
       Pageable page) {
 
     LocalDateTime startedMin = DateUtils.LOWER_BOUND_RANGE_PARSER.apply(startedMinAsString);
@@ -285,7 +310,10 @@ public class PipelinesHistoryResource implements PipelinesHistoryService {
         finishedMax,
         rerunReason,
         pipelinesVersion,
-        page);
+        afterExecutionKey,
+        afterStepType,
+        page,
+        count);
   }
 
   @PostMapping(
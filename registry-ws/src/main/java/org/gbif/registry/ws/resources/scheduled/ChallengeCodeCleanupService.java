@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources.scheduled;
+
+import org.gbif.registry.persistence.mapper.surety.ChallengeCodeMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes the expired challenge codes in bulk. The codes are only removed one by one when they are
+ * used, so the codes of password resets and email changes that are never confirmed, and the codes
+ * replaced by new ones, would pile up otherwise.
+ */
+@Service
+@Slf4j
+public class ChallengeCodeCleanupService {
+
+  private final ChallengeCodeMapper challengeCodeMapper;
+  private final Duration expiry;
+
+  @Autowired
+  public ChallengeCodeCleanupService(
+      ChallengeCodeMapper challengeCodeMapper,
+      @Value("${challengeCode.cleanup.expiryDays:30}") int expiryDays) {
+    this.challengeCodeMapper = challengeCodeMapper;
+    this.expiry = Duration.ofDays(expiryDays);
+  }
+
+  @Scheduled(cron = "${challengeCode.cleanup.cron:0 30 4 * * *}")
+  @Transactional
+  public void deleteExpiredChallengeCodes() {
+    Date createdBefore = Date.from(Instant.now().minus(expiry));
+    int deleted = challengeCodeMapper.deleteExpiredChallengeCodes(createdBefore);
+    log.info("Deleted {} challenge codes created before {}", deleted, createdBefore);
+  }
+}
@@ -20,17 +20,21 @@ import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
 import org.gbif.api.model.occurrence.search.OccurrenceSearchRequest;
 import org.gbif.api.vocabulary.TypeStatus;
 import org.gbif.occurrence.ws.client.OccurrenceWsSearchClient;
+import org.gbif.registry.persistence.mapper.collections.BaseMapper;
 import org.gbif.registry.persistence.mapper.collections.CollectionMapper;
 import org.gbif.registry.persistence.mapper.collections.InstitutionMapper;
-import org.gbif.registry.persistence.mapper.collections.params.CollectionSearchParams;
-import org.gbif.registry.persistence.mapper.collections.params.InstitutionSearchParams;
 import org.gbif.registry.persistence.mapper.params.Count;
 import org.gbif.ws.client.ClientBuilder;
 import org.gbif.ws.json.JacksonJsonObjectMapperProvider;
 
-import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -40,8 +44,22 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Updates the occurrence and type specimen counts of the GRSciColl institutions and collections.
+ *
+ * <p>The counts are taken from the occurrence facets and compared against the stored counts. Only
+ * the entities whose counts changed are written. The facets are requested for pages of entity keys
+ * taken in key order, instead of paging the facet values, since these are sorted by count and the
+ * counts can change between requests, which would skip or repeat keys.
+ */
 @Service
 @Endpoint(id = "grscicollCounts")
 @Slf4j
@@ -50,24 +68,46 @@ public class GRSciCollCountsUpdaterService {
   private final InstitutionMapper institutionMapper;
   private final CollectionMapper collectionMapper;
   private final OccurrenceWsSearchClient occurrenceWsSearchClient;
+  private final int keysPerRequest;
+  private final int updateBatchSize;
 
   @Autowired
   public GRSciCollCountsUpdaterService(
       InstitutionMapper institutionMapper,
       CollectionMapper collectionMapper,
-      @Value("${api.root.url}") String apiRootUrl) {
-    this.institutionMapper = institutionMapper;
-    this.collectionMapper = collectionMapper;
-    this.occurrenceWsSearchClient =
+      @Value("${api.root.url}") String apiRootUrl,
+      @Value("${grscicoll.counts.keysPerRequest:100}") int keysPerRequest,
+      @Value("${grscicoll.counts.updateBatchSize:1000}") int updateBatchSize) {
+    this(
+        institutionMapper,
+        collectionMapper,
         new ClientBuilder()
             .withObjectMapper(JacksonJsonObjectMapperProvider.getObjectMapperWithBuilderSupport())
             .withUrl(apiRootUrl)
-            .build(OccurrenceWsSearchClient.class);
+            .build(OccurrenceWsSearchClient.class),
+        keysPerRequest,
+        updateBatchSize);
+  }
+
+  @VisibleForTesting
+  GRSciCollCountsUpdaterService(
+      InstitutionMapper institutionMapper,
+      CollectionMapper collectionMapper,
+      OccurrenceWsSearchClient occurrenceWsSearchClient,
+      int keysPerRequest,
+      int updateBatchSize) {
+    Preconditions.checkArgument(keysPerRequest > 0, "The keys per request must be positive");
+    Preconditions.checkArgument(updateBatchSize > 0, "The update batch size must be positive");
+    this.institutionMapper = institutionMapper;
+    this.collectionMapper = collectionMapper;
+    this.occurrenceWsSearchClient = occurrenceWsSearchClient;
+    this.keysPerRequest = keysPerRequest;
+    this.updateBatchSize = updateBatchSize;
   }
 
   @WriteOperation
-  public void updateGRSciCollCountsEndpoint() {
-    updateCounts();
+  public UpdatedCounts updateGRSciCollCountsEndpoint() {
+    return updateCounts();
   }
 
   @Scheduled(cron = "${grscicoll.counts.cron:0 0 8 * * 1-5}")
@@ -76,87 +116,99 @@ public class GRSciCollCountsUpdaterService {
     updateCounts();
   }
 
-  private void updateCounts() {
+  @VisibleForTesting
+  UpdatedCounts updateCounts() {
     log.info("Updating GRSciColl counts");
 
-    List<UUID> institutionKeys = institutionMapper.getAllKeys();
-    List<UUID> collectionKeys = collectionMapper.getAllKeys();
-    long facetCount = Math.max(institutionKeys.size(), collectionKeys.size());
-
-    OccurrenceSearchRequest request = new OccurrenceSearchRequest();
-    request.setLimit(0);
-    request.addFacets(
-        OccurrenceSearchParameter.INSTITUTION_KEY, OccurrenceSearchParameter.COLLECTION_KEY);
-    request.setFacetLimit((int) facetCount);
-    SearchResponse<Occurrence, OccurrenceSearchParameter> occurrenceCountsResponse =
-        occurrenceWsSearchClient.search(request);
-
-    // all entities are initialised to zero because the occurrence response doesn't return values
-    // with count zero and if they used to have records we need to update them to zero
-    Map<UUID, Count> institutionsCounts =
-        institutionKeys.stream()
-            .collect(
-                Collectors.toMap(
-                    k -> k,
-                    k -> {
-                      Count c = new Count();
-                      c.setKey(k);
-                      c.setOccurrenceCount(0);
-                      c.setTypeSpecimenCount(0);
-                      return c;
-                    }));
-    Map<UUID, Count> collectionsCounts =
-        collectionKeys.stream()
-            .collect(
-                Collectors.toMap(
-                    k -> k,
-                    k -> {
-                      Count c = new Count();
-                      c.setKey(k);
-                      c.setOccurrenceCount(0);
-                      c.setTypeSpecimenCount(0);
-                      return c;
-                    }));
-
-    Function<OccurrenceSearchParameter, Map<UUID, Count>> mapCountsSupplier =
-        p -> {
-          if (p.equals(OccurrenceSearchParameter.INSTITUTION_KEY)) {
-            return institutionsCounts;
-          } else if (p.equals(OccurrenceSearchParameter.COLLECTION_KEY)) {
-            return collectionsCounts;
-          } else {
-            throw new IllegalStateException("Invalid facet: " + p);
-          }
-        };
-
-    for (Facet<OccurrenceSearchParameter> f : occurrenceCountsResponse.getFacets()) {
-      Map<UUID, Count> countsMap = mapCountsSupplier.apply(f.getField());
-      for (Facet.Count c : f.getCounts()) {
-        UUID key = UUID.fromString(c.getName());
-        Count count = countsMap.computeIfAbsent(key, k -> new Count());
-        count.setKey(key);
-        count.setOccurrenceCount(c.getCount());
+    int institutionsUpdated =
+        updateCounts(institutionMapper, OccurrenceSearchParameter.INSTITUTION_KEY);
+    int collectionsUpdated =
+        updateCounts(collectionMapper, OccurrenceSearchParameter.COLLECTION_KEY);
+
+    log.info(
+        "GRSciColl counts updated: {} institutions and {} collections changed",
+        institutionsUpdated,
+        collectionsUpdated);
+
+    return new UpdatedCounts(institutionsUpdated, collectionsUpdated);
+  }
+
+  private int updateCounts(BaseMapper<?> mapper, OccurrenceSearchParameter facetParameter) {
+    Map<UUID, Count> storedCounts = new HashMap<>();
+    // all entities start at zero because the facets don't return values with count zero and if
+    // they used to have records we need to update them to zero
+    Map<UUID, Count> newCounts = new HashMap<>();
+    for (Count stored : mapper.getAllCounts()) {
+      storedCounts.put(stored.getKey(), stored);
+      Count count = new Count();
+      count.setKey(stored.getKey());
+      newCounts.put(stored.getKey(), count);
+    }
+
+    List<UUID> keys = new ArrayList<>(newCounts.keySet());
+    Collections.sort(keys);
+    countFacet(
+        facetParameter, false, keys, (key, value) -> newCounts.get(key).setOccurrenceCount(value));
+    countFacet(
+        facetParameter,
+        true,
+        keys,
+        (key, value) -> newCounts.get(key).setTypeSpecimenCount(value));
+
+    List<Count> changedCounts = new ArrayList<>();
+    for (Count count : newCounts.values()) {
+      if (!count.equals(storedCounts.get(count.getKey()))) {
+        changedCounts.add(count);
       }
     }
 
-    // add type specimens to the request and make the call
-    Arrays.stream(TypeStatus.values())
-        .filter(t -> t != TypeStatus.NOTATYPE)
-        .forEach(request::addTypeStatusFilter);
-    SearchResponse<Occurrence, OccurrenceSearchParameter> typeSpecimenCountsResponse =
-        occurrenceWsSearchClient.search(request);
-
-    for (Facet<OccurrenceSearchParameter> f : typeSpecimenCountsResponse.getFacets()) {
-      Map<UUID, Count> countsMap = mapCountsSupplier.apply(f.getField());
-      for (Facet.Count c : f.getCounts()) {
-        UUID key = UUID.fromString(c.getName());
-        Count count = countsMap.computeIfAbsent(key, k -> new Count());
-        count.setKey(key);
-        count.setTypeSpecimenCount(c.getCount());
+    int updated = 0;
+    for (List<Count> batch : Lists.partition(changedCounts, updateBatchSize)) {
+      updated += mapper.updateCounts(batch);
+    }
+    return updated;
+  }
+
+  /**
+   * Counts the occurrences of the entities, filtering each request by a page of their keys, and
+   * passes every entity key and count to the consumer.
+   */
+  private void countFacet(
+      OccurrenceSearchParameter facetParameter,
+      boolean typeSpecimensOnly,
+      List<UUID> keys,
+      BiConsumer<UUID, Long> countConsumer) {
+    for (List<UUID> page : Lists.partition(keys, keysPerRequest)) {
+      OccurrenceSearchRequest request = new OccurrenceSearchRequest();
+      request.setLimit(0);
+      request.addFacets(facetParameter);
+      // the facet has at most one value per key in the filter
+      request.setFacetLimit(page.size());
+      page.forEach(k -> request.addParameter(facetParameter, k.toString()));
+      if (typeSpecimensOnly) {
+        Arrays.stream(TypeStatus.values())
+            .filter(t -> t != TypeStatus.NOTATYPE)
+            .forEach(request::addTypeStatusFilter);
+      }
+
+      SearchResponse<Occurrence, OccurrenceSearchParameter> response =
+          occurrenceWsSearchClient.search(request);
+      for (Facet<OccurrenceSearchParameter> f : response.getFacets()) {
+        if (f.getField() != facetParameter) {
+          continue;
+        }
+        for (Facet.Count c : f.getCounts()) {
+          countConsumer.accept(UUID.fromString(c.getName()), c.getCount());
+        }
       }
     }
+  }
 
-    institutionMapper.updateCounts(institutionsCounts.values());
-    collectionMapper.updateCounts(collectionsCounts.values());
+  /** Number of entities whose counts changed in an update. */
+  @Data
+  @AllArgsConstructor
+  public static class UpdatedCounts {
+    private int institutions;
+    private int collections;
   }
 }
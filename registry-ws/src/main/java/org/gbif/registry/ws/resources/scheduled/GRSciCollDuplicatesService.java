@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources.scheduled;
+
+import org.gbif.registry.service.collections.duplicates.DuplicatesUpdater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rebuilds the GRSciColl duplicates periodically, so any change that was missed by the incremental
+ * updates is eventually reconciled. It can also be triggered from the actuator endpoint.
+ *
+ * <p>It's only enabled in the instance that has the {@code grscicoll.duplicates.rebuild.enabled}
+ * property, so the rebuild doesn't run in every instance at the same time.
+ */
+@Service
+@Endpoint(id = "grscicollDuplicates")
+@ConditionalOnProperty("grscicoll.duplicates.rebuild.enabled")
+public class GRSciCollDuplicatesService {
+
+  private final DuplicatesUpdater duplicatesUpdater;
+
+  @Autowired
+  public GRSciCollDuplicatesService(DuplicatesUpdater duplicatesUpdater) {
+    this.duplicatesUpdater = duplicatesUpdater;
+  }
+
+  @WriteOperation
+  public void rebuildEndpoint() {
+    duplicatesUpdater.rebuildAll();
+  }
+
+  @Scheduled(cron = "${grscicoll.duplicates.rebuild.cron:0 0 3 * * SUN}")
+  public void scheduleRebuild() {
+    duplicatesUpdater.rebuildAll();
+  }
+}
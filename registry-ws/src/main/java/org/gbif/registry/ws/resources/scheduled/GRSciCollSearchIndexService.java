@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources.scheduled;
+
+import org.gbif.registry.search.dataset.service.collections.CollectionsEsIndexer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds the GRSciColl search index periodically, so any change that was missed by the realtime
+ * updates is eventually indexed. It can also be triggered from the actuator endpoint.
+ */
+@Service
+@Endpoint(id = "grscicollSearchIndex")
+@ConditionalOnProperty("grscicoll.search.es.enabled")
+@Slf4j
+public class GRSciCollSearchIndexService {
+
+  private final CollectionsEsIndexer indexer;
+
+  @Autowired
+  public GRSciCollSearchIndexService(CollectionsEsIndexer indexer) {
+    this.indexer = indexer;
+  }
+
+  @WriteOperation
+  public void reindexEndpoint() {
+    indexer.reindexAll();
+  }
+
+  @Scheduled(cron = "${grscicoll.search.es.reindexCron:0 0 3 * * *}")
+  public void scheduleReindex() {
+    log.info("Rebuilding the GRSciColl search index");
+    indexer.reindexAll();
+  }
+}
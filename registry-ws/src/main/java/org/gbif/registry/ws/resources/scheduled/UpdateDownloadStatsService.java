@@ -14,6 +14,7 @@
 package org.gbif.registry.ws.resources.scheduled;
 
 import org.gbif.registry.persistence.mapper.OccurrenceDownloadMapper;
+import org.gbif.registry.ws.resources.DownloadStatisticsCache;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -32,7 +33,11 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-/** Utility service to update download statistics. */
+/**
+ * Utility service to reconcile the download statistics. The statistics are updated incrementally
+ * when a download reaches a successful status, this service recomputes a whole month from scratch
+ * to fix any drift. It's idempotent.
+ */
 @Slf4j
 @Service
 @AllArgsConstructor
@@ -40,8 +45,10 @@ import lombok.extern.slf4j.Slf4j;
 public class UpdateDownloadStatsService {
 
   @Autowired private OccurrenceDownloadMapper occurrenceDownloadMapper;
+  @Autowired private DownloadStatisticsCache downloadStatisticsCache;
 
   @WriteOperation
+  @Transactional
   public void updateDownloadStatisticsEndpoint() {
     updateStats(LocalDateTime.now());
   }
@@ -72,9 +79,13 @@ public class UpdateDownloadStatsService {
     Date toDate = toDate(date, TemporalAdjusters.firstDayOfNextMonth());
 
     log.info("Updating downloads stats for [{},{}]", fromDate, toDate);
+    occurrenceDownloadMapper.deleteDownloadStats(fromDate, toDate);
+    occurrenceDownloadMapper.deleteDownloadUserStats(fromDate, toDate);
+    occurrenceDownloadMapper.deleteDownloadSourceStats(fromDate, toDate);
     occurrenceDownloadMapper.updateDownloadStats(fromDate, toDate);
     occurrenceDownloadMapper.updateDownloadUserStats(fromDate, toDate);
     occurrenceDownloadMapper.updateDownloadSourceStats(fromDate, toDate);
+    downloadStatisticsCache.invalidate();
     log.info("Downloads stats update done for [{},{}]", fromDate, toDate);
   }
 }
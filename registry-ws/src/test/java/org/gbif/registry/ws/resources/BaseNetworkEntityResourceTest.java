@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources;
+
+import org.gbif.api.model.registry.MachineTag;
+import org.gbif.api.model.registry.Network;
+import org.gbif.registry.domain.ws.MachineTagBulkRequest;
+import org.gbif.registry.events.ChangedComponentEvent;
+import org.gbif.registry.events.EventManager;
+import org.gbif.registry.persistence.mapper.MachineTagMapper;
+import org.gbif.registry.persistence.mapper.NetworkMapper;
+import org.gbif.registry.persistence.service.MapperServiceLocator;
+import org.gbif.registry.service.WithMyBatis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/** Tests the bulk machine tag operations of the network entities, using the network resource. */
+@ExtendWith(MockitoExtension.class)
+public class BaseNetworkEntityResourceTest {
+
+  private static final String NAMESPACE = "test-namespace.gbif.org";
+  private static final UUID KEY_1 = UUID.randomUUID();
+  private static final UUID KEY_2 = UUID.randomUUID();
+
+  @Mock private MapperServiceLocator mapperServiceLocator;
+  @Mock private NetworkMapper networkMapper;
+  @Mock private MachineTagMapper machineTagMapper;
+  @Mock private EventManager eventManager;
+  @Mock private WithMyBatis withMyBatis;
+
+  private NetworkResource resource;
+
+  @BeforeEach
+  public void setUp() {
+    when(mapperServiceLocator.getNetworkMapper()).thenReturn(networkMapper);
+    when(mapperServiceLocator.getMachineTagMapper()).thenReturn(machineTagMapper);
+    resource = new NetworkResource(mapperServiceLocator, eventManager, withMyBatis);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void testAddMachineTagsPostsOneEventPerEntityTagged() {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UsernamePasswordAuthenticationToken("editor", null));
+    MachineTagBulkRequest request =
+        request(Arrays.asList(KEY_1, KEY_2, UUID.randomUUID()), "name", "value");
+    when(machineTagMapper.addMachineTagToEntities(
+            "network", request.getKeys(), request.getMachineTag()))
+        .thenReturn(Arrays.asList(KEY_1, KEY_2));
+
+    assertEquals(Arrays.asList(KEY_1, KEY_2), resource.addMachineTags(request));
+    assertEquals("editor", request.getMachineTag().getCreatedBy());
+    assertEquals(Arrays.asList(KEY_1, KEY_2), postedKeys(2));
+  }
+
+  @Test
+  public void testDeleteMachineTagsPostsOneEventPerEntityChanged() {
+    MachineTagBulkRequest request = request(Arrays.asList(KEY_1, KEY_2), "name", "value");
+    // an entity with several matching machine tags is returned once per machine tag
+    when(machineTagMapper.deleteMachineTagsFromEntities(
+            "network", request.getKeys(), NAMESPACE, "name", "value"))
+        .thenReturn(Arrays.asList(KEY_1, KEY_1, KEY_2));
+
+    assertEquals(Arrays.asList(KEY_1, KEY_2), resource.deleteMachineTags(request));
+    assertEquals(Arrays.asList(KEY_1, KEY_2), postedKeys(2));
+  }
+
+  @Test
+  public void testDeleteMachineTagsIgnoresValueWithoutName() {
+    MachineTagBulkRequest request = request(Collections.singletonList(KEY_1), null, "value");
+    when(machineTagMapper.deleteMachineTagsFromEntities(
+            "network", request.getKeys(), NAMESPACE, null, null))
+        .thenReturn(Collections.emptyList());
+
+    assertTrue(resource.deleteMachineTags(request).isEmpty());
+    verifyNoInteractions(eventManager);
+  }
+
+  @Test
+  public void testDeleteMachineTagsRequiresNamespace() {
+    MachineTagBulkRequest request = request(Collections.singletonList(KEY_1), "name", null);
+    request.getMachineTag().setNamespace(null);
+    assertThrows(IllegalArgumentException.class, () -> resource.deleteMachineTags(request));
+
+    request.setMachineTag(null);
+    assertThrows(IllegalArgumentException.class, () -> resource.deleteMachineTags(request));
+
+    verifyNoInteractions(machineTagMapper, eventManager);
+  }
+
+  @Test
+  public void testDeleteMachineTagsKeysLimit() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> resource.deleteMachineTags(request(Collections.emptyList(), null, null)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            resource.deleteMachineTags(
+                request(randomKeys(MachineTagBulkRequest.MAX_KEYS + 1), null, null)));
+
+    verifyNoInteractions(machineTagMapper, eventManager);
+  }
+
+  @Test
+  public void testAddMachineTagsKeysLimit() {
+    // the limit of the additions is validated on the request body
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    assertTrue(
+        validator
+            .validate(request(randomKeys(MachineTagBulkRequest.MAX_KEYS), "name", "value"))
+            .isEmpty());
+    assertFalse(
+        validator
+            .validate(request(randomKeys(MachineTagBulkRequest.MAX_KEYS + 1), "name", "value"))
+            .isEmpty());
+    assertFalse(validator.validate(request(Collections.emptyList(), "name", "value")).isEmpty());
+  }
+
+  private List<UUID> postedKeys(int events) {
+    ArgumentCaptor<ChangedComponentEvent> captor =
+        ArgumentCaptor.forClass(ChangedComponentEvent.class);
+    verify(eventManager, times(events)).post(captor.capture());
+    captor
+        .getAllValues()
+        .forEach(
+            e -> {
+              assertEquals(Network.class, e.getTargetClass());
+              assertEquals(MachineTag.class, e.getComponentClass());
+            });
+    return captor.getAllValues().stream()
+        .map(ChangedComponentEvent::getTargetEntityKey)
+        .collect(Collectors.toList());
+  }
+
+  private static MachineTagBulkRequest request(List<UUID> keys, String name, String value) {
+    MachineTagBulkRequest request = new MachineTagBulkRequest();
+    request.setKeys(keys);
+    request.setMachineTag(new MachineTag(NAMESPACE, name, value));
+    return request;
+  }
+
+  private static List<UUID> randomKeys(int count) {
+    return Stream.generate(UUID::randomUUID).limit(count).collect(Collectors.toList());
+  }
+}
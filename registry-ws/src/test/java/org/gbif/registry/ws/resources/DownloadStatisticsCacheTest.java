@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Ticker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/** Tests the {@link DownloadStatisticsCache}. */
+public class DownloadStatisticsCacheTest {
+
+  @Test
+  public void cacheTest() {
+    DownloadStatisticsCache cache = new DownloadStatisticsCache(10, 60, 3600);
+    AtomicInteger loads = new AtomicInteger();
+
+    DownloadStatisticsCache.CachedStatistics first =
+        cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    DownloadStatisticsCache.CachedStatistics second =
+        cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    assertEquals(1, loads.get());
+    assertEquals(first.getEtag(), second.getEtag());
+    assertEquals(first.getStatistics(), second.getStatistics());
+
+    // same content in a different key produces the same ETag
+    assertEquals(first.getEtag(), cache.get("k2", () -> statistics(1)).getEtag());
+
+    // no transaction active, so the entries are evicted right away
+    cache.invalidate();
+    DownloadStatisticsCache.CachedStatistics third =
+        cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    assertEquals(2, loads.get());
+    assertNotEquals(first.getEtag(), third.getEtag());
+  }
+
+  @Test
+  public void invalidateDuringLoadTest() {
+    DownloadStatisticsCache cache = new DownloadStatisticsCache(10, 60, 3600);
+    AtomicInteger loads = new AtomicInteger();
+
+    // the data changes while the first load is running, so its result isn't kept
+    DownloadStatisticsCache.CachedStatistics loaded =
+        cache.get(
+            "k1",
+            () -> {
+              if (loads.incrementAndGet() == 1) {
+                cache.invalidate();
+              }
+              return statistics(loads.get());
+            });
+    assertEquals(2, loads.get());
+    assertEquals(statistics(2), loaded.getStatistics());
+
+    // the reloaded entry is cached
+    cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void expiryTest() {
+    AtomicLong nanos = new AtomicLong();
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        };
+    DownloadStatisticsCache cache = new DownloadStatisticsCache(10, 10, 600, ticker);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+    cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    assertEquals(1, loads.get());
+
+    // changes made through other instances are picked up once the entries expire
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    cache.get("k1", () -> statistics(loads.incrementAndGet()));
+    assertEquals(2, loads.get());
+  }
+
+  private static Map<Integer, Map<Integer, Long>> statistics(long count) {
+    Map<Integer, Map<Integer, Long>> statistics = new TreeMap<>();
+    statistics.put(2020, new TreeMap<>(Collections.singletonMap(1, count)));
+    return statistics;
+  }
+}
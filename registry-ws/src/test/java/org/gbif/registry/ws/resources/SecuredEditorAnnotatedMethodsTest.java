@@ -86,6 +86,8 @@ public class SecuredEditorAnnotatedMethodsTest {
   private static final String USERNAME = "user";
   private static final String NAMESPACE = "some-namescpace.gbif.org";
   private static final String TAG_NAME = "sometag";
+  private static final String CONTENT_BULK =
+      "{\"keys\": [\"" + KEY + "\"], \"machineTag\": {\"namespace\": \"" + NAMESPACE + "\"}}";
   private static final List<GrantedAuthority> ROLES_EDITOR_ONLY =
       Collections.singletonList(new SimpleGrantedAuthority(UserRoles.EDITOR_ROLE));
   private static final List<String> ALWAYS_FAILING_REQUESTS =
@@ -143,6 +145,10 @@ public class SecuredEditorAnnotatedMethodsTest {
       Pattern.compile(
           "^/(organization|dataset|installation|node|network)/[0-9a-f-]+/machineTag/[0-9]+$");
 
+  private static final Pattern MACHINE_TAG_BULK_RESOURCE =
+      Pattern.compile(
+          "^/(organization|dataset|installation|node|network)/machineTag/bulk(/delete)?$");
+
   @Mock private GbifHttpServletRequestWrapper mockRequest;
   @Mock private HttpServletResponse mockResponse;
   @Mock private FilterChain mockFilterChain;
@@ -313,6 +319,10 @@ public class SecuredEditorAnnotatedMethodsTest {
     } else if (MACHINE_TAG_RESOURCE_WITH_INT_KEY.matcher(requestPath).matches()) {
       when(mockEditorAuthService.allowedToDeleteMachineTag(USERNAME, KEY, SUB_KEY_INT))
           .thenReturn(isAllowedToModify);
+    } else if (MACHINE_TAG_BULK_RESOURCE.matcher(requestPath).matches()) {
+      when(mockEditorAuthService.allowedToModifyNamespace(USERNAME, NAMESPACE))
+          .thenReturn(isAllowedToModify);
+      when(mockRequest.getContent()).thenReturn(CONTENT_BULK);
     } else {
       throw new IllegalStateException("mock specific for " + requestPath + " not implemented");
     }
@@ -350,6 +360,9 @@ public class SecuredEditorAnnotatedMethodsTest {
       verify(mockRequest).getContent();
     } else if (MACHINE_TAG_RESOURCE_WITH_INT_KEY.matcher(requestPath).matches()) {
       verify(mockEditorAuthService).allowedToDeleteMachineTag(USERNAME, KEY, SUB_KEY_INT);
+    } else if (MACHINE_TAG_BULK_RESOURCE.matcher(requestPath).matches()) {
+      verify(mockEditorAuthService).allowedToModifyNamespace(USERNAME, NAMESPACE);
+      verify(mockRequest).getContent();
     } else {
       throw new IllegalStateException("verify specific for " + requestPath + " not implemented");
     }
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.registry.ws.resources.scheduled;
+
+import org.gbif.api.model.common.search.Facet;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchRequest;
+import org.gbif.occurrence.ws.client.OccurrenceWsSearchClient;
+import org.gbif.registry.persistence.mapper.collections.CollectionMapper;
+import org.gbif.registry.persistence.mapper.collections.InstitutionMapper;
+import org.gbif.registry.persistence.mapper.params.Count;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Tests the {@link GRSciCollCountsUpdaterService} against a stubbed occurrence search. */
+public class GRSciCollCountsUpdaterServiceTest {
+
+  private static final int KEYS_PER_REQUEST = 2;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void updateOnlyChangedCountsTest() {
+    UUID i1 = UUID.randomUUID();
+    UUID i2 = UUID.randomUUID();
+    UUID i3 = UUID.randomUUID();
+    UUID i4 = UUID.randomUUID();
+    UUID c1 = UUID.randomUUID();
+
+    InstitutionMapper institutionMapper = mock(InstitutionMapper.class);
+    when(institutionMapper.getAllCounts())
+        .thenReturn(
+            Arrays.asList(count(i1, 10, 1), count(i2, 5, 0), count(i3, 7, 0), count(i4, 3, 3)));
+    when(institutionMapper.updateCounts(anyCollection()))
+        .thenAnswer(inv -> ((Collection<Count>) inv.getArgument(0)).size());
+
+    CollectionMapper collectionMapper = mock(CollectionMapper.class);
+    when(collectionMapper.getAllCounts()).thenReturn(Collections.singletonList(count(c1, 4, 0)));
+
+    // i1 unchanged, i2 changed, i3 and i4 don't appear in the facets anymore. The occurrence
+    // facet also has a key of a deleted institution, which is never requested
+    Map<OccurrenceSearchParameter, List<Facet.Count>> occurrenceFacets = new HashMap<>();
+    occurrenceFacets.put(
+        OccurrenceSearchParameter.INSTITUTION_KEY,
+        Arrays.asList(
+            new Facet.Count(i1.toString(), 10L),
+            new Facet.Count(i2.toString(), 6L),
+            new Facet.Count(UUID.randomUUID().toString(), 2L)));
+    occurrenceFacets.put(
+        OccurrenceSearchParameter.COLLECTION_KEY,
+        Collections.singletonList(new Facet.Count(c1.toString(), 4L)));
+    Map<OccurrenceSearchParameter, List<Facet.Count>> typeSpecimenFacets = new HashMap<>();
+    typeSpecimenFacets.put(
+        OccurrenceSearchParameter.INSTITUTION_KEY,
+        Collections.singletonList(new Facet.Count(i1.toString(), 1L)));
+    typeSpecimenFacets.put(OccurrenceSearchParameter.COLLECTION_KEY, Collections.emptyList());
+
+    // the facet values are filtered by the keys of the request
+    List<String> requestedInstitutions = new ArrayList<>();
+    OccurrenceWsSearchClient searchClient = mock(OccurrenceWsSearchClient.class);
+    when(searchClient.search(any(OccurrenceSearchRequest.class)))
+        .thenAnswer(
+            inv -> {
+              OccurrenceSearchRequest request = inv.getArgument(0);
+              OccurrenceSearchParameter facet = request.getFacets().iterator().next();
+              Collection<String> keys = request.getParameters().get(facet);
+              assertTrue(keys.size() <= KEYS_PER_REQUEST);
+              assertEquals(keys.size(), request.getFacetLimit().intValue());
+              boolean typeSpecimens =
+                  request.getParameters().containsKey(OccurrenceSearchParameter.TYPE_STATUS);
+              if (facet == OccurrenceSearchParameter.INSTITUTION_KEY && !typeSpecimens) {
+                requestedInstitutions.addAll(keys);
+              }
+              List<Facet.Count> counts =
+                  (typeSpecimens ? typeSpecimenFacets : occurrenceFacets).get(facet);
+              return response(
+                  facet,
+                  counts.stream()
+                      .filter(c -> keys.contains(c.getName()))
+                      .collect(Collectors.toList()));
+            });
+
+    GRSciCollCountsUpdaterService service =
+        new GRSciCollCountsUpdaterService(
+            institutionMapper, collectionMapper, searchClient, KEYS_PER_REQUEST, 1);
+
+    GRSciCollCountsUpdaterService.UpdatedCounts updatedCounts = service.updateCounts();
+    assertEquals(3, updatedCounts.getInstitutions());
+    assertEquals(0, updatedCounts.getCollections());
+
+    // institutions: 2 pages of keys for each facet, collections: 1 + 1
+    verify(searchClient, times(6)).search(any(OccurrenceSearchRequest.class));
+
+    // every institution is requested once, in key order
+    List<String> expectedInstitutions =
+        Stream.of(i1, i2, i3, i4).sorted().map(UUID::toString).collect(Collectors.toList());
+    assertEquals(expectedInstitutions, requestedInstitutions);
+
+    // one statement per changed row since the batch size is 1
+    ArgumentCaptor<Collection<Count>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(institutionMapper, times(3)).updateCounts(captor.capture());
+    List<Count> written = new ArrayList<>();
+    captor.getAllValues().forEach(written::addAll);
+    Map<UUID, Count> writtenByKey =
+        written.stream().collect(Collectors.toMap(Count::getKey, c -> c));
+    assertEquals(count(i2, 6, 0), writtenByKey.get(i2));
+    assertEquals(count(i3, 0, 0), writtenByKey.get(i3));
+    assertEquals(count(i4, 0, 0), writtenByKey.get(i4));
+    assertFalse(writtenByKey.containsKey(i1));
+
+    verify(collectionMapper, never()).updateCounts(anyCollection());
+  }
+
+  private static Count count(UUID key, long occurrenceCount, long typeSpecimenCount) {
+    Count count = new Count();
+    count.setKey(key);
+    count.setOccurrenceCount(occurrenceCount);
+    count.setTypeSpecimenCount(typeSpecimenCount);
+    return count;
+  }
+
+  private static SearchResponse<Occurrence, OccurrenceSearchParameter> response(
+      OccurrenceSearchParameter parameter, List<Facet.Count> counts) {
+    Facet<OccurrenceSearchParameter> facet = new Facet<>(parameter);
+    facet.setCounts(new ArrayList<>(counts));
+    SearchResponse<Occurrence, OccurrenceSearchParameter> response = new SearchResponse<>();
+    response.setFacets(Collections.singletonList(facet));
+    return response;
+  }
+}